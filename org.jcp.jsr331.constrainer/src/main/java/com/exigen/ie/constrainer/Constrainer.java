@@ -18,6 +18,10 @@ import java.io.PrintStream;
 import java.io.Serializable;
 
 import com.exigen.ie.constrainer.impl.ConstraintAllDiff;
+import com.exigen.ie.constrainer.impl.ConstraintAllDiffBounds;
+import com.exigen.ie.constrainer.impl.ConstraintAllDiffDomain;
+import com.exigen.ie.constrainer.impl.ConstraintGCC;
+import com.exigen.ie.constrainer.impl.ConstraintTable;
 import com.exigen.ie.constrainer.impl.ExpressionFactoryImpl;
 import com.exigen.ie.constrainer.impl.FloatVarImpl;
 import com.exigen.ie.constrainer.impl.FloatVarImplTrace;
@@ -29,6 +33,7 @@ import com.exigen.ie.constrainer.impl.IntVarImpl;
 import com.exigen.ie.constrainer.impl.IntVarImplTrace;
 import com.exigen.ie.constrainer.impl.UndoFastVectorAdd;
 import com.exigen.ie.constrainer.impl.UndoStack;
+import com.exigen.ie.constrainer.impl.UndoableBits;
 import com.exigen.ie.constrainer.impl.UndoableFloatImpl;
 import com.exigen.ie.constrainer.impl.UndoableIntImpl;
 import com.exigen.ie.constrainer.impl.UndoableOnceImpl;
@@ -132,6 +137,7 @@ public final class Constrainer implements Serializable {
 	private long _time_limit = 0; // in milliseconds (0-no limit)
 	private int _max_number_of_solutions = 0;
 	private boolean _time_limit_exceeded = false; // == Changed: added by OR
+	private volatile boolean _interrupted = false;
 	private long _failures_limit = 0; // in failures (0-no limit)
 	static private double _precision = 1e-6;
 	private FastVector _choice_point_objects;
@@ -159,9 +165,12 @@ public final class Constrainer implements Serializable {
 	private long _number_of_notifications;
 
 	private boolean _print_information;
+
+	private boolean _primitive_trail;
 	private long _execution_time = 0;
 
 	private FastQueue _propagation_queue;
+	private FastQueue[] _constraint_queues;
 	// private FastStack _propagation_queue;
 
 	// private EventOfInterest _current_event_of_interest;
@@ -204,6 +213,9 @@ public final class Constrainer implements Serializable {
 		_goal_stack = new GoalStack(_reversibility_stack);
 
 		_propagation_queue = new FastQueue();
+		_constraint_queues = new FastQueue[ConstraintImpl.NUMBER_OF_PRIORITIES];
+		for (int i = 0; i < _constraint_queues.length; i++)
+			_constraint_queues[i] = new FastQueue();
 
 		// _goal_CP_marker = new GoalDisplay(this, "ChoicePointMarker");
 		// _undo_CP_marker = new UndoImpl();
@@ -232,6 +244,8 @@ public final class Constrainer implements Serializable {
 
 		_print_information = false;
 
+		_primitive_trail = true;
+
 		// _undo_subject_factory = new UndoSubjectFactory();
 
 		_expressionFactory = new ExpressionFactoryImpl(this);
@@ -881,6 +895,34 @@ public final class Constrainer implements Serializable {
 		_reversibility_stack.pushUndo(undo_object);
 	}
 
+	/**
+	 * Pushes the old value of the undoable integer onto the reversibility
+	 * stack without an undo-object. Used in the primitive trail mode.
+	 */
+	public void addIntUndo(UndoableIntImpl undoable, int value) {
+		_number_of_undos++;
+		_reversibility_stack.pushInt(undoable, value);
+	}
+
+	/**
+	 * Pushes the old state of the integer variable onto the reversibility
+	 * stack without an undo-object. Used in the primitive trail mode.
+	 */
+	public void addIntVarUndo(IntVarImpl var, int historyIndex, int publisherMask) {
+		_number_of_undos++;
+		_reversibility_stack.pushIntVar(var, historyIndex, publisherMask);
+		_active_undoable_once.push(var);
+	}
+
+	/**
+	 * Pushes the value whose bit should be cleared on backtracking onto the
+	 * reversibility stack without an undo-object. Used in the primitive trail mode.
+	 */
+	public void addBitUndo(UndoableBits bits, int value) {
+		_number_of_undos++;
+		_reversibility_stack.pushBit(bits, value);
+	}
+
 	/**
 	 * Adds an undo-object to the reversibility stack for a given undoable
 	 * object. Some undo-objects can be generated one time between choice
@@ -967,6 +1009,23 @@ public final class Constrainer implements Serializable {
 	public void setTimeLimitExceeded(boolean _time_limit_exceeded) {
 		this._time_limit_exceeded = _time_limit_exceeded;
 	}
+
+	/**
+	 * Asks the current search to stop at the next failure. This method
+	 * can be called from another thread while the search is running.
+	 * The search stays interrupted until resetInterrupted() is called.
+	 */
+	public void interrupt() {
+		_interrupted = true;
+	}
+
+	public boolean isInterrupted() {
+		return _interrupted;
+	}
+
+	public void resetInterrupted() {
+		_interrupted = false;
+	}
 	
 	public int getMaxNumberOfSolutions() {
 	    return _max_number_of_solutions;
@@ -1091,6 +1150,28 @@ public final class Constrainer implements Serializable {
 		return _show_internal_names;
 	}
 
+	/**
+	 * Controls the primitive trail mode (on by default). In this mode the
+	 * integer variables, undoable integers and undoable bits push their old
+	 * states onto the reversibility stack as primitive entries instead of
+	 * pooled undo-objects, and the backtracking restores them in one loop.
+	 * 
+	 * @param flag
+	 *            true to use the primitive trail.
+	 */
+	public void primitiveTrail(boolean flag) {
+		_primitive_trail = flag;
+	}
+
+	/**
+	 * Returns true if the primitive trail mode is on.
+	 * 
+	 * @return true if the primitive trail mode is on.
+	 */
+	public boolean primitiveTrail() {
+		return _primitive_trail;
+	}
+
 	/**
 	 * Changes variable names printing behaviour.
 	 * 
@@ -1633,6 +1714,66 @@ public final class Constrainer implements Serializable {
 		return new ConstraintAllDiff(intvars);
 	}
 
+	/**
+	 * Creates "All Different" constraint with bounds consistency: the bounds
+	 * of the variables are moved out of the Hall intervals.
+	 * 
+	 * @param intvars
+	 *            The array of constrained integer variables.
+	 * @return Constraint stating that all variables in the specified array must
+	 *         be different.
+	 */
+	public Constraint allDiffBounds(IntExpArray intvars) {
+		return new ConstraintAllDiffBounds(intvars);
+	}
+
+	/**
+	 * Creates "All Different" constraint with domain consistency: all values
+	 * that belong to no maximum matching between the variables and the values
+	 * are removed.
+	 * 
+	 * @param intvars
+	 *            The array of constrained integer variables.
+	 * @return Constraint stating that all variables in the specified array must
+	 *         be different.
+	 */
+	public Constraint allDiffDomain(IntExpArray intvars) {
+		return new ConstraintAllDiffDomain(intvars);
+	}
+
+	/**
+	 * Creates "Global Cardinality" constraint: for every i the number of
+	 * variables in "intvars" bound to values[i] is equal to cards[i].
+	 * 
+	 * @param intvars
+	 *            The array of constrained integer variables.
+	 * @param values
+	 *            The array of values.
+	 * @param cards
+	 *            The array of cardinalities of the values.
+	 * @return Constraint stating that the values occur in the specified array
+	 *         the given number of times.
+	 */
+	public Constraint globalCardinality(IntExpArray intvars, int[] values,
+			IntExpArray cards) {
+		return new ConstraintGCC(intvars, values, cards);
+	}
+
+	/**
+	 * Creates "Table" constraint.
+	 * 
+	 * @param intvars
+	 *            The array of constrained integer variables.
+	 * @param table
+	 *            The permitted tuples: every row contains one value for
+	 *            every variable.
+	 * @return Constraint stating that the tuple of the variables must be
+	 *         equal to one of the rows of the table.
+	 */
+	public Constraint table(IntExpArray intvars, int[][] table) {
+		return new ConstraintTable(intvars, table);
+	}
+
 	/*
 	 * ==============================================================================
 	 * EOF Special expressions, constraints, ...
@@ -1733,6 +1874,11 @@ public final class Constrainer implements Serializable {
 
 				clearPropagationQueue();
 
+				if (_interrupted) {
+					success = false;
+					break;
+				}
+
 				// checking out the time limit
 				if (_time_limit > 0) {
 					// long now_seconds = System.currentTimeMillis()/1000;  Changed by OR
@@ -1855,6 +2001,11 @@ public final class Constrainer implements Serializable {
 
 					clearPropagationQueue();
 
+					if (_interrupted) {
+						success = false;
+						break;
+					}
+
 					// check time limit
 					if (_time_limit > 0) {
 						// long now_seconds = System.currentTimeMillis()/1000;
@@ -2039,21 +2190,48 @@ public final class Constrainer implements Serializable {
 		_propagation_queue.push(subject);
 	}
 
+	/**
+	 * Adds the constraint to the queue of its priority. Used by
+	 * {@link ConstraintImpl#schedule()}.
+	 */
+	void schedule(ConstraintImpl constraint) {
+		_constraint_queues[constraint.priority()].push(constraint);
+	}
+
 	/**
 	 * Propagate events triggered by successful goal execution.
+	 * The events of the changed variables are processed first. When there are
+	 * no more events, the scheduled constraint with the lowest priority is
+	 * propagated, and its changes are processed before the next constraint.
 	 */
 	final public void propagate() throws Failure {
-		while (!_propagation_queue.empty()) {
-			Subject var = (Subject) _propagation_queue.pop();
-			var.inProcess(false);
-			var.propagate(); // may fail
-			// if (!var.inProcess())
-			// var.clearPropagationEvents();
+		while (true) {
+			while (!_propagation_queue.empty()) {
+				Subject var = (Subject) _propagation_queue.pop();
+				var.inProcess(false);
+				var.propagate(); // may fail
+				// if (!var.inProcess())
+				// var.clearPropagationEvents();
+			}
+			ConstraintImpl constraint = nextScheduledConstraint();
+			if (constraint == null)
+				return;
+			// the constraint may be scheduled again by its own changes
+			constraint.scheduled(false);
+			constraint.propagate(); // may fail
+		}
+	}
+
+	ConstraintImpl nextScheduledConstraint() {
+		for (int i = 0; i < _constraint_queues.length; i++) {
+			if (!_constraint_queues[i].empty())
+				return (ConstraintImpl) _constraint_queues[i].pop();
 		}
+		return null;
 	}
 
 	/**
-	 * Clears the propagation queue.
+	 * Clears the propagation queue and the scheduled constraints.
 	 */
 	void clearPropagationQueue() {
 		while (!_propagation_queue.empty()) {
@@ -2061,6 +2239,9 @@ public final class Constrainer implements Serializable {
 			var.inProcess(false);
 			// var.clearPropagationEvents();
 		}
+		ConstraintImpl constraint;
+		while ((constraint = nextScheduledConstraint()) != null)
+			constraint.scheduled(false);
 	}
 
 	/*
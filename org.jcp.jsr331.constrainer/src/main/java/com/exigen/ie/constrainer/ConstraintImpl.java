@@ -32,6 +32,18 @@ import com.exigen.ie.tools.Log;
  */
 public abstract class ConstraintImpl extends GoalImpl implements Constraint
 {
+  /**
+   * The priorities of the scheduled constraints (see {@link #schedule()}).
+   * The constraints with cheaper propagation have lower priorities and are
+   * propagated first.
+   */
+  public static final int PRIORITY_LINEAR = 0;
+  public static final int PRIORITY_QUADRATIC = 1;
+  public static final int PRIORITY_CUBIC = 2;
+  public static final int NUMBER_OF_PRIORITIES = 3;
+
+  private boolean _scheduled;
+
   /**
    * Constructor with a given constrainer.
    */
@@ -154,6 +166,52 @@ public abstract class ConstraintImpl extends GoalImpl implements Constraint
 //    Constraint second_if = this.or(constraint2);
 //    return first_if.and(second_if);
 //  }
+  /**
+   * Schedules the propagation of this constraint. The method {@link #propagate()}
+   * will be called once after the events of all changed variables are
+   * processed, no matter how many events scheduled it before.
+   * <p>
+   * Global constraints should schedule themselves from their observers
+   * instead of propagating on every event.
+   */
+  public void schedule()
+  {
+    if (!_scheduled)
+    {
+      _scheduled = true;
+      _constrainer.schedule(this);
+    }
+  }
+
+  /**
+   * Returns true if this constraint waits for its propagation.
+   */
+  public boolean scheduled()
+  {
+    return _scheduled;
+  }
+
+  final void scheduled(boolean flag)
+  {
+    _scheduled = flag;
+  }
+
+  /**
+   * Returns the priority of this constraint when it is scheduled.
+   */
+  public int priority()
+  {
+    return PRIORITY_LINEAR;
+  }
+
+  /**
+   * Propagates this constraint when it has been scheduled.
+   * The constraints that call {@link #schedule()} should redefine this method.
+   */
+  public void propagate() throws Failure
+  {
+  }
+
   public IntBoolExp toIntBoolExp(){return null;}
   public boolean isLinear(){return false;}
 } // ~ConstraintImpl
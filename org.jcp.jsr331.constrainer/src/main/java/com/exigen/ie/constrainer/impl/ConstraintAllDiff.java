@@ -58,7 +58,7 @@ public final class ConstraintAllDiff extends ConstraintImpl
 
       // set the bit
       _bits.bit(value,true);  //Debug.on();Debug.print(" "+this+":  "+_bits);Debug.off();
-      var.constrainer().addUndo(UndoBits.getUndo(_bits,value));
+      UndoBits.addUndo(_bits,value);
 
       // additional propagation
 
@@ -173,7 +173,7 @@ public final class ConstraintAllDiff extends ConstraintImpl
           constrainer().fail("Diff");
         }
         _bits.bit(value,true);
-        constrainer().addUndo(UndoBits.getUndo(_bits,value));
+        UndoBits.addUndo(_bits,value);
       }
     }
 
@@ -0,0 +1,305 @@
+package com.exigen.ie.constrainer.impl;
+import com.exigen.ie.constrainer.ConstraintImpl;
+import com.exigen.ie.constrainer.EventOfInterest;
+import com.exigen.ie.constrainer.Failure;
+import com.exigen.ie.constrainer.Goal;
+import com.exigen.ie.constrainer.IntExp;
+import com.exigen.ie.constrainer.IntExpArray;
+import com.exigen.ie.constrainer.Observer;
+import com.exigen.ie.constrainer.Subject;
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Copyright Exigen Group 1998, 1999, 2000
+ * 320 Amboy Ave., Metuchen, NJ, 08840, USA, www.exigengroup.com
+ *
+ * The copyright to the computer program(s) herein
+ * is the property of Exigen Group, USA. All rights reserved.
+ * The program(s) may be used and/or copied only with
+ * the written permission of Exigen Group
+ * or in accordance with the terms and conditions
+ * stipulated in the agreement/contract under which
+ * the program(s) have been supplied.
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+//
+//: ConstraintAllDiffBounds.java
+//
+/**
+ * An implementation of the constraint "All Different" with bounds consistency.
+ *
+ * Any two constrained integer expressions from the array (parameter of this
+ * constraint) should not be instantiated with the same value.
+ *
+ * The propagation detects Hall intervals (intervals of values that contain
+ * exactly as many values as there are expressions whose domains lie inside
+ * them) and moves the bounds of all other expressions out of these intervals.
+ * The algorithm of Lopez-Ortiz, Quimper, Tromp and van Beek runs in O(n log n)
+ * for the sorting and almost linear time for the filtering itself.
+ */
+public final class ConstraintAllDiffBounds extends ConstraintImpl
+{
+  // PRIVATE MEMBERS
+  private IntExpArray _intvars;
+  private int[] _mins;      // the bounds of the expressions at the propagation
+  private int[] _maxs;
+  private int[] _minsorted; // the expressions sorted by mins
+  private int[] _maxsorted; // the expressions sorted by maxs
+  private int[] _minrank;   // the index of min in _bounds
+  private int[] _maxrank;   // the index of max+1 in _bounds
+  private int[] _bounds;    // the sorted different values of mins and maxs+1
+  private int   _nb;        // the number of _bounds without sentinels
+  private int[] _t;         // tree links
+  private int[] _d;         // differences between critical capacities
+  private int[] _h;         // Hall interval links
+
+  //////////////////////////////////////// inner class AllDiffBoundsObserver
+  class AllDiffBoundsObserver extends Observer
+  {
+    public void update(Subject var, EventOfInterest interest)
+        throws Failure
+    {
+      schedule();
+    }
+
+    public int subscriberMask()
+    {
+      return EventOfInterest.MINMAX;
+    }
+
+    public String toString()
+    {
+      return "AllDiffBounds";
+    }
+
+    public Object master()
+    {
+      return ConstraintAllDiffBounds.this;
+    }
+
+  } //~ AllDiffBoundsObserver
+
+  public ConstraintAllDiffBounds(IntExpArray intvars)
+  {
+    super(intvars.constrainer(),"AllDiffBounds");
+    _intvars = intvars;
+    int n = intvars.size();
+    _mins = new int[n];
+    _maxs = new int[n];
+    _minsorted = new int[n];
+    _maxsorted = new int[n];
+    _minrank = new int[n];
+    _maxrank = new int[n];
+    for(int i=0; i < n; i++)
+    {
+      _minsorted[i] = i;
+      _maxsorted[i] = i;
+    }
+    _bounds = new int[2*n+2];
+    _t = new int[2*n+2];
+    _d = new int[2*n+2];
+    _h = new int[2*n+2];
+  }
+
+  public Goal execute() throws Failure
+  {
+    if (_intvars.size() == 0)
+      return null;
+
+    // initial propagation
+    propagate();
+
+    // attach observers
+    Observer observer = new AllDiffBoundsObserver();
+    for(int i=0; i<_intvars.size(); i++)
+      _intvars.get(i).attachObserver(observer);
+
+    return null;
+  } // end of execute
+
+  public int priority()
+  {
+    return PRIORITY_LINEAR;
+  }
+
+  public void propagate() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    for(int i=0; i < vars.length; i++)
+    {
+      _mins[i] = vars[i].min();
+      _maxs[i] = vars[i].max();
+    }
+    sortBounds();
+    filterLower();
+    filterUpper();
+  }
+
+  /**
+   * Sorts the expressions by their bounds and defines the ranks of the bounds.
+   * The previous order is kept between the calls, so the insertion sort
+   * usually has little to do.
+   */
+  void sortBounds()
+  {
+    int n = _mins.length;
+    sort(_minsorted, _mins);
+    sort(_maxsorted, _maxs);
+
+    int min = _mins[_minsorted[0]];
+    int max = _maxs[_maxsorted[0]] + 1;
+    int last = min - 2;
+    int nb = 0;
+    _bounds[0] = last;
+    int i = 0, j = 0;
+    while(true)
+    {
+      if (i < n && min <= max)
+      {
+        if (min != last)
+          _bounds[++nb] = last = min;
+        _minrank[_minsorted[i]] = nb;
+        if (++i < n)
+          min = _mins[_minsorted[i]];
+      }
+      else
+      {
+        if (max != last)
+          _bounds[++nb] = last = max;
+        _maxrank[_maxsorted[j]] = nb;
+        if (++j == n)
+          break;
+        max = _maxs[_maxsorted[j]] + 1;
+      }
+    }
+    _nb = nb;
+    _bounds[nb+1] = _bounds[nb] + 2;
+  }
+
+  static void sort(int[] order, int[] keys)
+  {
+    for(int i=1; i < order.length; i++)
+    {
+      int k = order[i];
+      int j = i - 1;
+      while(j >= 0 && keys[order[j]] > keys[k])
+      {
+        order[j+1] = order[j];
+        j--;
+      }
+      order[j+1] = k;
+    }
+  }
+
+  /**
+   * Increases the mins of the expressions.
+   */
+  void filterLower() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    int nb = _nb;
+    for(int i=1; i <= nb+1; i++)
+    {
+      _t[i] = _h[i] = i-1;
+      _d[i] = _bounds[i] - _bounds[i-1];
+    }
+    for(int i=0; i < vars.length; i++)
+    {
+      int k = _maxsorted[i];
+      int x = _minrank[k];
+      int y = _maxrank[k];
+      int z = pathmax(_t, x+1);
+      int j = _t[z];
+      if (--_d[z] == 0)
+      {
+        _t[z] = z+1;
+        z = pathmax(_t, _t[z]);
+        _t[z] = j;
+      }
+      pathset(_t, x+1, z, z);
+      if (_d[z] < _bounds[z] - _bounds[y])
+        constrainer().fail("AllDiffBounds");
+      if (_h[x] > x)
+      {
+        int w = pathmax(_h, _h[x]);
+        vars[k].setMin(_bounds[w]); // may fail
+        pathset(_h, x, w, w);
+      }
+      if (_d[z] == _bounds[z] - _bounds[y])
+      {
+        pathset(_h, _h[y], j-1, y); // mark the Hall interval
+        _h[y] = j-1;
+      }
+    }
+  }
+
+  /**
+   * Decreases the maxs of the expressions.
+   */
+  void filterUpper() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    int nb = _nb;
+    for(int i=0; i <= nb; i++)
+    {
+      _t[i] = _h[i] = i+1;
+      _d[i] = _bounds[i+1] - _bounds[i];
+    }
+    for(int i=vars.length-1; i >= 0; i--)
+    {
+      int k = _minsorted[i];
+      int x = _maxrank[k];
+      int y = _minrank[k];
+      int z = pathmin(_t, x-1);
+      int j = _t[z];
+      if (--_d[z] == 0)
+      {
+        _t[z] = z-1;
+        z = pathmin(_t, _t[z]);
+        _t[z] = j;
+      }
+      pathset(_t, x-1, z, z);
+      if (_d[z] < _bounds[y] - _bounds[z])
+        constrainer().fail("AllDiffBounds");
+      if (_h[x] < x)
+      {
+        int w = pathmin(_h, _h[x]);
+        vars[k].setMax(_bounds[w] - 1); // may fail
+        pathset(_h, x, w, w);
+      }
+      if (_d[z] == _bounds[y] - _bounds[z])
+      {
+        pathset(_h, _h[y], j+1, y); // mark the Hall interval
+        _h[y] = j+1;
+      }
+    }
+  }
+
+  static void pathset(int[] a, int start, int end, int to)
+  {
+    int next = start;
+    int prev = next;
+    while(prev != end)
+    {
+      next = a[prev];
+      a[prev] = to;
+      prev = next;
+    }
+  }
+
+  static int pathmin(int[] a, int i)
+  {
+    while(a[i] < i)
+      i = a[i];
+    return i;
+  }
+
+  static int pathmax(int[] a, int i)
+  {
+    while(a[i] > i)
+      i = a[i];
+    return i;
+  }
+
+} // ~ConstraintAllDiffBounds
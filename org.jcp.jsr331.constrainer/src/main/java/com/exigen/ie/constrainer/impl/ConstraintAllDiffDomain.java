@@ -0,0 +1,324 @@
+package com.exigen.ie.constrainer.impl;
+import com.exigen.ie.constrainer.ConstraintImpl;
+import com.exigen.ie.constrainer.EventOfInterest;
+import com.exigen.ie.constrainer.Failure;
+import com.exigen.ie.constrainer.Goal;
+import com.exigen.ie.constrainer.IntExp;
+import com.exigen.ie.constrainer.IntExpArray;
+import com.exigen.ie.constrainer.Observer;
+import com.exigen.ie.constrainer.Subject;
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Copyright Exigen Group 1998, 1999, 2000
+ * 320 Amboy Ave., Metuchen, NJ, 08840, USA, www.exigengroup.com
+ *
+ * The copyright to the computer program(s) herein
+ * is the property of Exigen Group, USA. All rights reserved.
+ * The program(s) may be used and/or copied only with
+ * the written permission of Exigen Group
+ * or in accordance with the terms and conditions
+ * stipulated in the agreement/contract under which
+ * the program(s) have been supplied.
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+//
+//: ConstraintAllDiffDomain.java
+//
+/**
+ * An implementation of the constraint "All Different" with domain consistency.
+ *
+ * Any two constrained integer expressions from the array (parameter of this
+ * constraint) should not be instantiated with the same value.
+ *
+ * The propagation (Regin, 1994) keeps a maximum matching between the
+ * expressions and the values. A value is removed from the domain of an
+ * expression when the edge between them belongs to no maximum matching, i.e.
+ * the edge is not matched, its ends are in different strongly connected
+ * components of the oriented value graph, and the value cannot reach a free
+ * value by an alternating path.
+ *
+ * The matching is not restored on backtracking: the domains only grow back,
+ * so the old matching stays valid, and only the expressions that lost their
+ * matched values are matched again by augmenting paths.
+ */
+public final class ConstraintAllDiffDomain extends ConstraintImpl
+{
+  // PRIVATE MEMBERS
+  private IntExpArray _intvars;
+  private int   _min;      // the minimal value
+  private int   _nvals;    // the number of values
+  private int[] _match;    // [var] -> matched value - _min or -1
+  private int[] _matchVar; // [value - _min] -> matched var or -1
+
+  // augmenting paths
+  private int[] _visited;  // [value - _min] -> stamp of the last visit
+  private int   _stamp;
+
+  // strongly connected components: vars, values and a sink
+  private int[] _index;
+  private int[] _lowlink;
+  private int[] _component;
+  private int[] _cursor;
+  private int[] _stack;
+  private int[] _calls;
+  private boolean[] _onStack;
+
+  //////////////////////////////////////// inner class AllDiffDomainObserver
+  class AllDiffDomainObserver extends Observer
+  {
+    public void update(Subject var, EventOfInterest interest)
+        throws Failure
+    {
+      schedule();
+    }
+
+    public int subscriberMask()
+    {
+      return EventOfInterest.ALL;
+    }
+
+    public String toString()
+    {
+      return "AllDiffDomain";
+    }
+
+    public Object master()
+    {
+      return ConstraintAllDiffDomain.this;
+    }
+
+  } //~ AllDiffDomainObserver
+
+  public ConstraintAllDiffDomain(IntExpArray intvars)
+  {
+    super(intvars.constrainer(),"AllDiffDomain");
+    _intvars = intvars;
+    int n = intvars.size();
+    _min = intvars.min();
+    _nvals = intvars.max() - _min + 1;
+    _match = new int[n];
+    _matchVar = new int[_nvals];
+    _visited = new int[_nvals];
+    java.util.Arrays.fill(_match, -1);
+    java.util.Arrays.fill(_matchVar, -1);
+
+    int nodes = n + _nvals + 1;
+    _index = new int[nodes];
+    _lowlink = new int[nodes];
+    _component = new int[nodes];
+    _cursor = new int[nodes];
+    _stack = new int[nodes];
+    _calls = new int[nodes];
+    _onStack = new boolean[nodes];
+  }
+
+  public Goal execute() throws Failure
+  {
+    // initial propagation
+    propagate();
+
+    // attach observers
+    Observer observer = new AllDiffDomainObserver();
+    for(int i=0; i<_intvars.size(); i++)
+      _intvars.get(i).attachObserver(observer);
+
+    return null;
+  } // end of execute
+
+  public int priority()
+  {
+    return PRIORITY_CUBIC;
+  }
+
+  public void propagate() throws Failure
+  {
+    repairMatching();
+    findComponents();
+    filter();
+  }
+
+  /**
+   * Unmatches the expressions that lost their values and matches them again.
+   */
+  void repairMatching() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    for(int i=0; i < vars.length; i++)
+    {
+      int v = _match[i];
+      if (v >= 0 && !vars[i].contains(v + _min))
+      {
+        _matchVar[v] = -1;
+        _match[i] = -1;
+      }
+    }
+    for(int i=0; i < vars.length; i++)
+    {
+      if (_match[i] < 0)
+      {
+        _stamp++;
+        if (!augment(i))
+          constrainer().fail("AllDiffDomain");
+      }
+    }
+  }
+
+  /**
+   * Looks for an alternating path from the var "i" to a free value.
+   */
+  boolean augment(int i)
+  {
+    IntExp var = _intvars.data()[i];
+    int max = var.max();
+    // a free value first
+    for(int value=var.min(); value <= max; value++)
+    {
+      int v = value - _min;
+      if (_matchVar[v] < 0 && var.contains(value))
+      {
+        _match[i] = v;
+        _matchVar[v] = i;
+        return true;
+      }
+    }
+    for(int value=var.min(); value <= max; value++)
+    {
+      int v = value - _min;
+      if (_visited[v] == _stamp || !var.contains(value))
+        continue;
+      _visited[v] = _stamp;
+      if (augment(_matchVar[v]))
+      {
+        _match[i] = v;
+        _matchVar[v] = i;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the strongly connected components of the graph where a var points
+   * to its not matched values, a matched value points to its var, a free value
+   * points to the sink, and the sink points to all matched values.
+   * Uses the iterative Tarjan's algorithm.
+   */
+  void findComponents()
+  {
+    IntExp[] vars = _intvars.data();
+    int nodes = _index.length;
+    java.util.Arrays.fill(_index, -1);
+    java.util.Arrays.fill(_cursor, 0);
+    for(int i=0; i < vars.length; i++)
+      _cursor[i] = vars[i].min();
+    int index = 0;
+    int ncomponents = 0;
+    int top = 0;
+    for(int root=0; root < nodes; root++)
+    {
+      if (_index[root] >= 0)
+        continue;
+      int calls = 0;
+      _calls[calls++] = root;
+      _index[root] = _lowlink[root] = index++;
+      _stack[top++] = root;
+      _onStack[root] = true;
+      while(calls > 0)
+      {
+        int node = _calls[calls-1];
+        int next = nextEdge(node);
+        if (next >= 0)
+        {
+          if (_index[next] < 0)
+          {
+            _index[next] = _lowlink[next] = index++;
+            _stack[top++] = next;
+            _onStack[next] = true;
+            _calls[calls++] = next;
+          }
+          else if (_onStack[next] && _index[next] < _lowlink[node])
+            _lowlink[node] = _index[next];
+          continue;
+        }
+        calls--;
+        if (calls > 0)
+        {
+          int parent = _calls[calls-1];
+          if (_lowlink[node] < _lowlink[parent])
+            _lowlink[parent] = _lowlink[node];
+        }
+        if (_lowlink[node] == _index[node])
+        {
+          int w;
+          do
+          {
+            w = _stack[--top];
+            _onStack[w] = false;
+            _component[w] = ncomponents;
+          }
+          while(w != node);
+          ncomponents++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the next successor of the node or -1.
+   */
+  int nextEdge(int node)
+  {
+    IntExp[] vars = _intvars.data();
+    int n = vars.length;
+    int sink = n + _nvals;
+    if (node < n)
+    {
+      IntExp var = vars[node];
+      int max = var.max();
+      while(_cursor[node] <= max)
+      {
+        int value = _cursor[node]++;
+        if (value - _min != _match[node] && var.contains(value))
+          return n + value - _min;
+      }
+      return -1;
+    }
+    if (node < sink)
+    {
+      if (_cursor[node]++ > 0)
+        return -1;
+      int v = _matchVar[node - n];
+      return v >= 0 ? v : sink;
+    }
+    while(_cursor[node] < _nvals)
+    {
+      int v = _cursor[node]++;
+      if (_matchVar[v] >= 0)
+        return n + v;
+    }
+    return -1;
+  }
+
+  /**
+   * Removes the values that belong to no maximum matching.
+   */
+  void filter() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    int n = vars.length;
+    for(int i=0; i < n; i++)
+    {
+      IntExp var = vars[i];
+      int max = var.max();
+      for(int value=var.min(); value <= max; value++)
+      {
+        int v = value - _min;
+        if (v != _match[i] && _component[i] != _component[n+v] && var.contains(value))
+          var.removeValue(value); // may fail
+      }
+    }
+  }
+
+} // ~ConstraintAllDiffDomain
@@ -56,7 +56,7 @@ public final class ConstraintElement extends ConstraintImpl
           if (i != index)
           {
             _bits.bit(i,true);
-            constrainer().addUndo(UndoBits.getUndo(_bits,i));
+            UndoBits.addUndo(_bits,i);
           }
         }
         _element.setValue(_array.get(index));
@@ -127,7 +127,7 @@ public final class ConstraintElement extends ConstraintImpl
             if (!_bits.bit(i))
             {
               _bits.bit(i,true);
-              constrainer().addUndo(UndoBits.getUndo(_bits,i));
+              UndoBits.addUndo(_bits,i);
             }
           }
         }
@@ -150,7 +150,7 @@ public final class ConstraintElement extends ConstraintImpl
           if (!_bits.bit(i))
           {
             _bits.bit(i,true);
-            constrainer().addUndo(UndoBits.getUndo(_bits,i));
+            UndoBits.addUndo(_bits,i);
           }
         }
       }
@@ -163,7 +163,7 @@ public final class ConstraintElement extends ConstraintImpl
           if (!_bits.bit(i))
           {
             _bits.bit(i,true);
-            constrainer().addUndo(UndoBits.getUndo(_bits,i));
+            UndoBits.addUndo(_bits,i);
           }
         }
       }
@@ -224,7 +224,7 @@ public final class ConstraintElement extends ConstraintImpl
     {
       int removed_value = _array.get(index);
       _bits.bit(index,true);
-      constrainer().addUndo(UndoBits.getUndo(_bits,index));
+      UndoBits.addUndo(_bits,index);
       int[] data = _array.data();
       for(int i=0; i<data.length; ++i)
       {
@@ -245,7 +245,7 @@ public final class ConstraintElement extends ConstraintImpl
         if (!_bits.bit(i))
         {
           _bits.bit(i,true);
-          constrainer().addUndo(UndoBits.getUndo(_bits,i));
+          UndoBits.addUndo(_bits,i);
         }
       }
     }
@@ -0,0 +1,480 @@
+package com.exigen.ie.constrainer.impl;
+import com.exigen.ie.constrainer.ConstraintImpl;
+import com.exigen.ie.constrainer.EventOfInterest;
+import com.exigen.ie.constrainer.Failure;
+import com.exigen.ie.constrainer.Goal;
+import com.exigen.ie.constrainer.IntExp;
+import com.exigen.ie.constrainer.IntExpArray;
+import com.exigen.ie.constrainer.Observer;
+import com.exigen.ie.constrainer.Subject;
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Copyright Exigen Group 1998, 1999, 2000
+ * 320 Amboy Ave., Metuchen, NJ, 08840, USA, www.exigengroup.com
+ *
+ * The copyright to the computer program(s) herein
+ * is the property of Exigen Group, USA. All rights reserved.
+ * The program(s) may be used and/or copied only with
+ * the written permission of Exigen Group
+ * or in accordance with the terms and conditions
+ * stipulated in the agreement/contract under which
+ * the program(s) have been supplied.
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+//
+//: ConstraintGCC.java
+//
+/**
+ * An implementation of the constraint "Global Cardinality".
+ *
+ * For every i the number of the constrained integer expressions from the
+ * array "vars" instantiated with the value values[i] is equal to cards[i].
+ * The other values may be taken by any number of expressions.
+ *
+ * The propagation (Regin, 1996) keeps a feasible flow from the expressions to
+ * the values where every value v gets between cards[v].min() and
+ * cards[v].max() units of flow. The flow is not restored on backtracking:
+ * only the expressions that lost their values and the values whose
+ * cardinalities became violated are repaired by augmenting paths.
+ * A value is supported by an expression when the edge between them carries
+ * the flow or both ends are in the same strongly connected component of
+ * the residual graph. All unsupported values are removed (domain consistency).
+ * The cardinalities are restricted by the numbers of expressions bound to and
+ * containing their values.
+ */
+public final class ConstraintGCC extends ConstraintImpl
+{
+  // PRIVATE MEMBERS
+  private IntExpArray _intvars;
+  private IntExpArray _cards;
+  private int[]       _values;
+
+  private int   _min;            // the minimal value
+  private int   _nvals;          // the number of values
+  private int[] _cardIndex;      // [value - _min] -> index in _values or -1
+  private int[] _low;            // [value - _min] -> min cardinality
+  private int[] _up;             // [value - _min] -> max cardinality
+
+  private int[] _flow;           // [var] -> value - _min or -1
+  private int[] _count;          // [value - _min] -> the number of vars
+
+  // augmenting paths
+  private int[] _visited;        // [var] -> stamp of the last visit
+  private int[] _visitedValue;   // [value - _min] -> stamp of the last visit
+  private int   _stamp;
+
+  // strongly connected components: vars, values and a sink
+  private int[] _index;
+  private int[] _lowlink;
+  private int[] _component;
+  private int[] _cursor;
+  private int[] _stack;
+  private int[] _calls;
+  private boolean[] _onStack;
+
+  //////////////////////////////////////////////// inner class GCCObserver
+  class GCCObserver extends Observer
+  {
+    int _mask;
+
+    GCCObserver(int mask)
+    {
+      _mask = mask;
+    }
+
+    public void update(Subject var, EventOfInterest interest)
+        throws Failure
+    {
+      schedule();
+    }
+
+    public int subscriberMask()
+    {
+      return _mask;
+    }
+
+    public String toString()
+    {
+      return "GCC";
+    }
+
+    public Object master()
+    {
+      return ConstraintGCC.this;
+    }
+
+  } //~ GCCObserver
+
+  public ConstraintGCC(IntExpArray intvars, int[] values, IntExpArray cards)
+  {
+    super(intvars.constrainer(),"GCC");
+    if (values.length != cards.size())
+      throw new RuntimeException("GCC: arrays values and cards should have the same size");
+    _intvars = intvars;
+    _values = values;
+    _cards = cards;
+
+    int n = intvars.size();
+    _min = intvars.min();
+    _nvals = intvars.max() - _min + 1;
+    _cardIndex = new int[_nvals];
+    java.util.Arrays.fill(_cardIndex, -1);
+    for(int i=0; i < values.length; i++)
+    {
+      int v = values[i] - _min;
+      if (v >= 0 && v < _nvals)
+        _cardIndex[v] = i;
+    }
+    _low = new int[_nvals];
+    _up = new int[_nvals];
+    _flow = new int[n];
+    java.util.Arrays.fill(_flow, -1);
+    _count = new int[_nvals];
+    _visited = new int[n];
+    _visitedValue = new int[_nvals];
+
+    int nodes = n + _nvals + 1;
+    _index = new int[nodes];
+    _lowlink = new int[nodes];
+    _component = new int[nodes];
+    _cursor = new int[nodes];
+    _stack = new int[nodes];
+    _calls = new int[nodes];
+    _onStack = new boolean[nodes];
+  }
+
+  public Goal execute() throws Failure
+  {
+    // the values that cannot be taken
+    for(int i=0; i < _values.length; i++)
+    {
+      int v = _values[i] - _min;
+      if (v < 0 || v >= _nvals)
+        _cards.get(i).setValue(0);
+    }
+
+    // initial propagation
+    propagate();
+
+    // attach observers
+    Observer observer = new GCCObserver(EventOfInterest.ALL);
+    for(int i=0; i<_intvars.size(); i++)
+      _intvars.get(i).attachObserver(observer);
+    Observer card_observer = new GCCObserver(EventOfInterest.MINMAX);
+    for(int i=0; i<_cards.size(); i++)
+      _cards.get(i).attachObserver(card_observer);
+
+    return null;
+  } // end of execute
+
+  public int priority()
+  {
+    return PRIORITY_CUBIC;
+  }
+
+  public void propagate() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    int n = vars.length;
+    for(int v=0; v < _nvals; v++)
+    {
+      int c = _cardIndex[v];
+      _low[v] = c < 0 ? 0 : Math.max(_cards.get(c).min(), 0);
+      _up[v] = c < 0 ? n : Math.min(_cards.get(c).max(), n);
+    }
+    repairFlow();
+    findComponents();
+    filter();
+    restrictCards();
+  }
+
+  /**
+   * Repairs the flow after the changes of domains and cardinalities.
+   */
+  void repairFlow() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    int n = vars.length;
+    // remove the flow through the removed values
+    for(int i=0; i < n; i++)
+    {
+      int v = _flow[i];
+      if (v >= 0 && !vars[i].contains(v + _min))
+        unassign(i);
+    }
+    // remove the flow over the max cardinalities
+    for(int i=0; i < n; i++)
+    {
+      int v = _flow[i];
+      if (v >= 0 && _count[v] > _up[v])
+        unassign(i);
+    }
+    // satisfy the min cardinalities
+    for(int v=0; v < _nvals; v++)
+    {
+      while(_count[v] < _low[v])
+      {
+        _stamp++;
+        if (!augmentValue(v))
+          constrainer().fail("GCC");
+      }
+    }
+    // assign all vars
+    for(int i=0; i < n; i++)
+    {
+      if (_flow[i] < 0)
+      {
+        _stamp++;
+        if (!augmentVar(i))
+          constrainer().fail("GCC");
+      }
+    }
+  }
+
+  void assign(int i, int v)
+  {
+    if (_flow[i] >= 0)
+      _count[_flow[i]]--;
+    _flow[i] = v;
+    _count[v]++;
+  }
+
+  void unassign(int i)
+  {
+    _count[_flow[i]]--;
+    _flow[i] = -1;
+  }
+
+  /**
+   * Looks for a path that brings one more var to the value "v"
+   * without violation of the min cardinalities of other values.
+   */
+  boolean augmentValue(int v)
+  {
+    IntExp[] vars = _intvars.data();
+    int value = v + _min;
+    _visitedValue[v] = _stamp;
+    for(int i=0; i < vars.length; i++)
+    {
+      int w = _flow[i];
+      if (w == v || _visited[i] == _stamp || !vars[i].contains(value))
+        continue;
+      if (w >= 0 && _count[w] <= _low[w] && _visitedValue[w] == _stamp)
+        continue;
+      _visited[i] = _stamp;
+      if (w < 0 || _count[w] > _low[w] || augmentValue(w))
+      {
+        assign(i, v);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Looks for a path from the var "i" to a value below its max cardinality.
+   */
+  boolean augmentVar(int i)
+  {
+    IntExp var = _intvars.data()[i];
+    _visited[i] = _stamp;
+    int max = var.max();
+    for(int value=var.min(); value <= max; value++)
+    {
+      int v = value - _min;
+      if (_count[v] < _up[v] && var.contains(value))
+      {
+        assign(i, v);
+        return true;
+      }
+    }
+    IntExp[] vars = _intvars.data();
+    for(int value=var.min(); value <= max; value++)
+    {
+      int v = value - _min;
+      if (v == _flow[i] || _visitedValue[v] == _stamp || !var.contains(value))
+        continue;
+      _visitedValue[v] = _stamp;
+      for(int j=0; j < vars.length; j++)
+      {
+        if (_flow[j] == v && _visited[j] != _stamp && augmentVar(j))
+        {
+          assign(i, v);
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the strongly connected components of the residual graph: a var
+   * points to its values without flow, a value points to its vars with flow,
+   * a value below its max cardinality points to the sink, and the sink points
+   * to the values above their min cardinalities.
+   * Uses the iterative Tarjan's algorithm.
+   */
+  void findComponents()
+  {
+    IntExp[] vars = _intvars.data();
+    int nodes = _index.length;
+    java.util.Arrays.fill(_index, -1);
+    java.util.Arrays.fill(_cursor, 0);
+    for(int i=0; i < vars.length; i++)
+      _cursor[i] = vars[i].min();
+    int index = 0;
+    int ncomponents = 0;
+    int top = 0;
+    for(int root=0; root < nodes; root++)
+    {
+      if (_index[root] >= 0)
+        continue;
+      int calls = 0;
+      _calls[calls++] = root;
+      _index[root] = _lowlink[root] = index++;
+      _stack[top++] = root;
+      _onStack[root] = true;
+      while(calls > 0)
+      {
+        int node = _calls[calls-1];
+        int next = nextEdge(node);
+        if (next >= 0)
+        {
+          if (_index[next] < 0)
+          {
+            _index[next] = _lowlink[next] = index++;
+            _stack[top++] = next;
+            _onStack[next] = true;
+            _calls[calls++] = next;
+          }
+          else if (_onStack[next] && _index[next] < _lowlink[node])
+            _lowlink[node] = _index[next];
+          continue;
+        }
+        calls--;
+        if (calls > 0)
+        {
+          int parent = _calls[calls-1];
+          if (_lowlink[node] < _lowlink[parent])
+            _lowlink[parent] = _lowlink[node];
+        }
+        if (_lowlink[node] == _index[node])
+        {
+          int w;
+          do
+          {
+            w = _stack[--top];
+            _onStack[w] = false;
+            _component[w] = ncomponents;
+          }
+          while(w != node);
+          ncomponents++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the next successor of the node or -1.
+   */
+  int nextEdge(int node)
+  {
+    IntExp[] vars = _intvars.data();
+    int n = vars.length;
+    int sink = n + _nvals;
+    if (node < n)
+    {
+      IntExp var = vars[node];
+      int max = var.max();
+      while(_cursor[node] <= max)
+      {
+        int value = _cursor[node]++;
+        if (value - _min != _flow[node] && var.contains(value))
+          return n + value - _min;
+      }
+      return -1;
+    }
+    if (node < sink)
+    {
+      int v = node - n;
+      while(_cursor[node] < n)
+      {
+        int i = _cursor[node]++;
+        if (_flow[i] == v)
+          return i;
+      }
+      if (_cursor[node] == n)
+      {
+        _cursor[node]++;
+        if (_count[v] < _up[v])
+          return sink;
+      }
+      return -1;
+    }
+    while(_cursor[node] < _nvals)
+    {
+      int v = _cursor[node]++;
+      if (_count[v] > _low[v])
+        return n + v;
+    }
+    return -1;
+  }
+
+  boolean supported(int i, int value)
+  {
+    int v = value - _min;
+    return v == _flow[i] || _component[i] == _component[_intvars.size() + v];
+  }
+
+  /**
+   * Removes the unsupported values.
+   */
+  void filter() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    for(int i=0; i < vars.length; i++)
+    {
+      IntExp var = vars[i];
+      int min = var.min();
+      int max = var.max();
+      for(int value=min; value <= max; value++)
+      {
+        if (!supported(i, value) && var.contains(value))
+          var.removeValue(value); // may fail
+      }
+    }
+  }
+
+  /**
+   * Restricts the cardinalities by the numbers of vars bound to their values
+   * and vars that contain their values.
+   */
+  void restrictCards() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    for(int c=0; c < _values.length; c++)
+    {
+      int value = _values[c];
+      int v = value - _min;
+      if (v < 0 || v >= _nvals)
+        continue;
+      int bound = 0;
+      int possible = 0;
+      for(int i=0; i < vars.length; i++)
+      {
+        if (vars[i].contains(value))
+        {
+          possible++;
+          if (vars[i].bound())
+            bound++;
+        }
+      }
+      IntExp card = _cards.get(c);
+      card.setMin(bound); // may fail
+      card.setMax(possible); // may fail
+    }
+  }
+
+} // ~ConstraintGCC
@@ -0,0 +1,267 @@
+package com.exigen.ie.constrainer.impl;
+import com.exigen.ie.constrainer.ConstraintImpl;
+import com.exigen.ie.constrainer.EventOfInterest;
+import com.exigen.ie.constrainer.Failure;
+import com.exigen.ie.constrainer.Goal;
+import com.exigen.ie.constrainer.IntExp;
+import com.exigen.ie.constrainer.IntExpArray;
+import com.exigen.ie.constrainer.Observer;
+import com.exigen.ie.constrainer.Subject;
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Copyright Exigen Group 1998, 1999, 2000
+ * 320 Amboy Ave., Metuchen, NJ, 08840, USA, www.exigengroup.com
+ *
+ * The copyright to the computer program(s) herein
+ * is the property of Exigen Group, USA. All rights reserved.
+ * The program(s) may be used and/or copied only with
+ * the written permission of Exigen Group
+ * or in accordance with the terms and conditions
+ * stipulated in the agreement/contract under which
+ * the program(s) have been supplied.
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+//
+//: ConstraintTable.java
+//
+/**
+ * An implementation of the constraint "Table" (compact table).
+ *
+ * The tuple of the constrained integer expressions from the array should be
+ * equal to one of the rows of the table (permitted tuples).
+ *
+ * The rows that are still valid for the current domains are kept in the
+ * undoable sparse bit set. For every variable and value the constraint
+ * keeps the bit set of rows that support this value. When a domain changes,
+ * the rows that support the removed values (or do not support the remaining
+ * values) are removed from the current rows, and then all values without
+ * supports among the current rows are removed from the domains.
+ * This propagation achieves generalized arc consistency.
+ */
+public final class ConstraintTable extends ConstraintImpl
+{
+  // PRIVATE MEMBERS
+  private IntExpArray        _intvars;
+  private int[][]            _table;
+  private UndoableSparseBits _rows;      // the current valid rows
+  private long[][][]         _supports;  // [var][value-offset] -> rows with this value or null
+  private int[][]            _residues;  // [var][value-offset] -> the last word with a support
+  private int[]              _offsets;   // the minimal value of every variable at posting
+
+  //////////////////////////////////////////////// inner class TableObserver
+  class TableObserver extends Observer
+  {
+    int _i;
+
+    TableObserver(int i)
+    {
+      _i = i;
+    }
+
+    public void update(Subject var, EventOfInterest event)
+        throws Failure
+    {
+      // the rows are updated on every event, the domains once for all events
+      if (updateRows(_i, (IntEvent)event))
+        schedule();
+    }
+
+    public int subscriberMask()
+    {
+      return EventOfInterest.ALL;
+    }
+
+    public String toString()
+    {
+      return "Table";
+    }
+
+    public Object master()
+    {
+      return ConstraintTable.this;
+    }
+
+  } //~ TableObserver
+
+  public ConstraintTable(IntExpArray intvars, int[][] table)
+  {
+    super(intvars.constrainer(),"Table");
+    _intvars = intvars;
+    _table = table;
+    for(int r=0; r < table.length; r++)
+    {
+      if (table[r].length != intvars.size())
+        throw new RuntimeException("Table: the row " + r + " should contain " + intvars.size() + " values");
+    }
+  }
+
+  public Goal execute() throws Failure
+  {
+    int n = _intvars.size();
+    IntExp[] vars = _intvars.data();
+
+    // the rows that are valid for the current domains
+    int[] valid = new int[_table.length];
+    int size = 0;
+    for(int r=0; r < _table.length; r++)
+    {
+      int[] row = _table[r];
+      boolean ok = true;
+      for(int i=0; i < n && ok; i++)
+        ok = vars[i].contains(row[i]);
+      if (ok)
+        valid[size++] = r;
+    }
+    if (size == 0)
+      constrainer().fail("Table");
+
+    _rows = new UndoableSparseBits(constrainer(), size);
+    int nwords = _rows.words();
+    _offsets = new int[n];
+    _supports = new long[n][][];
+    _residues = new int[n][];
+    for(int i=0; i < n; i++)
+    {
+      int min = vars[i].min();
+      _offsets[i] = min;
+      _supports[i] = new long[vars[i].max() - min + 1][];
+      _residues[i] = new int[vars[i].max() - min + 1];
+      for(int k=0; k < size; k++)
+      {
+        int v = _table[valid[k]][i] - min;
+        if (_supports[i][v] == null)
+        {
+          _supports[i][v] = new long[nwords];
+          _residues[i][v] = k / 64;
+        }
+        _supports[i][v][k / 64] |= 1L << (k % 64);
+      }
+    }
+
+    filterDomains();
+
+    // attach observers
+    for(int i=0; i < n; i++)
+      vars[i].attachObserver(new TableObserver(i));
+
+    return null;
+  } // end of execute
+
+  /**
+   * Removes the rows that became invalid after the event on the variable "i".
+   * @return true if the current rows have been changed
+   */
+  boolean updateRows(int i, IntEvent e) throws Failure
+  {
+    IntExp var = _intvars.data()[i];
+    long[][] supports = _supports[i];
+    int offset = _offsets[i];
+    int type = e.type();
+    int min = var.min();
+    int max = var.max();
+
+    // the number of removed values to process
+    int delta = 0;
+    if ((type & EventOfInterest.VALUE) == 0)
+    {
+      if ((type & EventOfInterest.MIN) != 0)
+        delta += e.min() - e.oldmin();
+      if ((type & EventOfInterest.MAX) != 0)
+        delta += e.oldmax() - e.max();
+      if ((type & EventOfInterest.REMOVE) != 0)
+        delta += e.numberOfRemoves();
+    }
+
+    _rows.clearMask();
+    if ((type & EventOfInterest.VALUE) != 0 || delta == 0 || delta > var.size())
+    {
+      // reset: the rows supporting the remaining values
+      for(int v=min; v <= max; v++)
+      {
+        if (var.contains(v))
+          addToMask(supports, v - offset);
+      }
+    }
+    else
+    {
+      // incremental: the rows supporting the removed values
+      if ((type & EventOfInterest.MIN) != 0)
+      {
+        for(int v=e.oldmin(); v < e.min(); v++)
+          addToMask(supports, v - offset);
+      }
+      if ((type & EventOfInterest.MAX) != 0)
+      {
+        for(int v=e.max()+1; v <= e.oldmax(); v++)
+          addToMask(supports, v - offset);
+      }
+      if ((type & EventOfInterest.REMOVE) != 0)
+      {
+        int nRemoves = e.numberOfRemoves();
+        for(int k=0; k < nRemoves; k++)
+          addToMask(supports, e.removed(k) - offset);
+      }
+      _rows.reverseMask();
+    }
+    boolean changed = _rows.intersectWithMask();
+    if (_rows.isEmpty())
+      constrainer().fail("Table");
+    return changed;
+  }
+
+  void addToMask(long[][] supports, int v)
+  {
+    if (v >= 0 && v < supports.length && supports[v] != null)
+      _rows.addToMask(supports[v]);
+  }
+
+  public int priority()
+  {
+    return PRIORITY_QUADRATIC;
+  }
+
+  public void propagate() throws Failure
+  {
+    filterDomains();
+  }
+
+  /**
+   * Removes all values without supports among the current rows.
+   */
+  void filterDomains() throws Failure
+  {
+    IntExp[] vars = _intvars.data();
+    for(int i=0; i < vars.length; i++)
+    {
+      IntExp var = vars[i];
+      long[][] supports = _supports[i];
+      int[] residues = _residues[i];
+      int offset = _offsets[i];
+      int min = var.min();
+      int max = var.max();
+      for(int v=min; v <= max; v++)
+      {
+        if (!var.contains(v))
+          continue;
+        int k = v - offset;
+        long[] support = (k >= 0 && k < supports.length) ? supports[k] : null;
+        if (support == null)
+        {
+          var.removeValue(v); // may fail
+          continue;
+        }
+        int r = residues[k];
+        if ((_rows.word(r) & support[r]) != 0L)
+          continue;
+        r = _rows.intersectIndex(support);
+        if (r < 0)
+          var.removeValue(v); // may fail
+        else
+          residues[k] = r;
+      }
+    }
+  }
+
+} // ~ConstraintTable
@@ -513,7 +513,7 @@ public final class IntExpElementAt extends IntExpImpl
     // Remove NOT-index values from _element
     for(int i = 0; i+1 < values.length; ++i)
     {
-      for(int value = values[i]+1; value < values[i+1]-1; ++value)
+      for(int value = values[i]+1; value < values[i+1]; ++value)
       {
         _element.removeValue(value);
       }
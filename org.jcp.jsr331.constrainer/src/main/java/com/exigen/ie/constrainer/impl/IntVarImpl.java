@@ -189,6 +189,32 @@ public class IntVarImpl extends IntExpImpl implements IntVar
     return UndoIntVarImpl.getIntVarUndo();
   }
 
+  /**
+   * In the primitive trail mode the history index and the publisher mask
+   * are pushed onto the reversibility stack instead of an undo-object.
+   */
+  public void addUndo()
+  {
+    Constrainer c = constrainer();
+    if (!c.primitiveTrail())
+      super.addUndo();
+    else if (!_undone)
+    {
+      _undone = true;
+      _history.saveUndo();
+      c.addIntVarUndo(this, _history.currentIndex(), publisherMask());
+    }
+  }
+
+  /**
+   * Restores the domain from the history and the publisher mask.
+   */
+  final void restore(int historyIndex, int publisherMask)
+  {
+    _history.restore(historyIndex);
+    forcePublisherMask(publisherMask);
+  }
+
    public void forceSize(int val)
    {
       _domain.forceSize(val);
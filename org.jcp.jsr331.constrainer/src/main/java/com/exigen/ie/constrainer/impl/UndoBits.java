@@ -1,4 +1,5 @@
 package com.exigen.ie.constrainer.impl;
+import com.exigen.ie.constrainer.Constrainer;
 import com.exigen.ie.constrainer.Undo;
 import com.exigen.ie.constrainer.UndoImpl;
 import com.exigen.ie.tools.Reusable;
@@ -29,6 +30,18 @@ public final class UndoBits extends UndoImpl
      return undo;
   }
 
+  /**
+   * Adds the undo clearing the bit of the value to the reversibility stack.
+   */
+  static void addUndo(UndoableBits bits, int value)
+  {
+    Constrainer c = bits.constrainer();
+    if (c.primitiveTrail())
+      c.addBitUndo(bits, value);
+    else
+      c.addUndo(getUndo(bits, value));
+  }
+
   private int _value;
 
   /**
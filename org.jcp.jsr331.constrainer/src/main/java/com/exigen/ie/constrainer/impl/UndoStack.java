@@ -1,21 +1,60 @@
 package com.exigen.ie.constrainer.impl;
 import com.exigen.ie.constrainer.Constrainer;
 import com.exigen.ie.constrainer.Undo;
-import com.exigen.ie.tools.FastStack;
 
 /**
  * An implementation of the undo stack.
+ *
+ * The stack is a trail of entries (object, kind, old value) kept in parallel
+ * arrays. An entry is either an undo-object or a primitive entry that
+ * restores a field of an undoable integer, of an integer variable or of
+ * the undoable bits without any undo-object. The backtracking restores
+ * the primitive entries in a tight loop and calls undo() for the undo-objects
+ * only. The primitive entries are used in the primitive trail mode
+ * (see Constrainer.primitiveTrail()).
  */
 public final class UndoStack implements java.io.Serializable
 {
-  private FastStack  _stack;
+  static final int UNDO = 0;   // an undo-object
+  static final int INT = 1;    // UndoableIntImpl: the old value
+  static final int INTVAR = 2; // IntVarImpl: the history index and the publisher mask
+  static final int BIT = 3;    // UndoableBits: the value whose bit is cleared
+
+  private Object[] _objects;
+  private int[]    _kinds;
+  private long[]   _values;
+  private int      _size;
 
  /**
   * Default constructor.
   */
   public UndoStack()
   {
-    _stack = new FastStack();
+    _objects = new Object[64];
+    _kinds = new int[64];
+    _values = new long[64];
+    _size = 0;
+  }
+
+  final void push(Object object, int kind, long value)
+  {
+    if (_size == _objects.length)
+    {
+      int capacity = _size * 2;
+      Object[] objects = new Object[capacity];
+      System.arraycopy(_objects, 0, objects, 0, _size);
+      _objects = objects;
+      int[] kinds = new int[capacity];
+      System.arraycopy(_kinds, 0, kinds, 0, _size);
+      _kinds = kinds;
+      long[] values = new long[capacity];
+      System.arraycopy(_values, 0, values, 0, _size);
+      _values = values;
+    }
+    _objects[_size] = object;
+    _kinds[_size] = kind;
+    _values[_size] = value;
+    _size++;
   }
 
   /**
@@ -23,15 +62,32 @@ public final class UndoStack implements java.io.Serializable
    */
   public void pushUndo(Undo undo)
   {
-    _stack.push(undo);
+    push(undo, UNDO, 0);
+  }
+
+  /**
+   * Pushes the old value of the undoable integer onto this stack.
+   */
+  public void pushInt(UndoableIntImpl undoable, int value)
+  {
+    push(undoable, INT, value);
   }
 
   /**
-   * Pops the undo from this stack and returns it.
+   * Pushes the old state of the integer variable onto this stack:
+   * the index of its domain history and its publisher mask.
    */
-  Undo popUndo()
+  public void pushIntVar(IntVarImpl var, int historyIndex, int publisherMask)
   {
-    return (Undo)_stack.pop();
+    push(var, INTVAR, ((long)historyIndex << 32) | (publisherMask & 0xFFFFFFFFL));
+  }
+
+  /**
+   * Pushes the value whose bit should be cleared on backtracking.
+   */
+  public void pushBit(UndoableBits bits, int value)
+  {
+    push(bits, BIT, value);
   }
 
   /**
@@ -39,7 +95,7 @@ public final class UndoStack implements java.io.Serializable
    */
   public boolean empty()
   {
-    return _stack.empty();
+    return _size == 0;
   }
 
   /**
@@ -47,7 +103,7 @@ public final class UndoStack implements java.io.Serializable
    */
   public int size()
   {
-    return _stack.size();
+    return _size;
   }
 
   /**
@@ -55,22 +111,49 @@ public final class UndoStack implements java.io.Serializable
    */
   public void backtrack(int newSize)
   {
-    int size = _stack.size();
+    int size = _size;
 
     if(newSize > size)
       Constrainer.abort("Internal error in UndoStack.backtrack(): newSize > size");
 
-    int nUndos = size - newSize;
-    while(nUndos-- > 0)
+    Object[] objects = _objects;
+    int[] kinds = _kinds;
+    long[] values = _values;
+    for(int i = size - 1; i >= newSize; i--)
     {
-      Undo undo_object = popUndo();
-      undo_object.undo();
+      Object object = objects[i];
+      objects[i] = null;
+      switch(kinds[i])
+      {
+        case INT:
+          ((UndoableIntImpl)object).forceValue((int)values[i]);
+          break;
+        case INTVAR:
+          long value = values[i];
+          ((IntVarImpl)object).restore((int)(value >> 32), (int)value);
+          break;
+        case BIT:
+          ((UndoableBits)object).bit((int)values[i], false);
+          break;
+        default:
+          ((Undo)object).undo();
+      }
     }
+    _size = newSize;
   }
 
   public String toString()
   {
-    return "UndoStack: " + _stack;
+    StringBuffer s = new StringBuffer("UndoStack: [");
+    for(int i=0; i < _size; i++)
+    {
+      if (i > 0)
+        s.append(", ");
+      s.append(_objects[i]);
+      if (_kinds[i] != UNDO)
+        s.append("=").append(_values[i]);
+    }
+    return s.append("]").toString();
   }
 
 } // ~UndoStack
@@ -41,7 +41,11 @@ public final class UndoableIntImpl extends UndoableImpl implements UndoableInt
   {
     if(value != _value)
     {
-      addUndo();
+      Constrainer c = constrainer();
+      if (c.primitiveTrail())
+        c.addIntUndo(this, _value);
+      else
+        addUndo();
       _value = value;
     }
   }
@@ -0,0 +1,267 @@
+package com.exigen.ie.constrainer.impl;
+import com.exigen.ie.constrainer.Constrainer;
+import com.exigen.ie.constrainer.Undo;
+import com.exigen.ie.constrainer.UndoImpl;
+import com.exigen.ie.constrainer.Undoable;
+import com.exigen.ie.tools.Reusable;
+import com.exigen.ie.tools.ReusableFactory;
+
+///////////////////////////////////////////////////////////////////////////////
+/*
+ * Copyright Exigen Group 1998, 1999, 2000
+ * 320 Amboy Ave., Metuchen, NJ, 08840, USA, www.exigengroup.com
+ *
+ * The copyright to the computer program(s) herein
+ * is the property of Exigen Group, USA. All rights reserved.
+ * The program(s) may be used and/or copied only with
+ * the written permission of Exigen Group
+ * or in accordance with the terms and conditions
+ * stipulated in the agreement/contract under which
+ * the program(s) have been supplied.
+ */
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * An implementation of the undoable sparse bit set.
+ *
+ * The bits are kept in 64-bit words. The indices of non-zero words are kept
+ * in the first (limit+1) elements of the array "index", so the operations
+ * below skip the words that became zero. A word is saved on the reversibility
+ * stack at most once between two choice points; the limit is restored by the
+ * undo object of this UndoableOnce object.
+ *
+ * @see ConstraintTable
+ */
+public final class UndoableSparseBits extends UndoableOnceImpl
+{
+  private long[] _words;
+  private int[]  _index;
+  private int    _limit;
+  private long[] _mask;
+
+  private int[]  _saved; // the stamp of the last saving of every word
+  private int    _stamp;
+
+  /**
+   * Creates a set of "size" bits where all bits are set.
+   */
+  public UndoableSparseBits(Constrainer c, int size)
+  {
+    super(c,"SparseBits");
+    int nwords = (size + 63) / 64;
+    _words = new long[nwords];
+    _index = new int[nwords];
+    _mask = new long[nwords];
+    _saved = new int[nwords];
+    for(int i=0; i < nwords; i++)
+    {
+      _words[i] = -1L;
+      _index[i] = i;
+    }
+    if (size % 64 != 0)
+      _words[nwords-1] = (1L << (size % 64)) - 1;
+    _limit = nwords - 1;
+    _stamp = 0;
+  }
+
+  /**
+   * Returns the number of words.
+   */
+  public int words()
+  {
+    return _words.length;
+  }
+
+  public long word(int i)
+  {
+    return _words[i];
+  }
+
+  public boolean isEmpty()
+  {
+    return _limit == -1;
+  }
+
+  public void clearMask()
+  {
+    for(int i=0; i <= _limit; i++)
+      _mask[_index[i]] = 0L;
+  }
+
+  public void reverseMask()
+  {
+    for(int i=0; i <= _limit; i++)
+    {
+      int offset = _index[i];
+      _mask[offset] = ~_mask[offset];
+    }
+  }
+
+  /**
+   * Adds the bits "m" to the mask (for non-zero words only).
+   */
+  public void addToMask(long[] m)
+  {
+    for(int i=0; i <= _limit; i++)
+    {
+      int offset = _index[i];
+      _mask[offset] |= m[offset];
+    }
+  }
+
+  /**
+   * Intersects this set with the mask.
+   * @return true if the set has been changed
+   */
+  public boolean intersectWithMask()
+  {
+    boolean changed = false;
+    for(int i=_limit; i >= 0; i--)
+    {
+      int offset = _index[i];
+      long w = _words[offset] & _mask[offset];
+      if (w != _words[offset])
+      {
+        save(offset);
+        _words[offset] = w;
+        changed = true;
+        if (w == 0L)
+        {
+          _index[i] = _index[_limit];
+          _index[_limit] = offset;
+          _limit--;
+        }
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns an index of a word where this set intersects with "m", or -1.
+   */
+  public int intersectIndex(long[] m)
+  {
+    for(int i=0; i <= _limit; i++)
+    {
+      int offset = _index[i];
+      if ((_words[offset] & m[offset]) != 0L)
+        return offset;
+    }
+    return -1;
+  }
+
+  /**
+   * Saves the word with the given offset and the limit (once between choice points).
+   */
+  void save(int offset)
+  {
+    if (!undone())
+    {
+      _stamp++;
+      addUndo();
+    }
+    if (_saved[offset] != _stamp)
+    {
+      _saved[offset] = _stamp;
+      constrainer().addUndo(UndoSparseBitsWord.getUndo(this,offset,_words[offset]));
+    }
+  }
+
+  public Undo createUndo()
+  {
+    return UndoSparseBits.getUndo();
+  }
+
+  /**
+   * Returns a String representation of this object.
+   * @return a String representation of this object.
+   */
+  public String toString()
+  {
+    return name() + "[" + (_limit+1) + " of " + _words.length + " words]";
+  }
+
+  /**
+   * Undo Class for the limit of UndoableSparseBits.
+   */
+  static class UndoSparseBits extends UndoImpl
+  {
+
+    static ReusableFactory _factory = new ReusableFactory()
+    {
+        protected Reusable createNewElement()
+        {
+          return new UndoSparseBits();
+        }
+
+    };
+
+    static UndoSparseBits getUndo()
+    {
+      return (UndoSparseBits) _factory.getElement();
+    }
+
+    private int _limit;
+
+    public void undoable(Undoable u)
+    {
+      super.undoable(u);
+      _limit = ((UndoableSparseBits) u)._limit;
+    }
+
+    public void undo()
+    {
+      UndoableSparseBits bits = (UndoableSparseBits) undoable();
+      bits._limit = _limit;
+      super.undo();
+    }
+
+    public String toString()
+    {
+      return "UndoSparseBits "+undoable();
+    }
+
+  } // ~UndoSparseBits
+
+  /**
+   * Undo Class for a word of UndoableSparseBits.
+   */
+  static class UndoSparseBitsWord extends UndoImpl
+  {
+
+    static ReusableFactory _factory = new ReusableFactory()
+    {
+        protected Reusable createNewElement()
+        {
+          return new UndoSparseBitsWord();
+        }
+
+    };
+
+    static UndoSparseBitsWord getUndo(UndoableSparseBits bits, int offset, long word)
+    {
+      UndoSparseBitsWord undo = (UndoSparseBitsWord) _factory.getElement();
+      undo.undoable(bits);
+      undo._offset = offset;
+      undo._word = word;
+      return undo;
+    }
+
+    private int  _offset;
+    private long _word;
+
+    public void undo()
+    {
+      UndoableSparseBits bits = (UndoableSparseBits) undoable();
+      bits._words[_offset] = _word;
+      super.undo();
+    }
+
+    public String toString()
+    {
+      return "UndoSparseBitsWord "+undoable()+" "+_offset;
+    }
+
+  } // ~UndoSparseBitsWord
+
+} // ~UndoableSparseBits
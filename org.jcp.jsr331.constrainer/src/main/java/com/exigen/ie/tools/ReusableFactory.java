@@ -25,13 +25,26 @@ import java.util.Vector;
  * Any concrete factory should implement the method: createNewElement().
  * This method returns a new uninitialized object for the conctete factory.
  *
+ * Factories are usually shared static singletons, so the unused objects are
+ * kept in a separate pool for every thread. Different Constrainer instances
+ * can search in parallel in different threads without any synchronization,
+ * and an object freed by a thread is reused only by the same thread.
+ *
  * @see Reusable
  */
 // "implements serializable"  was added by Eugeny Tseitlin 18.06.2003
 public abstract class ReusableFactory implements java.io.Serializable
 {
-  protected FastStack _reusables;
-  protected int       _element_counter;
+  /**
+   * The unused objects and the element counter of one thread.
+   */
+  static final class Pool
+  {
+    FastStack _reusables = new FastStack();
+    int       _element_counter = 0;
+  }
+
+  protected transient ThreadLocal _pools;
 
   /**
    * All created factories.
@@ -44,7 +57,7 @@ public abstract class ReusableFactory implements java.io.Serializable
   abstract protected Reusable createNewElement();
 
   /**
-   * Performs cleanup for all factories.
+   * Performs cleanup for all factories in the current thread.
    */
   public static void cleanAll()
   {
@@ -57,12 +70,11 @@ public abstract class ReusableFactory implements java.io.Serializable
   }
 
   /**
-   * Performs cleanup for this factory.
+   * Performs cleanup for this factory in the current thread.
    */
   public void cleanUp()
   {
-    _reusables = new FastStack();
-    _element_counter = 0;
+    _pools.remove();
   }
 
   /**
@@ -71,11 +83,28 @@ public abstract class ReusableFactory implements java.io.Serializable
    */
   public ReusableFactory()
   {
-    _reusables = new FastStack();
-    _element_counter = 0;
+    _pools = createPools();
     register();
   }
 
+  static ThreadLocal createPools()
+  {
+    return new ThreadLocal()
+    {
+      protected Object initialValue()
+      {
+        return new Pool();
+      }
+    };
+  }
+
+  private void readObject(java.io.ObjectInputStream in)
+    throws java.io.IOException, ClassNotFoundException
+  {
+    in.defaultReadObject();
+    _pools = createPools();
+  }
+
   /**
    * Registers this factory in all factories.
    */
@@ -86,43 +115,44 @@ public abstract class ReusableFactory implements java.io.Serializable
 
   /**
    * Returns next the uninitialized object for this factory.
-   * If there are unused objects one of them is returned.
+   * If there are unused objects in the current thread one of them is returned.
    * Otherwise new object is created and returned.
    */
-  public final synchronized Object getElement()
+  public final Object getElement()
   {
+    Pool pool = (Pool)_pools.get();
     Reusable result;
-    _element_counter++;
-    if (_reusables.empty())
+    pool._element_counter++;
+    if (pool._reusables.empty())
     {
       result = createNewElement();
       result.setFactory(this);
     }
     else
     {
-      result = (Reusable)_reusables.pop();
+      result = (Reusable)pool._reusables.pop();
     }
     return result;
   }
 
   /**
-   * Returns the number of elements returned by this factory.
+   * Returns the number of elements returned by this factory in the current thread.
    */
   public int getElementCount()
   {
-    return _element_counter;
+    return ((Pool)_pools.get())._element_counter;
   }
 
   /**
-   * Returns the unused object to the factory.
+   * Returns the unused object to the pool of the current thread.
    */
-  public final synchronized void freeElement(Reusable element)
+  public final void freeElement(Reusable element)
   {
-    _reusables.push(element);
+    ((Pool)_pools.get())._reusables.push(element);
   }
 
   /**
-   * Prints the statistics for all factories.
+   * Prints the statistics for all factories in the current thread.
    */
   public static synchronized void printStatistics(java.io.PrintStream s)
   {
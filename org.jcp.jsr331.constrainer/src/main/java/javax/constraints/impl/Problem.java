@@ -33,6 +33,8 @@ import javax.constraints.impl.constraint.Cardinality;
 import javax.constraints.impl.constraint.Element;
 import javax.constraints.impl.constraint.GlobalCardinality;
 import javax.constraints.impl.constraint.Linear;
+import javax.constraints.impl.constraint.Table;
+import javax.constraints.impl.search.goal.SolverWithGoals;
 
 import org.slf4j.LoggerFactory;
 
@@ -174,9 +176,12 @@ public class Problem extends AbstractProblem {
 	/**
 	 * This method takes a constraint's implementation and uses its own 
 	 * RI-specific post-method. 
+	 * A suspended search of a solution iterator or stream is closed first.
 	 * @throws RuntimeException if a failure happened during the posting
 	 */
 	public void post(Constraint constraint) {
+		if (isSolverCreated() && getSolver() instanceof SolverWithGoals)
+			((SolverWithGoals)getSolver()).closeSuspendedSearch();
 		try {
 			com.exigen.ie.constrainer.Constraint myConstraint = 
 				(com.exigen.ie.constrainer.Constraint)constraint.getImpl();
@@ -618,6 +623,21 @@ public class Problem extends AbstractProblem {
 		c.post();
 		return c;
 	}
+	
+	/**
+	 * Creates and posts a constraint stating that the tuple of the variables 
+	 * "vars" must be equal to one of the rows of the "tuples".
+	 * It is implemented by the Constrainer's compact-table constraint 
+	 * that keeps the valid rows in a reversible sparse bit set.
+	 * @param vars array of vars
+	 * @param tuples the permitted tuples
+	 * @return the posted constraint
+	 */
+	public Constraint postTable(Var[] vars, int[][] tuples) {
+		Constraint c = add(new Table(vars, tuples));
+		c.post();
+		return c;
+	}
 	
 
 	public Solver createSolver() {
@@ -13,6 +13,7 @@
 package javax.constraints.impl.constraint;
 
 
+import javax.constraints.ConsistencyLevel;
 import javax.constraints.Var;
 import javax.constraints.impl.Constraint;
 import javax.constraints.impl.Problem;
@@ -27,22 +28,49 @@ import com.exigen.ie.constrainer.IntExpArray;
  * must take different values from each other.
  * The RI should overload the method "defineNativeImpl" and 
  * may add its own additional constructors.
+ * 
+ * The method post(ConsistencyLevel) selects the propagation strength:
+ * BOUND uses Hall intervals, DOMAIN uses the matching-based filtering.
+ * The implementation is added to the constrainer only when it is posted,
+ * so the value-based implementation created by the constructor is not
+ * left in the constrainer when post(ConsistencyLevel) replaces it.
  */
 
 public class AllDifferent extends Constraint {
 
+	IntExpArray intvars;
+
 	public AllDifferent(Var[] vars) {
 		super(vars[0].getProblem(),"AllDiff");
 		Problem problem = (Problem) getProblem();
 		Constrainer constrainer = problem.getConstrainer();
-		IntExpArray intvars = new IntExpArray(constrainer,vars.length);
+		intvars = new IntExpArray(constrainer,vars.length);
 		for(int i=0; i<vars.length; i++) {
 			IntExp var = (IntExp)vars[i].getImpl();
 			intvars.set(var, i);
 		}
 
-		com.exigen.ie.constrainer.Constraint allDiff =
-			new com.exigen.ie.constrainer.impl.ConstraintAllDiff(intvars);
-		setImpl(constrainer.addConstraint(allDiff));
+		setImpl(new com.exigen.ie.constrainer.impl.ConstraintAllDiff(intvars));
+	}
+
+	public void post() {
+		Constrainer constrainer = ((Problem) getProblem()).getConstrainer();
+		constrainer.addConstraint((com.exigen.ie.constrainer.Constraint) getImpl());
+		super.post();
+	}
+
+	public void post(ConsistencyLevel consistencyLevel) {
+		Constrainer constrainer = ((Problem) getProblem()).getConstrainer();
+		switch (consistencyLevel) {
+		case BOUND:
+			setImpl(constrainer.allDiffBounds(intvars));
+			break;
+		case DOMAIN:
+			setImpl(constrainer.allDiffDomain(intvars));
+			break;
+		default:
+			break;
+		}
+		post();
 	}
 }
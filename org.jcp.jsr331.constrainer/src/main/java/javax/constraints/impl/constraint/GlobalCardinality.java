@@ -38,6 +38,10 @@ import com.exigen.ie.constrainer.IntExpArray;
  * This implementation should at least overload the method "post" to avoid
  * a primitive implementation from the super class
  *
+ * With the array "values" the constraint is implemented by the flow-based
+ * propagator of Constrainer with domain consistency. Constrainer has no
+ * separate bounds consistency algorithm, so post(ConsistencyLevel.BOUND)
+ * posts the same constraint.
  */
 
 public class GlobalCardinality extends javax.constraints.impl.Constraint {
@@ -101,8 +105,7 @@ public class GlobalCardinality extends javax.constraints.impl.Constraint {
 		IntExpArray cVars = problem.getExpArray(vars);		
 		IntExpArray cCardinalityVars = problem.getExpArray(cardVars);
 		try {
-			IntExpArray cards = constrainer.distribute(cVars,values);
-			Constraint newC = new ConstrainerIntExpArrayEq(cards,cCardinalityVars);
+			Constraint newC = constrainer.globalCardinality(cVars,values,cCardinalityVars);
 			setImpl(constrainer.addConstraint(newC));
 		} catch (Exception f) {
 			throw new RuntimeException(
@@ -144,22 +147,6 @@ public class GlobalCardinality extends javax.constraints.impl.Constraint {
 		}
 	}
 	
-	class ConstrainerIntExpArrayEq extends ConstraintImpl {
-		IntExpArray arr1, arr2;
-		
-		public ConstrainerIntExpArrayEq(IntExpArray arr1, IntExpArray arr2) {
-			super(arr1.elementAt(0).constrainer());
-			this.arr1 = arr1;
-			this.arr2 = arr2;
-		}
-		
-		public Goal execute() throws Failure {
-			for(int i= 0; i < arr1.size(); i++) {
-				constrainer().postConstraint(arr1.elementAt(i).eq(arr2.elementAt(i)));
-			}
-			return null;
-		}
-	}
 
 	
 }
@@ -0,0 +1,44 @@
+//================================================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1 
+// 
+// CONSTRAINER-BASED REFERENCE IMPLEMENTATION
+//
+// Copyright (c) Cork Constraint Computation Centre, 2010
+// University College Cork, Cork, Ireland, www.4c.ucc.ie
+// Constrainer is copyrighted by Exigen Group, USA.
+// 
+//================================================================
+package javax.constraints.impl.constraint;
+
+
+import javax.constraints.Var;
+import javax.constraints.impl.Constraint;
+import javax.constraints.impl.Problem;
+
+import com.exigen.ie.constrainer.Constrainer;
+import com.exigen.ie.constrainer.IntExp;
+import com.exigen.ie.constrainer.IntExpArray;
+
+/**
+ * This constraint states that the tuple of the variables "vars"
+ * must be equal to one of the rows of the "table" (permitted tuples).
+ * It is implemented by the Constrainer's compact-table constraint.
+ */
+
+public class Table extends Constraint {
+
+	public Table(Var[] vars, int[][] table) {
+		super(vars[0].getProblem(),"Table");
+		Problem problem = (Problem) getProblem();
+		Constrainer constrainer = problem.getConstrainer();
+		IntExpArray intvars = new IntExpArray(constrainer,vars.length);
+		for(int i=0; i<vars.length; i++) {
+			IntExp var = (IntExp)vars[i].getImpl();
+			intvars.set(var, i);
+		}
+
+		setImpl(constrainer.addConstraint(constrainer.table(intvars, table)));
+	}
+}
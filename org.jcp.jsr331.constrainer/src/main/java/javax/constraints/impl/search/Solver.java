@@ -255,6 +255,8 @@ public class Solver extends SolverWithGoals {
             return findOptimalSolutionDichotomize(objective, objectiveVar); 
         if (optimizationStrategy.equals(OptimizationStrategy.BASIC))
             return findOptimalSolutionBasic(objective, objectiveVar);
+        if (optimizationStrategy.equals(OptimizationStrategy.LNS))
+            return findOptimalSolutionLNS(objective, objectiveVar);
         // OptimizationStrategy.NATIVE
 		addObjective(objectiveVar);
 		javax.constraints.impl.Problem p = (javax.constraints.impl.Problem)getProblem();
@@ -417,6 +419,8 @@ public class Solver extends SolverWithGoals {
 //		log("Occupied memory: " + occupied_memory);
 		long executionTime = System.currentTimeMillis() - getSolverStartTime();
 		log("Execution time: " + executionTime + " msec");
+		if (getParallelSearch() != null)
+			getParallelSearch().logStats();
 	}
 	
 	public void trace(Var[] vars, PropagationEvent event) {
@@ -446,6 +450,12 @@ public class Solver extends SolverWithGoals {
 		p.getConstrainer().setTimeLimit(milliseconds);
 	}
 
+	public void interrupt() {
+		super.interrupt();
+		javax.constraints.impl.Problem p = (javax.constraints.impl.Problem)getProblem();
+		p.getConstrainer().interrupt();
+	}
+	
 	public void setMaxNumberOfSolutions(int maxNumberOfSolutions) {
 	    super.setMaxNumberOfSolutions(maxNumberOfSolutions);
 	    javax.constraints.impl.Problem p = (javax.constraints.impl.Problem)getProblem();
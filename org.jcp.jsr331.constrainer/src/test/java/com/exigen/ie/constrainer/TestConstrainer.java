@@ -23,5 +23,84 @@ public class TestConstrainer extends  TestCase{
 
   }
 
+  /**
+   * A constraint that counts its propagations and records their order.
+   */
+  static class ConstraintCounter extends ConstraintImpl
+  {
+    IntExpArray _vars;
+    int _priority;
+    int _propagations;
+    StringBuffer _order;
+
+    ConstraintCounter(IntExpArray vars, int priority, StringBuffer order)
+    {
+      super(vars.constrainer(), "Counter" + priority);
+      _vars = vars;
+      _priority = priority;
+      _order = order;
+    }
+
+    public Goal execute() throws Failure
+    {
+      Observer observer = new Observer()
+      {
+        public void update(Subject var, EventOfInterest interest) throws Failure
+        {
+          schedule();
+        }
+
+        public int subscriberMask()
+        {
+          return EventOfInterest.ALL;
+        }
+
+        public Object master()
+        {
+          return ConstraintCounter.this;
+        }
+      };
+      for (int i=0; i<_vars.size(); i++)
+        _vars.get(i).attachObserver(observer);
+      return null;
+    }
+
+    public int priority()
+    {
+      return _priority;
+    }
+
+    public void propagate() throws Failure
+    {
+      _propagations++;
+      _order.append(_priority);
+    }
+  }
+
+  public void testScheduledConstraints(){
+    IntExpArray vars = new IntExpArray(C, 4, 0, 10, "x");
+    StringBuffer order = new StringBuffer();
+    ConstraintCounter cubic = new ConstraintCounter(vars, ConstraintImpl.PRIORITY_CUBIC, order);
+    ConstraintCounter linear = new ConstraintCounter(vars, ConstraintImpl.PRIORITY_LINEAR, order);
+    try{
+      C.postConstraint(cubic);
+      C.postConstraint(linear);
+      for (int i=0; i<vars.size(); i++){
+        vars.get(i).setMin(i);
+        vars.get(i).setMax(10 - i);
+      }
+      C.propagate();
+    }
+    catch(Failure f){
+      fail("test failed!");
+    }
+    // all events are coalesced into one propagation per constraint, the cheaper first
+    assertEquals(1, linear._propagations);
+    assertEquals(1, cubic._propagations);
+    assertEquals("02", order.toString());
+    assertTrue(!linear.scheduled());
+  }
+
+
 
 }
\ No newline at end of file
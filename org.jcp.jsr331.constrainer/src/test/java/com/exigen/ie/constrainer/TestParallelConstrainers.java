@@ -0,0 +1,114 @@
+package com.exigen.ie.constrainer;
+
+import com.exigen.ie.tools.Reusable;
+import com.exigen.ie.tools.ReusableFactory;
+import com.exigen.ie.tools.ReusableImpl;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+/**
+ * Independent constrainers search in parallel threads using the shared
+ * reusable factories for undo objects and events.
+ */
+public class TestParallelConstrainers extends TestCase
+{
+  public TestParallelConstrainers(String name) { super(name); }
+
+  public static void main(String[] args)
+  {
+    TestRunner.run(new TestSuite(TestParallelConstrainers.class));
+  }
+
+  static int countQueens(int n) throws Failure
+  {
+    Constrainer C = new Constrainer("Queens " + n);
+    IntExpArray x = new IntExpArray(C, n, 0, n - 1, "x");
+    IntExpArray x1 = new IntExpArray(C, n);
+    IntExpArray x2 = new IntExpArray(C, n);
+    for (int i = 0; i < n; i++)
+    {
+      x1.set(x.elementAt(i).add(i), i);
+      x2.set(x.elementAt(i).sub(i), i);
+    }
+    C.postConstraint(C.allDiff(x));
+    C.postConstraint(C.allDiff(x1));
+    C.postConstraint(C.allDiff(x2));
+
+    final int[] counter = { 0 };
+    Goal count = new GoalImpl(C, "count")
+    {
+      public Goal execute() throws Failure
+      {
+        counter[0]++;
+        return new GoalFail(constrainer());
+      }
+    };
+    C.execute(new GoalAnd(new GoalGenerate(x), count));
+    return counter[0];
+  }
+
+  public void testParallelSearch() throws Exception
+  {
+    final int threads = 4;
+    final int[] results = new int[threads];
+    final Throwable[] errors = new Throwable[threads];
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++)
+    {
+      final int id = t;
+      workers[t] = new Thread()
+      {
+        public void run()
+        {
+          try
+          {
+            for (int i = 0; i < 5; i++)
+              results[id] = countQueens(8);
+          }
+          catch (Throwable e)
+          {
+            errors[id] = e;
+          }
+        }
+      };
+      workers[t].start();
+    }
+    for (int t = 0; t < threads; t++)
+    {
+      workers[t].join();
+      assertNull("thread " + t + " failed: " + errors[t], errors[t]);
+      assertEquals(92, results[t]);
+    }
+  }
+
+  public void testThreadConfinedPools() throws Exception
+  {
+    final ReusableFactory factory = new ReusableFactory()
+    {
+      protected Reusable createNewElement()
+      {
+        return new ReusableImpl();
+      }
+    };
+    Reusable r = (Reusable) factory.getElement();
+    assertSame(factory, r.getFactory());
+    r.free();
+
+    final Object[] other = new Object[1];
+    Thread thread = new Thread()
+    {
+      public void run()
+      {
+        other[0] = factory.getElement();
+      }
+    };
+    thread.start();
+    thread.join();
+
+    assertNotSame(r, other[0]);
+    assertSame(r, factory.getElement());
+  }
+
+} // ~TestParallelConstrainers
@@ -0,0 +1,156 @@
+package com.exigen.ie.constrainer.impl;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import com.exigen.ie.constrainer.Constrainer;
+import com.exigen.ie.constrainer.Constraint;
+import com.exigen.ie.constrainer.Failure;
+import com.exigen.ie.constrainer.Goal;
+import com.exigen.ie.constrainer.GoalAnd;
+import com.exigen.ie.constrainer.GoalFail;
+import com.exigen.ie.constrainer.GoalGenerate;
+import com.exigen.ie.constrainer.GoalImpl;
+import com.exigen.ie.constrainer.IntExpArray;
+
+public class TestConstraintAllDiffConsistency extends TestCase {
+
+  static final int VALUE = 0;
+  static final int BOUNDS = 1;
+  static final int DOMAIN = 2;
+
+  public TestConstraintAllDiffConsistency(String name) {super(name);}
+  public static void main(String[] args) {
+    TestRunner.run(new TestSuite(TestConstraintAllDiffConsistency.class));
+  }
+
+  static Constraint allDiff(IntExpArray vars, int level){
+    switch(level){
+      case BOUNDS: return new ConstraintAllDiffBounds(vars);
+      case DOMAIN: return new ConstraintAllDiffDomain(vars);
+      default: return new ConstraintAllDiff(vars);
+    }
+  }
+
+  public void testBounds(){
+    Constrainer C = new Constrainer("TestConstraintAllDiffBounds");
+    IntExpArray vars = new IntExpArray(C, 4, 1, 4, "x");
+    try{
+      vars.get(0).setMax(2);
+      vars.get(1).setMax(2);
+      vars.get(2).setMax(3);
+      C.postConstraint(allDiff(vars, BOUNDS));
+      // [1..2] is a Hall interval for x0,x1; then [1..3] for x0,x1,x2
+      assertEquals(3, vars.get(2).value());
+      assertEquals(4, vars.get(3).value());
+      assertEquals(2, vars.get(0).size());
+    }
+    catch(Failure f){
+      fail("test failed!");
+    }
+
+    C = new Constrainer("TestConstraintAllDiffBounds");
+    vars = new IntExpArray(C, 3, 1, 2, "x");
+    try{
+      C.postConstraint(allDiff(vars, BOUNDS));
+      fail("3 variables cannot take 2 values");
+    }
+    catch(Failure f){
+    }
+  }
+
+  public void testDomain(){
+    Constrainer C = new Constrainer("TestConstraintAllDiffDomain");
+    IntExpArray vars = new IntExpArray(C, 3, 1, 3, "x");
+    try{
+      vars.get(0).removeValue(2);
+      vars.get(1).removeValue(2);
+      C.postConstraint(allDiff(vars, BOUNDS));
+      C.propagate();
+      assertEquals(3, vars.get(2).size()); // no Hall interval among the bounds
+
+      C.postConstraint(allDiff(vars, DOMAIN));
+      assertEquals(2, vars.get(2).value()); // {1,3} is used by x0,x1
+      assertEquals(2, vars.get(0).size());
+
+      vars.get(0).setValue(3);
+      C.propagate();
+      assertEquals(1, vars.get(1).value());
+    }
+    catch(Failure f){
+      fail("test failed!");
+    }
+  }
+
+  /**
+   * Checks that all consistency levels find the same solutions, and that
+   * every value left by the domain consistency belongs to a solution.
+   */
+  public void testRandomDomains(){
+    Random random = new Random(331);
+    for (int k=0;k<30;k++){
+      int n = 3 + random.nextInt(4);
+      int max = n + random.nextInt(2);
+      int[][] removed = new int[n][];
+      for (int i=0;i<n;i++){
+        removed[i] = new int[random.nextInt(max/2+1)];
+        for (int j=0;j<removed[i].length;j++)
+          removed[i][j] = random.nextInt(max+1);
+      }
+      int[] counts = new int[3];
+      boolean[][][] supports = new boolean[3][][];
+      for (int level=VALUE;level<=DOMAIN;level++){
+        supports[level] = new boolean[n][max+1];
+        counts[level] = solutions(n, max, removed, level, supports[level], level == DOMAIN);
+      }
+      assertEquals(counts[VALUE], counts[BOUNDS]);
+      assertEquals(counts[VALUE], counts[DOMAIN]);
+      for (int i=0;i<n;i++){
+        for (int v=0;v<=max;v++)
+          assertEquals(supports[VALUE][i][v], supports[DOMAIN][i][v]);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of solutions. If "root" is true, "values" gets the domains
+   * after the initial propagation, otherwise "values" gets the values used by
+   * the solutions.
+   */
+  int solutions(int n, int max, int[][] removed, int level, final boolean[][] values, boolean root){
+    Constrainer C = new Constrainer("TestConstraintAllDiffConsistency");
+    final IntExpArray vars = new IntExpArray(C, n, 0, max, "x");
+    final int[] count = new int[1];
+    final boolean record = !root;
+    Goal solution = new GoalImpl(C){
+      public Goal execute() throws Failure {
+        for (int i=0;i<vars.size();i++){
+          if (record)
+            values[i][vars.get(i).value()] = true;
+        }
+        count[0]++;
+        return null;
+      }
+    };
+    try{
+      for (int i=0;i<n;i++){
+        for (int j=0;j<removed[i].length;j++)
+          vars.get(i).removeValue(removed[i][j]);
+      }
+      C.postConstraint(allDiff(vars, level));
+      if (root){
+        for (int i=0;i<n;i++){
+          for (int v=0;v<=max;v++)
+            values[i][v] = vars.get(i).contains(v);
+        }
+      }
+      C.execute(new GoalAnd(new GoalAnd(new GoalGenerate(vars), solution), new GoalFail(C)));
+    }
+    catch(Failure f){
+    }
+    return count[0];
+  }
+}
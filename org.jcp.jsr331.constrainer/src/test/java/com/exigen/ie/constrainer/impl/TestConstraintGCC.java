@@ -0,0 +1,150 @@
+package com.exigen.ie.constrainer.impl;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import com.exigen.ie.constrainer.Constrainer;
+import com.exigen.ie.constrainer.Failure;
+import com.exigen.ie.constrainer.Goal;
+import com.exigen.ie.constrainer.GoalAnd;
+import com.exigen.ie.constrainer.GoalFail;
+import com.exigen.ie.constrainer.GoalGenerate;
+import com.exigen.ie.constrainer.GoalImpl;
+import com.exigen.ie.constrainer.IntExpArray;
+
+public class TestConstraintGCC extends TestCase {
+
+  public TestConstraintGCC(String name) {super(name);}
+  public static void main(String[] args) {
+    TestRunner.run(new TestSuite(TestConstraintGCC.class));
+  }
+
+  public void testPropagation(){
+    Constrainer C = new Constrainer("TestConstraintGCC");
+    IntExpArray vars = new IntExpArray(C, 4, 0, 2, "x");
+    IntExpArray cards = new IntExpArray(C, 3, 0, 4, "card");
+    int[] values = {0, 1, 2};
+    try{
+      cards.get(0).setValue(2);
+      cards.get(1).setValue(2);
+      vars.get(0).setMax(1);
+      vars.get(1).removeValue(1);
+      vars.get(2).removeValue(1);
+      C.postConstraint(new ConstraintGCC(vars, values, cards));
+      // the value 2 cannot be used: the 4 vars take the values 0,0,1,1
+      assertEquals(0, cards.get(2).value());
+      assertEquals(0, vars.get(1).value());
+      assertEquals(0, vars.get(2).value());
+      assertEquals(1, vars.get(0).value());
+      assertEquals(1, vars.get(3).value());
+    }
+    catch(Failure f){
+      fail("test failed!");
+    }
+  }
+
+  public void testFailure(){
+    Constrainer C = new Constrainer("TestConstraintGCC");
+    IntExpArray vars = new IntExpArray(C, 3, 0, 1, "x");
+    IntExpArray cards = new IntExpArray(C, 2, 0, 1, "card");
+    try{
+      C.postConstraint(new ConstraintGCC(vars, new int[]{0, 1}, cards));
+      fail("3 variables cannot take 2 values at most once");
+    }
+    catch(Failure f){
+    }
+  }
+
+  /**
+   * Compares the solutions of the propagator with the solutions of the
+   * constraint checked on the ground assignments, and checks that every
+   * value left by the propagation belongs to a solution.
+   */
+  public void testRandom(){
+    Random random = new Random(331);
+    for (int k=0;k<40;k++){
+      int n = 3 + random.nextInt(3);
+      int max = 2 + random.nextInt(3);
+      int[] values = new int[1 + random.nextInt(max)];
+      for (int i=0;i<values.length;i++)
+        values[i] = i + random.nextInt(2);
+      int[] cardMin = new int[values.length];
+      int[] cardMax = new int[values.length];
+      for (int i=0;i<values.length;i++){
+        cardMin[i] = random.nextInt(2);
+        cardMax[i] = cardMin[i] + random.nextInt(3);
+      }
+      int[] removed = new int[n];
+      for (int i=0;i<n;i++)
+        removed[i] = random.nextInt(max+2);
+
+      boolean[][] expected = new boolean[n][max+1];
+      boolean[][] root = new boolean[n][max+1];
+      int count = solutions(n, max, values, cardMin, cardMax, removed, false, expected, null);
+      assertEquals(count, solutions(n, max, values, cardMin, cardMax, removed, true, null, root));
+      for (int i=0;i<n;i++){
+        for (int v=0;v<=max;v++)
+          assertEquals(expected[i][v], root[i][v]);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of solutions: without "post" the constraint is checked
+   * on the ground assignments, with "post" the propagator is posted.
+   */
+  int solutions(int n, int max, final int[] values, final int[] cardMin, final int[] cardMax,
+                int[] removed, final boolean post, final boolean[][] used, boolean[][] root){
+    Constrainer C = new Constrainer("TestConstraintGCC");
+    final IntExpArray vars = new IntExpArray(C, n, 0, max, "x");
+    final int[] count = new int[1];
+    Goal solution = new GoalImpl(C){
+      public Goal execute() throws Failure {
+        if (!post){
+          for (int c=0;c<values.length;c++){
+            int occurrences = 0;
+            for (int i=0;i<vars.size();i++){
+              if (vars.get(i).value() == values[c])
+                occurrences++;
+            }
+            if (occurrences < cardMin[c] || occurrences > cardMax[c])
+              return null;
+          }
+        }
+        for (int i=0;i<vars.size();i++){
+          if (used != null)
+            used[i][vars.get(i).value()] = true;
+        }
+        count[0]++;
+        return null;
+      }
+    };
+    try{
+      for (int i=0;i<n;i++){
+        if (removed[i] <= max && i % 2 == 0)
+          vars.get(i).removeValue(removed[i]);
+      }
+      if (post){
+        IntExpArray cards = new IntExpArray(C, values.length, 0, n, "card");
+        for (int c=0;c<values.length;c++){
+          cards.get(c).setMin(cardMin[c]);
+          cards.get(c).setMax(cardMax[c]);
+        }
+        C.postConstraint(new ConstraintGCC(vars, values, cards));
+      }
+      if (root != null){
+        for (int i=0;i<n;i++){
+          for (int v=0;v<=max;v++)
+            root[i][v] = vars.get(i).contains(v);
+        }
+      }
+      C.execute(new GoalAnd(new GoalAnd(new GoalGenerate(vars), solution), new GoalFail(C)));
+    }
+    catch(Failure f){
+    }
+    return count[0];
+  }
+}
@@ -0,0 +1,116 @@
+package com.exigen.ie.constrainer.impl;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import com.exigen.ie.constrainer.Constrainer;
+import com.exigen.ie.constrainer.Failure;
+import com.exigen.ie.constrainer.Goal;
+import com.exigen.ie.constrainer.GoalAnd;
+import com.exigen.ie.constrainer.GoalFail;
+import com.exigen.ie.constrainer.GoalGenerate;
+import com.exigen.ie.constrainer.GoalImpl;
+import com.exigen.ie.constrainer.IntExpArray;
+
+public class TestConstraintTable extends TestCase {
+
+  public TestConstraintTable(String name) {super(name);}
+  public static void main(String[] args) {
+    TestRunner.run(new TestSuite(TestConstraintTable.class));
+  }
+
+  static String tuple(int[] row){
+    StringBuffer buf = new StringBuffer();
+    for (int i=0;i<row.length;i++)
+      buf.append(row[i]).append(' ');
+    return buf.toString();
+  }
+
+  /**
+   * Generates all solutions and compares them with the rows of the table.
+   */
+  void checkAllSolutions(int nvars, int max, int nrows, long seed){
+    Constrainer C = new Constrainer("TestConstraintTable");
+    Random random = new Random(seed);
+    int[][] table = new int[nrows][nvars];
+    Set<String> expected = new HashSet<String>();
+    for (int r=0;r<nrows;r++){
+      for (int i=0;i<nvars;i++)
+        table[r][i] = random.nextInt(max+2) - 1; // some values are out of the domains
+      boolean inside = true;
+      for (int i=0;i<nvars;i++)
+        inside &= table[r][i] >= 0 && table[r][i] <= max;
+      if (inside)
+        expected.add(tuple(table[r]));
+    }
+
+    final IntExpArray vars = new IntExpArray(C, nvars, 0, max, "x");
+    final Set<String> found = new HashSet<String>();
+    final int[] count = new int[1];
+    Goal record = new GoalImpl(C){
+      public Goal execute() throws Failure {
+        int[] row = new int[vars.size()];
+        for (int i=0;i<row.length;i++)
+          row[i] = vars.get(i).value();
+        found.add(tuple(row));
+        count[0]++;
+        return null;
+      }
+    };
+    try{
+      C.postConstraint(C.table(vars, table));
+      C.execute(new GoalAnd(new GoalAnd(new GoalGenerate(vars), record), new GoalFail(C)));
+    }
+    catch(Failure f){
+      assertTrue(expected.isEmpty());
+    }
+    assertEquals(expected, found);
+    assertEquals(expected.size(), count[0]);
+  }
+
+  public void testAllSolutions(){
+    checkAllSolutions(3, 4, 20, 1);
+    checkAllSolutions(4, 5, 300, 2); // several words
+    checkAllSolutions(5, 3, 1000, 3);
+  }
+
+  public void testPropagation(){
+    Constrainer C = new Constrainer("TestConstraintTable");
+    IntExpArray vars = new IntExpArray(C, 3, 0, 4, "x");
+    int[][] table = { {0,0,1}, {1,1,2}, {1,2,3}, {3,3,3} };
+    try{
+      C.postConstraint(C.table(vars, table));
+      assertEquals(3, vars.get(0).size());
+      assertFalse(vars.get(2).contains(0));
+      assertFalse(vars.get(2).contains(4));
+
+      vars.get(1).removeValue(0);
+      vars.get(2).removeValue(3);
+      C.propagate();
+      assertTrue(vars.get(0).bound());
+      assertEquals(1, vars.get(0).value());
+      assertEquals(1, vars.get(1).value());
+      assertEquals(2, vars.get(2).value());
+    }
+    catch(Failure f){
+      fail("test failed!");
+    }
+  }
+
+  public void testFailure(){
+    Constrainer C = new Constrainer("TestConstraintTable");
+    IntExpArray vars = new IntExpArray(C, 2, 0, 1, "x");
+    int[][] table = { {2,0}, {0,2} };
+    try{
+      C.postConstraint(C.table(vars, table));
+      fail("the table has no valid rows");
+    }
+    catch(Failure f){
+    }
+  }
+}
@@ -197,5 +197,22 @@ public class TestIntExpElementAt extends TestCase {
     }
   }
 
+  public void testRepeatedValues(){
+    // the value 4 is a hole of one value, and 0 occurs at two indexes
+    int[] array = {0, 1, 2, 3, 5, 0};
+    IntArray intarray = new IntArray(C, array);
+    IntVar cursor = C.addIntVar(0, array.length-1, "cursor", IntVar.DOMAIN_BIT_FAST);
+    IntExp elemAt = new IntExpElementAt(intarray, cursor);
+    assertEquals(5, elemAt.size());
+    assertTrue(!elemAt.contains(4));
+    try{
+      elemAt.setValue(0);
+      C.propagate();
+    }catch(Failure f){fail("test failed due to incorrect behaviour of IntExp.setValue(int)");}
+    assertEquals(2, cursor.size());
+    assertTrue(cursor.contains(0));
+    assertTrue(cursor.contains(5));
+  }
+
 
 }
\ No newline at end of file
@@ -6,6 +6,11 @@ import junit.textui.TestRunner;
 
 import com.exigen.ie.constrainer.Constrainer;
 import com.exigen.ie.constrainer.Failure;
+import com.exigen.ie.constrainer.Goal;
+import com.exigen.ie.constrainer.GoalAnd;
+import com.exigen.ie.constrainer.GoalFail;
+import com.exigen.ie.constrainer.GoalGenerate;
+import com.exigen.ie.constrainer.GoalImpl;
 import com.exigen.ie.constrainer.IntExp;
 import com.exigen.ie.constrainer.IntExpArray;
 import com.exigen.ie.constrainer.IntVar;
@@ -93,4 +98,72 @@ public class TestUndoStack extends TestCase {
 
   }
 
-}
\ No newline at end of file
+  public void testPrimitiveTrail(){
+    UndoStack undos = new UndoStack();
+    IntVarImpl var = (IntVarImpl)C.addIntVar(0, 9, IntVar.DOMAIN_BIT_FAST);
+    UndoableIntImpl undoableInt = new UndoableIntImpl(C, 5);
+    UndoableBits bits = new UndoableBits(C, 0, 9);
+
+    var.history().saveUndo();
+    undos.pushIntVar(var, var.history().currentIndex(), var.publisherMask());
+    undos.pushInt(undoableInt, undoableInt.value());
+    bits.bit(3, true);
+    undos.pushBit(bits, 3);
+    int size = undos.size();
+    undoableInt.forceValue(7);
+    try{
+      var.setMin(4);
+      var.removeValue(6);
+      var.propagate();
+    }catch(Failure f){fail("test failed");}
+    undos.pushInt(undoableInt, undoableInt.value());
+    undoableInt.forceValue(8);
+
+    undos.backtrack(size);
+    assertEquals(7, undoableInt.value());
+    assertEquals(4, var.min());
+    assertTrue(bits.bit(3));
+
+    undos.backtrack(0);
+    assertEquals(5, undoableInt.value());
+    assertEquals(0, var.min());
+    assertEquals(10, var.size());
+    assertTrue(!bits.bit(3));
+    assertTrue(undos.empty());
+  }
+
+  /**
+   * Both trail modes find the same solutions of the 6 queens.
+   */
+  public void testTrailModes(){
+    for (int mode=0; mode<2; mode++){
+      Constrainer c = new Constrainer("TestTrailModes");
+      c.primitiveTrail(mode == 1);
+      int n = 6;
+      IntExpArray x = new IntExpArray(c, n, 0, n-1, "x");
+      IntExpArray x1 = new IntExpArray(c, n);
+      IntExpArray x2 = new IntExpArray(c, n);
+      for (int i=0; i<n; i++){
+        x1.set(x.get(i).add(i), i);
+        x2.set(x.get(i).sub(i), i);
+      }
+      final int[] count = new int[1];
+      Goal solution = new GoalImpl(c){
+        public Goal execute() throws Failure {
+          count[0]++;
+          return null;
+        }
+      };
+      try{
+        c.postConstraint(c.allDiff(x));
+        c.postConstraint(c.allDiff(x1));
+        c.postConstraint(c.allDiff(x2));
+      }catch(Failure f){fail("test failed");}
+      c.execute(new GoalAnd(new GoalAnd(new GoalGenerate(x), solution), new GoalFail(c)));
+      assertEquals(4, count[0]);
+      assertEquals(0, x.get(0).min());
+      assertEquals(n-1, x.get(0).max());
+    }
+  }
+
+}
@@ -0,0 +1,413 @@
+package javax.constraints.linear.impl;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+
+import com.quantego.clp.CLP;
+import com.quantego.clp.CLP.STATUS;
+import com.quantego.clp.CLPVariable;
+
+/**
+ * Branch and bound for problems with integer variables on top of a live CLP model.
+ * Every node differs from the root only by the bounds of integer variables: the driver
+ * changes these bounds in place and re-solves, so CLP restarts from the basis of the
+ * previously solved node (the parent during a dive) instead of solving from scratch.
+ * <p>
+ * After branching the driver dives into the preferred child; when a dive ends, the open
+ * node with the best bound is selected. The branching variable is chosen by reliability
+ * branching: pseudocosts are learnt from the solved children, and candidates whose
+ * pseudocosts have fewer than RELIABILITY observations are evaluated by strong branching.
+ * A rounding heuristic fixes the fractional variables to their nearest integers and
+ * re-solves, which usually finds a good incumbent early.
+ */
+class ClpBranchAndBound {
+
+    static final double INTEGRALITY_TOLERANCE = 1e-6;
+    static final double OBJECTIVE_TOLERANCE = 1e-6;
+    static final int RELIABILITY = 4;
+    static final int MAX_STRONG_BRANCHING_CANDIDATES = 8;
+    static final int ROUNDING_FREQUENCY = 10;
+    static final double INFINITE_GAIN = 1e30;
+
+    final CLP model;
+    final CLPVariable[] intVars;
+    final CLPVariable[] allVars;
+    final boolean maximize;
+    final double improvement;
+    final int timeLimitMilliSeconds;
+
+    // bounds of the integer variables at the root and in the model
+    final double[] rootLower;
+    final double[] rootUpper;
+    final double[] lower;
+    final double[] upper;
+
+    // pseudocosts: objective degradation per unit of change in each direction
+    final double[] downSum;
+    final double[] upSum;
+    final int[] downCount;
+    final int[] upCount;
+
+    double[] incumbent;
+    double incumbentObjective = Double.POSITIVE_INFINITY;
+    int numberOfNodes;
+    int numberOfLps;
+    boolean limitReached;
+
+    static class Node {
+        double[] lower;
+        double[] upper;
+        double bound;       // minimization form
+        int depth;
+        // the branching that created this node, used to update pseudocosts
+        int branchVar = -1;
+        boolean up;
+        double distance;
+
+        Node(double[] lower, double[] upper, double bound, int depth) {
+            this.lower = lower;
+            this.upper = upper;
+            this.bound = bound;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * @param model a CLP model with the objective already set
+     * @param intVars the CLP variables that must take integer values
+     * @param allVars all CLP variables whose values form a solution
+     * @param lower the bounds of intVars in the model, restored at the end of solve()
+     * @param upper the bounds of intVars in the model, restored at the end of solve()
+     * @param maximize true to maximize the objective
+     * @param integerObjective true if the objective takes only integer values at integer solutions
+     * @param timeLimitMilliSeconds a time limit or 0 for no limit
+     */
+    ClpBranchAndBound(CLP model, CLPVariable[] intVars, CLPVariable[] allVars, double[] lower, double[] upper,
+            boolean maximize, boolean integerObjective, int timeLimitMilliSeconds) {
+        if (lower.length != intVars.length || upper.length != intVars.length)
+            throw new RuntimeException("ERROR: " + intVars.length + " integer variables with "
+                    + lower.length + " lower and " + upper.length + " upper bounds");
+        for (int j = 0; j < intVars.length; j++) {
+            if (lower[j] > upper[j])
+                throw new RuntimeException("ERROR: the bounds [" + lower[j] + "," + upper[j]
+                        + "] of the integer variable " + j + " are inconsistent");
+        }
+        this.model = model;
+        this.intVars = intVars;
+        this.allVars = allVars;
+        this.maximize = maximize;
+        this.improvement = integerObjective ? 1 - OBJECTIVE_TOLERANCE : OBJECTIVE_TOLERANCE;
+        this.timeLimitMilliSeconds = timeLimitMilliSeconds;
+        this.rootLower = lower.clone();
+        this.rootUpper = upper.clone();
+        this.lower = lower.clone();
+        this.upper = upper.clone();
+        int n = intVars.length;
+        downSum = new double[n];
+        upSum = new double[n];
+        downCount = new int[n];
+        upCount = new int[n];
+    }
+
+    /**
+     * Runs the branch and bound. The nodes are solved by the dual simplex without presolve,
+     * which would discard the basis of the previous node. The bounds of the integer variables
+     * and the CLP defaults for presolve and algorithm, with which LinearSolver builds its
+     * model, are restored at the end.
+     * @return OPTIMAL if the incumbent is proven optimal, LIMIT if the time limit was reached
+     * (getSolution() may still return an incumbent), otherwise the status of the root relaxation
+     */
+    STATUS solve() {
+        long start = System.currentTimeMillis();
+        model.presolve(false).algorithm(CLP.ALGORITHM.DUAL);
+        try {
+            STATUS status = solveLp();
+            if (status != STATUS.OPTIMAL)
+                return status;
+            Node root = new Node(rootLower.clone(), rootUpper.clone(), objective(), 0);
+            PriorityQueue<Node> queue = new PriorityQueue<Node>(
+                    (a, b) -> Double.compare(a.bound, b.bound));
+            Node node = root;
+            boolean isSolved = true;
+            while (true) {
+                if (node == null) {
+                    node = queue.poll();
+                    isSolved = false;
+                    if (node == null)
+                        break;
+                }
+                if (isPruned(node.bound)) {
+                    node = null;
+                    continue;
+                }
+                if (timeLimitMilliSeconds > 0 && System.currentTimeMillis() - start > timeLimitMilliSeconds) {
+                    limitReached = true;
+                    break;
+                }
+                if (!isSolved) {
+                    applyBounds(node);
+                    status = solveLp();
+                    numberOfNodes++;
+                    if (status != STATUS.OPTIMAL) {
+                        // a subproblem of a bounded LP is either bounded or infeasible
+                        if (status != STATUS.INFEASIBLE)
+                            limitReached = true;
+                        node = null;
+                        continue;
+                    }
+                    updatePseudocost(node, objective());
+                    node.bound = Math.max(node.bound, objective());
+                }
+                isSolved = false;
+                node = branch(node, queue);
+            }
+        } finally {
+            for (int i = 0; i < intVars.length; i++)
+                setBounds(i, rootLower[i], rootUpper[i]);
+            model.presolve(true).algorithm(CLP.ALGORITHM.AUTO);
+        }
+        if (incumbent == null)
+            return limitReached ? STATUS.LIMIT : STATUS.INFEASIBLE;
+        return limitReached ? STATUS.LIMIT : STATUS.OPTIMAL;
+    }
+
+    /**
+     * @return values of allVars in the best integer solution found or null
+     */
+    double[] getSolution() {
+        return incumbent;
+    }
+
+    int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    int getNumberOfLps() {
+        return numberOfLps;
+    }
+
+    /**
+     * Processes a node whose relaxation was just solved: records an integer solution or
+     * splits the node in two children
+     * @return the child to dive into or null
+     */
+    Node branch(Node node, PriorityQueue<Node> queue) {
+        if (isPruned(node.bound))
+            return null;
+        double[] x = new double[intVars.length];
+        ArrayList<Integer> fractional = new ArrayList<Integer>();
+        for (int i = 0; i < intVars.length; i++) {
+            x[i] = intVars[i].getSolution();
+            if (Math.abs(x[i] - Math.rint(x[i])) > INTEGRALITY_TOLERANCE)
+                fractional.add(i);
+        }
+        if (fractional.isEmpty()) {
+            saveIncumbent(node.bound);
+            return null;
+        }
+        if (node.depth == 0 || numberOfNodes % ROUNDING_FREQUENCY == 0)
+            rounding(node, x, fractional);
+
+        int j = selectBranchingVariable(node, x, fractional);
+        if (j < 0 || isPruned(node.bound))
+            return null; // strong branching proved the node infeasible or dominated
+
+        double f = x[j] - Math.floor(x[j]);
+        Node down = new Node(node.lower.clone(), node.upper.clone(), node.bound, node.depth + 1);
+        down.upper[j] = Math.floor(x[j]);
+        down.branchVar = j;
+        down.up = false;
+        down.distance = f;
+        Node up = new Node(node.lower.clone(), node.upper.clone(), node.bound, node.depth + 1);
+        up.lower[j] = Math.ceil(x[j]);
+        up.branchVar = j;
+        up.up = true;
+        up.distance = 1 - f;
+
+        // dive into the child with the smaller expected degradation
+        if (pseudocost(j, true) * (1 - f) <= pseudocost(j, false) * f) {
+            queue.add(down);
+            return up;
+        }
+        queue.add(up);
+        return down;
+    }
+
+    /**
+     * Reliability branching: the score of a candidate is the product of the expected
+     * degradations of its two children, taken from the pseudocosts when they are reliable
+     * and from strong branching otherwise
+     * @return the index of the branching variable, or -1 if strong branching proved
+     * both children of a candidate infeasible or pruned
+     */
+    int selectBranchingVariable(Node node, double[] x, ArrayList<Integer> fractional) {
+        // the candidates with the best pseudocost scores are evaluated first
+        double[] pseudocostScores = new double[intVars.length];
+        for (int j : fractional)
+            pseudocostScores[j] = pseudocostScore(j, x[j]);
+        fractional.sort((a, b) -> Double.compare(pseudocostScores[b], pseudocostScores[a]));
+        int best = -1;
+        double bestScore = -1;
+        double bound = node.bound;
+        int numberOfStrongBranchings = 0;
+        for (int j : fractional) {
+            double f = x[j] - Math.floor(x[j]);
+            double score;
+            if (Math.min(downCount[j], upCount[j]) < RELIABILITY
+                    && numberOfStrongBranchings < MAX_STRONG_BRANCHING_CANDIDATES) {
+                numberOfStrongBranchings++;
+                double downGain = strongBranch(bound, j, lower[j], Math.floor(x[j]));
+                double upGain = strongBranch(bound, j, Math.ceil(x[j]), upper[j]);
+                if (downGain >= INFINITE_GAIN && upGain >= INFINITE_GAIN)
+                    return -1;
+                if (!Double.isNaN(downGain) && !Double.isNaN(upGain)) {
+                    // both children are at least as bad as the better strong branching result
+                    node.bound = Math.max(node.bound, bound + Math.min(downGain, upGain));
+                }
+                if (Double.isNaN(downGain))
+                    downGain = pseudocost(j, false) * f;
+                else if (downGain < INFINITE_GAIN)
+                    addPseudocost(j, false, downGain / f);
+                if (Double.isNaN(upGain))
+                    upGain = pseudocost(j, true) * (1 - f);
+                else if (upGain < INFINITE_GAIN)
+                    addPseudocost(j, true, upGain / (1 - f));
+                score = score(downGain, upGain);
+            }
+            else {
+                score = pseudocostScores[j];
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Solves the current node with the bounds of the variable j set to [lb,ub] and restores them
+     * @return the degradation of the objective, INFINITE_GAIN if the child is infeasible or pruned,
+     * or NaN if CLP stopped without solving the child (e.g. at an iteration limit)
+     */
+    double strongBranch(double bound, int j, double lb, double ub) {
+        double oldLower = lower[j];
+        double oldUpper = upper[j];
+        setBounds(j, lb, ub);
+        STATUS status = solveLp();
+        setBounds(j, oldLower, oldUpper);
+        if (status == STATUS.INFEASIBLE)
+            return INFINITE_GAIN;
+        if (status != STATUS.OPTIMAL)
+            return Double.NaN;
+        double z = objective();
+        if (isPruned(z))
+            return INFINITE_GAIN;
+        return Math.max(0, z - bound);
+    }
+
+    /**
+     * Rounding heuristic: fixes every fractional variable to the nearest integer, re-solves
+     * the relaxation for the remaining variables and keeps the result if it is integer
+     */
+    void rounding(Node node, double[] x, ArrayList<Integer> fractional) {
+        for (int j : fractional) {
+            double value = Math.min(Math.max(Math.rint(x[j]), lower[j]), upper[j]);
+            setBounds(j, value, value);
+        }
+        STATUS status = solveLp();
+        if (status == STATUS.OPTIMAL && !isPruned(objective())) {
+            boolean isInteger = true;
+            for (int i = 0; i < intVars.length && isInteger; i++) {
+                double value = intVars[i].getSolution();
+                isInteger = Math.abs(value - Math.rint(value)) <= INTEGRALITY_TOLERANCE;
+            }
+            if (isInteger)
+                saveIncumbent(objective());
+        }
+        applyBounds(node);
+    }
+
+    void saveIncumbent(double z) {
+        incumbentObjective = z;
+        incumbent = new double[allVars.length];
+        for (int i = 0; i < allVars.length; i++)
+            incumbent[i] = allVars[i].getSolution();
+    }
+
+    boolean isPruned(double bound) {
+        return bound > incumbentObjective - improvement;
+    }
+
+    void updatePseudocost(Node node, double z) {
+        if (node.branchVar < 0 || node.distance <= 0)
+            return;
+        addPseudocost(node.branchVar, node.up, Math.max(0, z - node.bound) / node.distance);
+    }
+
+    void addPseudocost(int j, boolean up, double unitGain) {
+        if (up) {
+            upSum[j] += unitGain;
+            upCount[j]++;
+        }
+        else {
+            downSum[j] += unitGain;
+            downCount[j]++;
+        }
+    }
+
+    /**
+     * @return the pseudocost of the variable j, or the average pseudocost of all variables
+     * in the same direction if j has not been observed yet
+     */
+    double pseudocost(int j, boolean up) {
+        if (up && upCount[j] > 0)
+            return upSum[j] / upCount[j];
+        if (!up && downCount[j] > 0)
+            return downSum[j] / downCount[j];
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < intVars.length; i++) {
+            sum += up ? upSum[i] : downSum[i];
+            count += up ? upCount[i] : downCount[i];
+        }
+        return count > 0 ? sum / count : 1;
+    }
+
+    double pseudocostScore(int j, double x) {
+        double f = x - Math.floor(x);
+        return score(pseudocost(j, false) * f, pseudocost(j, true) * (1 - f));
+    }
+
+    static double score(double downGain, double upGain) {
+        return Math.max(downGain, OBJECTIVE_TOLERANCE) * Math.max(upGain, OBJECTIVE_TOLERANCE);
+    }
+
+    /**
+     * Changes in place only the bounds that differ between the model and the node
+     */
+    void applyBounds(Node node) {
+        for (int i = 0; i < intVars.length; i++)
+            setBounds(i, node.lower[i], node.upper[i]);
+    }
+
+    void setBounds(int i, double lb, double ub) {
+        if (lower[i] == lb && upper[i] == ub)
+            return;
+        intVars[i].bounds(lb, ub);
+        lower[i] = lb;
+        upper[i] = ub;
+    }
+
+    STATUS solveLp() {
+        numberOfLps++;
+        return maximize ? model.maximize() : model.minimize();
+    }
+
+    /**
+     * @return the objective of the last relaxation in minimization form
+     */
+    double objective() {
+        return maximize ? -model.getObjectiveValue() : model.getObjectiveValue();
+    }
+}
@@ -1,6 +1,7 @@
 package javax.constraints.linear.impl;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import javax.constraints.ConstrainedVariable;
@@ -10,6 +11,7 @@ import javax.constraints.Problem;
 import javax.constraints.Solution;
 import javax.constraints.Var;
 import javax.constraints.VarReal;
+import javax.constraints.impl.AbstractProblem;
 
 import com.quantego.clp.CLP;
 import com.quantego.clp.CLP.STATUS;
@@ -25,12 +27,39 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
     CLP model;
     int numberOfRoundings;
 
+    // the number of changes of the problem variables and constraints the current model was built for
+    int modelChanges;
+
+    // the bounds of the model columns as they were defined or changed by setBounds;
+    // the bounds of the variables themselves are overwritten by every solution
+    IdentityHashMap<ConstrainedVariable, double[]> columnBounds;
+
+    ConstrainedVariable objectiveVar;
+    // true if setObjectiveCoefficient changed the objective of the current model
+    boolean objectiveRepriced;
+
     public LinearSolver() {
         numberOfRoundings = 0;
     }
 
+    /**
+     * Builds a new CLP model for the current problem. The model is kept alive
+     * between calls of findOptimalSolution, so changes made by setBounds, setRhs
+     * and setObjectiveCoefficient are applied to it in place and CLP re-optimizes
+     * from the previous basis. The model is rebuilt only when variables or
+     * constraints are added to the problem. The column bounds are taken from the
+     * variables only the first time a variable gets into a model: after a solution
+     * the variables are bound to their values, so a rebuilt model keeps the recorded
+     * bounds of the previous model.
+     */
     public void init() {
+        if (problem != getProblem())
+            columnBounds = null;
         problem = getProblem();
+        IdentityHashMap<ConstrainedVariable, double[]> previousBounds = columnBounds;
+        columnBounds = new IdentityHashMap<ConstrainedVariable, double[]>();
+        objectiveVar = null;
+        objectiveRepriced = false;
 
         // model = new CLP().buffer(10).presolve(false).maxIterations(1);
         model = new CLP(); // .verbose(1);
@@ -48,30 +77,29 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
         int n = 0;
         if (intSize > 0) {
             for (Var var : vars) {
-                CLPVariable clpVar = model.addVariable().lb(var.getMin()).ub(var.getMax()).name(var.getName());
+                double[] bounds = recordBounds(previousBounds, var, var.getMin(), var.getMax());
+                CLPVariable clpVar = model.addVariable().lb(bounds[0]).ub(bounds[1]).name(var.getName());
                 var.setObject(clpVar);
                 clpVars[n++] = clpVar;
             }
         }
         if (realSize > 0) {
             for (VarReal var : varReals) {
-                CLPVariable clpVar = model.addVariable().lb(var.getMin()).ub(var.getMax()).name(var.getName());
+                double[] bounds = recordBounds(previousBounds, var, var.getMin(), var.getMax());
+                CLPVariable clpVar = model.addVariable().lb(bounds[0]).ub(bounds[1]).name(var.getName());
                 var.setObject(clpVar);
                 clpVars[n++] = clpVar;
             }
         }
 
         // Add constraints
-        double precision = 1e-7;
-//      if (isIntegerVariablesOnly())
-//          precision = 1;
         Constraint[] constraints = problem.getConstraints();
         for (Constraint constraint : constraints) {
             javax.constraints.impl.Constraint c = (javax.constraints.impl.Constraint) constraint;
             double[] constraintCoefficients = c.getCoefficients();
             ConstrainedVariable[] constraintVars = c.getVars();
             String oper = c.getOper();
-            double rhs = c.getValue();
+            double rhs = rhs(c);
 //            log("Constraint: ");
 //            for (ConstrainedVariable v : constraintVars)
 //                log(" " + v);
@@ -94,13 +122,11 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
                 type = CLPConstraint.TYPE.EQ;
             else if (">=".equals(oper))
                 type = CLPConstraint.TYPE.GEQ;
-            else if (">".equals(oper)) {
+            else if (">".equals(oper))
                 type = CLPConstraint.TYPE.GEQ;
-                rhs += precision;
-            } else if ("<".equals(oper)) {
+            else if ("<".equals(oper))
                 type = CLPConstraint.TYPE.LEQ;
-                rhs -= precision;
-            } else if ("<=".equals(oper))
+            else if ("<=".equals(oper))
                 type = CLPConstraint.TYPE.LEQ;
             else if ("!=".equals(oper))
                 type = CLPConstraint.TYPE.NEQ;
@@ -108,48 +134,197 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
                 throw new RuntimeException("Uknown linear operator: " + oper);
             }
 
-            model.addConstraint(lhs, type, rhs);
+            CLPConstraint clpConstraint = model.addConstraint(lhs, type, rhs);
+            c.setObject(clpConstraint);
+        }
+        modelChanges = ((AbstractProblem) problem).getNumberOfChanges();
+    }
+
+    /**
+     * Checks that no variables or constraints have been added to or removed from the
+     * problem since the current CLP model was built. A variable added under the name of
+     * an existing one replaces it and is counted as a change too.
+     * @return true if the current CLP model was built for the current problem variables and constraints
+     */
+    public boolean isModelValid() {
+        return model != null && problem == getProblem()
+                && modelChanges == ((AbstractProblem) problem).getNumberOfChanges();
+    }
+
+    double[] recordBounds(IdentityHashMap<ConstrainedVariable, double[]> previousBounds,
+            ConstrainedVariable var, double min, double max) {
+        double[] bounds = previousBounds == null ? null : previousBounds.get(var);
+        if (bounds == null)
+            bounds = new double[] { min, max };
+        columnBounds.put(var, bounds);
+        return bounds;
+    }
+
+    /**
+     * Returns the right hand side of the constraint "c" as it is posted to CLP:
+     * strict inequalities are shifted by a small precision
+     */
+    double rhs(javax.constraints.impl.Constraint c) {
+        double precision = 1e-7;
+//      if (isIntegerVariablesOnly())
+//          precision = 1;
+        String oper = c.getOper();
+        if (">".equals(oper))
+            return c.getValue() + precision;
+        if ("<".equals(oper))
+            return c.getValue() - precision;
+        return c.getValue();
+    }
+
+    CLPVariable clpVariable(ConstrainedVariable var) {
+        CLPVariable clpVar = (CLPVariable) var.getObject();
+        if (clpVar == null) {
+            throw new RuntimeException(
+                    "The variable " + var.getName() + " does not have an associated CLP variable");
         }
+        return clpVar;
+    }
+
+    @Override
+    public void setBounds(Var var, int min, int max) {
+        super.setBounds(var, min, max);
+        if (columnBounds != null)
+            columnBounds.put(var, new double[] { min, max });
+        if (isModelValid())
+            clpVariable(var).bounds(min, max);
+    }
+
+    @Override
+    public void setBounds(VarReal var, double min, double max) {
+        super.setBounds(var, min, max);
+        if (columnBounds != null)
+            columnBounds.put(var, new double[] { min, max });
+        if (isModelValid())
+            clpVariable(var).bounds(min, max);
+    }
+
+    @Override
+    public void setRhs(Constraint constraint, double value) {
+        super.setRhs(constraint, value);
+        if (!isModelValid())
+            return;
+        javax.constraints.impl.Constraint c = (javax.constraints.impl.Constraint) constraint;
+        CLPConstraint clpConstraint = (CLPConstraint) c.getObject();
+        if (clpConstraint != null)
+            clpConstraint.setRhs(rhs(c));
+    }
+
+    /**
+     * Changes the coefficient of the variable "var" in the objective function of the current
+     * CLP model. The objective initially is 1*objectiveVar where objectiveVar is the variable
+     * passed to findOptimalSolution; this method allows to re-price any variable and to
+     * re-optimize without rebuilding the model. The change is lost when the model is rebuilt.
+     * @param var a variable of the problem
+     * @param coefficient a new objective coefficient
+     */
+    public void setObjectiveCoefficient(ConstrainedVariable var, double coefficient) {
+        if (!isModelValid())
+            init();
+        model.setObjectiveCoefficient(clpVariable(var), coefficient);
+        objectiveRepriced = true;
     }
 
     public Solution optimize(Objective objectiveDirection, ConstrainedVariable objectiveVar) {
         // Set Objective
-        CLPVariable clpObjective = (CLPVariable) objectiveVar.getObject();
-        model.createExpression().add(clpObjective).asObjective();
+        if (this.objectiveVar == null) {
+            model.createExpression().add(clpVariable(objectiveVar)).asObjective();
+            this.objectiveVar = objectiveVar;
+        }
+        else if (this.objectiveVar != objectiveVar) {
+            model.setObjectiveCoefficient(clpVariable(this.objectiveVar), 0);
+            model.setObjectiveCoefficient(clpVariable(objectiveVar), 1);
+            this.objectiveVar = objectiveVar;
+        }
 
-        STATUS status;
+        boolean maximize;
         if (Objective.MAXIMIZE.equals(objectiveDirection)) {
-            status = model.maximize();
+            maximize = true;
         } else if (Objective.MINIMIZE.equals(objectiveDirection)) {
-            status = model.minimize();
+            maximize = false;
         } else {
             throw new RuntimeException("Uknown optimization direction: " + objectiveDirection);
         }
 
-        if (!status.equals(STATUS.OPTIMAL)) {
+        Var[] vars = problem.getVars();
+        if (vars == null || vars.length == 0) {
+            STATUS status = maximize ? model.maximize() : model.minimize();
+            if (!status.equals(STATUS.OPTIMAL)) {
+                System.out.println("CLP cannot find an optimal solution");
+                return null;
+            }
+            return createSolution();
+        }
+        return branchAndBound(maximize, objectiveVar);
+    }
+
+    /**
+     * Solves the problem with integer variables by branch and bound on the current CLP model.
+     * The bounds of the integer variables are changed in place at every node and restored
+     * at the end to the recorded column bounds, so the model stays valid for the next call.
+     */
+    Solution branchAndBound(boolean maximize, ConstrainedVariable objectiveVar) {
+        Var[] vars = problem.getVars();
+        VarReal[] varReals = problem.getVarReals();
+        int realSize = varReals == null ? 0 : varReals.length;
+        CLPVariable[] intVars = new CLPVariable[vars.length];
+        CLPVariable[] allVars = new CLPVariable[vars.length + realSize];
+        double[] lower = new double[vars.length];
+        double[] upper = new double[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            intVars[i] = clpVariable(vars[i]);
+            allVars[i] = intVars[i];
+            double[] bounds = columnBounds.get(vars[i]);
+            lower[i] = bounds[0];
+            upper[i] = bounds[1];
+        }
+        for (int i = 0; i < realSize; i++)
+            allVars[vars.length + i] = clpVariable(varReals[i]);
+
+        // the objective 1*objectiveVar is integer at integer solutions if objectiveVar is integer
+        boolean integerObjective = objectiveVar instanceof Var && !objectiveRepriced;
+        ClpBranchAndBound bb = new ClpBranchAndBound(model, intVars, allVars, lower, upper,
+                maximize, integerObjective, getTimeLimitGlobal());
+        STATUS status = bb.solve();
+        log("CLP branch and bound: " + bb.getNumberOfNodes() + " nodes, " + bb.getNumberOfLps() + " LPs");
+        double[] values = bb.getSolution();
+        if (values == null) {
             System.out.println("CLP cannot find an optimal solution");
             return null;
         }
+        if (!status.equals(STATUS.OPTIMAL))
+            log("WARNING: the time limit has been reached, the solution is not proven optimal");
+        return createSolution(values);
+    }
 
-        // double obj = model.getObjectiveValue();
-
-        Solution solution = createSolution();
-        if (numberOfRoundings > 0) {
-            log("\n=================================================================");
-            log("ATTENTION: CLP does not support MIP with integer variables!");
-            log("The following solution is probably infeasible!");
-            log("The number of rounded variables: " + numberOfRoundings);
-            log("You have the following options:");
-            log("1) Switch to a diffrent solver;");
-            log("2) Replace all integer variables with real variables;");
-            log("3) Adjust this 'solution' manually or apply a 'feasibility pump'");
-            log("=================================================================\n");
+    /**
+     * Creates a solution from the values of the integer variables followed by the real variables
+     */
+    Solution createSolution(double[] values) {
+        int n = 0;
+        Var[] vars = problem.getVars();
+        if (vars != null) {
+            for (Var v : vars) {
+                javax.constraints.impl.Var var = (javax.constraints.impl.Var) v;
+                var.setValue((int) Math.round(values[n++]));
+            }
         }
-        
-        return solution;
+        VarReal[] realVars = problem.getVarReals();
+        if (realVars != null) {
+            for (VarReal v : realVars) {
+                javax.constraints.impl.VarReal var = (javax.constraints.impl.VarReal) v;
+                var.setValue(values[n++]);
+            }
+        }
+        return new javax.constraints.impl.search.Solution(this, 1);
     }
-    
+
     public Solution createSolution() {
+        numberOfRoundings = 0;
 
         Var[] vars = problem.getVars();
         if (vars != null) {
@@ -180,15 +355,17 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
 
     @Override
     public Solution findOptimalSolution(Objective objectiveDirection, Var objectiveVar) {
-        init();
-        problem.add(objectiveVar);
+        getProblem().add(objectiveVar);
+        if (!isModelValid())
+            init();
         return optimize(objectiveDirection, objectiveVar);
     }
 
     @Override
     public Solution findOptimalSolution(Objective objectiveDirection, VarReal objectiveVar) {
-        init();
-        problem.add(objectiveVar);
+        getProblem().add(objectiveVar);
+        if (!isModelValid())
+            init();
         return optimize(objectiveDirection, objectiveVar);
     }
 
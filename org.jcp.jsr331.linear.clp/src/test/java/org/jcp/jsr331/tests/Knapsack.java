@@ -68,7 +68,7 @@ public class Knapsack {
 	}
 
 	// === Problem Resolution
-	public void solve() {
+	public Solution solve(Objective objective) {
 		// --- Get the Solver
 		Solver solver = p.getSolver();
 
@@ -81,7 +81,7 @@ public class Knapsack {
 		 */
 
 		// --- Find Exact Solution
-		Solution s = solver.findOptimalSolution(Objective.MAXIMIZE, p.getVar("cost"));
+		Solution s = solver.findOptimalSolution(objective, p.getVar("cost"));
 		if (s == null)
 			p.log("Unable to derive a solution.");
 		else {
@@ -93,14 +93,23 @@ public class Knapsack {
 		}
 		// --- Display Stats Log (optional)
 		solver.logStats();
-
+		return s;
 	}
 
 	public static void main(String[] args) {
 
 		Knapsack problem = new Knapsack();
 		problem.define();
-		problem.solve();
+		Solution max = problem.solve(Objective.MAXIMIZE);
+		
+		// the next calls re-solve the same CLP model: they must start from
+		// the original bounds, not from the values of the previous solution
+		Solution max2 = problem.solve(Objective.MAXIMIZE);
+		Solution min = problem.solve(Objective.MINIMIZE);
+		if (max == null || max.getValue("cost") != 320 || max2 == null || max2.getValue("cost") != 320)
+			throw new RuntimeException("Knapsack: expected the maximum profit 320");
+		if (min == null || min.getValue("cost") != 0)
+			throw new RuntimeException("Knapsack: expected the minimum profit 0");
 
 	}
 
@@ -0,0 +1,72 @@
+package org.jcp.jsr331.tests;
+
+//===============================================
+//J A V A  C O M M U N I T Y  P R O C E S S
+//
+//J S R  3 3 1
+//
+//TestXYZ Compatibility Kit
+//
+//================================================
+
+/***************************************************************************\
+ * 
+ * The Knapsack problem re-solved after incremental changes:
+ * the CLP model is built once and changed in place by setRhs and setBounds,
+ * and it is rebuilt when a variable is replaced by a new one with the same name.
+ * 
+ \***************************************************************************/
+
+import javax.constraints.*;
+import javax.constraints.linear.LinearSolver;
+
+public class KnapsackResolve {
+	
+	int itemSize[] = { 1, 2, 3 };
+	int itemValue[] = { 15, 10, 5 };
+	int itemCount[] = { 20, 30, 40 };
+	final int knapsackSize = 25;
+	
+	Problem p = ProblemFactory.newProblem("KnapsackResolve");
+	Constraint capacity;
+	
+	public void define() {
+		Var G = p.variable("G",0,itemCount[0]);
+		Var S = p.variable("S", 0, itemCount[1]);
+		Var B = p.variable("B", 0, itemCount[2]);
+		Var[] vars = new Var[] { G, S, B };
+		Var scalProd = p.scalProd("ScalProd1",itemSize, vars);
+		capacity = p.post(scalProd, "<=", knapsackSize);
+		Var cost = p.scalProd(itemValue, vars);
+		p.add("cost",cost);
+		// a variable that takes no part in the constraints
+		p.variable("Spare", 0, 1);
+	}
+
+	public void solve(String step, int expectedProfit) {
+		Solution s = p.getSolver().findOptimalSolution(Objective.MAXIMIZE, p.getVar("cost"));
+		if (s == null || s.getValue("cost") != expectedProfit)
+			throw new RuntimeException("KnapsackResolve: " + step + " - expected the maximum profit " + expectedProfit);
+		p.log(step + ": G=" + s.getValue("G") + " S=" + s.getValue("S") + " B=" + s.getValue("B")
+				+ " profit=" + s.getValue("cost"));
+	}
+
+	public static void main(String[] args) {
+		KnapsackResolve problem = new KnapsackResolve();
+		problem.define();
+		Problem p = problem.p;
+		LinearSolver solver = (LinearSolver) p.getSolver();
+		problem.solve("initial", 320);
+		
+		solver.setRhs(problem.capacity, 30);
+		problem.solve("capacity 30", 350);
+		
+		solver.setBounds(p.getVar("G"), 0, 10);
+		problem.solve("at most 10 gold", 250);
+		
+		// the same number of variables, but a new one: the model must be rebuilt
+		p.variable("Spare", 0, 1);
+		problem.solve("replaced variable", 250);
+	}
+
+}
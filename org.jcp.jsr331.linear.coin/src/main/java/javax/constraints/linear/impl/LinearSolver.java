@@ -5,6 +5,7 @@ import java.io.FileReader;
 import java.util.HashMap;
 
 import javax.constraints.Objective;
+import javax.constraints.linear.ResultReader;
 
 public class LinearSolver extends javax.constraints.linear.LinearSolver {
 
@@ -152,6 +153,42 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
 		}
 	}
 	
+	/**
+	 * Reads the solution file directly into an array of column values
+	 * using a memory-mapped {@link ResultReader}. Each line after the status line
+	 * looks like "index name value reducedCost"; rows and unknown names are skipped.
+	 */
+	@Override
+	public double[] readResultValues() {
+		ResultReader reader = null;
+		try {
+			reader = new ResultReader(getOutputFilename(),
+					(javax.constraints.impl.Problem) getProblem());
+			// Optimal - objective value -1715
+			if (reader.findInLine("nfeasible")) {
+				log("Infeasible problem");
+				return null;
+			}
+			double[] values = reader.createValues();
+			while (reader.nextLine()) {
+				if (!reader.isNumber())
+					reader.skipToken(); // "**" marks infeasible values
+				reader.skipToken(); // index
+				int column = reader.column();
+				if (column >= 0)
+					values[column] = reader.number();
+			}
+			return values;
+		} catch (Exception ex) {
+			log("Error during reading the file " + getOutputFilename());
+			ex.printStackTrace();
+			return null;
+		} finally {
+			if (reader != null)
+				reader.close();
+		}
+	}
+	
 	public boolean isInfeasible() {
 		BufferedReader reader = null;
 		try {
@@ -10,6 +10,7 @@ import java.io.PrintStream;
 import java.util.HashMap;
 
 import javax.constraints.Objective;
+import javax.constraints.linear.ResultReader;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 
@@ -84,6 +85,48 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
 		return Objective.MINIMIZE;
 	}
 	
+	/**
+	 * Reads the values of &lt;variable name="..." value="..."/&gt; elements
+	 * of the SOL file directly into an array of column values using a memory-mapped
+	 * {@link ResultReader} instead of building a DOM tree
+	 */
+	@Override
+	public double[] readResultValues() {
+		String fileName = getOutputFilename();
+		ResultReader reader = null;
+		try {
+			reader = new ResultReader(fileName,
+					(javax.constraints.impl.Problem) getProblem());
+			if (!reader.find("<variables")) {
+				log("*** Infeasible problem.");
+				return null;
+			}
+			double[] values = reader.createValues();
+			while (reader.find("<variable ")) {
+				if (!reader.find("name=\"")) 
+					break;
+				int column = reader.column();
+				if (!reader.find("value=\""))
+					break;
+				if (column >= 0)
+					values[column] = reader.number();
+			}
+			return values;
+		}
+		catch (IOException e) {
+			log("I/O Error reading " + fileName);
+			return null;
+		}
+		catch (Exception e) {
+			log("Error parsing file " + fileName);
+			return null;
+		}
+		finally {
+			if (reader != null)
+				reader.close();
+		}
+	}
+	
 	public HashMap<String, String> readResults() {
 		
 		String fileName = getOutputFilename();
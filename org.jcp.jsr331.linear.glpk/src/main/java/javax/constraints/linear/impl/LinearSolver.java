@@ -8,6 +8,7 @@ import java.util.HashMap;
 import javax.constraints.Objective;
 import javax.constraints.Var;
 import javax.constraints.VarReal;
+import javax.constraints.linear.ResultReader;
 
 public class LinearSolver extends javax.constraints.linear.LinearSolver {
 
@@ -29,6 +30,21 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
 //		return "glpsol --model " + getInputFilename() + " --mps -w " + getOutputFilename();   
 	}
 
+	/**
+	 * glpsol reads the model from /dev/stdin, so this works on Unix-like systems only
+	 */
+	public String getPipeCommandLine() {
+		String exe = System.getProperty(LP_SOLVER_EXE);
+		if (exe == null) {
+			exe = "glpsol";
+		}
+		String options = System.getProperty(LP_SOLVER_OPTIONS);
+		if (options == null) {
+			options = "";
+		}
+		return exe + " " + options + " --freemps /dev/stdin -o " + getOutputFilename();
+	}
+
 	public String getVersion() {
 		return JSR331_LINEAR_SOLVER_VERSION;
 	}
@@ -133,6 +149,47 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
 //		}
 //	}
 	
+	/**
+	 * Reads the column section of the glpsol report directly into an array
+	 * of column values using a memory-mapped {@link ResultReader}
+	 */
+	@Override
+	public double[] readResultValues() {
+		ResultReader reader = null;
+		try {
+			reader = new ResultReader(getOutputFilename(),
+					(javax.constraints.impl.Problem) getProblem());
+			// Status:     OPTIMAL or INTEGER OPTIMAL
+			if (!reader.find("Status:") || !reader.findInLine("OPTIMAL")) {
+				log("Infeasible problem");
+				return null;
+			}
+//			   No. Column name  St   Activity     Lower bound   Upper bound    Marginal
+//			   ------ ------------ -- ------------- ------------- ------------- -------------
+//			        1 P1Inside     NL             0             0           100           0.4 
+			if (!reader.find("Column name") || !reader.nextLine()) // skip column ----
+				return null;
+			double[] values = reader.createValues();
+			while (reader.nextLine() && reader.isNumber()) {
+				reader.skipToken(); // No.
+				int column = reader.column();
+				// skip the status (LP) or the integer marker '*' (MIP)
+				if (!reader.isNumber())
+					reader.skipToken();
+				if (column >= 0)
+					values[column] = reader.number();
+			}
+			return values;
+		} catch (Exception ex) {
+			log("*** Error during reading the file " + getOutputFilename());
+			ex.printStackTrace();
+			return null;
+		} finally {
+			if (reader != null)
+				reader.close();
+		}
+	}
+	
 	public HashMap<String, String> readResults() {
 		HashMap<String, String> results = new HashMap<String, String>();
 		BufferedReader reader = null;
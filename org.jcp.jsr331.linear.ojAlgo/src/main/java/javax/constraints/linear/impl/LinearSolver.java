@@ -5,17 +5,22 @@ import java.io.File;
 import java.io.FileReader;
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 
+import javax.constraints.ConstrainedVariable;
+import javax.constraints.Constraint;
 import javax.constraints.Objective;
 //import javax.constraints.Solution;
 import javax.constraints.Var;
 import javax.constraints.VarReal;
+import javax.constraints.impl.AbstractConstrainedVariable;
 import javax.constraints.linear.ComparableVariable;
 import javax.constraints.impl.search.Solution;
 
 //import org.ojalgo.TestUtils;
 //import org.ojalgo.concurrent.ConcurrentUtils;
 import org.ojalgo.matrix.BasicMatrix;
+import org.ojalgo.optimisation.Expression;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.MathProgSysModel;
 import org.ojalgo.optimisation.Variable;
@@ -43,25 +48,142 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
 		return Objective.MINIMIZE;
 	}
 	
+	/**
+	 * Builds an ojAlgo model directly from the problem's constraints and solves it
+	 * without writing and re-parsing an intermediate MPS file
+	 */
 	public Solution findOptimalSolution(Objective objectiveDirection, Var objectiveVar) {
-        File file = generateMpsFile(objectiveDirection,objectiveVar);
-        int timeoutMilliSeconds = getTimeLimitGlobal();
-        if (timeoutMilliSeconds > 0)
-            return solve(file,timeoutMilliSeconds);
-        else
-            return solve(file);
-    }
-    
-    public Solution findOptimalSolution(Objective objectiveDirection, VarReal objectiveVar) {
-        File file = generateMpsFile(objectiveDirection,objectiveVar);
-        int timeoutMilliSeconds = getTimeLimitGlobal();
-        if (timeoutMilliSeconds > 0)
-            return solve(file,timeoutMilliSeconds);
-        else
-            return solve(file);
-    }
-    
-	
+		getProblem().add(objectiveVar);
+		return solve(objectiveDirection, (AbstractConstrainedVariable)objectiveVar);
+	}
+
+	public Solution findOptimalSolution(Objective objectiveDirection, VarReal objectiveVar) {
+		getProblem().add(objectiveVar);
+		return solve(objectiveDirection, (AbstractConstrainedVariable)objectiveVar);
+	}
+
+	/**
+	 * Creates an ExpressionsBasedModel for the current problem. Every integer and real
+	 * variable of the problem becomes a model variable with the same bounds, and every
+	 * linear constraint becomes an expression over the constraint's coefficients.
+	 * The bounds of default domains (see {@link #isDefaultBound(double)}) are treated
+	 * as missing, as in the MPS files of the other linear solvers: a missing lower bound
+	 * is 0 and a missing upper bound is infinite. Any other bound is kept as is.
+	 * The model variables are added in the order of problem.getVars() followed by
+	 * problem.getVarReals().
+	 *
+	 * @param objectiveVar the variable to be minimized
+	 * @return a new model
+	 */
+	public ExpressionsBasedModel createModel(AbstractConstrainedVariable objectiveVar) {
+		javax.constraints.impl.Problem problem =
+				(javax.constraints.impl.Problem)getProblem();
+		ExpressionsBasedModel model = new ExpressionsBasedModel();
+		IdentityHashMap<ConstrainedVariable,Variable> modelVars =
+				new IdentityHashMap<ConstrainedVariable,Variable>();
+
+		Var[] vars = problem.getVars();
+		if (vars != null)
+		for (int i = 0; i < vars.length; i++) {
+			Variable ojVar = Variable.make(vars[i].getName()).integer(true);
+			setBounds(ojVar, vars[i].getMin(), vars[i].getMax());
+			model.addVariable(ojVar);
+			modelVars.put(vars[i], ojVar);
+		}
+		VarReal[] varReals = problem.getVarReals();
+		if (varReals != null)
+		for (int i = 0; i < varReals.length; i++) {
+			Variable ojVar = Variable.make(varReals[i].getName());
+			setBounds(ojVar, varReals[i].getMin(), varReals[i].getMax());
+			model.addVariable(ojVar);
+			modelVars.put(varReals[i], ojVar);
+		}
+
+		Variable objective = modelVars.get(objectiveVar);
+		if (objective == null)
+			throw new RuntimeException("ERROR: objective variable " + objectiveVar.getName() + " is not added to the problem");
+		objective.weight(1);
+
+		Constraint[] constraints = problem.getConstraints();
+		for (int i = 0; i < constraints.length; i++) {
+			javax.constraints.impl.Constraint c = (javax.constraints.impl.Constraint) constraints[i];
+			double[] coefficients = c.getCoefficients();
+			ConstrainedVariable[] constraintVars = c.getVars();
+			Expression expression = model.addExpression(c.getName());
+			for (int k = 0; k < constraintVars.length; k++) {
+				Variable ojVar = modelVars.get(constraintVars[k]);
+				if (ojVar == null)
+					throw new RuntimeException("ERROR: variable " + constraintVars[k].getName() 
+							+ " of the constraint " + c.getName() + " is not added to the problem");
+				expression.set(ojVar, coefficients[k]);
+			}
+			// strict inequalities are posted with the same integer precision as in MpsGenerator
+			double value = c.getValue();
+			String oper = c.getOper();
+			if ("=".equals(oper))
+				expression.level(value);
+			else if ("<=".equals(oper))
+				expression.upper(value);
+			else if ("<".equals(oper))
+				expression.upper(value - 1);
+			else if (">=".equals(oper))
+				expression.lower(value);
+			else if (">".equals(oper))
+				expression.lower(value + 1);
+			else
+				throw new RuntimeException("ERROR: illegal operator " + oper + " in the constraint " + c.getName());
+		}
+		return model;
+	}
+
+	static void setBounds(Variable ojVar, double min, double max) {
+		ojVar.lower(isDefaultBound(min) ? 0 : min);
+		if (!isDefaultBound(max))
+			ojVar.upper(max);
+	}
+
+	/**
+	 * Solves the problem using an in-memory ojAlgo model
+	 *
+	 * @param objectiveDirection Objective.MINIMIZE or Objective.MAXIMIZE
+	 * @param objectiveVar the objective variable
+	 * @return solution or null
+	 */
+	public Solution solve(Objective objectiveDirection, AbstractConstrainedVariable objectiveVar) {
+		javax.constraints.impl.Problem problem =
+				(javax.constraints.impl.Problem)getProblem();
+		ExpressionsBasedModel model = createModel(objectiveVar);
+		int timeoutMilliSeconds = getTimeLimitGlobal();
+		if (timeoutMilliSeconds > 0)
+			model.options.time_abort = timeoutMilliSeconds;
+
+		Result rs;
+		if (objectiveDirection.equals(Objective.MAXIMIZE))
+			rs = model.maximise();
+		else
+			rs = model.minimise();
+		if (!rs.getState().isFeasible()) {
+			log("Linear Solver Found No Solutions");
+			return null; //no solution
+		}
+
+		// model variables are in the same order as problem vars and varReals
+		int index = 0;
+		Var[] vars = problem.getVars();
+		if (vars != null)
+		for (int i = 0; i < vars.length; i++) {
+			javax.constraints.impl.Var var = (javax.constraints.impl.Var) vars[i];
+			var.setValue((int) Math.round(rs.doubleValue(index++)));
+		}
+		VarReal[] varReals = problem.getVarReals();
+		if (varReals != null)
+		for (int i = 0; i < varReals.length; i++) {
+			javax.constraints.impl.VarReal varReal = (javax.constraints.impl.VarReal) varReals[i];
+			varReal.setValue(rs.doubleValue(index++));
+		}
+		return new Solution(this, 1);
+	}
+
 	/**
 	 * 
 	 * @param file
@@ -98,8 +220,6 @@ public class LinearSolver extends javax.constraints.linear.LinearSolver {
         }
 
         Solution solution = new Solution(this, 1);
-        
-        rs.g
 
         for (Variable ojVar : model.getVariables()) {
                 ojVar.relax();
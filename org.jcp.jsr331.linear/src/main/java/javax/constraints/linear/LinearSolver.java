@@ -9,6 +9,7 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.UUID;
 
+import javax.constraints.Constraint;
 import javax.constraints.Objective;
 import javax.constraints.OptimizationStrategy;
 import javax.constraints.Solution;
@@ -21,6 +22,7 @@ abstract public class LinearSolver extends Solver {
 	
 	public static String LP_SOLVER_EXE = "LP_SOLVER_EXE";
 	public static String LP_SOLVER_OPTIONS = "LP_SOLVER_OPTIONS";
+	public static String LP_SOLVER_PIPE = "LP_SOLVER_PIPE";
 	public static String OUTPUT_FOLDER = "LP";
 	
 	private String correlationID = UUID.randomUUID().toString();
@@ -30,6 +32,10 @@ abstract public class LinearSolver extends Solver {
 	}
 	
 	public Solution findOptimalSolution(Objective objectiveDirection, Var objectiveVar) {
+		if (isPipe()) {
+			((javax.constraints.impl.Problem)getProblem()).add(objectiveVar);
+			return pipe(objectiveDirection, (AbstractConstrainedVariable)objectiveVar);
+		}
 		File file = generateMpsFile(objectiveDirection,objectiveVar);
 		int timeoutMilliSeconds = getTimeLimitGlobal();
 		if (timeoutMilliSeconds > 0)
@@ -39,6 +45,10 @@ abstract public class LinearSolver extends Solver {
 	}
 	
 	public Solution findOptimalSolution(Objective objectiveDirection, VarReal objectiveVar) {
+		if (isPipe()) {
+			((javax.constraints.impl.Problem)getProblem()).add(objectiveVar);
+			return pipe(objectiveDirection, (AbstractConstrainedVariable)objectiveVar);
+		}
 		File file = generateMpsFile(objectiveDirection,objectiveVar);
 		int timeoutMilliSeconds = getTimeLimitGlobal();
 		if (timeoutMilliSeconds > 0)
@@ -52,6 +62,45 @@ abstract public class LinearSolver extends Solver {
 		return findOptimalSolution(objective, objectiveVar);
 	} 
 	
+	/**
+	 * Changes the bounds of an integer variable between two calls of findOptimalSolution.
+	 * Solvers that keep their model alive between calls override this method to
+	 * update the model in place and to re-optimize from the previous basis;
+	 * by default the next call simply regenerates the whole model.
+	 * @param var an integer variable of the problem
+	 * @param min a new lower bound
+	 * @param max a new upper bound
+	 */
+	public void setBounds(Var var, int min, int max) {
+		javax.constraints.impl.Var v = (javax.constraints.impl.Var) var;
+		v.setMin(min);
+		v.setMax(max);
+	}
+	
+	/**
+	 * Changes the bounds of a real variable between two calls of findOptimalSolution.
+	 * @param var a real variable of the problem
+	 * @param min a new lower bound
+	 * @param max a new upper bound
+	 * @see #setBounds(Var, int, int)
+	 */
+	public void setBounds(VarReal var, double min, double max) {
+		javax.constraints.impl.VarReal v = (javax.constraints.impl.VarReal) var;
+		v.setMin(min);
+		v.setMax(max);
+	}
+	
+	/**
+	 * Changes the right hand side value of a posted linear constraint between
+	 * two calls of findOptimalSolution.
+	 * @param constraint a constraint posted by the problem
+	 * @param value a new right hand side value
+	 * @see #setBounds(Var, int, int)
+	 */
+	public void setRhs(Constraint constraint, double value) {
+		((javax.constraints.impl.Constraint) constraint).setValue(value);
+	}
+	
 	/**
 	 * 
 	 * @return Objective.MINIMIZE or Objective.MAXIMIZE based on a particular solver
@@ -73,6 +122,16 @@ abstract public class LinearSolver extends Solver {
 	}
 	
 	public File generateMpsFile(Objective objectiveDirection, AbstractConstrainedVariable objectiveVar) {
+		File file = new File(getInputFilename());
+		MpsGenerator mpsGenerator = createMpsGenerator(objectiveDirection, objectiveVar, file);
+		mpsGenerator.generate();
+		return file;
+	}
+	
+	/**
+	 * @param file the .mps file or null for a generator that writes to a stream
+	 */
+	MpsGenerator createMpsGenerator(Objective objectiveDirection, AbstractConstrainedVariable objectiveVar, File file) {
 		javax.constraints.impl.Problem problem = 
 				(javax.constraints.impl.Problem)getProblem();
 		int direction = 1; // default
@@ -80,12 +139,35 @@ abstract public class LinearSolver extends Solver {
 			direction = -1;
 		}
 		
-		File file = new File(getInputFilename());
-		MpsGenerator mpsGenerator = 
-				new MpsGenerator(problem, direction, objectiveVar,file);
+		MpsGenerator mpsGenerator = file == null ?
+				new MpsGenerator(problem, direction, objectiveVar) :
+				new MpsGenerator(problem, direction, objectiveVar, file);
 		mpsGenerator.setIntegerVariablesOnly(true);
-		mpsGenerator.generate();
-		return file;
+		return mpsGenerator;
+	}
+	
+	/**
+	 * @return true if the system property LP_SOLVER_PIPE is "true" and this solver
+	 * can read the model from its standard input
+	 */
+	public boolean isPipe() {
+		return "true".equalsIgnoreCase(System.getProperty(LP_SOLVER_PIPE))
+				&& getPipeCommandLine() != null;
+	}
+	
+	/**
+	 * Solves the problem by writing its MPS representation directly to the
+	 * standard input of the process started with getPipeCommandLine(),
+	 * without an intermediate .mps file
+	 * @return solution or null
+	 */
+	public Solution pipe(Objective objectiveDirection, AbstractConstrainedVariable objectiveVar) {
+		MpsGenerator mpsGenerator = createMpsGenerator(objectiveDirection, objectiveVar, null);
+		String command = getPipeCommandLine();
+		boolean result = StreamGobbler.pipe(command, mpsGenerator, getLogFilename(), getTimeLimitGlobal());
+		if (result == false)
+			return null;
+		return readSolution();
 	}
 	
 	public String uniqueName(String ext) {
@@ -153,7 +235,14 @@ abstract public class LinearSolver extends Solver {
 			t.printStackTrace();
 			throw new RuntimeException(t);
 		}
-		
+		return readSolution();
+	}
+	
+	/**
+	 * Reads the solution written by the solver process to getOutputFilename()
+	 * @return solution or null
+	 */
+	Solution readSolution() {
 //		int[] values = readResultValues();
 //		if (values != null && values.length > 0) {
 //			javax.constraints.impl.Problem problem = (javax.constraints.impl.Problem) getProblem();
@@ -176,6 +265,11 @@ abstract public class LinearSolver extends Solver {
             log("This solver cannot find a solution");
             return null;
         }
+		double[] values = readResultValues();
+		if (values != null) {
+			setValues(values);
+			return new javax.constraints.impl.search.Solution(this, 1);
+		}
 		HashMap<String,String> results = readResults();
 		if (results != null) {
 			javax.constraints.impl.Problem problem = (javax.constraints.impl.Problem) getProblem();
@@ -243,6 +337,15 @@ abstract public class LinearSolver extends Solver {
 	
 	abstract public String getCommanLine(); 
 	
+	/**
+	 * @return a command line like getCommanLine() that makes the solver read
+	 * the MPS model from its standard input, or null if the solver reads the
+	 * model only from getInputFilename()
+	 */
+	public String getPipeCommandLine() {
+		return null;
+	}
+	
 	/**
 	 * Reads an output file and produces a HashMap which elements contain pairs:
 	 * - String varName
@@ -251,12 +354,50 @@ abstract public class LinearSolver extends Solver {
 	 */
 	abstract public HashMap<String, String> readResults();
 	
-//	/**
-//	 * Reads an output file and produces an array that is parallel to the array
-//	 * of all variables
-//	 * @return integer array of resulting values for all problem variables
-//	 */
-//	abstract public int[] readResultValues();
+	/**
+	 * Reads an output file and produces an array that is parallel to the array
+	 * of all variables followed by all real variables, i.e. to the columns
+	 * written by MpsGenerator. Solvers may override this method using a
+	 * {@link ResultReader} to avoid building the string map of readResults().
+	 * @return an array of resulting values for all columns or null if
+	 *         readResults() should be used instead
+	 */
+	public double[] readResultValues() {
+		return null;
+	}
+	
+	/**
+	 * Sets the values of all problem variables to the values of the
+	 * corresponding columns produced by readResultValues()
+	 * @param values an array of resulting values for all columns
+	 */
+	public void setValues(double[] values) {
+		javax.constraints.impl.Problem problem = (javax.constraints.impl.Problem) getProblem();
+		int n = 0;
+		Var[] vars = problem.getVars();
+		if (vars != null)
+		for (int i = 0; i < vars.length; i++) {
+			((javax.constraints.impl.Var) vars[i]).setValue((int) values[n++]);
+		}
+		VarReal[] varReals = problem.getVarReals();
+		if (varReals != null)
+		for (int i = 0; i < varReals.length; i++) {
+			((javax.constraints.impl.VarReal) varReals[i]).setValue(values[n++]);
+		}
+	}
+	
+	/**
+	 * Returns true if the bound is one of the sentinels used for default domains:
+	 * Integer.MIN_VALUE+1 and Integer.MAX_VALUE-1 for integer variables,
+	 * -Double.MAX_VALUE, Double.MAX_VALUE and the infinities for real variables.
+	 * Solvers should treat such bounds as missing rather than as real limits.
+	 * @param bound a lower or upper bound of a variable
+	 * @return true if the bound means "unbounded"
+	 */
+	public static boolean isDefaultBound(double bound) {
+		return bound == Integer.MIN_VALUE+1 || bound == Integer.MAX_VALUE-1
+			|| Math.abs(bound) == Double.MAX_VALUE || Double.isInfinite(bound);
+	}
 	
 	public static String[] split(String line) {
 		StringBuffer buf = new StringBuffer();
@@ -1,9 +1,20 @@
 package javax.constraints.linear;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.text.DecimalFormat;
+import java.util.IdentityHashMap;
 
 import javax.constraints.ConstrainedVariable;
 import javax.constraints.Constraint;
@@ -12,6 +23,14 @@ import javax.constraints.VarReal;
 import javax.constraints.impl.AbstractConstrainedVariable;
 import javax.constraints.impl.Problem;
 
+/**
+ * Generates a .mps representation of a linear problem.
+ *
+ * The generator builds a sparse column-major index of all constraint
+ * coefficients once, so the COLUMNS section is written in one pass over
+ * the non-zeros, and streams the text through an NIO buffer to a file
+ * or to any output stream.
+ */
 public class MpsGenerator {
 
 	Problem problem;
@@ -20,6 +39,8 @@ public class MpsGenerator {
 
 	AbstractConstrainedVariable objectiveVar;
 
+	File file;
+
 	private String[] rowNames;
 
 	private String[] rowTypes; // N, E, L, G
@@ -40,20 +61,46 @@ public class MpsGenerator {
 
 	public final static int[] colLengths = { 10, 15 };
 
+	// the size of the output buffer
+	public final static int BUFFER_SIZE = 1 << 16;
+
 	private boolean integerVariablesOnly;
 
 	// max variable name size
 	private int maxNameSize;
 
-	BufferedWriter output;
+	// sparse column-major index: the rows and coefficients of the column c
+	// are stored in columnRows/columnValues from columnStarts[c] to columnStarts[c+1]
+	private int[] columnStarts;
+	private int[] columnRows;
+	private double[] columnValues;
 
+	// allocated once and reused by every call of generate
+	ByteBuffer buffer;
+	CharsetEncoder encoder;
+	WritableByteChannel channel;
+	StringBuilder line;
+
+	/**
+	 * Creates a generator that writes the problem to the given file
+	 */
 	public MpsGenerator(Problem problem, int objectiveDirection,
 			AbstractConstrainedVariable objectiveVar, File file) {
+		this(problem, objectiveDirection, objectiveVar);
+		this.file = file;
+		System.out.println("MpsGenerator for file " + file.getAbsolutePath());
+	}
+
+	/**
+	 * Creates a generator that writes the problem to an output stream
+	 * passed to {@link #generate(OutputStream)}
+	 */
+	public MpsGenerator(Problem problem, int objectiveDirection,
+			AbstractConstrainedVariable objectiveVar) {
 		this.problem = problem;
 		this.objectiveDirection = objectiveDirection;
 		this.objectiveVar = objectiveVar;
-		
-		System.out.println("MpsGenerator for file " + file.getAbsolutePath());
+		this.file = null;
 
 		setIntegerVariablesOnly(false);
 
@@ -97,19 +144,6 @@ public class MpsGenerator {
 				rowValues[i] -= precision;
 			}
 			rowTypes[i] = getRowType(oper);
-			
-			// AbstractConstrainedVariable derivedVar = c.getDerivedVar();
-			// if (derivedVar != null) {
-			// //rowNames[i] = derivedVar.getName();
-			// rowTypes[i] = "N";
-			// }
-		}
-		try {
-			output = new BufferedWriter(new FileWriter(file));
-		} catch (Exception e) {
-			e.printStackTrace();
-			throw new RuntimeException(
-					"MpsGenerator cannot write to the given file");
 		}
 	}
 
@@ -121,16 +155,33 @@ public class MpsGenerator {
 		rowCount++;
 	}
 
-	void write(String text) {
+	/**
+	 * Encodes the text with the default charset into the buffer, which is flushed whenever
+	 * it fills. Every text is encoded as a whole, so surrogate pairs are never split.
+	 */
+	void write(CharSequence text) {
 		try {
-			output.write(text);
-		} catch (Exception e) {
+			CharBuffer chars = CharBuffer.wrap(text);
+			encoder.reset();
+			// malformed and unmappable characters are replaced, so the only result is overflow
+			while (encoder.encode(chars, buffer, true).isOverflow())
+				flush();
+			while (encoder.flush(buffer).isOverflow())
+				flush();
+		} catch (IOException e) {
 			e.printStackTrace();
 			throw new RuntimeException(
 					"MpsGenerator: error writing to the given file");
 		}
 	}
 
+	void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
 	public boolean isIntegerVariablesOnly() {
 		return integerVariablesOnly;
 	}
@@ -142,12 +193,63 @@ public class MpsGenerator {
 	/**
 	 * Creates a .mps format representation of this linear problem and places it
 	 * within the passed file parameter of the constructor.
-	 * 
+	 *
 	 */
 	public void generate() {
+		if (file == null)
+			throw new RuntimeException("MpsGenerator: the file is not defined");
 		long startTime = System.currentTimeMillis();
+		FileOutputStream out;
+		try {
+			out = new FileOutputStream(file);
+		} catch (Exception e) {
+			e.printStackTrace();
+			throw new RuntimeException(
+					"MpsGenerator cannot write to the given file");
+		}
+		try {
+			generate(out.getChannel());
+		} finally {
+			try {
+				out.close();
+			} catch (Exception e) {
+				e.printStackTrace();
+				throw new RuntimeException(
+						"MpsGenerator: cannot close the given file");
+			}
+		}
+		long executionTime = System.currentTimeMillis() - startTime;
+		System.out.println("MPS file generated in " + executionTime + " msec");
+	}
+
+	/**
+	 * Writes a .mps format representation of this linear problem to the
+	 * output stream "out". The stream is flushed but not closed.
+	 *
+	 * @param out the output stream, e.g. the standard input of a solver process
+	 */
+	public void generate(OutputStream out) {
+		generate(Channels.newChannel(out));
+		try {
+			out.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new RuntimeException(
+					"MpsGenerator: error writing to the given stream");
+		}
+	}
+
+	void generate(WritableByteChannel channel) {
+		this.channel = channel;
+		if (buffer == null) {
+			buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			encoder = Charset.defaultCharset().newEncoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+		buffer.clear();
+		line = new StringBuilder(128);
 		try {
-			// FileWriter always assumes default encoding is OK!
 			write("NAME          " + problem.getName() + "\n");
 			// calculate what columns things go in, as excessively long variable
 			// names can reach into next column
@@ -157,22 +259,23 @@ public class MpsGenerator {
 			while (maxNameSize + 5 > colStarts[++pos])
 				;
 			writeRows();
+			buildColumnIndex();
 			writeColumns(colStarts[pos]);
 			writeRHS(colStarts[pos]);
 			writeBounds(colStarts[pos]);
 			write("ENDATA");
 			write("\n");
+			flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new RuntimeException(
+					"MpsGenerator: error writing to the given file");
 		} finally {
-			try {
-				output.close();
-			} catch (Exception e) {
-				e.printStackTrace();
-				throw new RuntimeException(
-						"MpsGenerator: cannot close the given file");
-			}
+			this.channel = null;
+			columnStarts = null;
+			columnRows = null;
+			columnValues = null;
 		}
-		long executionTime = System.currentTimeMillis() - startTime;
-		System.out.println("MPS file generated in " + executionTime + " msec");
 	}
 
 	private void writeRows() {
@@ -182,144 +285,154 @@ public class MpsGenerator {
 			System.out.println("Objective variable "
 					+ objectiveVar.getName()
 					+ " is not derived from other variables");
-		// write(" N  " + objectiveVar.getName() + "\n");
 		write(" N  " + OBJ_ID + "\n");
 
-		Constraint[] constraints = problem.getConstraints();
-		for (int i = 0; i < constraints.length; i++) {
-			// javax.constraints.impl.Constraint c =
-			// (javax.constraints.impl.Constraint) constraints[i];
-			// if (objectiveVar == c.getDerivedVar())
-			// continue;
+		for (int i = 0; i < rowNames.length; i++) {
 			write(" " + rowTypes[i] + "  " + rowNames[i] + "\n");
 		}
 	}
 
+	/**
+	 * Builds the sparse column-major index of all constraint coefficients with one pass
+	 * over the constraints. Integer variables come first, then real variables.
+	 * One variable can participate in different constraints, but only once in the same
+	 * constraint: only its first coefficient in a constraint is used.
+	 */
+	private void buildColumnIndex() {
+		Var[] vars = problem.getVars();
+		VarReal[] varReals = problem.getVarReals();
+		int intSize = vars == null ? 0 : vars.length;
+		int realSize = varReals == null ? 0 : varReals.length;
+		IdentityHashMap<ConstrainedVariable,Integer> columns =
+				new IdentityHashMap<ConstrainedVariable,Integer>(2*(intSize + realSize));
+		for (int i = 0; i < intSize; i++) {
+			javax.constraints.impl.Var var = (javax.constraints.impl.Var) vars[i];
+			var.setId("Vi"+i);
+			var.setUsedInConstraints(false);
+			columns.put(var, i);
+		}
+		for (int i = 0; i < realSize; i++) {
+			javax.constraints.impl.VarReal var = (javax.constraints.impl.VarReal) varReals[i];
+			var.setId("Vr"+i);
+			var.setUsedInConstraints(false);
+			columns.put(var, intSize + i);
+		}
+
+		Constraint[] constraints = problem.getConstraints();
+		int size = intSize + realSize;
+		int[] lastRow = new int[size];
+		for (int c = 0; c < size; c++)
+			lastRow[c] = -1;
+		int[][] rowsOf = new int[constraints.length][];
+		columnStarts = new int[size + 1];
+		for (int j = 0; j < constraints.length; j++) {
+			javax.constraints.impl.Constraint c = (javax.constraints.impl.Constraint) constraints[j];
+			ConstrainedVariable[] constraintVars = c.getVars();
+			int[] cols = new int[constraintVars.length];
+			for (int k = 0; k < constraintVars.length; k++) {
+				Integer col = columns.get(constraintVars[k]);
+				if (col == null || lastRow[col] == j) {
+					cols[k] = -1;
+					continue;
+				}
+				lastRow[col] = j;
+				cols[k] = col;
+				columnStarts[col + 1]++;
+			}
+			rowsOf[j] = cols;
+		}
+		for (int c = 0; c < size; c++)
+			columnStarts[c + 1] += columnStarts[c];
+		columnRows = new int[columnStarts[size]];
+		columnValues = new double[columnStarts[size]];
+		int[] next = new int[size];
+		System.arraycopy(columnStarts, 0, next, 0, size);
+		for (int j = 0; j < constraints.length; j++) {
+			javax.constraints.impl.Constraint c = (javax.constraints.impl.Constraint) constraints[j];
+			double[] constraintCoefficients = c.getCoefficients();
+			int[] cols = rowsOf[j];
+			for (int k = 0; k < cols.length; k++) {
+				int col = cols[k];
+				if (col < 0)
+					continue;
+				columnRows[next[col]] = j;
+				columnValues[next[col]] = constraintCoefficients[k];
+				next[col]++;
+			}
+		}
+
+		for (int i = 0; i < intSize; i++) {
+			if (columnStarts[i + 1] > columnStarts[i])
+				((javax.constraints.impl.Var) vars[i]).setUsedInConstraints(true);
+		}
+		for (int i = 0; i < realSize; i++) {
+			if (columnStarts[intSize + i + 1] > columnStarts[intSize + i])
+				((javax.constraints.impl.VarReal) varReals[i]).setUsedInConstraints(true);
+		}
+	}
+
 	private void writeColumns(int thirdColStart) {
-//		int markerCount = 0;
 		write("COLUMNS");
 
-		Constraint[] constraints = problem.getConstraints();
 		Var[] vars = problem.getVars();
-		
+		int intSize = 0;
 		if (vars != null) {
+			intSize = vars.length;
 			startIntegerMarker(0);
 			for (int i = 0; i < vars.length; i++) {
-				javax.constraints.impl.Var var = (javax.constraints.impl.Var) vars[i];
-				var.setId("Vi"+i);
-				var.setUsedInConstraints(false);
-				int count = 0;
-				// One variable can participate in different constraints, but only once in the same constraint!
-				for (int j = 0; j < constraints.length; j++) {
-					javax.constraints.impl.Constraint c = (javax.constraints.impl.Constraint) constraints[j];
-					double[] constraintCoefficients = c.getCoefficients();
-					ConstrainedVariable[] constraintVars = c.getVars();
-					boolean[] written = new boolean[constraintCoefficients.length];
-					for (int w = 0; w < written.length; w++) {
-						written[w] = false;
-					}
-					for (int k = 0; k < constraintVars.length; k++) {
-						if (var.equals(constraintVars[k])) {
-							if (var.isUsedInConstraints() == false) {
-								var.setUsedInConstraints(true);
-								// if (isIntegerVariablesOnly()) {
-								// // open Marker for Integer variable
-								// startIntegerMarker(markerCount);
-								// markerCount++;
-								// }
-							}
-
-							if (count % 2 == 0) // new line every 2 rows
-							{
-								String str = "    " + var.getId(); //var.getName();
-								str = rightPadWhitespace(str, thirdColStart);
-								write("\n" + str);
-							}
-							String rowName = c.getName();
-							double d = (double) constraintCoefficients[k];
-							writeColumn(rowName, d);
-							
-							count++;
-							break; // 3/17/2019
-
-						} // if
-					} // for k ()constrained variables for this constraint
-				} // for j (all constraints)
-					// if (var.isUsedInConstraints() == true) {
-					// if (isIntegerVariablesOnly()) {
-					// // close marker
-					// endIntegerMarker(markerCount);
-					// markerCount++;
-					// }
-					// }
-			} // for i (all variables)
+				writeColumn(((javax.constraints.impl.Var) vars[i]).getId(), i, thirdColStart);
+			}
 			endIntegerMarker(1);
 		}
 
 		VarReal[] varReals = problem.getVarReals();
 		if (varReals != null) {
 			for (int i = 0; i < varReals.length; i++) {
-				javax.constraints.impl.VarReal var = (javax.constraints.impl.VarReal) varReals[i];
-				var.setId("Vr"+i);
-				var.setUsedInConstraints(false);
-				int count = 0;
-				for (int j = 0; j < constraints.length; j++) {
-					javax.constraints.impl.Constraint c = (javax.constraints.impl.Constraint) constraints[j];
-					double[] constraintCoefficients = c.getCoefficients();
-					ConstrainedVariable[] constraintVars = c.getVars();
-					for (int k = 0; k < constraintVars.length; k++) {
-						if (var.equals(constraintVars[k])) {
-							if (var.isUsedInConstraints() == false) {
-								var.setUsedInConstraints(true);
-							}
-//							else
-//								continue; // JF added on 3/17/2019
-							
-							if (count % 2 == 0) // new line every 2 rows
-							{
-								String str = "    " + var.getId(); //var.getName();
-								str = rightPadWhitespace(str, thirdColStart);
-								write("\n" + str);
-							}
-							String rowName = c.getName();
-							double d = (double) constraintCoefficients[k];
-							writeColumn(rowName, d);
-							count++;
-							break; // 3/17/2019
-						} // if
-					} // for k ()constrained variables for this constraint
-				} // for j (all constraints)
-			} // for i (all variables)
+				writeColumn(((javax.constraints.impl.VarReal) varReals[i]).getId(), intSize + i, thirdColStart);
+			}
 		}
 
 		// Add a column for cost referring to OBJ_ID
-		// if (isIntegerVariablesOnly()) {
-		// startIntegerMarker(markerCount);
-		// markerCount++;
-		// }
-		String str = "    " + objectiveVar.getId(); //objectiveVar.getName();
-		str = rightPadWhitespace(str, thirdColStart);
-		write("\n" + str);
-		writeColumn(OBJ_ID, objectiveDirection);
-		// if (isIntegerVariablesOnly()) {
-		// endIntegerMarker(markerCount);
-		// markerCount++;
-		// }
-		// endIntegerMarker(1);
+		line.setLength(0);
+		line.append("\n    ").append(objectiveVar.getId());
+		rightPadWhitespace(line, thirdColStart + 1);
+		appendEntry(line, OBJ_ID, objectiveDirection);
+		write(line);
 		write("\n");
 	}
 
-	private void writeColumn(String rowName, double d) {
-		rowName = rightPadWhitespace(rowName, colLengths[0]);
-		String rCoeff = "";
-		if (Math.floor(d) == d) // if it's an integer
-		{
-			rCoeff += ((int) d) + "   ";
-		} else {
-			rCoeff += format(d) + "   ";
+	/**
+	 * Writes all non-zeros of the column "col" two rows per line
+	 */
+	private void writeColumn(String id, int col, int thirdColStart) {
+		line.setLength(0);
+		int count = 0;
+		for (int n = columnStarts[col]; n < columnStarts[col + 1]; n++) {
+			if (count % 2 == 0) // new line every 2 rows
+			{
+				line.append("\n    ").append(id);
+				rightPadWhitespace(line, line.lastIndexOf("\n") + thirdColStart + 1);
+			}
+			appendEntry(line, rowNames[columnRows[n]], columnValues[n]);
+			count++;
+		}
+		write(line);
+	}
+
+	/**
+	 * Appends a row name padded to colLengths[0] and a value padded to colLengths[1]
+	 */
+	private void appendEntry(StringBuilder sb, String rowName, double d) {
+		sb.append(rowName);
+		for (int i = rowName.length(); i < colLengths[0]; i++)
+			sb.append(' ');
+		int start = sb.length();
+		appendNumber(sb, d);
+		sb.append("   ");
+		int length = sb.length() - start;
+		if (length < colLengths[1]) {
+			sb.insert(start, SPACES, 0, colLengths[1] - length);
 		}
-		rCoeff = leftPadWhitespace(rCoeff, colLengths[1]);
-		write(rowName + rCoeff);
 	}
 
 	private void startIntegerMarker(int markerCount) {
@@ -342,34 +455,23 @@ public class MpsGenerator {
 
 	private void writeRHS(int thirdColStart) {
 		write("RHS");
+		line.setLength(0);
 		int count = 0;
 		for (int r = 0; r < rowNames.length; r++) {
-			String rName = rowNames[r];
-			rName = rightPadWhitespace(rName, colLengths[0]);
-
 			double d = rowValues[r];
-			String rRHS = "";
-
-			if (Math.floor(d) == d) // if it's an integer
-			{
-				rRHS += ((int) d) + "   ";
-			} else {
-				rRHS += format(d) + "   ";
-			}
-
-			rRHS = leftPadWhitespace(rRHS, colLengths[1]);
 			if (d > 0) {
 				if (count % 2 == 0) // new line every 2 rows
 				{
-					String str = "    rhs";
-					str = rightPadWhitespace(str, thirdColStart);
-					write("\n" + str);
+					write(line);
+					line.setLength(0);
+					line.append("\n    rhs");
+					rightPadWhitespace(line, thirdColStart + 1);
 				}
-				write(rName + rRHS);
+				appendEntry(line, rowNames[r], d);
 				count++;
 			}
-
 		}
+		write(line);
 		write("\n");
 	}
 
@@ -380,21 +482,17 @@ public class MpsGenerator {
 			for (int i = 0; i < vars.length; i++) {
 				javax.constraints.impl.Var var = (javax.constraints.impl.Var) vars[i];
 				if (var.isUsedInConstraints()) {
-					//writeOneBounds(var.getName(), var.getMin(), var.getMax(), thirdColStart);	
-					writeOneBounds(var.getId(), var.getMin(), var.getMax(), thirdColStart);	
-//					String str = " UP bnd";
+					writeOneBounds(var.getId(), var.getMin(), var.getMax(), thirdColStart);
 				}
 			}
 		}
-		
+
 		VarReal[] varReals = problem.getVarReals();
 		if (varReals != null) {
 			for (int i = 0; i < varReals.length; i++) {
 				javax.constraints.impl.VarReal varReal = (javax.constraints.impl.VarReal) varReals[i];
 				if (varReal.isUsedInConstraints()) {
-					//writeOneBounds(varReal.getName(), varReal.getMin(), varReal.getMax(), thirdColStart);	
 					writeOneBounds(varReal.getId(), varReal.getMin(), varReal.getMax(), thirdColStart);
-//					String str = " UP bnd";
 				}
 			}
 		}
@@ -402,54 +500,28 @@ public class MpsGenerator {
 
 	private void writeOneBounds(String name, double min, double max,
 			int thirdColStart) {
-		String str = " UP bnd";
-		str = rightPadWhitespace(str, thirdColStart);
-		String vName = name;
-		vName = rightPadWhitespace(vName, colLengths[0]);
-
-		double d = max;
-		String vUppBnd = "";
-
-		if (Math.floor(d) == d) // if it's an integer
-		{
-			vUppBnd += ((int) d) + "   ";
-		} else {
-			vUppBnd += format(d) + "   ";
-		}
-		vUppBnd = leftPadWhitespace(vUppBnd, colLengths[1]);
-
-		write(str + vName + vUppBnd + "\n");
+		line.setLength(0);
+		line.append(" UP bnd");
+		rightPadWhitespace(line, thirdColStart);
+		appendEntry(line, name, max);
+		line.append('\n');
 		double lb = min;
 		if (lb > 0) {
-			String str2 = " LO bnd";
-			str2 = rightPadWhitespace(str2, thirdColStart);
-
-			String vLowBnd = "";
-
-			if (Math.floor(lb) == lb) // if it's an integer
-			{
-				vLowBnd += ((int) lb) + "   ";
-			} else {
-				vLowBnd += format(lb) + "   ";
-			}
-			vLowBnd = leftPadWhitespace(vLowBnd, colLengths[1]);
-
-			write(str2 + vName + vLowBnd + "\n");
+			int start = line.length();
+			line.append(" LO bnd");
+			rightPadWhitespace(line, start + thirdColStart);
+			appendEntry(line, name, lb);
+			line.append('\n');
 		}
+		write(line);
 	}
 
-	private String rightPadWhitespace(String str, int length) {
-		while (str.length() < length) {
-			str += " ";
-		}
-		return str;
-	}
+	private static final String SPACES = "                                                  ";
 
-	private String leftPadWhitespace(String str, int length) {
-		while (str.length() < length) {
-			str = " " + str;
+	private void rightPadWhitespace(StringBuilder sb, int length) {
+		while (sb.length() < length) {
+			sb.append(' ');
 		}
-		return str;
 	}
 
 	private String getRowType(String oper) {
@@ -471,9 +543,42 @@ public class MpsGenerator {
 	static DecimalFormat DEFAULT_REAL_FORMAT = new DecimalFormat(
 			LP_DECIMAL_FORMAT);
 
+	/**
+	 * Appends an integer value as is and any other value in the LP decimal format
+	 * "#0.000" (rounded half-even) without creating intermediate strings
+	 */
+	static void appendNumber(StringBuilder sb, double d) {
+		if (Math.floor(d) == d) { // if it's an integer
+			sb.append((int) d);
+			return;
+		}
+		double scaled = Math.abs(d) * 1000;
+		double floor = Math.floor(scaled);
+		if (scaled >= 1e15 || Math.abs(scaled - floor - 0.5) < 1e-6) {
+			// too large or too close to a tie: round the exact decimal value
+			BigDecimal exact = new BigDecimal(d).setScale(3, RoundingMode.HALF_EVEN);
+			if (d < 0 && exact.signum() == 0)
+				sb.append('-');
+			sb.append(exact.toPlainString());
+			return;
+		}
+		long units = (long) floor;
+		if (scaled - floor > 0.5)
+			units++;
+		if (d < 0)
+			sb.append('-');
+		sb.append(units / 1000).append('.');
+		long fraction = units % 1000;
+		if (fraction < 100)
+			sb.append('0');
+		if (fraction < 10)
+			sb.append('0');
+		sb.append(fraction);
+	}
+
 	/**
 	 * Returns a formatted string representation of the passed double value,
-	 * 
+	 *
 	 * @param d
 	 *            the double to format
 	 * @param fmt
@@ -487,7 +592,7 @@ public class MpsGenerator {
 
 	/**
 	 * Returns a formatted string representation of the passed double value,
-	 * 
+	 *
 	 * @param d
 	 *            the double to format
 	 * @return a formatted string representation of the double.
@@ -499,7 +604,7 @@ public class MpsGenerator {
 
 	/**
 	 * Sets the output format for displaying decimal values.
-	 * 
+	 *
 	 * @param fmt  the new format
 	 */
 	public static void setRealFormat(String fmt) {
@@ -508,7 +613,7 @@ public class MpsGenerator {
 
 	/**
 	 * Sets the output format for displaying decimal values.
-	 * 
+	 *
 	 * @return the new format
 	 */
 	public static String getRealFormat() {
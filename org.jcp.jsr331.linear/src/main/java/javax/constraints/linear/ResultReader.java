@@ -0,0 +1,236 @@
+package javax.constraints.linear;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import javax.constraints.Var;
+import javax.constraints.VarReal;
+import javax.constraints.impl.Problem;
+
+/**
+ * A reader of solution files produced by external linear solvers.
+ * It memory-maps the file and parses the values of the columns written by
+ * {@link MpsGenerator} (named "Vi"+i for integer and "Vr"+i for real variables)
+ * directly into a double array without creating intermediate strings.
+ *
+ * The resulting array is parallel to the array of all problem variables
+ * followed by all real variables. Columns that are not found in the file
+ * keep the value 0 - linear solvers do not display zero values in solutions.
+ */
+public class ResultReader {
+
+	RandomAccessFile file;
+	MappedByteBuffer buffer;
+	int pos;
+	int limit;
+
+	int intSize;
+	int realSize;
+
+	public ResultReader(String fileName, Problem problem) throws IOException {
+		Var[] vars = problem.getVars();
+		intSize = vars == null ? 0 : vars.length;
+		VarReal[] varReals = problem.getVarReals();
+		realSize = varReals == null ? 0 : varReals.length;
+		file = new RandomAccessFile(fileName, "r");
+		FileChannel channel = file.getChannel();
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		pos = 0;
+		limit = buffer.limit();
+	}
+
+	/**
+	 * @return a new array of values for all columns
+	 */
+	public double[] createValues() {
+		return new double[intSize + realSize];
+	}
+
+	public void close() {
+		try {
+			file.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @return true if the end of the file is reached
+	 */
+	public boolean isEnd() {
+		return pos >= limit;
+	}
+
+	/**
+	 * Moves to the beginning of the next line
+	 * @return false if there are no more lines
+	 */
+	public boolean nextLine() {
+		while (pos < limit && buffer.get(pos) != '\n')
+			pos++;
+		if (pos >= limit)
+			return false;
+		pos++;
+		return pos < limit;
+	}
+
+	/**
+	 * Skips spaces and tabs
+	 * @return true if the current line has more tokens
+	 */
+	public boolean hasToken() {
+		while (pos < limit) {
+			byte b = buffer.get(pos);
+			if (b != ' ' && b != '\t')
+				break;
+			pos++;
+		}
+		return pos < limit && buffer.get(pos) != '\n' && buffer.get(pos) != '\r';
+	}
+
+	/**
+	 * Skips the next token of the current line
+	 */
+	public void skipToken() {
+		hasToken();
+		while (pos < limit && !isDelimiter(buffer.get(pos)))
+			pos++;
+	}
+
+	/**
+	 * @return true if the next token of the current line starts like a number
+	 */
+	public boolean isNumber() {
+		if (!hasToken())
+			return false;
+		byte b = buffer.get(pos);
+		return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+	}
+
+	/**
+	 * Skips the current line up to the first occurrence of "text" within this line
+	 * @return true if the text is found, otherwise the position does not change
+	 */
+	public boolean findInLine(String text) {
+		for (int p = pos; p < limit && buffer.get(p) != '\n'; p++) {
+			if (matches(p, text)) {
+				pos = p + text.length();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Moves the position after the next occurrence of "text" in the file
+	 * @return true if the text is found, otherwise the end of file is reached
+	 */
+	public boolean find(String text) {
+		int last = limit - text.length();
+		byte first = (byte) text.charAt(0);
+		for (int p = pos; p <= last; p++) {
+			if (buffer.get(p) == first && matches(p, text)) {
+				pos = p + text.length();
+				return true;
+			}
+		}
+		pos = limit;
+		return false;
+	}
+
+	boolean matches(int p, String text) {
+		if (p + text.length() > limit)
+			return false;
+		for (int i = 0; i < text.length(); i++) {
+			if (buffer.get(p + i) != text.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	static boolean isDelimiter(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '"';
+	}
+
+	/**
+	 * Reads the next token as a column name "Vi"+i or "Vr"+i
+	 * @return the column index or -1 if the token is not a column of this problem
+	 */
+	public int column() {
+		hasToken();
+		int start = pos;
+		skipToken();
+		if (pos - start < 3 || buffer.get(start) != 'V')
+			return -1;
+		byte type = buffer.get(start + 1);
+		if (type != 'i' && type != 'r')
+			return -1;
+		int index = 0;
+		for (int p = start + 2; p < pos; p++) {
+			byte b = buffer.get(p);
+			if (b < '0' || b > '9' || index > (Integer.MAX_VALUE - 9) / 10)
+				return -1;
+			index = index * 10 + (b - '0');
+		}
+		if (type == 'i')
+			return index < intSize ? index : -1;
+		return index < realSize ? intSize + index : -1;
+	}
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * Reads the next token as a number.
+	 * Plain decimal numbers with up to 15 significant digits are converted
+	 * exactly without creating a string, other numbers use Double.parseDouble
+	 * @throws NumberFormatException if the token is not a number
+	 */
+	public double number() {
+		hasToken();
+		int start = pos;
+		skipToken();
+		int p = start;
+		boolean negative = false;
+		if (p < pos && (buffer.get(p) == '-' || buffer.get(p) == '+')) {
+			negative = buffer.get(p) == '-';
+			p++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fraction = 0;
+		boolean point = false;
+		boolean isNumber = false;
+		for (; p < pos; p++) {
+			byte b = buffer.get(p);
+			if (b >= '0' && b <= '9') {
+				isNumber = true;
+				if (mantissa > 0 || b != '0')
+					digits++;
+				mantissa = mantissa * 10 + (b - '0');
+				if (point)
+					fraction++;
+				if (digits > 15)
+					break;
+			}
+			else if (b == '.' && !point)
+				point = true;
+			else
+				break;
+		}
+		if (p < pos || !isNumber || fraction >= POWERS_OF_TEN.length) {
+			// exponent, too many digits or not a number
+			byte[] bytes = new byte[pos - start];
+			for (int i = 0; i < bytes.length; i++)
+				bytes[i] = buffer.get(start + i);
+			return Double.parseDouble(new String(bytes));
+		}
+		double value = (double) mantissa;
+		if (fraction > 0)
+			value = value / POWERS_OF_TEN[fraction];
+		return negative ? -value : value;
+	}
+}
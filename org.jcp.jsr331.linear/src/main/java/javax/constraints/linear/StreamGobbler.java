@@ -65,6 +65,21 @@ public class StreamGobbler extends Thread {
 
 	static public boolean execute(String command, String inputfile,
 			String outputfile, int timeoutMilliSeconds) {
+		return execute(command, inputfile, null, outputfile, timeoutMilliSeconds);
+	}
+
+	/**
+	 * Executes the command and writes the MPS representation of the problem
+	 * directly to the standard input of the started process, without an
+	 * intermediate file. The command should read its model from the standard input.
+	 */
+	static public boolean pipe(String command, MpsGenerator generator,
+			String outputfile, int timeoutMilliSeconds) {
+		return execute(command, null, generator, outputfile, timeoutMilliSeconds);
+	}
+
+	static boolean execute(String command, String inputfile, MpsGenerator generator,
+			String outputfile, int timeoutMilliSeconds) {
 		long startTime = System.currentTimeMillis();
 		System.out.println("Start time: " + Calendar.getInstance().getTime());
 		System.out.println("Execute command: " + command);
@@ -73,6 +88,27 @@ public class StreamGobbler extends Thread {
 			Runtime rt = Runtime.getRuntime();
 			Process proc = rt.exec(command);
 
+			// any error message?
+			StreamGobbler errorGobbler = new StreamGobbler(
+					proc.getErrorStream(), "ERROR");
+
+			// any output?
+			StreamGobbler outputGobbler = new StreamGobbler(
+					proc.getInputStream(), "OUTPUT", fos);
+
+			// kick them off before writing the input, so a process
+			// that writes while reading a large input never blocks
+			errorGobbler.start();
+			outputGobbler.start();
+
+			if (generator != null) {
+				OutputStream standardInputOfChildProcess = proc.getOutputStream();
+				try {
+					generator.generate(standardInputOfChildProcess);
+				} finally {
+					standardInputOfChildProcess.close();
+				}
+			}
 			if (inputfile != null) {
 				try {
 					System.out.println("using command file: " + inputfile);
@@ -92,19 +128,6 @@ public class StreamGobbler extends Thread {
 					throw new RuntimeException(msg);
 				}
 			}
-			// any error message?
-			StreamGobbler errorGobbler = new StreamGobbler(
-					proc.getErrorStream(), "ERROR");
-
-			// any output?
-			StreamGobbler outputGobbler = new StreamGobbler(
-					proc.getInputStream(), "OUTPUT", fos);
-
-			// kick them off
-			errorGobbler.start();
-			outputGobbler.start();
-
-			
 			// Java 8 only?
 			boolean result = true;
 			if (timeoutMilliSeconds > 0) {
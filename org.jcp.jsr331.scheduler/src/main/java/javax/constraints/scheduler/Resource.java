@@ -74,9 +74,19 @@ public interface Resource {
 	/**
 	 * 
 	 * @return an array of constrained integer variables that represent capacities 
-	 * of this resource at every time unit of the associated schedule
+	 * of this resource at every time unit of the associated schedule.
+	 * It creates a variable for every time unit, so for long horizons
+	 * prefer getCapacityUsage() to get the total used capacity.
 	 */
 	public Var[] getCapacities();
+	
+	/**
+	 * 
+	 * @return a constrained integer variable equal to the total capacity required by
+	 * the activities of this resource: the sum of duration*capacity over all posted
+	 * "requires" constraints. Its size does not depend on the schedule horizon.
+	 */
+	public Var getCapacityUsage();
 
 	/**
 	 * Sets resource maximal capacity at the specified moment of time.
@@ -8,6 +8,9 @@
 //============================================= 
 package javax.constraints.scheduler.impl;
 
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.Vector;
 
 import javax.constraints.Constraint;
@@ -21,7 +24,11 @@ import javax.constraints.scheduler.ConsumptionTable;
 
 /**
  * This class represents constrained scheduling resources
- *
+ * <br>
+ * The maximal capacity of a resource is kept as a piecewise constant function
+ * of time (capacity steps). A capacity variable for a particular time is created
+ * only when it is actually requested, e.g. by getCapacityVar(time) or when
+ * a minimal capacity is set. So the size of a resource does not depend on its horizon.
  */
 
 public class BasicResource extends SchedulingObject implements Resource {
@@ -36,13 +43,18 @@ public class BasicResource extends SchedulingObject implements Resource {
 	
 	private final int capacityMax; // theoretical capacity
 
-	private final Var[] capacities; // capacities for each time between timeMin
-									// and timeMax
+	// maximal capacity from a time until the next key
+	private final TreeMap<Integer, Integer> capacitySteps;
+
+	// capacity variables created on demand for some times between timeMin and timeMax
+	private final TreeMap<Integer, Var> capacities;
 	
 	private Vector<Constraint> activityConstraints;
 	
 	private ConsumptionTable consumptionTable = null;
 
+	private ConstraintCumulative cumulative = null;
+
 	public BasicResource(Schedule schedule, String name, int timeMin, int timeMax, int capacityMax,
 			         ResourceType type) {
 		super(schedule);
@@ -53,19 +65,17 @@ public class BasicResource extends SchedulingObject implements Resource {
 			throw new RuntimeException("Resourse " + name + ": invalid [timeMin;timemax)");
 		cost = -1;
 		this.capacityMax = capacityMax;
-		capacities = new Var[getDuration()];
-		for (int t = timeMin; t < timeMax; t++) {
-			capacities[t] = schedule.createVariable(name+".t" + t, 0, capacityMax);
-			//problem.remove("t"+t);
-		}
+		setName(name);
+		capacitySteps = new TreeMap<Integer, Integer>();
+		capacitySteps.put(timeMin, capacityMax);
+		capacities = new TreeMap<Integer, Var>();
 		// for consumable resources sum of all daily capacities ???
 		if (type.equals(ResourceType.CONSUMABLE)) {
 		    //schedule.post(capacities,"=",capacityMax);
-		    Var sum = schedule.sum(capacities);
+		    Var sum = schedule.sum(getCapacities());
 		    schedule.post(sum,"=",capacityMax); 
 		    consumptionTable = new BasicConsumptionTable(this, timeMin, timeMax);
 		}
-		setName(name);
 		activityConstraints = new Vector<Constraint>();
 	}
 	
@@ -102,8 +112,121 @@ public class BasicResource extends SchedulingObject implements Resource {
 		this.type = type;
 	}
 
+	/**
+	 * Creates (if necessary) and returns capacity variables for all times
+	 * between timeMin and timeMax
+	 */
 	public Var[] getCapacities() {
-		return capacities;
+		Var[] vars = new Var[getDuration()];
+		for (int t = timeMin; t < timeMax; t++)
+			vars[t - timeMin] = capacityVar(t);
+		return vars;
+	}
+
+	/**
+	 * Returns a variable equal to the sum of duration*capacity over all
+	 * "requires" constraints of this resource posted so far. Unlike the sum of
+	 * getCapacities(), it does not create capacity variables for every time.
+	 */
+	public Var getCapacityUsage() {
+		Vector<Var> vars = new Vector<Var>();
+		Vector<Integer> durations = new Vector<Integer>();
+		int constant = 0;
+		for (Constraint c : activityConstraints) {
+			if (!(c instanceof ConstraintRequire))
+				continue;
+			ConstraintRequire rc = (ConstraintRequire) c;
+			int duration = rc.getActivity().getDuration();
+			if (rc.getCapacityVar() != null) {
+				vars.add(rc.getCapacityVar());
+				durations.add(duration);
+			}
+			else
+				constant += duration * rc.getCapacity();
+		}
+		Schedule schedule = getSchedule();
+		if (vars.isEmpty())
+			return schedule.variable(getName() + ".usage", constant, constant);
+		int[] coefficients = new int[durations.size()];
+		for (int i = 0; i < coefficients.length; i++)
+			coefficients[i] = durations.get(i);
+		Var usage = schedule.scalProd(coefficients, vars.toArray(new Var[vars.size()]));
+		if (constant != 0)
+			usage = usage.plus(constant);
+		return usage;
+	}
+
+	/**
+	 * @return the capacity variable for the time, creates it if necessary
+	 */
+	Var capacityVar(int time) {
+		Var var = capacities.get(time);
+		if (var == null) {
+			var = getSchedule().createVariable(getName() + ".t" + time, 0, stepCapacity(time));
+			capacities.put(time, var);
+			if (cumulative != null && cumulative.isActive())
+				cumulative.watch(var);
+		}
+		return var;
+	}
+
+	int stepCapacity(int time) {
+		Map.Entry<Integer, Integer> step = capacitySteps.floorEntry(time);
+		return step == null ? 0 : step.getValue();
+	}
+
+	/**
+	 * Limits the capacity steps by "capacity" on the interval [time1;time2)
+	 */
+	void limitSteps(int time1, int time2, int capacity) {
+		int after = stepCapacity(time2);
+		if (time2 < timeMax && !capacitySteps.containsKey(time2))
+			capacitySteps.put(time2, after);
+		if (!capacitySteps.containsKey(time1))
+			capacitySteps.put(time1, stepCapacity(time1));
+		for (Map.Entry<Integer, Integer> step : capacitySteps.subMap(time1, time2).entrySet()) {
+			if (step.getValue() > capacity)
+				step.setValue(capacity);
+		}
+	}
+
+	void checkTime(int time, String method) {
+		if (time < timeMin || time >= timeMax)
+			throw new RuntimeException(method + ": time is out of bounds");
+	}
+
+	/**
+	 * Returns the global cumulative constraint for all activities that require
+	 * this resource. It is created on the first call.
+	 */
+	public ConstraintCumulative getCumulative() {
+		if (cumulative == null)
+			cumulative = new ConstraintCumulative(this);
+		return cumulative;
+	}
+
+	/**
+	 * @return the capacity variables created so far for times in [from;to)
+	 */
+	SortedMap<Integer, Var> getCreatedCapacityVars(int from, int to) {
+		return capacities.subMap(from, to);
+	}
+
+	/**
+	 * Returns the smallest time greater than "time" when the maximal capacity
+	 * may change, or timeMax if there are no such times
+	 */
+	public int nextCapacityChange(int time) {
+		if (capacities.containsKey(time) && time + 1 < timeMax)
+			return time + 1;
+		int next = timeMax;
+		Integer step = capacitySteps.higherKey(time);
+		if (step != null && step < next)
+			next = step;
+		Integer var = capacities.higherKey(time);
+		if (var != null && var < next)
+			next = var;
+		return next;
 	}
 
 	/**
@@ -116,9 +239,13 @@ public class BasicResource extends SchedulingObject implements Resource {
 	 * @throws Exception
 	 */
 	public void setCapacityMax(int time, int capacity) {
-		Constraint c = capacityMaxConstraint(time,capacity);
+		checkTime(time, "setCapacityMax");
+		limitSteps(time, time + 1, capacity);
+		Var var = capacities.get(time);
+		if (var == null)
+			return;
 		try {
-			getSchedule().post(c);
+			getSchedule().post(var,"<=",capacity);
 		} catch (Exception e) {
 			throw new RuntimeException("cannot post capacityMaxConstraint(" + 
 		                 time + "," + capacity + ")");
@@ -136,10 +263,8 @@ public class BasicResource extends SchedulingObject implements Resource {
 	 * @throws Exception
 	 */
 	public Constraint capacityMaxConstraint(int time, int capacity) {
-		int t = time - timeMin;
-		if (t < 0 || t > timeMax)
-			throw new RuntimeException("capacityMaxConstraint: time is out of bounds");
-		return getSchedule().linear(capacities[t],"<=",capacity);
+		checkTime(time, "capacityMaxConstraint");
+		return getSchedule().linear(capacityVar(time),"<=",capacity);
 	}
 
 	/**
@@ -172,10 +297,8 @@ public class BasicResource extends SchedulingObject implements Resource {
 	 * @throws Exception
 	 */
 	public Constraint capacityMinConstraint(int time, int capacity) {
-		int t = time - timeMin;
-		if (t < 0 || t > timeMax)
-			throw new RuntimeException("capacityMinConstraint: time is out of bounds");
-		return getSchedule().linear(capacities[t],">=",capacity);
+		checkTime(time, "capacityMinConstraint");
+		return getSchedule().linear(capacityVar(time),">=",capacity);
 	}
 
 	/**
@@ -191,10 +314,12 @@ public class BasicResource extends SchedulingObject implements Resource {
 	 * @throws Failure
 	 */
 	public void setCapacityMax(int time1, int time2, int capacity) {
-		Constraint[] constraints = capacityMaxConstraints(time1, time2, capacity);
-		for (int i = 0; i<constraints.length; i++) {
+		if (time1 < timeMin || time1 >= time2 || time2 > timeMax)
+			throw new RuntimeException("setCapacityMax: times are out of bounds");
+		limitSteps(time1, time2, capacity);
+		for (Var var : capacities.subMap(time1, time2).values()) {
 			try {
-				getSchedule().post(constraints[i]);
+				getSchedule().post(var,"<=",capacity);
 			} catch (Exception e) {
 				throw new RuntimeException("cannot post capacityMaxConstraints("
 						+ time1 + " +," + time2 + "," + capacity + ")");
@@ -216,14 +341,12 @@ public class BasicResource extends SchedulingObject implements Resource {
 	 * @throws an exception when time2 < time1
 	 */
 	public Constraint[] capacityMaxConstraints(int time1, int time2, int capacity) {
-		int t1 = time1 - timeMin;
-		int t2 = time2 - timeMin;
-		if (t1 < 0 || t1 >= t2 || t2 > timeMax)
+		if (time1 < timeMin || time1 >= time2 || time2 > timeMax)
 			throw new RuntimeException("capacityMaxConstraints: times are out of bounds");
-		Constraint[] constraints = new Constraint[t2-t1];
+		Constraint[] constraints = new Constraint[time2-time1];
 		int n = 0;
-		for (int t = t1; t < t2; t++) {
-			constraints[n++] = getSchedule().linear(capacities[t],"<=",capacity);
+		for (int t = time1; t < time2; t++) {
+			constraints[n++] = getSchedule().linear(capacityVar(t),"<=",capacity);
 		}
 		return constraints;
 	}
@@ -266,14 +389,12 @@ public class BasicResource extends SchedulingObject implements Resource {
 	 * @throws an exception when time2 < time1
 	 */
 	public Constraint[] capacityMinConstraints(int time1, int time2, int capacity) {
-		int t1 = time1 - timeMin;
-		int t2 = time2 - timeMin;
-		if (t1 < 0 || t1 >= t2 || t2 > timeMax)
+		if (time1 < timeMin || time1 >= time2 || time2 > timeMax)
 			throw new RuntimeException("capacityMinConstraints: times are out of bounds");
-		Constraint[] constraints = new Constraint[t2-t1];
+		Constraint[] constraints = new Constraint[time2-time1];
 		int n = 0;
-		for (int t = t1; t < t2; t++) {
-			constraints[n++] = getSchedule().linear(capacities[t],">=",capacity);
+		for (int t = time1; t < time2; t++) {
+			constraints[n++] = getSchedule().linear(capacityVar(t),">=",capacity);
 		}
 		return constraints;
 	}
@@ -295,10 +416,12 @@ public class BasicResource extends SchedulingObject implements Resource {
 	 * @return Capacity
 	 */
 	public int getCapacityMax(int time) {
-		int t = time - timeMin;
-		if (t < 0 || t > timeMax)
-			throw new RuntimeException("getCapacityMax: time is out of bounds");
-		return capacities[t].getMax();
+		checkTime(time, "getCapacityMax");
+		int capacity = stepCapacity(time);
+		Var var = capacities.get(time);
+		if (var != null && var.getMax() < capacity)
+			capacity = var.getMax();
+		return capacity;
 	}
 
 	/**
@@ -310,10 +433,9 @@ public class BasicResource extends SchedulingObject implements Resource {
 	 * @return Capacity
 	 */
 	public int getCapacityMin(int time) {
-		int t = time - timeMin;
-		if (t < 0 || t > timeMax)
-			throw new RuntimeException("getCapacityMin: time is out of bounds");
-		return capacities[t].getMin();
+		checkTime(time, "getCapacityMin");
+		Var var = capacities.get(time);
+		return var == null ? 0 : var.getMin();
 	}
 
 	/**
@@ -333,10 +455,8 @@ public class BasicResource extends SchedulingObject implements Resource {
 	 * @throws Exception
 	 */
 	public Var getCapacityVar(int time) {
-		int t = time - timeMin;
-		if (t < 0 || t > timeMax)
-			throw new RuntimeException("setCapacityVar: time is out of bounds");
-		return capacities[t];
+		checkTime(time, "getCapacityVar");
+		return capacityVar(time);
 	}
 
 	/**
@@ -379,8 +499,8 @@ public class BasicResource extends SchedulingObject implements Resource {
 	}
 
 	public boolean isBound() {
-		for (int t = 0; t < getCapacities().length; t++) {
-			if (!getCapacities()[t].isBound())
+		for (Var var : capacities.values()) {
+			if (!var.isBound())
 				return false;
 		}
 		return true;
@@ -406,11 +526,17 @@ public class BasicResource extends SchedulingObject implements Resource {
 	public String toString() {
 		StringBuffer buf = new StringBuffer();
 		buf.append("Resource "+getName() + ":");
+		if (capacitySteps.size() > 1) {
+			Integer[] times = capacitySteps.keySet().toArray(new Integer[0]);
+			for (int i = 0; i < times.length; i++) {
+				int end = i + 1 < times.length ? times[i + 1] : timeMax;
+				buf.append(" [" + times[i] + ";" + end + "):" + capacitySteps.get(times[i]));
+			}
+		}
 		int n = 0;
-		for(int i=timeMin; i < timeMax; i++) {
-			Var capVar = capacities[i];
+		for (Var capVar : capacities.values()) {
 			if (!capVar.isBound() || capVar.getValue() > 0) {
-				buf.append(" "+capacities[i].toString());
+				buf.append(" "+capVar.toString());
 				if (n>0 && n%10 == 0)
 					buf.append("\n");
 				n++;
@@ -0,0 +1,723 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+//
+// J S R  3 3 1
+//
+// Specification
+//
+//=============================================
+package javax.constraints.scheduler.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Vector;
+
+import javax.constraints.Var;
+import javax.constraints.extra.PropagationEvent;
+import javax.constraints.extra.Propagator;
+import javax.constraints.extra.Reversible;
+import javax.constraints.impl.AbstractConstraint;
+import javax.constraints.impl.AbstractProblem;
+import javax.constraints.impl.AbstractVar;
+import javax.constraints.scheduler.Activity;
+import javax.constraints.scheduler.ConstraintActivityResource;
+
+/**
+ * This is a global cumulative constraint for all activities that require
+ * one resource: at any time the sum of capacities required by activities
+ * that cover this time should be less or equal to the resource capacity.
+ * <br>
+ * Unlike the decomposition by time units, the size of this constraint does not
+ * depend on the resource horizon. It is propagated by a custom Propagator
+ * subscribed to the start variables and the required capacity variables of
+ * all activities. The propagator uses:
+ * <ul>
+ * <li> Timetabling: the compulsory parts [startMax;startMin+duration) of all
+ * activities form a resource profile that pushes the start times of other activities
+ * <li> Edge-finding (Vilim's Theta-Lambda tree) when all activities are pairwise
+ * disjunctive, e.g. for resources of capacity 1
+ * <li> Energetic overload checking otherwise
+ * </ul>
+ * The resource capacity is a piecewise constant function defined by the
+ * capacity steps of the resource, see BasicResource.
+ * The capacity variables of the resource created by getCapacityVar(time) are kept
+ * not less than the capacities required by activities at these times.
+ * <br>
+ * Requirements may be added during the search: their number is kept in a reversible
+ * integer, so the requirements added after a choice point are dropped on backtracking
+ * together with the subscriptions of the propagator.
+ * <br>
+ * This constraint requires a solver that supports custom propagators, reversible
+ * integers and the methods setMin/setMax of its variables. Otherwise the method add
+ * returns false and ConstraintRequire posts the decomposition by time units.
+ */
+public class ConstraintCumulative extends AbstractConstraint {
+
+	static final int INFINITY = Integer.MAX_VALUE / 2;
+
+	BasicResource resource;
+	// only the first "size" requirements are active, the others were undone by backtracking
+	Vector<ConstraintActivityResource> requirements;
+	Reversible size;
+	Propagator propagator;
+	boolean supported;
+	boolean filtering;
+	boolean again;
+
+	// new bounds found while this constraint is being posted
+	boolean collecting;
+	ArrayList<Var> updateVars;
+	ArrayList<String> updateOpers;
+	ArrayList<Integer> updateValues;
+
+	// task data collected by the last call of filter()
+	int n;
+	ConstraintActivityResource[] tasks;
+	int[] est;
+	int[] lst;
+	int[] duration;
+	int[] height;
+	int[] heightMax;
+
+	// resource profile: segments [times[k];times[k+1]) with capacity and load
+	int segments;
+	int[] times;
+	int[] capacities;
+	int[] loads;
+	long[] energies; // resource capacity available from times[0] to times[k]
+
+	public ConstraintCumulative(BasicResource resource) {
+		super(resource.getSchedule(), "Cumulative " + resource.getName());
+		this.resource = resource;
+		requirements = new Vector<ConstraintActivityResource>();
+		propagator = new CumulativePropagator();
+		supported = true;
+		filtering = false;
+		collecting = false;
+		updateVars = new ArrayList<Var>();
+		updateOpers = new ArrayList<String>();
+		updateValues = new ArrayList<Integer>();
+	}
+
+	public BasicResource getResource() {
+		return resource;
+	}
+
+	public Vector<ConstraintActivityResource> getRequirements() {
+		restore();
+		return requirements;
+	}
+
+	/**
+	 * Drops the requirements that were added after the current search state
+	 */
+	void restore() {
+		int active = size == null ? 0 : size.getValue();
+		if (requirements.size() > active)
+			requirements.setSize(active);
+	}
+
+	/**
+	 * Adds an activity-resource requirement to this constraint
+	 * @return false if the solver does not support custom propagators
+	 */
+	public boolean add(ConstraintActivityResource requirement) {
+		if (!supported)
+			return false;
+		restore();
+		if (requirements.contains(requirement))
+			return true; // posted again
+		try {
+			if (size == null)
+				size = ((AbstractProblem) getProblem()).addReversible(getName(), 0);
+			watch(requirement.getActivity().getStart());
+			if (requirement.getCapacityVar() != null)
+				watch(requirement.getCapacityVar());
+			if (requirements.isEmpty()) {
+				// changes of the resource capacities affect this constraint
+				for (Var var : resource.getCreatedCapacityVars(resource.getTimeMin(), resource.getTimeMax()).values())
+					watch(var);
+			}
+		} catch (RuntimeException e) {
+			if (!requirements.isEmpty())
+				throw e;
+			supported = false;
+			return false;
+		}
+		requirements.add(requirement);
+		size.setValue(requirements.size());
+		return true;
+	}
+
+	/**
+	 * @return true if this constraint propagates at least one requirement
+	 */
+	public boolean isActive() {
+		restore();
+		return supported && !requirements.isEmpty();
+	}
+
+	/**
+	 * Removes a requirement that failed to be posted
+	 */
+	public void remove(ConstraintActivityResource requirement) {
+		restore();
+		if (requirements.remove(requirement))
+			size.setValue(requirements.size());
+	}
+
+	/**
+	 * Subscribes the propagator of this constraint to changes of the variable "var"
+	 */
+	void watch(Var var) {
+		((AbstractVar) var).addPropagator(propagator, PropagationEvent.RANGE);
+	}
+
+	/**
+	 * Propagates this constraint for the current domains of all requirements
+	 * by posting new bounds of the start variables.
+	 * @throws RuntimeException if the resource is overloaded
+	 */
+	public void post() {
+		updateVars.clear();
+		updateOpers.clear();
+		updateValues.clear();
+		collecting = true;
+		try {
+			filter();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e.getMessage(), e);
+		} finally {
+			collecting = false;
+		}
+		// posting new bounds may invoke the propagator of this constraint
+		for (int u = 0; u < updateVars.size(); u++)
+			getProblem().post(updateVars.get(u), updateOpers.get(u), updateValues.get(u).intValue());
+	}
+
+	final class CumulativePropagator implements Propagator {
+		public void propagate(PropagationEvent event) throws Exception {
+			if (filtering) { // a solver that propagates changes immediately
+				again = true;
+				return;
+			}
+			filtering = true;
+			try {
+				do {
+					again = false;
+					filter();
+				} while (again);
+			} finally {
+				filtering = false;
+			}
+		}
+	}
+
+	void update(Var var, String oper, int value) throws Exception {
+		if (collecting) {
+			updateVars.add(var);
+			updateOpers.add(oper);
+			updateValues.add(value);
+		}
+		else if (oper.equals(">="))
+			((AbstractVar) var).setMin(value);
+		else
+			((AbstractVar) var).setMax(value);
+	}
+
+	void setStartMin(int i, int min) throws Exception {
+		Var start = tasks[i].getActivity().getStart();
+		if (min > start.getMin())
+			update(start, ">=", min);
+	}
+
+	void setStartMax(int i, int max) throws Exception {
+		Var start = tasks[i].getActivity().getStart();
+		if (max < start.getMax())
+			update(start, "<=", max);
+	}
+
+	void setHeightMax(int i, int max) throws Exception {
+		Var capacityVar = tasks[i].getCapacityVar();
+		if (max < capacityVar.getMax())
+			update(capacityVar, "<=", max);
+	}
+
+	void fail(String msg) throws Exception {
+		if (collecting)
+			throw new RuntimeException(msg);
+		throw new Exception(msg);
+	}
+
+	/**
+	 * Executes all filtering algorithms of this constraint
+	 */
+	void filter() throws Exception {
+		if (!collectTasks())
+			return;
+		buildProfile();
+		timetable();
+		if (isDisjunctive()) {
+			edgeFinding(false);
+			edgeFinding(true);
+		}
+		else
+			overloadCheck();
+	}
+
+	boolean collectTasks() {
+		restore();
+		int size = requirements.size();
+		if (tasks == null || tasks.length < size) {
+			tasks = new ConstraintActivityResource[size];
+			est = new int[size];
+			lst = new int[size];
+			duration = new int[size];
+			height = new int[size];
+			heightMax = new int[size];
+		}
+		n = 0;
+		for (ConstraintActivityResource requirement : requirements) {
+			Activity activity = requirement.getActivity();
+			Var capacityVar = requirement.getCapacityVar();
+			int hmax = capacityVar == null ? requirement.getCapacity() : capacityVar.getMax();
+			if (activity.getDuration() <= 0 || hmax <= 0)
+				continue;
+			tasks[n] = requirement;
+			est[n] = activity.getStart().getMin();
+			lst[n] = activity.getStart().getMax();
+			duration[n] = activity.getDuration();
+			height[n] = capacityVar == null ? hmax : capacityVar.getMin();
+			heightMax[n] = hmax;
+			n++;
+		}
+		return n > 0;
+	}
+
+	/**
+	 * Builds the resource profile of compulsory parts of all activities within
+	 * the resource time window. Its size depends on the number of activities and
+	 * capacity steps, but not on the resource horizon.
+	 */
+	void buildProfile() throws Exception {
+		int timeMin = resource.getTimeMin();
+		int timeMax = resource.getTimeMax();
+		int from = INFINITY;
+		int to = -INFINITY;
+		for (int i = 0; i < n; i++) {
+			from = Math.min(from, est[i]);
+			to = Math.max(to, lst[i] + duration[i]);
+		}
+		from = Math.max(from, timeMin);
+		to = Math.min(to, timeMax);
+		if (from >= to) {
+			segments = 0;
+			return;
+		}
+		int[] points = new int[2 * n + 2];
+		int size = 0;
+		points[size++] = from;
+		points[size++] = to;
+		for (int i = 0; i < n; i++) {
+			if (height[i] > 0 && lst[i] < est[i] + duration[i]) {
+				int s = Math.max(lst[i], from);
+				int e = Math.min(est[i] + duration[i], to);
+				if (s < e) {
+					points[size++] = s;
+					points[size++] = e;
+				}
+			}
+		}
+		for (int t = resource.nextCapacityChange(from); t < to; t = resource.nextCapacityChange(t)) {
+			if (size == points.length)
+				points = Arrays.copyOf(points, 2 * size);
+			points[size++] = t;
+		}
+		Arrays.sort(points, 0, size);
+		int unique = 0;
+		for (int k = 0; k < size; k++) {
+			if (unique == 0 || points[k] != points[unique - 1])
+				points[unique++] = points[k];
+		}
+		times = points;
+		segments = unique - 1;
+		if (capacities == null || capacities.length < unique) {
+			capacities = new int[unique];
+			loads = new int[unique];
+			energies = new long[unique];
+		}
+		energies[0] = 0;
+		for (int k = 0; k < segments; k++) {
+			capacities[k] = resource.getCapacityMax(times[k]);
+			loads[k] = 0;
+			energies[k + 1] = energies[k] + (long) capacities[k] * (times[k + 1] - times[k]);
+		}
+		for (int i = 0; i < n; i++) {
+			if (height[i] > 0 && lst[i] < est[i] + duration[i]) {
+				int s = Math.max(lst[i], from);
+				int e = Math.min(est[i] + duration[i], to);
+				for (int k = segment(s); k < segments && times[k] < e; k++)
+					loads[k] += height[i];
+			}
+		}
+		for (int k = 0; k < segments; k++) {
+			if (loads[k] > capacities[k])
+				fail("Resource " + resource.getName() + " doesn't have enough capacity on the interval ["
+						+ times[k] + ";" + times[k + 1] + "): available=" + capacities[k] + " required=" + loads[k]);
+		}
+		// the capacity variables are not less than the required capacities
+		for (Map.Entry<Integer, Var> entry : resource.getCreatedCapacityVars(from, to).entrySet()) {
+			int load = loads[segment(entry.getKey())];
+			if (load > entry.getValue().getMin())
+				update(entry.getValue(), ">=", load);
+		}
+	}
+
+	/**
+	 * @return the index of the profile segment that contains "time",
+	 *  0 if time is before the profile, or the number of segments if it is after
+	 */
+	int segment(int time) {
+		if (segments == 0 || time < times[0])
+			return 0;
+		int k = Arrays.binarySearch(times, 0, segments + 1, time);
+		if (k < 0)
+			k = -k - 2;
+		return Math.min(k, segments);
+	}
+
+	/**
+	 * @return the capacity of the segment k available for the task i
+	 */
+	int available(int k, int i) {
+		int load = loads[k];
+		if (height[i] > 0 && lst[i] <= times[k] && times[k + 1] <= est[i] + duration[i])
+			load -= height[i]; // the compulsory part of the task i itself
+		return capacities[k] - load;
+	}
+
+	/**
+	 * Timetabling: moves every activity out of the segments where its required
+	 * capacity exceeds the capacity left by the compulsory parts of other activities
+	 */
+	void timetable() throws Exception {
+		if (segments == 0)
+			return;
+		for (int i = 0; i < n; i++) {
+			if (height[i] > 0) {
+				// push the start forward
+				int start = est[i];
+				int k = segment(start);
+				while (k < segments && times[k] < start + duration[i]) {
+					if (times[k + 1] > start && available(k, i) < height[i])
+						start = times[k + 1];
+					k++;
+				}
+				// push the end backward
+				int end = lst[i] + duration[i];
+				k = segment(end - 1);
+				if (k == segments)
+					k--;
+				while (k >= 0 && times[k + 1] > end - duration[i]) {
+					if (times[k] < end && available(k, i) < height[i])
+						end = times[k];
+					k--;
+				}
+				if (start > end - duration[i])
+					fail("Activity " + tasks[i].getActivity().getName() + " cannot be scheduled on resource "
+							+ resource.getName());
+				setStartMin(i, start);
+				setStartMax(i, end - duration[i]);
+			}
+			if (heightMax[i] > height[i] && lst[i] < est[i] + duration[i]) {
+				// the required capacity is limited by the capacity left during the compulsory part
+				int max = heightMax[i];
+				for (int k = segment(lst[i]); k < segments && times[k] < est[i] + duration[i]; k++)
+					max = Math.min(max, available(k, i));
+				if (max < heightMax[i])
+					setHeightMax(i, Math.max(max, 0));
+			}
+		}
+	}
+
+	/**
+	 * @return true if no two activities with a required capacity may overlap
+	 */
+	boolean isDisjunctive() {
+		int capacity = resource.getCapacityMax();
+		int min1 = INFINITY;
+		int min2 = INFINITY;
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			if (height[i] <= 0 || !insideWindow(i))
+				continue;
+			count++;
+			if (height[i] < min1) {
+				min2 = min1;
+				min1 = height[i];
+			}
+			else if (height[i] < min2)
+				min2 = height[i];
+		}
+		return count > 1 && min1 + min2 > capacity;
+	}
+
+	boolean insideWindow(int i) {
+		return est[i] >= resource.getTimeMin() && lst[i] + duration[i] <= resource.getTimeMax();
+	}
+
+	/**
+	 * @return the resource capacity available during [from;to) using the profile segments
+	 */
+	long energy(int from, int to) {
+		return energy(to) - energy(from);
+	}
+
+	long energy(int time) {
+		if (time <= times[0])
+			return 0;
+		if (time >= times[segments])
+			return energies[segments];
+		int k = segment(time);
+		return energies[k] + (long) capacities[k] * (time - times[k]);
+	}
+
+	/**
+	 * Energetic overload checking: for any task interval [est;lct) the energy
+	 * of activities inside this interval should not exceed the available energy
+	 */
+	void overloadCheck() throws Exception {
+		int[] order = sortedTasks(true);
+		int size = order.length;
+		if (size < 2)
+			return;
+		for (int b = 0; b < size; b++) {
+			int lct = lst[order[b]] + duration[order[b]];
+			long work = 0;
+			// tasks are sorted by est descending
+			for (int a = 0; a < size; a++) {
+				int i = order[a];
+				if (lst[i] + duration[i] > lct)
+					continue;
+				work += (long) height[i] * duration[i];
+				if (work > energy(est[i], lct))
+					fail("Resource " + resource.getName() + " is overloaded on the interval ["
+							+ est[i] + ";" + lct + ")");
+			}
+		}
+	}
+
+	/**
+	 * @return mandatory tasks inside the resource window sorted by est (descending or ascending)
+	 */
+	int[] sortedTasks(final boolean descending) {
+		Integer[] order = new Integer[n];
+		int size = 0;
+		for (int i = 0; i < n; i++) {
+			if (height[i] > 0 && insideWindow(i))
+				order[size++] = i;
+		}
+		Arrays.sort(order, 0, size, (x, y) -> descending ? est[y] - est[x] : est[x] - est[y]);
+		int[] result = new int[size];
+		for (int k = 0; k < size; k++)
+			result[k] = order[k];
+		return result;
+	}
+
+	/**
+	 * Disjunctive edge-finding with a Theta-Lambda tree (P. Vilim, 2004).
+	 * If "mirror" is true, the algorithm is applied to the mirrored problem
+	 * to update the latest start times.
+	 */
+	void edgeFinding(boolean mirror) throws Exception {
+		int[] ids = sortedTasks(false);
+		int size = ids.length;
+		if (size < 2)
+			return;
+		if (mirror) { // sort by the mirrored release time -lct
+			Integer[] order = new Integer[size];
+			for (int k = 0; k < size; k++)
+				order[k] = ids[k];
+			Arrays.sort(order, (x, y) -> (lst[y] + duration[y]) - (lst[x] + duration[x]));
+			for (int k = 0; k < size; k++)
+				ids[k] = order[k];
+		}
+		int[] r = new int[size]; // release times
+		int[] d = new int[size]; // deadlines
+		int[] p = new int[size];
+		for (int k = 0; k < size; k++) {
+			int i = ids[k];
+			p[k] = duration[i];
+			if (mirror) {
+				r[k] = -(lst[i] + duration[i]);
+				d[k] = -est[i];
+			}
+			else {
+				r[k] = est[i];
+				d[k] = lst[i] + duration[i];
+			}
+		}
+		ThetaLambdaTree tree = new ThetaLambdaTree(r, p);
+		Integer[] byDeadline = new Integer[size];
+		for (int k = 0; k < size; k++)
+			byDeadline[k] = k;
+		Arrays.sort(byDeadline, (x, y) -> d[y] - d[x]);
+		int[] newRelease = r.clone();
+		int q = 0;
+		int j = byDeadline[q];
+		while (q < size - 1) {
+			if (tree.ect() > d[j])
+				fail("Resource " + resource.getName() + " is overloaded");
+			tree.gray(j);
+			j = byDeadline[++q];
+			while (tree.ectBar() > d[j]) {
+				int i = tree.responsibleEctBar();
+				if (i < 0)
+					break;
+				newRelease[i] = Math.max(newRelease[i], tree.ect());
+				tree.remove(i);
+			}
+		}
+		for (int k = 0; k < size; k++) {
+			if (newRelease[k] > r[k]) {
+				if (mirror)
+					setStartMax(ids[k], -newRelease[k] - p[k]);
+				else
+					setStartMin(ids[k], newRelease[k]);
+			}
+		}
+	}
+
+	/**
+	 * A balanced binary tree over activities sorted by release times, see
+	 * P. Vilim "O(n log n) Filtering Algorithms for Unary Resource Constraint"
+	 */
+	static final class ThetaLambdaTree {
+		static final int NONE = -INFINITY;
+
+		int leaves;
+		int[] sum;
+		int[] ect;
+		int[] sumBar;
+		int[] ectBar;
+		int[] respSum;
+		int[] respEct;
+		int[] release;
+		int[] processing;
+
+		ThetaLambdaTree(int[] release, int[] processing) {
+			this.release = release;
+			this.processing = processing;
+			leaves = 1;
+			while (leaves < release.length)
+				leaves *= 2;
+			sum = new int[2 * leaves];
+			ect = new int[2 * leaves];
+			sumBar = new int[2 * leaves];
+			ectBar = new int[2 * leaves];
+			respSum = new int[2 * leaves];
+			respEct = new int[2 * leaves];
+			for (int k = 0; k < leaves; k++) {
+				int node = leaves + k;
+				if (k < release.length) {
+					sum[node] = sumBar[node] = processing[k];
+					ect[node] = ectBar[node] = release[k] + processing[k];
+				}
+				else {
+					sum[node] = sumBar[node] = 0;
+					ect[node] = ectBar[node] = NONE;
+				}
+				respSum[node] = respEct[node] = -1;
+			}
+			for (int node = leaves - 1; node >= 1; node--)
+				update(node);
+		}
+
+		int ect() {
+			return ect[1];
+		}
+
+		int ectBar() {
+			return ectBar[1];
+		}
+
+		int responsibleEctBar() {
+			return respEct[1];
+		}
+
+		/**
+		 * Moves the activity k from Theta to Lambda
+		 */
+		void gray(int k) {
+			int node = leaves + k;
+			sum[node] = 0;
+			ect[node] = NONE;
+			sumBar[node] = processing[k];
+			ectBar[node] = release[k] + processing[k];
+			respSum[node] = respEct[node] = k;
+			propagateUp(node);
+		}
+
+		/**
+		 * Removes the activity k from the tree
+		 */
+		void remove(int k) {
+			int node = leaves + k;
+			sum[node] = sumBar[node] = 0;
+			ect[node] = ectBar[node] = NONE;
+			respSum[node] = respEct[node] = -1;
+			propagateUp(node);
+		}
+
+		void propagateUp(int node) {
+			for (node /= 2; node >= 1; node /= 2)
+				update(node);
+		}
+
+		void update(int node) {
+			int l = 2 * node;
+			int r = l + 1;
+			sum[node] = sum[l] + sum[r];
+			ect[node] = Math.max(ect[r], add(ect[l], sum[r]));
+
+			sumBar[node] = sumBar[l] + sum[r];
+			respSum[node] = respSum[l];
+			if (better(sum[l] + sumBar[r], respSum[r], sumBar[node], respSum[node])) {
+				sumBar[node] = sum[l] + sumBar[r];
+				respSum[node] = respSum[r];
+			}
+
+			ectBar[node] = ectBar[r];
+			respEct[node] = respEct[r];
+			int leftThroughRight = add(ect[l], sumBar[r]);
+			if (better(leftThroughRight, respSum[r], ectBar[node], respEct[node])) {
+				ectBar[node] = leftThroughRight;
+				respEct[node] = respSum[r];
+			}
+			int leftBar = add(ectBar[l], sum[r]);
+			if (better(leftBar, respEct[l], ectBar[node], respEct[node])) {
+				ectBar[node] = leftBar;
+				respEct[node] = respEct[l];
+			}
+		}
+
+		/**
+		 * On ties prefers values with a responsible gray activity
+		 */
+		static boolean better(int value, int resp, int best, int bestResp) {
+			return value > best || (value == best && resp >= 0 && bestResp < 0);
+		}
+
+		static int add(int ect, int sum) {
+			return ect == NONE ? NONE : ect + sum;
+		}
+	}
+
+	public String toString() {
+		restore();
+		return getName() + " with " + requirements.size() + " requirements";
+	}
+}
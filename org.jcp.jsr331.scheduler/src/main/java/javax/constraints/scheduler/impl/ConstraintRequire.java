@@ -33,7 +33,9 @@ public class ConstraintRequire extends AbstractConstraintActivityResource {
 	}
 	
 	/**
-	 * Posts this constraint by posting capacity constraints for every resource interval:
+	 * Posts this constraint by adding it to the global cumulative constraint of the resource
+	 * (see ConstraintCumulative). If the solver does not support custom propagators, it posts
+	 * capacity constraints for every resource interval instead:
 	 * sum of all required capacities by activities that may cover this interval should be less or equal
 	 * to the available resource capacity on this interval
 	 */
@@ -50,6 +52,44 @@ public class ConstraintRequire extends AbstractConstraintActivityResource {
 			throw new RuntimeException("Failure to post ConstraintRequire: " + msg);
 		}
 
+		if (resource instanceof BasicResource && !resource.getType().equals(ResourceType.CONSUMABLE)) {
+			ConstraintCumulative cumulative = ((BasicResource) resource).getCumulative();
+			if (cumulative.add(this)) {
+				postCumulative(cumulative);
+				return;
+			}
+		}
+		postDecomposition();
+	}
+
+	/**
+	 * The capacity variable of a requirement with alternative resources tells whether this
+	 * resource is chosen, so it becomes the assignment variable. A requirement with
+	 * a fixed capacity makes no choice and the cumulative constraint creates no variable
+	 * per time unit, so its assignment variable stays null.
+	 */
+	void postCumulative(ConstraintCumulative cumulative) {
+		ScheduleImpl schedule = (ScheduleImpl)getProblem();
+		if (getCapacityVar() != null)
+			setAssignmentVar(getCapacityVar());
+		try {
+			cumulative.post();
+		} catch (RuntimeException e) {
+			String msg = e.getMessage();
+			cumulative.remove(this);
+			activity.getResourceConstraints().remove(this);
+			resource.getActivityConstraints().remove(this);
+			setFailureReason(msg);
+			schedule.log(this + " Failure to post ConstraintRequire: " + msg);
+			throw new RuntimeException("Failure to post ConstraintRequire: " + msg);
+		}
+	}
+
+	/**
+	 * Posts capacity constraints for every time unit of the resource
+	 */
+	void postDecomposition() {
+		ScheduleImpl schedule = (ScheduleImpl)getProblem();
 //		String consumePrefix = "_consumer_for_";
 		// loop by time intervals
 		for(int time=resource.getTimeMin(); time < resource.getTimeMax(); time++) {
@@ -0,0 +1,378 @@
+package it.ssc.pl.milp;
+
+import java.util.Arrays;
+
+/**
+ * Fattorizzazione LU sparsa della base B del simplesso rivisto, con aggiornamenti
+ * in forma prodotto (eta file) tra una rifattorizzazione e la successiva.
+ * <br>
+ * La fattorizzazione e' del tipo P B Q = L U : le colonne della base vengono elaborate
+ * in ordine crescente di elementi non nulli (Q), il pivot di ogni colonna e' scelto per
+ * massimo valore assoluto tra le righe non ancora utilizzate (P). La risoluzione
+ * triangolare durante la fattorizzazione segue lo schema di Gilbert-Peierls (visita in
+ * profondita' del grafo di L), per cui il costo e' proporzionale alle operazioni effettive
+ * e non a m<sup>2</sup>.
+ *
+ * @author Scarioli
+ */
+
+final class BasisFactor {
+
+	private static final double PIVOT_ZERO=1E-11;
+
+	private final int m;
+
+	//L per colonne, il primo elemento di ogni colonna e' la diagonale (=1)
+	private int[] lStart;
+	private int[] lRow;
+	private double[] lVal;
+	//U per colonne, l'ultimo elemento di ogni colonna e' la diagonale
+	private int[] uStart;
+	private int[] uRow;
+	private double[] uVal;
+	//riga originale -> passo di pivot
+	private int[] pinv;
+	//passo di pivot -> posizione nella base
+	private int[] colOrder;
+
+	//eta file
+	private int etaCount;
+	private int[] etaPos;
+	private double[] etaPivot;
+	private int[] etaStart;
+	private int[] etaIndex;
+	private double[] etaValue;
+	private int etaNnz;
+
+	//aree di lavoro
+	private final double[] work;
+	private final int[] xi;
+	private final int[] pstack;
+	private final int[] stack;
+	private final int[] mark;
+	private int markStamp;
+
+	BasisFactor(int m) {
+		this.m=m;
+		work=new double[m];
+		xi=new int[m];
+		pstack=new int[m];
+		stack=new int[m];
+		mark=new int[m];
+		pinv=new int[m];
+		colOrder=new int[m];
+		lStart=new int[m + 1];
+		uStart=new int[m + 1];
+		int init=Math.max(4 * m, 16);
+		lRow=new int[init];
+		lVal=new double[init];
+		uRow=new int[init];
+		uVal=new double[init];
+		etaPos=new int[64];
+		etaPivot=new double[64];
+		etaStart=new int[65];
+		etaIndex=new int[init];
+		etaValue=new double[init];
+	}
+
+	int getNumUpdates() {
+		return etaCount;
+	}
+
+	/**
+	 * Indica se conviene rifattorizzare: troppi aggiornamenti o eta file piu' densa dei fattori.
+	 */
+	boolean isRefactorNeeded(int max_updates) {
+		return etaCount >= max_updates || etaNnz > lStart[m] + uStart[m] + 4 * m;
+	}
+
+	/**
+	 * Fattorizza la base formata dalle colonne basis[0..m-1] di A. Le colonne linearmente
+	 * dipendenti vengono sostituite in basis con la colonna unitaria (first_unit + riga) di una
+	 * riga rimasta senza pivot.
+	 *
+	 * @return il numero di colonne sostituite
+	 */
+	int factor(SparseMatrix A, int[] basis, int first_unit) {
+
+		int[] Ap=A.getColStart();
+		int[] Ai=A.getRowIndex();
+		double[] Ax=A.getValue();
+
+		//ordinamento delle posizioni per numero di elementi non nulli (counting sort)
+		int max_len=0;
+		for(int k=0;k<m;k++) max_len=Math.max(max_len, Ap[basis[k]+1] - Ap[basis[k]]);
+		int[] count=new int[max_len + 2];
+		for(int k=0;k<m;k++) count[Ap[basis[k]+1] - Ap[basis[k]] + 1]++;
+		for(int l=1;l<count.length;l++) count[l]+=count[l-1];
+		int[] order=new int[m];
+		for(int k=0;k<m;k++) order[count[Ap[basis[k]+1] - Ap[basis[k]]]++]=k;
+
+		Arrays.fill(pinv, -1);
+		etaCount=0;
+		etaNnz=0;
+
+		int lnz=0, unz=0, step=0;
+		int[] deficient=new int[m];
+		int n_deficient=0;
+
+		for(int o=0;o<m;o++) {
+			int pos=order[o];
+			int col=basis[pos];
+			lStart[step]=lnz;
+			uStart[step]=unz;
+			if(lRow.length < lnz + m) growL(lnz + m);
+			if(uRow.length < unz + m) growU(unz + m);
+
+			int top=spsolve(Ap[col], Ap[col+1], Ai, Ax);
+
+			int ipiv=-1;
+			double a=-1;
+			for(int p=top;p<m;p++) {
+				int i=xi[p];
+				if(pinv[i] < 0) {
+					double t=Math.abs(work[i]);
+					if(t > a) {
+						a=t;
+						ipiv=i;
+					}
+				}
+				else {
+					uRow[unz]=pinv[i];
+					uVal[unz++]=work[i];
+				}
+			}
+
+			if(ipiv==-1 || a <= PIVOT_ZERO) {
+				//colonna dipendente dalle precedenti: si scarta e si ripristina la workarea
+				for(int p=top;p<m;p++) work[xi[p]]=0.0;
+				unz=uStart[step];
+				deficient[n_deficient++]=pos;
+				continue;
+			}
+
+			double pivot=work[ipiv];
+			uRow[unz]=step;
+			uVal[unz++]=pivot;
+			pinv[ipiv]=step;
+			lRow[lnz]=ipiv;
+			lVal[lnz++]=1.0;
+			for(int p=top;p<m;p++) {
+				int i=xi[p];
+				if(pinv[i] < 0) {
+					lRow[lnz]=i;
+					lVal[lnz++]=work[i] / pivot;
+				}
+				work[i]=0.0;
+			}
+			colOrder[step]=pos;
+			step++;
+		}
+
+		//le colonne dipendenti vengono sostituite dalle colonne unitarie delle righe senza pivot
+		int row=0;
+		for(int d=0;d<n_deficient;d++) {
+			while(pinv[row] >= 0) row++;
+			int pos=deficient[d];
+			basis[pos]=first_unit + row;
+			lStart[step]=lnz;
+			uStart[step]=unz;
+			if(lRow.length < lnz + 1) growL(lnz + 1);
+			if(uRow.length < unz + 1) growU(unz + 1);
+			uRow[unz]=step;
+			uVal[unz++]=1.0;
+			pinv[row]=step;
+			lRow[lnz]=row;
+			lVal[lnz++]=1.0;
+			colOrder[step]=pos;
+			step++;
+		}
+		lStart[m]=lnz;
+		uStart[m]=unz;
+
+		//indici di riga di L espressi come passo di pivot
+		for(int p=0;p<lnz;p++) lRow[p]=pinv[lRow[p]];
+		return n_deficient;
+	}
+
+	/*
+	 * Risolve L x = A(:,col) limitatamente alle colonne di L gia' calcolate. Il risultato e'
+	 * in work, gli indici non nulli in xi[top..m-1] in ordine topologico.
+	 */
+	private int spsolve(int p_start, int p_end, int[] Ai, double[] Ax) {
+		int top=reach(p_start, p_end, Ai);
+		for(int p=top;p<m;p++) work[xi[p]]=0.0;
+		for(int p=p_start;p<p_end;p++) work[Ai[p]]=Ax[p];
+		for(int px=top;px<m;px++) {
+			int j=xi[px];
+			int J=pinv[j];
+			if(J < 0) continue;
+			double xj=work[j];
+			if(xj==0.0) continue;
+			for(int p=lStart[J]+1;p<lStart[J+1];p++) {
+				work[lRow[p]]-=lVal[p] * xj;
+			}
+		}
+		return top;
+	}
+
+	private int reach(int p_start, int p_end, int[] Ai) {
+		if(++markStamp==Integer.MAX_VALUE) {
+			Arrays.fill(mark, 0);
+			markStamp=1;
+		}
+		int top=m;
+		for(int p=p_start;p<p_end;p++) {
+			if(mark[Ai[p]]!=markStamp) top=dfs(Ai[p], top);
+		}
+		return top;
+	}
+
+	//visita in profondita' non ricorsiva a partire dalla riga j
+	private int dfs(int j, int top) {
+		int head=0;
+		stack[0]=j;
+		while(head >= 0) {
+			j=stack[head];
+			int jnew=pinv[j];
+			if(mark[j]!=markStamp) {
+				mark[j]=markStamp;
+				pstack[head]=(jnew < 0) ? 0 : lStart[jnew] + 1;
+			}
+			boolean done=true;
+			int p2=(jnew < 0) ? 0 : lStart[jnew+1];
+			for(int p=pstack[head];p<p2;p++) {
+				int i=lRow[p];
+				if(mark[i]==markStamp) continue;
+				pstack[head]=p + 1;
+				stack[++head]=i;
+				done=false;
+				break;
+			}
+			if(done) {
+				head--;
+				xi[--top]=j;
+			}
+		}
+		return top;
+	}
+
+	/**
+	 * Risolve B x = a. In ingresso a e' indicizzato per riga, in uscita x e' indicizzato
+	 * per posizione nella base. Il vettore passato viene sovrascritto con il risultato.
+	 */
+	void ftran(double[] a) {
+		double[] w=work;
+		for(int i=0;i<m;i++) {
+			w[pinv[i]]=a[i];
+		}
+		for(int k=0;k<m;k++) {
+			double wk=w[k];
+			if(wk==0.0) continue;
+			for(int p=lStart[k]+1;p<lStart[k+1];p++) {
+				w[lRow[p]]-=lVal[p] * wk;
+			}
+		}
+		for(int k=m-1;k>=0;k--) {
+			double wk=w[k];
+			if(wk==0.0) continue;
+			int diag=uStart[k+1]-1;
+			wk/=uVal[diag];
+			w[k]=wk;
+			for(int p=uStart[k];p<diag;p++) {
+				w[uRow[p]]-=uVal[p] * wk;
+			}
+		}
+		for(int k=0;k<m;k++) {
+			a[colOrder[k]]=w[k];
+			w[k]=0.0;
+		}
+		for(int e=0;e<etaCount;e++) {
+			int r=etaPos[e];
+			double xr=a[r];
+			if(xr==0.0) continue;
+			xr/=etaPivot[e];
+			a[r]=xr;
+			for(int p=etaStart[e];p<etaStart[e+1];p++) {
+				a[etaIndex[p]]-=etaValue[p] * xr;
+			}
+		}
+	}
+
+	/**
+	 * Risolve B<sup>T</sup> y = c. In ingresso c e' indicizzato per posizione nella base,
+	 * in uscita y e' indicizzato per riga. Il vettore passato viene sovrascritto con il risultato.
+	 */
+	void btran(double[] c) {
+		for(int e=etaCount-1;e>=0;e--) {
+			int r=etaPos[e];
+			double s=c[r];
+			for(int p=etaStart[e];p<etaStart[e+1];p++) {
+				s-=etaValue[p] * c[etaIndex[p]];
+			}
+			c[r]=s / etaPivot[e];
+		}
+		double[] w=work;
+		for(int k=0;k<m;k++) {
+			w[k]=c[colOrder[k]];
+		}
+		for(int k=0;k<m;k++) {
+			int diag=uStart[k+1]-1;
+			double s=w[k];
+			for(int p=uStart[k];p<diag;p++) {
+				s-=uVal[p] * w[uRow[p]];
+			}
+			w[k]=s / uVal[diag];
+		}
+		for(int k=m-1;k>=0;k--) {
+			double s=w[k];
+			for(int p=lStart[k]+1;p<lStart[k+1];p++) {
+				s-=lVal[p] * w[lRow[p]];
+			}
+			w[k]=s;
+		}
+		for(int i=0;i<m;i++) {
+			c[i]=w[pinv[i]];
+		}
+		Arrays.fill(w, 0.0);
+	}
+
+	/**
+	 * Aggiornamento in forma prodotto: la colonna in posizione r della base viene sostituita
+	 * dalla colonna la cui rappresentazione nella base corrente e' alpha (= B<sup>-1</sup>a<sub>q</sub>).
+	 */
+	void update(int r, double[] alpha) {
+		if(etaCount==etaPos.length) {
+			etaPos=Arrays.copyOf(etaPos, 2 * etaCount);
+			etaPivot=Arrays.copyOf(etaPivot, 2 * etaCount);
+			etaStart=Arrays.copyOf(etaStart, 2 * etaCount + 1);
+		}
+		if(etaIndex.length < etaNnz + m) {
+			int size=Math.max(etaNnz + m, 2 * etaIndex.length);
+			etaIndex=Arrays.copyOf(etaIndex, size);
+			etaValue=Arrays.copyOf(etaValue, size);
+		}
+		etaStart[etaCount]=etaNnz;
+		for(int i=0;i<m;i++) {
+			if(i!=r && alpha[i]!=0.0) {
+				etaIndex[etaNnz]=i;
+				etaValue[etaNnz++]=alpha[i];
+			}
+		}
+		etaPos[etaCount]=r;
+		etaPivot[etaCount]=alpha[r];
+		etaStart[++etaCount]=etaNnz;
+	}
+
+	private void growL(int min) {
+		int size=Math.max(min, 2 * lRow.length);
+		lRow=Arrays.copyOf(lRow, size);
+		lVal=Arrays.copyOf(lVal, size);
+	}
+
+	private void growU(int min) {
+		int size=Math.max(min, 2 * uRow.length);
+		uRow=Arrays.copyOf(uRow, size);
+		uVal=Arrays.copyOf(uVal, size);
+	}
+}
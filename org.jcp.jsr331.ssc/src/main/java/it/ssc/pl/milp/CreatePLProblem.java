@@ -116,16 +116,16 @@ import it.ssc.log.SscLogger;
 			 rel=constraint.getRel();
 
 			 if(rel==ConsType.EQ || rel==ConsType.GE || rel==ConsType.LE) {
-				 InternalConstraint constraint_i=new InternalConstraint(N); 
+				 Aj=constraint.getAj();
+				 //la riga non viene copiata : la standardizzazione non modifica i coefficienti del vincolo passato
+				 InternalConstraint constraint_i=new InternalConstraint(Aj); 
 				 double_b=constraint.getRhs();
 				 if(Double.isNaN(double_b)) throw new LPException(RB.getString("it.ssc.pl.milp.CreateMilpProblem.msg1"));
 				 constraint_i.setBi(double_b);
 				 
-				 Aj=constraint.getAj();
 				 for(int _j=0;_j<N; _j++)  {
 					 if(Double.isNaN(Aj[_j])) throw new LPException(RB.getString("it.ssc.pl.milp.CreateMilpProblem.msg2"));
 				 }
-				 constraint_i.setAi(Aj);
 
 				 if(rel==ConsType.LE) constraint_i.setType(InternalConstraint.TYPE_CONSTR.LE);
 				 else if(rel==ConsType.GE ) constraint_i.setType(InternalConstraint.TYPE_CONSTR.GE);
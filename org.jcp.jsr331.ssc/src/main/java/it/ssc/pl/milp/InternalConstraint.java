@@ -17,6 +17,7 @@ final class InternalConstraint implements Cloneable,Serializable {
 	private static final Logger logger=SscLogger.getLogger();
 	public enum TYPE_CONSTR {EQ, LE, GE}; 
 	private double[] Ai;
+	private boolean negated=false;
 	private double bi;
 	private TYPE_CONSTR type;
 	private String name;
@@ -26,8 +27,25 @@ final class InternalConstraint implements Cloneable,Serializable {
 		Ai=new double[dimension];
 	}
 	
+	/**
+	 * Il vincolo usa la riga Ai senza copiarla : la standardizzazione (standardize_b()) ne cambia 
+	 * solo il segno, mai i coefficienti, per cui la riga puo' essere quella passata dall'utente.
+	 */
+	public InternalConstraint(double[] Ai) {
+		this.Ai=Ai;
+	}
+	
+	/**
+	 * @return La riga dei coefficienti, col segno dato da standardize_b(). Se il segno e' cambiato 
+	 * viene restituita una copia : per scorrere righe grandi senza copiarle usare getAij().
+	 */
 	public double[] getAi() {
-		return Ai;
+		if(!negated) return Ai;
+		double[] negative=new double[Ai.length];
+		for(int j=0;j<Ai.length;j++) {
+			if(Ai[j]!=0.0) negative[j]=-Ai[j];
+		}
+		return negative;
 	}
 	
 	public void setAij(int j, Double aij) {
@@ -50,7 +68,7 @@ final class InternalConstraint implements Cloneable,Serializable {
 	}
 
 	public double getAij(int j) {
-		return Ai[j];
+		return negated ? -Ai[j] : Ai[j];
 	}
 	
 	public void setBi(double bi) {
@@ -79,9 +97,7 @@ final class InternalConstraint implements Cloneable,Serializable {
 	public void standardize_b() {
 		if(bi < 0.0) {
 			bi=-bi;
-			for(int j=0;j<Ai.length;j++) {
-				if(Ai[j]!=0.0)  Ai[j]=-Ai[j];
-			}
+			negated=!negated;
 			if(type==TYPE_CONSTR.GE) type=TYPE_CONSTR.LE;
 			else if(type==TYPE_CONSTR.LE) type=TYPE_CONSTR.GE;
 		}
@@ -107,11 +123,14 @@ final class InternalConstraint implements Cloneable,Serializable {
 		System.out.print(bi+"\n");
 	}
 	
+	/**
+	 * La copia condivide la riga dei coefficienti, che dopo la creazione del problema non viene 
+	 * piu' modificata (setAij() serve solo durante la lettura del problema).
+	 */
 	public InternalConstraint clone() {
 		InternalConstraint clone=null;
 		try {
 			clone=(InternalConstraint)super.clone();
-			clone.Ai=(double[])Ai.clone();
 		} 
 		catch (CloneNotSupportedException e) {
 			logger.log(Level.SEVERE,"Clonazione it.ssc.pl.milp.InternalConstraint",e);
@@ -6,6 +6,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -48,10 +49,17 @@ public final class LP implements FormatTypeInput {
 	private boolean toCloseSessionInternal=true;
 	private A_DataMatrix amatrix;
 	private PersistensePLProblem persistencePl;
+	private PLProblem pl_original_in_memory;
+	private SparseMatrix copyA;
 	private LPThreadsNumber threadsNumber=LPThreadsNumber.N_1;
 	private boolean isStopPhase2=false;
 	private EPSILON epsilon=EPSILON._1E_M10;
 	private EPSILON cepsilon=EPSILON._1E_M8;
+	private SimplexEngine simplexEngine=SimplexEngine.TABLEAU;
+	private PLProblem pl_to_standardize;
+	private String path_work;
+	private SparseMatrix sparseA;
+	private double[]   U;
 	
 	{
 		logger.log(Level.INFO,  "##############################################");
@@ -192,6 +200,7 @@ public final class LP implements FormatTypeInput {
 	
 	/**
 	 * Costruttore di un oggetto LP per la risoluzione di problemi espressi in formato matriciale.
+	 * Come per MILP, il problema resta in memoria e non viene aperta alcuna sessione SSC.
 	 * 
 	 * @param fo Un oggetto LinearObjectiveFunction che rappresenta la funzione obiettivo
 	 * @param constraints La lista dei vincoli espressa come ArrayList di Oggetti Constraint
@@ -202,7 +211,7 @@ public final class LP implements FormatTypeInput {
 		
 	public LP(LinearObjectiveFunction fo,ArrayList<Constraint> constraints) throws Exception { 
 		if(constraints==null ) throw new LPException(RB.getString("it.ssc.pl.milp.LP.msg13"));
-		this.session=Context.createNewSession();
+		this.toCloseSessionInternal=false;
 		PLProblem pl_original=CreatePLProblem.create(fo,constraints,isMilp);
 		createStandartProblem(pl_original);
 	}
@@ -210,6 +219,7 @@ public final class LP implements FormatTypeInput {
 	
 	/**
 	 * Costruttore di un oggetto LP per la risoluzione di problemi espressi in formato matriciale.
+	 * Come per MILP, il problema resta in memoria e non viene aperta alcuna sessione SSC.
 	 * 
 	 * @param fo Un oggetto LinearObjectiveFunction che rappresenta la funzione obiettivo
 	 * @param constraints La lista dei vincoli sotto forma di oggetto ListConstraints 
@@ -218,7 +228,7 @@ public final class LP implements FormatTypeInput {
 	 */
 	
 	public LP(LinearObjectiveFunction fo,ListConstraints constraints) throws Exception  { 
-		this.session=Context.createNewSession();
+		this.toCloseSessionInternal=false;
 		PLProblem pl_original=CreatePLProblem.create(fo,constraints.getListConstraint(),isMilp);
 		createStandartProblem(pl_original);
 	}
@@ -342,10 +352,62 @@ public final class LP implements FormatTypeInput {
 		return this.num_max_iteration;
 	}
 	
+	/**
+	 * Questo metodo permette di scegliere l'implementazione del simplesso. Deve essere chiamato 
+	 * prima di resolve() e dei metodi getStandart...(), in quanto la forma standard del problema 
+	 * dipende dall'implementazione scelta (il simplesso rivisto non trasforma gli upper bound in vincoli). 
+	 * 
+	 * @param simplexEngine L'implementazione del simplesso. Valore di default SimplexEngine.TABLEAU
+	 * @throws LPException Se la forma standard del problema &egrave; gi&agrave; stata costruita
+	 */
+	
+	public void setSimplexEngine(SimplexEngine simplexEngine) throws LPException { 
+		if(pl_to_standardize==null && simplexEngine!=this.simplexEngine) {
+			throw new LPException("L'implementazione del simplesso deve essere impostata prima di costruire la forma standard del problema");
+		}
+		this.simplexEngine=simplexEngine;
+	}
+	
+	/**
+	 * 
+	 * @return L'implementazione del simplesso utilizzata
+	 */
+	
+	public SimplexEngine getSimplexEngine() { 
+		return this.simplexEngine;
+	}
+	
 	private void createStandartProblem(PLProblem pl_original) throws InvalidSessionException, Exception {
 		
-		String path_work=session.getFactoryLibraries().getLibraryWork().getAbsolutePath();
-		persistencePl=new PersistensePLProblem(pl_original,path_work);
+		if(session==null) {
+			//senza sessione il problema originale (la standardizzazione lo modifica) viene clonato in memoria :
+			//la copia condivide le righe dei vincoli, che la standardizzazione non modifica, per cui si
+			//copiano solo variabili, funzione obiettivo, termini noti e tipi dei vincoli
+			pl_original_in_memory=pl_original.clone();
+		}
+		else {
+			path_work=session.getFactoryLibraries().getLibraryWork().getAbsolutePath();
+			persistencePl=new PersistensePLProblem(pl_original,path_work);
+		}
+		//la standardizzazione e' rimandata a quando l'implementazione del simplesso e' nota
+		pl_to_standardize=pl_original;
+	}
+	
+	private void prepareStandartProblem() throws IOException {
+		
+		if(pl_to_standardize==null) return;
+		PLProblem pl_original=pl_to_standardize;
+		pl_to_standardize=null;
+		
+		if(simplexEngine==SimplexEngine.SPARSE_REVISED) {
+			pl_original.standardize(true); 
+			B=pl_original.getVectorB();
+			C=pl_original.getVectorC();
+			U=pl_original.getVectorUpper();
+			sparseA=pl_original.getSparseMatrixA();
+			return;
+		}
+		
 		pl_original.standardize(); 
 				
 		B=pl_original.getVectorB();
@@ -353,7 +415,9 @@ public final class LP implements FormatTypeInput {
 		//ho messo la creazione della matrice per ultima per svuotare gli internal constraint
 		A=pl_original.getMatrixA();  
 	
-		amatrix=new A_DataMatrix(A,path_work);
+		//il simplesso modifica A : senza sessione la copia per il controllo di accuratezza resta in memoria, compressa
+		if(path_work!=null) amatrix=new A_DataMatrix(A,path_work);
+		else copyA=SparseMatrix.fromDense(A);
 	
 		/*
 		//printTableAm(Amatrix);
@@ -383,7 +447,10 @@ public final class LP implements FormatTypeInput {
 		logger.log(SscLevel.INFO,RB.format("it.ssc.pl.milp.LP.msg11")+threadsNumber.getThread());
 		logger.log(Level.INFO,  "---------------------------------------------");
 		
-		SimplexInterface simplex =new Simplex(A, B, C,epsilon,cepsilon);
+		prepareStandartProblem();
+		SimplexInterface simplex;
+		if(simplexEngine==SimplexEngine.SPARSE_REVISED) simplex=new SimplexRevised(sparseA, B, C, U, epsilon, cepsilon);
+		else simplex =new Simplex(A, B, C,epsilon,cepsilon);
 		simplex.setNumIterationMax(num_max_iteration);
 		simplex.setThreadsNumber(threadsNumber) ;
 		
@@ -397,7 +464,7 @@ public final class LP implements FormatTypeInput {
 		
 		if(isStopPhase2 && type_solution==SolutionType.OPTIMUM) {
 			type_solution=SolutionType.FEASIBLE;
-			PLProblem pl_original=persistencePl.readObject();
+			PLProblem pl_original=readOriginalProblem();
 			this.solution_pl=new SolutionImpl(type_solution,
 											  pl_original,  //PRIMA PASSAVO UN CLONE ??? tolto .clone()
 											  simplex.getFinalBasis(),
@@ -413,7 +480,7 @@ public final class LP implements FormatTypeInput {
 			logger.log(SscLevel.TIME,RB.format("it.ssc.pl.milp.LP.msg4",RB.getHhMmSsMmm(end_phase_two-end_phase_one)));
 			logger.log(SscLevel.INFO,RB.getString("it.ssc.pl.milp.LP.msg5")+simplex.getNumIterationPhaseTotal());
 			
-			PLProblem pl_original=persistencePl.readObject();
+			PLProblem pl_original=readOriginalProblem();
 			this.solution_pl=new SolutionImpl(type_solution,
 											  pl_original,  //PRIMA PASSAVO UN CLONE ??? tolto .clone()
 											  simplex.getFinalBasis(),
@@ -423,7 +490,9 @@ public final class LP implements FormatTypeInput {
 		}	
 		logger.log(SscLevel.TIME,RB.format("it.ssc.pl.milp.LP.msg6",RB.getHhMmSsMmm(end_phase_two-start_simplex)));
 		if(type_solution==SolutionType.FEASIBLE || type_solution==SolutionType.OPTIMUM) {
-			loggerAccurancy( amatrix, B, simplex.getFinalBasis(),simplex.getFinalValuesBasis(),isStopPhase2);
+			if(sparseA!=null) loggerAccurancy( sparseA, B, simplex.getFinalBasis(),simplex.getFinalValuesBasis(),isStopPhase2);
+			else if(copyA!=null) loggerAccurancy( copyA, B, simplex.getFinalBasis(),simplex.getFinalValuesBasis(),isStopPhase2);
+			else loggerAccurancy( amatrix, B, simplex.getFinalBasis(),simplex.getFinalValuesBasis(),isStopPhase2);
 		}
 		closeAfterResolve() ;
 		return type_solution;
@@ -441,6 +510,9 @@ public final class LP implements FormatTypeInput {
 	 * @throws IOException se il problema non &egrave; stato ridotto in forma standart
 	 */
 	public double[][] getStandartMatrixA() throws SimplexException, IOException {
+		prepareStandartProblem();
+		if(sparseA!=null) return sparseA.toDense();
+		if(copyA!=null) return copyA.toDense();
 		if(amatrix==null) throw new SimplexException(RB.getString("it.ssc.pl.milp.LP.msg9"));
 		return amatrix.getMatrix();
 	}
@@ -453,6 +525,7 @@ public final class LP implements FormatTypeInput {
 	 */
 	
 	public double[] getStandartVectorB() {
+		prepareStandartProblemUnchecked();
 		return B.clone();
 	}
 
@@ -463,6 +536,7 @@ public final class LP implements FormatTypeInput {
 	 * @return Il vettore c dei coefficienti della f.o.
 	 */
 	public double[] getStandartVectorC() {
+		prepareStandartProblemUnchecked();
 		return C.clone();
 	}
 
@@ -543,6 +617,32 @@ public final class LP implements FormatTypeInput {
 	}
 
 	
+	private void prepareStandartProblemUnchecked() {
+		try {
+			prepareStandartProblem();
+		} 
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void loggerAccurancy(SparseMatrix matrix, double[] B,int basis[],double values[],boolean solo_ammissibile) {
+		int nRows=matrix.getNrow();
+		double array_solutions[]=getArraySolution(matrix.getNcolumn(), basis,values);
+		double[] b_=new double[nRows];
+		for(int j=0;j<matrix.getNcolumn();j++) {
+			if(array_solutions[j]!=0.0) matrix.addColumn(j, array_solutions[j], b_);
+		}
+		double sum_b=0;
+		double best_error=0;
+		for(int i=0;i<nRows;i++) {
+			double error=Math.abs(b_[i]- B[i]);
+			if(best_error < error) best_error=error;
+			sum_b+=error;
+		}
+		logAccurancy(nRows==0 ? 0 : sum_b/nRows, best_error, solo_ammissibile);
+	}
+	
 	private void loggerAccurancy(A_DataMatrix matrix, double[] B,int basis[],double values[],boolean solo_ammissibile) throws IOException {
 		double sum_b=0;
 		double best_error=0;
@@ -559,6 +659,10 @@ public final class LP implements FormatTypeInput {
 			sum_b+=Math.abs(b_- B[i]);
 		}
 		double errore=sum_b/matrix.getnRow();
+		logAccurancy(errore, best_error, solo_ammissibile);
+	}
+	
+	private void logAccurancy(double errore,double best_error,boolean solo_ammissibile) {
 		if(solo_ammissibile) logger.log(Level.INFO,RB.getString("it.ssc.pl.milp.LP.msg7bis"));
 		else logger.log(Level.INFO,RB.getString("it.ssc.pl.milp.LP.msg7"));
 		logger.log(Level.INFO,  "---------------------------------------------");
@@ -575,20 +679,24 @@ public final class LP implements FormatTypeInput {
 	
 	private double[]  getArraySolution( int dim, int basis[],double value_bases[]) {
 		double[] solutions=new double[dim];
-		for (int index_var=0;index_var<dim;index_var++) 
-			for (int i = 0; i < basis.length; i++) {
-				if(index_var== basis[i]) {
-					solutions[index_var]= value_bases[i];
-				}
-			}
+		for (int i = 0; i < basis.length; i++) {
+			if(basis[i] < dim) solutions[basis[i]]= value_bases[i];
+		}
 		return solutions;
 	}
 	
 	
+	private PLProblem readOriginalProblem() throws IOException, ClassNotFoundException {
+		if(pl_original_in_memory!=null) return pl_original_in_memory;
+		return persistencePl.readObject();
+	}
+	
 	private void closeAfterResolve() throws Exception {
-		if(toCloseSessionInternal) session.close();
-		amatrix.close();
+		if(toCloseSessionInternal && session!=null) session.close();
+		if(amatrix!=null) amatrix.close();
 		amatrix=null;
+		sparseA=null;
+		copyA=null;
 		session=null;
 	}
 	
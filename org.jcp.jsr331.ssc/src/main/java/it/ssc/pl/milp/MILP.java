@@ -6,7 +6,6 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.util.ArrayList;
-import java.util.concurrent.CyclicBarrier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import it.ssc.context.Context;
@@ -16,7 +15,6 @@ import it.ssc.log.SscLogger;
 import it.ssc.pl.milp.ObjectiveFunction.TARGET_FO;
 import it.ssc.pl.milp.util.MILPThreadsNumber;
 import it.ssc.ref.Input;
-import it.ssc.step.parallel.Task;
 
 
 
@@ -327,7 +325,7 @@ public final class MILP implements FormatTypeInput {
 	
 	public SolutionType resolve() throws Exception {
 		
-		logger.log(SscLevel.INFO,RB.format("it.ssc.pl.milp.MILP.msg10")+threadNumber.getThread());
+		logger.log(SscLevel.INFO,RB.format("it.ssc.pl.milp.MILP.msg10")+getNumThreads());
 		
 		//if(threadNumber==MILPThreadsNumber.N_1) return resolveSingleThread();
 		// else 
@@ -442,74 +440,56 @@ public final class MILP implements FormatTypeInput {
 			else tree.addNode(milp_current);
 		}	 
 		
-		CyclicBarrier cb =null;
-		Thread tgroup0 = null;
+		int threads=getNumThreads();
+		if(!tree.isEmpty() && threads > 1) {
+			//i nodi vengono risolti da task di un ForkJoinPool, che condividono la coda dei nodi aperti e la soluzione intera
+			ParallelBranchAndBound search=new ParallelBranchAndBound(target, lb.milp, num_simplex_resolved, num_max_simplex, isJustTakeFeasibleSolution);
+			search.resolve(tree.getMilpBestUP(), threads);
+			num_simplex_resolved=search.getNumSimplexResolved();
+			MilpManager incumbent=search.getIncumbent();
+			if(incumbent!=null) {
+				lb.value= incumbent.getOptimumValue();
+				lb.milp=incumbent;
+				type_solution=isJustTakeFeasibleSolution ? SolutionType.FEASIBLE : SolutionType.OPTIMUM;
+			}
+			if(search.isMaxSimplexReached() && type_solution!=SolutionType.FEASIBLE) {
+				logger.log(SscLevel.WARNING,RB.format("it.ssc.pl.milp.MILP.msg8")+num_max_simplex);
+				logger.log(SscLevel.NOTE,RB.format("it.ssc.pl.milp.MILP.msg9"));
+				return SolutionType.MAX_NUM_SIMPLEX;
+			}
+		}
 		
-		ArrayList<MilpManager> list_best_candidate=null;
-		ArrayList<MilpManager> scarti_to_separe=null;
 		ArrayList<MilpManager> listMangerMilpToRun=null;
 		
 		b:	{
 			while(!tree.isEmpty()) {
 
-				list_best_candidate=tree.getMilpBestUP(threadNumber);  
-				scarti_to_separe=new ArrayList<MilpManager> ();
-				for(MilpManager lp_curent:list_best_candidate) {
-					scarti_to_separe.add(lp_curent);
-				}
-
-				if(!scarti_to_separe.isEmpty()) {
-					listMangerMilpToRun = new ArrayList<MilpManager>();
-
-					for(MilpManager lp_curent:scarti_to_separe) {
-						MilpManager.populateArrayListBySeparation(listMangerMilpToRun,lp_curent);
-					}
-					//gestione a pi thread
-					if(threadNumber!=MILPThreadsNumber.N_1) {
-
-						//Gestione Thread
-						cb = new CyclicBarrier(listMangerMilpToRun.size());
-						for(MilpManager lp_run:listMangerMilpToRun) {
-							//milp.resolve();
-							(tgroup0 = new Thread(new Task(cb, lp_run ))).start();
-						}
-						tgroup0.join();
-					}
-					//gestione a singolo thread
-					else {
-						//System.out.println("un trhea");
-						for(MilpManager milp:listMangerMilpToRun) {
-							milp.resolve();
-						}
-					}
-					//RISULTATO
-					//dopo esecuzione si valuta risultato
-					for(MilpManager milp:listMangerMilpToRun) {
-						if(milp.getSolutionType()==SolutionType.OPTIMUM) {
-							//System.out.println("VALUE:"+milp.getOptimumValue());
-											
-							if(milp.isSolutionIntegerAmmisible() && milp.isProblemSemiContinusAmmisible()) {
-								//System.out.println("intera:"+milp.getOptimumValue());
-								if(  (target==TARGET_FO.MAX && lb.value < milp.getOptimumValue())     //max 
-								  || (target==TARGET_FO.MIN && lb.value > milp.getOptimumValue())) {  //questo vale per il min
+				listMangerMilpToRun = new ArrayList<MilpManager>();
+				MilpManager.populateArrayListBySeparation(listMangerMilpToRun,tree.getMilpBestUP());
+				
+				for(MilpManager milp:listMangerMilpToRun) {
+					milp.resolve();
+					if(milp.getSolutionType()==SolutionType.OPTIMUM) {
+						if(milp.isSolutionIntegerAmmisible() && milp.isProblemSemiContinusAmmisible()) {
+							if(  (target==TARGET_FO.MAX && lb.value < milp.getOptimumValue())     //max 
+							  || (target==TARGET_FO.MIN && lb.value > milp.getOptimumValue())) {  //questo vale per il min
 
-									milp.setIntegerIfOptimal();
-									lb.value= milp.getOptimumValue();
-									lb.milp=milp;
-									type_solution=SolutionType.OPTIMUM; 
-									//se devo cercare solo una soluzione ammissibile , ma non ottima
-									if(isJustTakeFeasibleSolution) {
-										type_solution=SolutionType.FEASIBLE;
-										break b;
-									}
+								milp.setIntegerIfOptimal();
+								lb.value= milp.getOptimumValue();
+								lb.milp=milp;
+								type_solution=SolutionType.OPTIMUM; 
+								//se devo cercare solo una soluzione ammissibile , ma non ottima
+								if(isJustTakeFeasibleSolution) {
+									type_solution=SolutionType.FEASIBLE;
+									break b;
 								}
 							}
-							else tree.addNode(milp);
 						}
-						num_simplex_resolved+=1;	
+						else tree.addChild(milp);
 					}
-					tree.deleteNodeWhitUPnotValide(lb.value); 
+					num_simplex_resolved+=1;	
 				}
+				tree.deleteNodeWhitUPnotValide(lb.value); 
 
 				if(num_simplex_resolved >= num_max_simplex) { 
 					logger.log(SscLevel.WARNING,RB.format("it.ssc.pl.milp.MILP.msg8")+num_max_simplex);
@@ -562,8 +542,14 @@ public final class MILP implements FormatTypeInput {
 		return threadNumber;
 	}
 	
+	private int getNumThreads() {
+		if(threadNumber==MILPThreadsNumber.AUTO) return Runtime.getRuntime().availableProcessors();
+		return threadNumber.getThread();
+	}
+	
 	/**
-	 * Questo metodo permette di impostare il numero di Thread da utilizzare per eseguire il Branch and Bound
+	 * Questo metodo permette di impostare il numero di Thread da utilizzare per eseguire il Branch and Bound. 
+	 * Se il valore &egrave; AUTO  &egrave; il sistema a decidere il numero di Thread in base ai processori disponibili. 
 	 * 
 	 * @param lthreadNumber
 	 */
@@ -2,190 +2,234 @@ package it.ssc.pl.milp;
 
 
 import java.util.ArrayList;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Arrays;
 
 import it.ssc.context.Session;
 import it.ssc.context.exception.InvalidSessionException;
 import it.ssc.datasource.DataSource;
-import it.ssc.log.SscLogger;
 import it.ssc.pl.milp.FormatTypeInput.FormatType;
 import it.ssc.pl.milp.ObjectiveFunction.TARGET_FO;
 import it.ssc.pl.milp.Variable.TYPE_VAR;
 import it.ssc.ref.Input;
-import it.ssc.step.parallel.Parallelizable;
-import it.ssc.vector_spaces.MatrixException;
 
 
- final class MilpManager implements Cloneable,  Parallelizable,  Comparable<MilpManager> { 
-	
-	public enum VERSUS_SEPARATION { MINOR , MAJOR , ZERO , INTERVAL}; 
-	
-	private static final Logger logger=SscLogger.getLogger();
-	private volatile static int  static_counter=1; 
+/*
+ * Nodo del branch and bound. Il problema non viene piu' clonato ad ogni separazione : tutti i nodi
+ * condividono lo stesso rilassamento (MilpRelaxation) e ogni nodo memorizza solo il limite modificato
+ * rispetto al padre (catena di BoundChange fino alla radice). Il nodo viene risolto col simplesso
+ * duale partendo dalla base ottima del padre.
+ */
+
+ final class MilpManager implements Comparable<MilpManager> {
+
+	public enum VERSUS_SEPARATION { MINOR , MAJOR , ZERO , INTERVAL};
+
+	/*
+	 * Limite di una variabile modificato da una separazione. I limiti validi in un nodo sono quelli
+	 * della radice sovrascritti, per ogni variabile, dal BoundChange piu' profondo della catena.
+	 */
+	private static final class BoundChange {
+		private final int index_var;
+		private final double lower;
+		private final double upper;
+		private final boolean isSemiconSeparation;
+		private final BoundChange parent;
+
+		private BoundChange(int index_var, double lower, double upper, boolean isSemiconSeparation, BoundChange parent) {
+			this.index_var=index_var;
+			this.lower=lower;
+			this.upper=upper;
+			this.isSemiconSeparation=isSemiconSeparation;
+			this.parent=parent;
+		}
+	}
+
+	private volatile static int  static_counter=1;
 	private int id;
 	private PLProblem pl_current;
-	private static PLProblem pl_original_zero;
+	private MilpRelaxation relaxation;
+	private BoundChange bound_change;
+	private int depth;
+	private SimplexRevised.Basis basis;
+	private double[] values;
+	private double optimum_value;
 	private int num_iteration;
 	private final boolean isMilp=true;
 
 	private EPSILON epsilon;
-	private EPSILON iepsilon; 
+	private EPSILON iepsilon;
 	private EPSILON cepsilon;
-	
+
 	private SolutionImpl solution_pl;
 	private SolutionType solutionType;
-	
-	
+
+
 	MilpManager(Input input_sparse,Session session, FormatType format) throws InvalidSessionException, Exception {
-		id=createId();  
+		id=createId();
 		DataSource milp_data_source=session.createDataSource(input_sparse);
 		if(format==FormatType.SPARSE) pl_current=CreatePLProblem.createFromSparse(milp_data_source,isMilp);
 		else if(format==FormatType.COEFF) pl_current=CreatePLProblem.create(milp_data_source,isMilp);
 		pl_current.configureInteger();
 		pl_current.configureSemicont();
 	}
-	
+
 	MilpManager(LinearObjectiveFunction f,ArrayList<Constraint> constraints) throws InvalidSessionException, Exception {
-		id=createId(); 
+		id=createId();
 		pl_current=CreatePLProblem.create(f,constraints,isMilp);
 		pl_current.configureInteger();
 		pl_current.configureSemicont();
 	}
-	
-	
+
+
 	MilpManager(LinearObjectiveFunction f,ArrayList<InternalConstraint> constraints,ArrayList<String> nomi_var,ArrayProblem arrayProb) throws InvalidSessionException, Exception {
-		id=createId(); 
-		pl_current=CreatePLProblem.create(f,constraints,nomi_var,arrayProb,isMilp);  
+		id=createId();
+		pl_current=CreatePLProblem.create(f,constraints,nomi_var,arrayProb,isMilp);
 		pl_current.configureInteger();
 		pl_current.configureSemicont();
 	}
-	
-	
+
+
 	MilpManager(Input milp_input,Session session) throws InvalidSessionException, Exception {
-		id=createId(); 
+		id=createId();
 		DataSource milp_data_source=session.createDataSource(milp_input);
 		pl_current=CreatePLProblem.create(milp_data_source,isMilp);
 		pl_current.configureInteger();
 		pl_current.configureSemicont();
 	}
-	
+
+	//nodo figlio : eredita il rilassamento e la base del padre
+	private MilpManager(MilpManager parent, BoundChange bound_change) {
+		id=createId();
+		this.pl_current=parent.pl_current;
+		this.relaxation=parent.relaxation;
+		this.bound_change=bound_change;
+		this.depth=parent.depth + 1;
+		this.basis=parent.basis;
+		this.num_iteration=parent.num_iteration;
+		this.epsilon=parent.epsilon;
+		this.iepsilon=parent.iepsilon;
+		this.cepsilon=parent.cepsilon;
+	}
+
 	void setEpsilon(EPSILON epsilon) {
 		this.epsilon=epsilon;
 	}
-	
+
 	void setIEpsilon(EPSILON epsilon) {
-		this.iepsilon=epsilon; 
+		this.iepsilon=epsilon;
 	}
-	
+
 	void setCEpsilon(EPSILON epsilon) {
-		this.cepsilon=epsilon; 
+		this.cepsilon=epsilon;
 	}
-	
+
 	void setMaxIteration(int num_iteration) throws SimplexException  {
 		this.num_iteration=num_iteration;
 	}
-	
-	public void run() throws Exception {
-		resolve();
-	}
+
 	SolutionType resolve() throws Exception {
-		
-		PLProblem lp_standard=pl_current.clone();
-		if(pl_original_zero==null) pl_original_zero=pl_current.clone();    //	QUI FORSE SI PU LASCIARE L'ORIGINALE ... senza fare clone
-		
-		/*
-		 * Nella fase di standardizzazione : 
-		 * 
-		 * a) Cambio segno alla funzione obiettivo se essa e MIN - > MAX e Cj = -Cj
-		 * b) Essettuo traslazione del vincolo esistente  aggiornado bi se esiste una o piu' variabili con lower != 0 o da .
-		 * c) Aggiungo nuovo vincolo nel caso esista un lower (Xj <= upper - appo_lower )  
-		 * d) Calcola il nuovo valore new_dimension che sara' poi la dimensione delle colonne di A (matrice standard)
-		 */
-		
-		lp_standard.standardize(); 
-		
-		
-		double[]   B=lp_standard.getVectorB();
-		double[]   C=lp_standard.getVectorC();
-		//ATTENZIONE ... qui gli internal constraint vengono svuotati
-		//ho messo la creazione della matrice per ultima per svuotare gli internal constraint
-		double[][] A=lp_standard.getMatrixA();
-		
-		/*
-		printTableA( A);
-		printTableV( B);
-		printTableV( C);
-		*/
-			
-		SimplexInterface simplex=new Simplex(A, B, C,epsilon,cepsilon);
-		simplex.setNumIterationMax(num_iteration);
-		simplex.setMilp(true);
-		
-		this.solutionType=simplex.runPhaseOne();
-		if(this.solutionType==SolutionType.OPTIMUM) { 
-			this.solutionType =simplex.runPhaseTwo();
-			this.solution_pl=new SolutionImpl(this.solutionType,
-											  pl_original_zero.clone(), //devo passare un clone in quanto modifiva l'array di Var
-											  simplex.getFinalBasis(),
-											  simplex.getFinalValuesBasis(),
-											  pl_current.getVariables());
-		}	
-		
+
+		if(relaxation==null) relaxation=new MilpRelaxation(pl_current, epsilon, cepsilon, num_iteration);
+
+		double[] lower=relaxation.getLower().clone();
+		double[] upper=relaxation.getUpper().clone();
+		fillBounds(lower, upper, null);
+		for(int _j=0;_j<relaxation.getNumVar();_j++) {
+			if(lower[_j] > upper[_j]) {
+				this.basis=null;
+				this.solutionType=SolutionType.VUOTUM;
+				return this.solutionType;
+			}
+		}
+
+		SimplexRevised simplex=relaxation.acquire();
+		try {
+			this.solutionType=simplex.reoptimize(lower, upper, basis);
+			if(this.solutionType==SolutionType.OPTIMUM) {
+				this.basis=simplex.getBasis();
+				this.values=Arrays.copyOf(simplex.getValues(), relaxation.getNumVar());
+				//i valori entro la tolleranza di ammissibilita' vengono riportati sui limiti del nodo
+				for(int _j=0;_j<values.length;_j++) {
+					values[_j]=Math.min(Math.max(values[_j], lower[_j]), upper[_j]);
+				}
+				this.optimum_value=relaxation.getObjectiveValue(values);
+			}
+			else this.basis=null;
+		}
+		finally {
+			relaxation.release(simplex);
+		}
 		return this.solutionType;
 	}
-	
+
+	/*
+	 * Applica ai limiti della radice quelli modificati lungo la catena del nodo. Se is_semicon_separated
+	 * non e' null vi vengono marcate le variabili semicontinue gia' separate.
+	 */
+	private void fillBounds(double[] lower, double[] upper, boolean[] is_semicon_separated) {
+		boolean[] is_changed=new boolean[relaxation.getNumVar()];
+		for(BoundChange change=bound_change;change!=null;change=change.parent) {
+			if(!is_changed[change.index_var]) {
+				is_changed[change.index_var]=true;
+				lower[change.index_var]=change.lower;
+				upper[change.index_var]=change.upper;
+			}
+			if(is_semicon_separated!=null && change.isSemiconSeparation) is_semicon_separated[change.index_var]=true;
+		}
+	}
+
 	public double getOptimumValue() {
-		 return solution_pl.getOptimumValue();
+		 return optimum_value;
 	}
-	
+
 	public TARGET_FO getTargetFoOriginal() {
-		return pl_original_zero.getTarget_fo();
+		return pl_current.getTarget_fo();
+	}
+
+	int getDepth() {
+		return depth;
 	}
-	
-	
-	 MilpManager getCloneBySeparationContinus(int index_var,VERSUS_SEPARATION versus) throws CloneNotSupportedException, LPException {
-		int num_tot_var= this.solution_pl.getVariables().length;
-		MilpManager clone_separation=clone();
-		Var variable=clone_separation.pl_current.getVariables()[index_var];
-		variable.setSemicon(false);
+
+
+	 MilpManager getCloneBySeparationContinus(int index_var,VERSUS_SEPARATION versus) {
+		Var variable=relaxation.getVariable(index_var);
+		BoundChange change;
 		if(versus==VERSUS_SEPARATION.ZERO)  {
-			//System.out.println(index_var+":ZERO-ZERO"+"   ID_CLONE"+clone_separation.getId() );
-			InternalConstraint constraint=InternalConstraint.createConstraintFromVar(num_tot_var, index_var, 0.0, InternalConstraint.TYPE_CONSTR.LE);
-			clone_separation.pl_current.addConstraint(constraint);
-			variable.setZeroSemicontVar(true);
+			change=new BoundChange(index_var, 0.0, 0.0, true, bound_change);
 		}
 		else {
-			variable.setUpper(variable.getUpperSemicon());
-			variable.setLower(variable.getLowerSemicon());
+			double lower=variable.getLowerSemicon();
+			double upper=variable.getUpperSemicon();
+			change=new BoundChange(index_var,
+					Double.isNaN(lower) ? Double.NEGATIVE_INFINITY : lower,
+					Double.isNaN(upper) ? Double.POSITIVE_INFINITY : upper,
+					true, bound_change);
 		}
-		return clone_separation;
+		return new MilpManager(this, change);
 	}
-	
-	 MilpManager getCloneBySeparationInteger(int index_var,VERSUS_SEPARATION versus) throws CloneNotSupportedException {
-		double value=this.solution_pl.getVariables()[index_var].getValue();
-		int num_tot_var= this.solution_pl.getVariables().length;
-		MilpManager clone_separation=clone();
-		
-		InternalConstraint constraint=null;
+
+	 MilpManager getCloneBySeparationInteger(int index_var,VERSUS_SEPARATION versus) {
+		double value=values[index_var];
+		double lower=relaxation.getLower()[index_var];
+		double upper=relaxation.getUpper()[index_var];
+		for(BoundChange change=bound_change;change!=null;change=change.parent) {
+			if(change.index_var==index_var) {
+				lower=change.lower;
+				upper=change.upper;
+				break;
+			}
+		}
+		BoundChange change;
 		if(versus==VERSUS_SEPARATION.MINOR)  {
-			value=Math.floor(value);
-			//System.out.println(index_var+":MINOR:"+value +"   ID_CLONE"+clone_separation.getId() );
-			constraint=InternalConstraint.createConstraintFromVar( 
-					num_tot_var, index_var, value, InternalConstraint.TYPE_CONSTR.LE);
+			change=new BoundChange(index_var, lower, Math.floor(value), false, bound_change);
 		}
 		else {
-			value=Math.ceil(value);
-			//System.out.println(index_var+":MAIOR"+value+"   ID_CLONE"+clone_separation.getId());
-			constraint=InternalConstraint.createConstraintFromVar(
-					num_tot_var, index_var, value, InternalConstraint.TYPE_CONSTR.GE);
-			
+			change=new BoundChange(index_var, Math.ceil(value), upper, false, bound_change);
 		}
-		clone_separation.pl_current.addConstraint(constraint);
-		return clone_separation;
+		return new MilpManager(this, change);
 	 }
-	 
-	 static public void  populateArrayListBySeparation(ArrayList<MilpManager> listMangerMilp, MilpManager milp_current2) throws CloneNotSupportedException, LPException {
+
+	 static public void  populateArrayListBySeparation(ArrayList<MilpManager> listMangerMilp, MilpManager milp_current2) {
 			MilpManager milp_sotto2,milp_sopra2;
 			if(!milp_current2.isProblemSemiContinusAmmisible()) {
 				int index_var_not_cont2=milp_current2.getIndexVarToBeSemiContinus();
@@ -197,25 +241,26 @@ import it.ssc.vector_spaces.MatrixException;
 				//System.out.println("DIVIDO PROBLEMA ID:"+milp_current.getId()+" z:"+milp_current.getOptimumValue());
 				milp_sotto2=milp_current2.getCloneBySeparationInteger(index_var_not_integer2, VERSUS_SEPARATION.MINOR);
 				milp_sopra2=milp_current2.getCloneBySeparationInteger(index_var_not_integer2, VERSUS_SEPARATION.MAJOR);
-			}	
+			}
 			listMangerMilp.add(milp_sotto2);
 			listMangerMilp.add(milp_sopra2);
-			
+			//i figli hanno gia' il riferimento alla base del padre, che non serve piu' al padre
+			milp_current2.basis=null;
+			if(milp_current2.depth > 0) milp_current2.values=null;
 		}
-	
+
 	 int getIndexVarToBeSemiContinus() {
-		int index =0;
+		boolean[] is_semicon_separated=getSemiconSeparated();
 		Var[] variables= this.pl_current.getVariables();
-		for(Var variable:variables) {
-			if(variable.isSemicon() ) {
+		for(int index=0;index<variables.length;index++) {
+			if(variables[index].isSemicon() && !is_semicon_separated[index]) {
 				return index;
 			}
-			index++;
 		}
 		return -1;
 	}
-	 
-	 
+
+
 	public boolean existVarToBeIntegerOrSemicon() {
 		Var[] variables= this.pl_current.getVariables();
 		for(Var variable:variables) {
@@ -227,127 +272,75 @@ import it.ssc.vector_spaces.MatrixException;
 		}
 		return false;
 	}
-	
-	
+
+
 	private int getIndexVarToBeInteger() {
-		int index =0;
-		Var[] variables= this.solution_pl.getVariables();
-		for(Var variable:variables) {
-			if(variable.getType()== TYPE_VAR.BINARY || variable.getType()== TYPE_VAR.INTEGER ) {
-				double value=variable.getValue();
-				if(!isInteger(value)) {
+		Var[] variables= this.pl_current.getVariables();
+		for(int index=0;index<variables.length;index++) {
+			if(variables[index].getType()== TYPE_VAR.BINARY || variables[index].getType()== TYPE_VAR.INTEGER ) {
+				if(!isInteger(values[index])) {
 					return index;
 				}
 			}
-			index++;
 		}
 		return -1;
 	}
-	
-	
-	/*
-	
-	@SuppressWarnings("unused")
-	private int getIndexVarToBeIntegerNew2Test() {
-		int index =0;
-		int index_bono=-1;
-		double fraction=0.0;
-		Var[] variables= this.solution_pl.getVariables();
-		for(Var variable:variables) {
-			if(variable.getType()== TYPE_VAR.BINARY || variable.getType()== TYPE_VAR.INTEGER ) {
-				double value=variable.getValue();
-				if(!isInteger(value)) {
-					if(index_bono==-1) {
-						index_bono= index;
-						fraction= value % 1;
-					}
-					else if(fraction < (value % 1)) {
-						index_bono= index;
-						fraction= value % 1;
-					}
-				}
-			}
-			index++;
-		}
-		return index_bono;
+
+	private boolean[] getSemiconSeparated() {
+		boolean[] is_semicon_separated=new boolean[relaxation.getNumVar()];
+		double[] lower=new double[relaxation.getNumVar()];
+		double[] upper=new double[relaxation.getNumVar()];
+		fillBounds(lower, upper, is_semicon_separated);
+		return is_semicon_separated;
 	}
-	*/
-	
+
 	public  boolean isProblemSemiContinusAmmisible()  {
-		boolean is_continus_ammisible=true;
-		Var[] variables= this.pl_current.getVariables();
-		for(Var variable:variables) {
-			if(variable.isSemicon()) is_continus_ammisible=false;
-		}
-		return is_continus_ammisible;
+		return getIndexVarToBeSemiContinus()==-1;
 	}
-	
-	
-	
+
+
+
 	public boolean isSolutionIntegerAmmisible()  {
-		boolean is_integer_ammisible=true;
-		Var[] variables= this.solution_pl.getVariables();
-		for(Var variable:variables) {
-			if(variable.getType()== TYPE_VAR.BINARY || variable.getType()== TYPE_VAR.INTEGER ) {
-				double value =variable.getValue();
-				if(!isInteger(value)) { 
-					is_integer_ammisible=false;
-				}
-			}
-		}
-		return is_integer_ammisible;
+		return getIndexVarToBeInteger()==-1;
 	}
-	
-	
-	
+
+
+
 	public void setIntegerIfOptimal() {
-		Var[] variables= this.solution_pl.getVariables();
-		for(Var variable:variables) {
-			if(variable.getType()== TYPE_VAR.BINARY || variable.getType()== TYPE_VAR.INTEGER ) {
-				double value =variable.getValue();
-				value=Math.rint(value);
-				variable.setValue(value);
+		Var[] variables= this.pl_current.getVariables();
+		for(int index=0;index<variables.length;index++) {
+			if(variables[index].getType()== TYPE_VAR.BINARY || variables[index].getType()== TYPE_VAR.INTEGER ) {
+				values[index]=Math.rint(values[index]);
 			}
 		}
+		this.optimum_value=relaxation.getObjectiveValue(values);
+		this.solution_pl=null;
 	}
-	
-	
-	private  boolean isInteger(double d) { 
+
+
+	private  boolean isInteger(double d) {
 		  // Note that Double.NaN is not equal to anything, even itself.
-		  return  !Double.isInfinite(d) && 
+		  return  !Double.isInfinite(d) &&
 		          ( Math.abs(d - Math.rint(d))  <= iepsilon.getValue()  ) ;
 	}
-	
-	
+
+
 	public Solution getSolution()  {
+		if(solution_pl==null && solutionType==SolutionType.OPTIMUM) {
+			solution_pl=relaxation.createSolution(solutionType, values);
+		}
 		return this.solution_pl;
 	}
-	
-	
+
+
 	public int  getId() {
 		return id;
 	}
-	
+
 	private static synchronized  int createId() {
 		return static_counter++;
 	}
-	
-	
-	protected MilpManager clone() throws CloneNotSupportedException {
-		MilpManager milp_clone=null;
-		try {
-			milp_clone = (MilpManager)super.clone();
-			milp_clone.pl_current=this.pl_current.clone();
-			milp_clone.solution_pl=null;
-			milp_clone.solutionType=null;
-			milp_clone.id=MilpManager.createId();
-		} 
-		catch (CloneNotSupportedException e) {
-			logger.log(Level.SEVERE,"Clonazione it.ssc.pl.milp.ManagerMILP",e);
-			throw e;
-		}
-		return milp_clone;
-	}
+
 
 	public SolutionType getSolutionType() {
 		return solutionType;
@@ -375,29 +368,4 @@ import it.ssc.vector_spaces.MatrixException;
 		if (id != other.id) return false;
 		return true;
 	}
-	
-	
-	@SuppressWarnings("unused")
-	private void printTableA(double[][] tabella) {
-		for(int _i=0;_i<tabella.length;_i++) {
-			System.out.println("");
-			for(int _j=0;_j<tabella[0].length;_j++) {
-				double val=tabella[_i][_j];
-				System.out.printf("\t : %7.14f",val);
-			}
-		}
-		System.out.println("");
-	}
-	
-	@SuppressWarnings("unused")
-	private void printTableV(double[] vector) {
-		for(int _j=0;_j<vector.length;_j++) {
-			double val=vector[_j];
-			System.out.printf("\t : %7.14f",val);
-		}
-		
-		System.out.println("");
-	}
-	
 }
-
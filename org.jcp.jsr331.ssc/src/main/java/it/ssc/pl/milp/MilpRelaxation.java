@@ -0,0 +1,176 @@
+package it.ssc.pl.milp;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import it.ssc.pl.milp.ObjectiveFunction.TARGET_FO;
+
+/**
+ * Rilassamento continuo del problema MILP, costruito una sola volta e condiviso da tutti i nodi
+ * del branch and bound. La matrice dei vincoli e' memorizzata per colonne e non viene standardizzata :
+ * ogni variabile corrisponde ad una sola colonna coi propri limiti (anche infiniti) e ad ogni vincolo
+ * LE o GE viene aggiunta una slack non negativa. I nodi differiscono dalla radice solo per i limiti
+ * delle variabili, per cui un nodo viene risolto modificando i limiti e ripartendo dalla base del padre.
+ * La matrice viene letta una sola volta dalle righe dense dei vincoli (getAi()) del problema originale :
+ * i nodi non ne fanno copie, ma durante la costruzione la memoria resta proporzionale a m x numero di variabili.
+ * <br>
+ * Le istanze di {@link SimplexRevised} vengono riutilizzate tramite un pool, in modo che nodi risolti
+ * in parallelo non condividano lo stato del simplesso.
+ *
+ * @author Scarioli
+ */
+
+final class MilpRelaxation {
+
+	private final PLProblem pl_original;
+	private final Var[] variables;
+	private final int n_var;
+	private final SparseMatrix A;
+	private final double[] B;
+	private final double[] C;
+	private final double[] lower;
+	private final double[] upper;
+	private final EPSILON epsilon;
+	private final EPSILON cepsilon;
+	private final int num_iteration;
+	private final ConcurrentLinkedQueue<SimplexRevised> pool=new ConcurrentLinkedQueue<SimplexRevised>();
+
+	/**
+	 * @param pl_original problema originale (non standardizzato), che non deve essere piu' modificato
+	 */
+	MilpRelaxation(PLProblem pl_original, EPSILON epsilon, EPSILON cepsilon, int num_iteration) {
+		this.pl_original=pl_original;
+		this.variables=pl_original.getVariables();
+		this.n_var=variables.length;
+		this.epsilon=epsilon;
+		this.cepsilon=cepsilon;
+		this.num_iteration=num_iteration;
+
+		int m=pl_original.getListConstraint().size();
+		int n_col=n_var;
+		for(InternalConstraint constraint: pl_original.getListConstraint()) {
+			if(constraint.getType()!=InternalConstraint.TYPE_CONSTR.EQ) n_col++;
+		}
+
+		//prima passata : elementi non nulli per colonna
+		int[] col_start=new int[n_col+1];
+		int index_slack=n_var;
+		for(InternalConstraint constraint: pl_original.getListConstraint()) {
+			double[] Ai=constraint.getAi();
+			for(int _a=0;_a<n_var;_a++) {
+				if(Ai[_a]!=0.0) col_start[_a+1]++;
+			}
+			if(constraint.getType()!=InternalConstraint.TYPE_CONSTR.EQ) col_start[++index_slack]++;
+		}
+		for(int _j=0;_j<n_col;_j++) col_start[_j+1]+=col_start[_j];
+
+		int[] row_index=new int[col_start[n_col]];
+		double[] values=new double[col_start[n_col]];
+		int[] next=col_start.clone();
+		this.B=new double[m];
+
+		//seconda passata
+		int index_contr=0;
+		index_slack=n_var;
+		for(InternalConstraint constraint: pl_original.getListConstraint()) {
+			double[] Ai=constraint.getAi();
+			for(int _a=0;_a<n_var;_a++) {
+				if(Ai[_a]==0.0) continue;
+				row_index[next[_a]]=index_contr;
+				values[next[_a]++]=Ai[_a];
+			}
+			if(constraint.getType()!=InternalConstraint.TYPE_CONSTR.EQ) {
+				row_index[next[index_slack]]=index_contr;
+				values[next[index_slack]++]=(constraint.getType()==InternalConstraint.TYPE_CONSTR.LE) ? 1.0 : -1.0;
+				index_slack++;
+			}
+			B[index_contr]=constraint.getBi();
+			index_contr++;
+		}
+		this.A=new SparseMatrix(m, n_col, col_start, row_index, values);
+
+		//f.o. da massimizzare e limiti delle colonne
+		this.C=new double[n_col];
+		this.lower=new double[n_col];
+		this.upper=new double[n_col];
+		ObjectiveFunctionImpl fo=pl_original.getObjFunction();
+		double sign=(pl_original.getTarget_fo()==TARGET_FO.MIN) ? -1.0 : 1.0;
+		for(int _j=0;_j<n_col;_j++) {
+			upper[_j]=Double.POSITIVE_INFINITY;
+			if(_j >= n_var) continue;
+			double cj=fo.getCj(_j);
+			if(!Double.isNaN(cj)) C[_j]=sign * cj;
+			Var var=variables[_j];
+			if(var.isSemicon()) {
+				//il rilassamento di una semicontinua e' il piu' piccolo intervallo che contiene {0} e [lower,upper]
+				double lower_sc=var.getLowerSemicon();
+				double upper_sc=var.getUpperSemicon();
+				lower[_j]=Double.isNaN(lower_sc) ? Double.NEGATIVE_INFINITY : Math.min(0.0, lower_sc);
+				upper[_j]=Double.isNaN(upper_sc) ? Double.POSITIVE_INFINITY : Math.max(0.0, upper_sc);
+			}
+			else {
+				if(var.isFree() || var.getLowerIsNaN()) lower[_j]=Double.NEGATIVE_INFINITY;
+				else lower[_j]=var.getLower();
+				if(!var.getUpperIsNaN()) upper[_j]=var.getUpper();
+			}
+		}
+	}
+
+	int getNumVar() {
+		return n_var;
+	}
+
+	Var getVariable(int index) {
+		return variables[index];
+	}
+
+	TARGET_FO getTarget() {
+		return pl_original.getTarget_fo();
+	}
+
+	/**
+	 * @return limiti inferiori delle colonne alla radice (vanno copiati prima di modificarli)
+	 */
+	double[] getLower() {
+		return lower;
+	}
+
+	/**
+	 * @return limiti superiori delle colonne alla radice (vanno copiati prima di modificarli)
+	 */
+	double[] getUpper() {
+		return upper;
+	}
+
+	/**
+	 * Valore della f.o. originale (non standardizzata) in corrispondenza dei valori delle variabili.
+	 */
+	double getObjectiveValue(double[] values) {
+		ObjectiveFunctionImpl fo=pl_original.getObjFunction();
+		double z=0;
+		for(int _j=0;_j<n_var;_j++) {
+			z+=values[_j] * fo.getCj(_j);
+		}
+		return z;
+	}
+
+	SolutionImpl createSolution(SolutionType type_solution, double[] values) {
+		return new SolutionImpl(type_solution, pl_original.clone(), values);
+	}
+
+	/**
+	 * Restituisce un simplesso libero dal pool o ne crea uno nuovo. Va restituito con release().
+	 */
+	SimplexRevised acquire() throws SimplexException {
+		SimplexRevised simplex=pool.poll();
+		if(simplex==null) {
+			simplex=new SimplexRevised(A, B, C, lower, upper, epsilon, cepsilon);
+			simplex.setNumIterationMax(num_iteration);
+			simplex.setMilp(true);
+		}
+		return simplex;
+	}
+
+	void release(SimplexRevised simplex) {
+		pool.add(simplex);
+	}
+}
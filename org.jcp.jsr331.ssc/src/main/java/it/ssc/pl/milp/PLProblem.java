@@ -6,6 +6,7 @@ import it.ssc.pl.milp.ObjectiveFunction.TARGET_FO;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -24,6 +25,7 @@ import java.util.logging.Logger;
 	private Var[] array_var;
 	private int new_dimension;
 	private TARGET_FO target_fo= TARGET_FO.MAX;
+	private boolean isUpperAsBound=false;
 		
 	public ObjectiveFunctionImpl getObjFunction() {
 		return fo;                                
@@ -78,7 +80,17 @@ import java.util.logging.Logger;
 	}
 	
 	public void standardize() {
+		standardize(false);
+	}
+	
+	/**
+	 * Se upper_as_bound e' true, gli upper delle variabili non libere non diventano vincoli 
+	 * ma restano limiti sulle colonne (vedi getVectorUpper()), come richiesto dal simplesso 
+	 * rivisto a variabili limitate.
+	 */
+	public void standardize(boolean upper_as_bound) {
 		
+		this.isUpperAsBound=upper_as_bound;
 		fo.standardize(); //standardizza la funzione obiettivo. Se MIN -> MAX
 		
 		//Aggiornare i valori di b con gli lower bound
@@ -107,7 +119,7 @@ import java.util.logging.Logger;
 			if(!Double.isNaN(lower) && lower!=0.0) {
 				appo_lower=lower;
 			}
-			if(!Double.isNaN(upper)) {
+			if(!Double.isNaN(upper) && !(upper_as_bound && !array_var[_j].isFree())) {
 				InternalConstraint constraint=InternalConstraint.createConstraintFromVar(
 						array_var.length, _j, upper - appo_lower, InternalConstraint.TYPE_CONSTR.LE);
 				//System.out.println("kkkk"+(upper - appo_lower));
@@ -188,6 +200,101 @@ import java.util.logging.Logger;
 		return Aij;
 	}
 	
+	/**
+	 * Versione sparsa di getMatrixA() : stesse colonne (variabili, parti negative delle libere, slack) 
+	 * ma memorizzate per colonne. Anche qui gli internal constraint vengono svuotati man mano 
+	 * che vengono letti.
+	 * Le righe sono lette con getAij(), senza copiarle : per i problemi creati da oggetti Constraint 
+	 * sono le righe dense passate dall'utente, per cui oltre a queste si alloca solo la matrice 
+	 * compressa (niente tabella estesa m x n con slack e parti negative delle libere).
+	 */
+	public SparseMatrix getSparseMatrixA() {
+		int n_var=array_var.length;
+		int[] first_col=new int[n_var];
+		int index_col=0;
+		for(int _a=0;_a<n_var;_a++) {
+			first_col[_a]=index_col;
+			index_col+=array_var[_a].isFree() ? 2 : 1;
+		}
+		final int first_slack=index_col;
+		
+		//prima passata : elementi non nulli per colonna
+		int[] col_start=new int[new_dimension+1];
+		int index_slack=first_slack;
+		for(InternalConstraint constraint: list_constraint) {
+			for(int _a=0;_a<n_var;_a++) {
+				if(constraint.getAij(_a)!=0.0) {
+					col_start[first_col[_a]+1]++;
+					if(array_var[_a].isFree()) col_start[first_col[_a]+2]++;
+				}
+			}
+			if(constraint.getType()!=InternalConstraint.TYPE_CONSTR.EQ) col_start[++index_slack]++;
+		}
+		for(int _j=0;_j<new_dimension;_j++) col_start[_j+1]+=col_start[_j];
+		
+		int nnz=col_start[new_dimension];
+		int[] row_index=new int[nnz];
+		double[] values=new double[nnz];
+		int[] next=col_start.clone();
+		
+		//seconda passata : riempimento per righe crescenti, svuotando i vincoli
+		int index_contr=0;
+		index_slack=first_slack;
+		Iterator<InternalConstraint> itr = list_constraint.listIterator();
+		while (itr.hasNext()) {
+			InternalConstraint constraint = itr.next();
+			for(int _a=0;_a<n_var;_a++) {
+				double aij=constraint.getAij(_a);
+				if(aij==0.0) continue;
+				int col=first_col[_a];
+				row_index[next[col]]=index_contr;
+				values[next[col]++]=aij;
+				if(array_var[_a].isFree()) {
+					row_index[next[col+1]]=index_contr;
+					values[next[col+1]++]=-aij;
+				}
+			}
+			if(constraint.getType()==InternalConstraint.TYPE_CONSTR.GE) {
+				row_index[next[index_slack]]=index_contr;
+				values[next[index_slack]++]=-1.0;
+				index_slack++;
+			}
+			else if(constraint.getType()==InternalConstraint.TYPE_CONSTR.LE) {
+				row_index[next[index_slack]]=index_contr;
+				values[next[index_slack]++]=1.0;
+				index_slack++;
+			}
+			index_contr++;
+			itr.remove();
+		}
+		return new SparseMatrix(index_contr, new_dimension, col_start, row_index, values);
+	}
+	
+	/**
+	 * Limiti superiori delle colonne della matrice standard. Sono finiti solo se il problema e' stato 
+	 * standardizzato con standardize(true) : in tal caso per una variabile non libera vale upper - lower.
+	 */
+	public double[] getVectorUpper() {
+		double U[]=new double[new_dimension];
+		Arrays.fill(U, Double.POSITIVE_INFINITY);
+		if(!isUpperAsBound) return U;
+		int index_col=0;
+		for(int _a=0;_a<array_var.length;_a++) {
+			Var var=array_var[_a];
+			if(var.isFree()) {
+				index_col+=2;
+				continue;
+			}
+			double upper=var.getUpper();
+			double lower=var.getLower();
+			if(!Double.isNaN(upper)) {
+				U[index_col]=upper - ((!Double.isNaN(lower) && lower!=0.0) ? lower : 0.0);
+			}
+			index_col++;
+		}
+		return U;
+	}
+	
 	public double [] getVectorB() {
 		double B[]=new double[list_constraint.size()];
 		int index_b=0;
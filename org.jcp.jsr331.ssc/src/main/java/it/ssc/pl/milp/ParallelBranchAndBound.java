@@ -0,0 +1,178 @@
+package it.ssc.pl.milp;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import it.ssc.pl.milp.ObjectiveFunction.TARGET_FO;
+
+/**
+ * Branch and bound parallelo su un ForkJoinPool. I nodi aperti stanno in una coda condivisa ordinata
+ * per best bound e ad ogni nodo inserito nella coda corrisponde un task : il task estrae il miglior nodo
+ * disponibile (non necessariamente quello inserito da chi lo ha creato) e scende in profondita' nel figlio
+ * migliore finche' questo resta entro TreeV3.PLUNGE_GAP dal best bound, come nel caso sequenziale.
+ * I task vengono distribuiti tra i thread dal work stealing del pool, per cui non ci sono barriere
+ * di sincronizzazione tra un gruppo di nodi e il successivo.
+ * <br>
+ * La migliore soluzione intera (incumbent) e' condivisa tramite un AtomicReference e ogni task la
+ * consulta prima di separare un nodo, in modo che la potatura sia globale.
+ *
+ * @author Scarioli
+ */
+
+final class ParallelBranchAndBound {
+
+	private final TARGET_FO target;
+	private final int num_max_simplex;
+	private final boolean isJustTakeFeasibleSolution;
+	private final PriorityBlockingQueue<MilpManager> queue;
+	private final AtomicReference<MilpManager> incumbent=new AtomicReference<MilpManager>();
+	private final AtomicInteger num_simplex_resolved;
+	private volatile boolean isStopped=false;
+	private volatile boolean isMaxSimplexReached=false;
+
+	/**
+	 * @param incumbent_initial soluzione intera gia' disponibile (o null)
+	 * @param num_simplex_resolved numero di simplessi gia' eseguiti (radice compresa)
+	 */
+	ParallelBranchAndBound(TARGET_FO target, MilpManager incumbent_initial, int num_simplex_resolved, int num_max_simplex, boolean isJustTakeFeasibleSolution) {
+		this.target=target;
+		Comparator<MilpManager> comparator;
+		if (target==TARGET_FO.MAX) comparator=(e,o) ->  e.compareTo(o);
+		else comparator=(e,o) ->  -e.compareTo(o);
+		this.queue=new PriorityBlockingQueue<MilpManager>(64, comparator);
+		this.incumbent.set(incumbent_initial);
+		this.num_simplex_resolved=new AtomicInteger(num_simplex_resolved);
+		this.num_max_simplex=num_max_simplex;
+		this.isJustTakeFeasibleSolution=isJustTakeFeasibleSolution;
+	}
+
+	/**
+	 * Esplora l'albero a partire dal nodo root, gia' risolto e non ammissibile per il MILP.
+	 * Se un nodo genera un errore la ricerca viene fermata e, prima di rilanciare l'errore,
+	 * si attende la terminazione dei task ancora in esecuzione.
+	 */
+	void resolve(MilpManager root, int threads) throws Exception {
+		ForkJoinPool pool=new ForkJoinPool(threads);
+		queue.add(root);
+		try {
+			pool.invoke(new NodeTask());
+		}
+		catch(RuntimeException e) {
+			isStopped=true;
+			Throwable cause=e;
+			while(cause instanceof RuntimeException && cause.getCause()!=null) cause=cause.getCause();
+			if(cause instanceof Exception) throw (Exception)cause;
+			throw e;
+		}
+		finally {
+			pool.shutdownNow();
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			queue.clear();
+		}
+	}
+
+	MilpManager getIncumbent() {
+		return incumbent.get();
+	}
+
+	int getNumSimplexResolved() {
+		return num_simplex_resolved.get();
+	}
+
+	boolean isMaxSimplexReached() {
+		return isMaxSimplexReached;
+	}
+
+	private boolean isBetter(MilpManager milp, MilpManager other) {
+		if(target==TARGET_FO.MAX) return milp.getOptimumValue() > other.getOptimumValue();
+		else return milp.getOptimumValue() < other.getOptimumValue();
+	}
+
+	private boolean isPruned(MilpManager milp) {
+		MilpManager best=incumbent.get();
+		return best!=null && !isBetter(milp, best);
+	}
+
+	private boolean isPlungeAcceptable(MilpManager child) {
+		MilpManager best_bound=queue.peek();
+		MilpManager best=incumbent.get();
+		if(best==null || best_bound==null) return true;
+		double gap_child=Math.abs(best_bound.getOptimumValue() - child.getOptimumValue());
+		double gap_lb=Math.abs(best_bound.getOptimumValue() - best.getOptimumValue());
+		return !isBetter(best_bound, child) || gap_child <= TreeV3.PLUNGE_GAP * gap_lb;
+	}
+
+	private void offerIncumbent(MilpManager milp) {
+		milp.setIntegerIfOptimal();
+		MilpManager best;
+		do {
+			best=incumbent.get();
+			if(best!=null && !isBetter(milp, best)) return;
+		}
+		while(!incumbent.compareAndSet(best, milp));
+		if(isJustTakeFeasibleSolution) isStopped=true;
+	}
+
+	/*
+	 * Ogni task estrae un nodo dalla coda : dato che il task viene creato dopo l'inserimento del
+	 * suo nodo, la coda contiene sempre almeno tanti nodi quanti sono i task non ancora partiti.
+	 */
+	private final class NodeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected void compute() {
+			ArrayList<NodeTask> forked=new ArrayList<NodeTask>();
+			try {
+				MilpManager current=queue.poll();
+				while(current!=null && !isStopped && !isPruned(current)) {
+					ArrayList<MilpManager> children=new ArrayList<MilpManager>();
+					MilpManager.populateArrayListBySeparation(children, current);
+					current=null;
+					for(MilpManager child:children) {
+						child.resolve();
+						if(num_simplex_resolved.incrementAndGet() >= num_max_simplex) {
+							isMaxSimplexReached=true;
+							isStopped=true;
+						}
+						if(child.getSolutionType()!=SolutionType.OPTIMUM || isPruned(child)) continue;
+						if(child.isSolutionIntegerAmmisible() && child.isProblemSemiContinusAmmisible()) {
+							offerIncumbent(child);
+						}
+						else if(current==null) current=child;
+						else if(isBetter(child, current)) {
+							push(current, forked);
+							current=child;
+						}
+						else push(child, forked);
+					}
+					if(current!=null && !isPlungeAcceptable(current)) {
+						push(current, forked);
+						current=null;
+					}
+				}
+			}
+			catch(Exception e) {
+				isStopped=true;
+				throw new RuntimeException(e);
+			}
+			for(int i=forked.size()-1;i>=0;i--) {
+				forked.get(i).join();
+			}
+		}
+
+		private void push(MilpManager milp, ArrayList<NodeTask> forked) {
+			queue.add(milp);
+			NodeTask task=new NodeTask();
+			task.fork();
+			forked.add(task);
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package it.ssc.pl.milp;
+
+/**
+ * Questa enumerazione permette di scegliere l'implementazione del simplesso utilizzata
+ * per risolvere un problema di LP
+ *
+ * @author Stefano Scarioli
+ * @version 1.0
+ * @see <a target="_new" href="http://www.ssclab.org">SSC Software www.sscLab.org</a>
+ *
+ */
+
+public enum SimplexEngine {
+	/**
+	 * Metodo delle due fasi sulla tabella estesa densa (m x n). &Egrave; l'implementazione
+	 * di default e supporta l'esecuzione parallela dei pivoting.
+	 */
+	TABLEAU,
+	/**
+	 * Simplesso rivisto su matrice sparsa memorizzata per colonne, con fattorizzazione LU
+	 * della base e gestione diretta dei limiti superiori delle variabili. La memoria
+	 * utilizzata dal simplesso &egrave; proporzionale al numero di coefficienti non nulli, per cui &egrave;
+	 * indicato per problemi di grandi dimensioni. L'API Constraint riceve per&ograve; righe dense, che
+	 * vengono usate senza copiarle : oltre ad esse servono solo la matrice compressa e i vettori
+	 * del simplesso. Ad esempio 20.000 vincoli su 1.000 variabili (righe dense di 160 MB, 5 non
+	 * nulli per riga) si risolvono con un heap di 200 MB; con 20.000 variabili le righe dense
+	 * occupano 3,2 GB.
+	 */
+	SPARSE_REVISED;
+}
@@ -0,0 +1,586 @@
+package it.ssc.pl.milp;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import it.ssc.i18n.RB;
+import it.ssc.log.SscLevel;
+import it.ssc.log.SscLogger;
+import it.ssc.pl.milp.util.LPThreadsNumber;
+
+/**
+ * Simplesso rivisto a variabili limitate su matrice sparsa. A differenza di {@link Simplex}
+ * non viene mai costruita la tabella estesa : la matrice A resta memorizzata per colonne
+ * ({@link SparseMatrix}) e la base viene gestita tramite una fattorizzazione LU sparsa
+ * ({@link BasisFactor}) aggiornata in forma prodotto. I limiti superiori delle variabili
+ * sono gestiti direttamente dal test del rapporto (variabili fuori base al lower o all'upper),
+ * per cui non generano righe aggiuntive.
+ * <br>
+ * Ad ogni riga e' associata una variabile ausiliaria (colonna unitaria in coda ad A). La fase 1
+ * minimizza la somma dei valori assoluti delle ausiliarie, la fase 2 le blocca a zero e ottimizza
+ * la f.o. originale.
+ * <br>
+ * Nel branch and bound i limiti delle colonne vengono modificati e il problema viene riottimizzato
+ * col simplesso duale a partire dalla base ottima del nodo padre (vedi {@link #reoptimize}).
+ *
+ * @author Scarioli
+ */
+
+final class SimplexRevised implements SimplexInterface {
+
+	private static final Logger logger=SscLogger.getLogger();
+
+	private static final int REFACTOR_FREQUENCY=100;
+	private static final int MAX_DEGENERATE_STEPS=50;
+	private static final double PIVOT_TOLERANCE=1E-9;
+	private static final double TIE_TOLERANCE=1E-12;
+	private static final double FEASIBILITY_TOLERANCE=1E-9;
+	private static final double DUAL_FEASIBILITY_TOLERANCE=1E-7;
+
+	private final SparseMatrix A;
+	private final int m;
+	private final int n;
+	private final int n_tot;
+	private final double[] B;
+	private final double[] C;
+	private final double[] lower;
+	private final double[] upper;
+
+	private final double[] x;
+	private final int[] basis;
+	private final int[] position;
+	private final BasisFactor factor;
+
+	private double epsilon;
+	private double cepsilon;
+	private boolean isMilp=false;
+
+	private SolutionType type_solution_phase_one=null;
+	private long num_iteration_max;
+	private long iteration;
+	private long num_iteration_phase_one;
+
+	/**
+	 * Base (con le colonne fuori base all'upper) da cui far ripartire il simplesso duale.
+	 */
+	static final class Basis {
+		private final int[] basis;
+		private final int[] at_upper;
+
+		private Basis(int[] basis, int[] at_upper) {
+			this.basis=basis;
+			this.at_upper=at_upper;
+		}
+	}
+
+	/**
+	 * @param A matrice dei vincoli in forma standard (Ax = b)
+	 * @param B termini noti (b &ge; 0)
+	 * @param C coefficienti della f.o. da massimizzare
+	 * @param upper limiti superiori delle colonne di A (Double.POSITIVE_INFINITY se assenti)
+	 */
+	public SimplexRevised(SparseMatrix A, double[] B, double[] C, double[] upper, EPSILON epsilon, EPSILON cepsilon) throws SimplexException {
+		this(A, B, C, new double[upper.length], upper, epsilon, cepsilon);
+	}
+
+	/**
+	 * @param A matrice dei vincoli (Ax = b)
+	 * @param B termini noti, di segno qualsiasi
+	 * @param C coefficienti della f.o. da massimizzare
+	 * @param lower limiti inferiori delle colonne di A (Double.NEGATIVE_INFINITY se assenti)
+	 * @param upper limiti superiori delle colonne di A (Double.POSITIVE_INFINITY se assenti)
+	 */
+	public SimplexRevised(SparseMatrix A, double[] B, double[] C, double[] lower, double[] upper, EPSILON epsilon, EPSILON cepsilon) throws SimplexException {
+		this.m=A.getNrow();
+		this.n=A.getNcolumn();
+		if(m!=B.length) {
+			throw new SimplexException("Il numero di righe di A (matrice dei coefficienti) non si adatta al numero di componenti del vettore B dei termini noti");
+		}
+		if(n!=C.length || n!=upper.length || n!=lower.length) {
+			throw new SimplexException("Il numero di colonne di A (matrice dei coefficienti) non si adatta al numero di componenti del vettore C della funzione obiettivo");
+		}
+		this.epsilon=epsilon.getValue();
+		this.cepsilon=cepsilon.getValue();
+		this.A=A.appendIdentity();
+		this.n_tot=n + m;
+		this.B=B;
+		this.C=Arrays.copyOf(C, n_tot);
+		this.lower=Arrays.copyOf(lower, n_tot);
+		this.upper=Arrays.copyOf(upper, n_tot);
+		this.x=new double[n_tot];
+		this.basis=new int[m];
+		this.position=new int[n_tot];
+		this.factor=new BasisFactor(m);
+	}
+
+	public void setMilp(boolean isMilp) {
+		this.isMilp = isMilp;
+	}
+
+	public void setNumIterationMax(long num_iteration_max) {
+		this.num_iteration_max = num_iteration_max;
+	}
+
+	public long getNumIterationPhaseOne() {
+		return num_iteration_phase_one;
+	}
+
+	public long getNumIterationPhaseTotal() {
+		return iteration;
+	}
+
+	/**
+	 * Il simplesso rivisto lavora su un solo thread : il parametro viene ignorato.
+	 */
+	public void setThreadsNumber(LPThreadsNumber threadsNumber) {
+	}
+
+	public SolutionType runPhaseOne() throws SimplexException {
+
+		createInitialBasis();
+		double[] C1=new double[n_tot];
+		for(int j=n;j<n_tot;j++) {
+			//ausiliaria negativa se il residuo della riga e' negativo
+			C1[j]=(lower[j]==0.0) ? -1.0 : 1.0;
+		}
+		refactor();
+
+		SolutionType solution=primal(C1);
+		this.num_iteration_phase_one=iteration;
+
+		double z=0.0;
+		for(int j=n;j<n_tot;j++) z+=C1[j] * x[j];
+		if(solution== SolutionType.MAX_ITERATIUM) logger.log(SscLevel.WARNING,"Raggiunto il massimo numero di iterazioni "+(num_iteration_max));
+		if(!isMilp) {
+			logger.log(SscLevel.INFO,RB.getString("it.ssc.pl.milp.Phase1.msg1")+z);
+		}
+		if(solution== SolutionType.OPTIMUM && Math.abs(z) > cepsilon) {
+			if(!isMilp)  {
+				logger.log(SscLevel.NOTE,"Fase Uno - Condizione per esistenza di soluzioni ammissibili : |z| <= epsilon ="+cepsilon);
+				logger.log(SscLevel.WARNING,"Fase Uno - Non sussuste la condizione per esistenza di soluzioni ammissibili in quanto |z| > epsilon . Il valore epsilon puo' essere modificato tramite il metodo setCEpsilon()");
+			}
+			solution= SolutionType.VUOTUM;
+		}
+
+		//le ausiliarie vengono bloccate a zero per la fase 2
+		for(int j=n;j<n_tot;j++) {
+			lower[j]=0.0;
+			upper[j]=0.0;
+			if(position[j] < 0) x[j]=0.0;
+		}
+		this.type_solution_phase_one=solution;
+		return solution;
+	}
+
+	public SolutionType runPhaseTwo() throws SimplexException {
+		if(this.type_solution_phase_one!=SolutionType.OPTIMUM) {
+			throw new SimplexException("Attenzione, la regione ammissibile del problema e' vuota. Non esistono soluzioni !");
+		}
+		SolutionType solution=primal(C);
+		if(solution== SolutionType.MAX_ITERATIUM) logger.log(SscLevel.WARNING,"Raggiunto il massimo numero di iterazioni "+(num_iteration_max));
+		return solution;
+	}
+
+	/**
+	 * Restituisce gli indici delle colonne (esclusa le ausiliarie) in base o fuori base al
+	 * limite superiore, cioe' tutte quelle con valore potenzialmente diverso da zero.
+	 */
+	public int[] getFinalBasis() {
+		int count=0;
+		for(int j=0;j<n;j++) {
+			if(position[j] >= 0 || x[j]!=0.0) count++;
+		}
+		int[] final_basis=new int[count];
+		count=0;
+		for(int j=0;j<n;j++) {
+			if(position[j] >= 0 || x[j]!=0.0) final_basis[count++]=j;
+		}
+		return final_basis;
+	}
+
+	/**
+	 * Valori delle colonne restituite da {@link #getFinalBasis()}, nello stesso ordine.
+	 */
+	public double[] getFinalValuesBasis() {
+		int[] final_basis=getFinalBasis();
+		double[] values=new double[final_basis.length];
+		for(int k=0;k<final_basis.length;k++) {
+			values[k]=x[final_basis[k]];
+		}
+		return values;
+	}
+
+	/**
+	 * Valori delle colonne di A (escluse le ausiliarie) nella soluzione corrente.
+	 */
+	double[] getValues() {
+		return Arrays.copyOf(x, n);
+	}
+
+	/**
+	 * Fotografia della base corrente, da passare a {@link #reoptimize} per ripartire da essa.
+	 */
+	Basis getBasis() {
+		int count=0;
+		for(int j=0;j<n_tot;j++) {
+			if(isNonBasicAtUpper(j)) count++;
+		}
+		int[] at_upper=new int[count];
+		count=0;
+		for(int j=0;j<n_tot;j++) {
+			if(isNonBasicAtUpper(j)) at_upper[count++]=j;
+		}
+		return new Basis(basis.clone(), at_upper);
+	}
+
+	private boolean isNonBasicAtUpper(int j) {
+		return position[j] < 0 && upper[j]!=Double.POSITIVE_INFINITY && lower[j]!=upper[j] && x[j]==upper[j];
+	}
+
+	/**
+	 * Riottimizza il problema con nuovi limiti sulle colonne di A partendo dalla base start
+	 * (tipicamente quella ottima del nodo padre nel branch and bound). Cambiando solo i limiti
+	 * la base resta ammissibile per il duale, per cui si esegue il simplesso duale e poi, per
+	 * eliminare eventuali residui di inammissibilita' duale, il primale. Se la base di partenza non
+	 * e' ammissibile per il duale si risolve il problema da zero con le due fasi.
+	 *
+	 * @param new_lower limiti inferiori delle colonne di A
+	 * @param new_upper limiti superiori delle colonne di A
+	 * @param start base di partenza
+	 */
+	SolutionType reoptimize(double[] new_lower, double[] new_upper, Basis start) throws SimplexException {
+		System.arraycopy(new_lower, 0, lower, 0, n);
+		System.arraycopy(new_upper, 0, upper, 0, n);
+		this.iteration=0;
+		if(start==null || !installBasis(start)) {
+			SolutionType solution=runPhaseOne();
+			if(solution!=SolutionType.OPTIMUM) return solution;
+			return runPhaseTwo();
+		}
+		this.type_solution_phase_one=SolutionType.OPTIMUM;
+		SolutionType solution=dual(C);
+		if(solution==SolutionType.OPTIMUM) solution=primal(C);
+		if(solution== SolutionType.MAX_ITERATIUM) logger.log(SscLevel.WARNING,"Raggiunto il massimo numero di iterazioni "+(num_iteration_max));
+		return solution;
+	}
+
+	/*
+	 * Installa la base start con le ausiliarie bloccate a zero e porta le colonne fuori base
+	 * limitate sul limite coerente col segno del costo ridotto. Restituisce false se la base
+	 * non e' ammissibile per il duale.
+	 */
+	private boolean installBasis(Basis start) {
+		for(int j=n;j<n_tot;j++) {
+			lower[j]=0.0;
+			upper[j]=0.0;
+		}
+		System.arraycopy(start.basis, 0, basis, 0, m);
+		Arrays.fill(position, -1);
+		for(int k=0;k<m;k++) position[basis[k]]=k;
+		for(int j=0;j<n_tot;j++) {
+			if(position[j] < 0) x[j]=nonBasicValue(j);
+		}
+		for(int j:start.at_upper) {
+			if(position[j] < 0 && upper[j]!=Double.POSITIVE_INFINITY) x[j]=upper[j];
+		}
+		refactor();
+
+		double[] y=new double[m];
+		for(int k=0;k<m;k++) y[k]=C[basis[k]];
+		factor.btran(y);
+		boolean is_moved=false;
+		for(int j=0;j<n_tot;j++) {
+			if(position[j] >= 0 || lower[j]==upper[j]) continue;
+			double d=C[j] - A.dotColumn(j, y);
+			if(d > DUAL_FEASIBILITY_TOLERANCE && x[j] < upper[j]) {
+				if(upper[j]==Double.POSITIVE_INFINITY) return false;
+				x[j]=upper[j];
+				is_moved=true;
+			}
+			else if(d < -DUAL_FEASIBILITY_TOLERANCE && x[j] > lower[j]) {
+				if(lower[j]==Double.NEGATIVE_INFINITY) return false;
+				x[j]=lower[j];
+				is_moved=true;
+			}
+		}
+		if(is_moved) computeBasicValues();
+		return true;
+	}
+
+	/*
+	 * Valore di una colonna fuori base : il lower se finito, altrimenti l'upper se finito,
+	 * altrimenti zero (colonna libera).
+	 */
+	private double nonBasicValue(int j) {
+		if(lower[j]!=Double.NEGATIVE_INFINITY) return lower[j];
+		if(upper[j]!=Double.POSITIVE_INFINITY) return upper[j];
+		return 0.0;
+	}
+
+	/*
+	 * Le colonne di A vengono poste al loro valore fuori base; per ogni riga si cerca poi una
+	 * colonna unitaria (slack di un vincolo LE) che possa stare in base al valore del residuo,
+	 * dove non esiste si usa l'ausiliaria della riga, col segno del residuo.
+	 */
+	private void createInitialBasis() {
+		int[] Ap=A.getColStart();
+		int[] Ai=A.getRowIndex();
+		double[] Ax=A.getValue();
+		Arrays.fill(basis, -1);
+		Arrays.fill(position, -1);
+		Arrays.fill(x, 0.0);
+		double[] residual=B.clone();
+		for(int j=0;j<n;j++) {
+			x[j]=nonBasicValue(j);
+			if(x[j]!=0.0) A.addColumn(j, -x[j], residual);
+		}
+		for(int j=0;j<n;j++) {
+			if(Ap[j+1] - Ap[j]==1 && Ax[Ap[j]]==1.0) {
+				int row=Ai[Ap[j]];
+				double value=x[j] + residual[row];
+				if(basis[row]==-1 && value >= lower[j] && value <= upper[j]) {
+					basis[row]=j;
+					position[j]=row;
+					x[j]=value;
+					residual[row]=0.0;
+				}
+			}
+		}
+		for(int i=0;i<m;i++) {
+			int j=n + i;
+			lower[j]=0.0;
+			upper[j]=Double.POSITIVE_INFINITY;
+			if(basis[i]==-1) {
+				basis[i]=j;
+				position[j]=i;
+				x[j]=residual[i];
+				if(residual[i] < 0.0) {
+					lower[j]=Double.NEGATIVE_INFINITY;
+					upper[j]=0.0;
+				}
+			}
+		}
+		iteration=0;
+	}
+
+	/*
+	 * Rifattorizza la base e ricalcola i valori delle variabili in base : x_B = B^-1 (b - N x_N)
+	 */
+	private void refactor() {
+		int replaced=factor.factor(A, basis, n);
+		if(replaced > 0) {
+			logger.log(SscLevel.WARNING,"Simplesso rivisto - base singolare, sostituite "+replaced+" colonne con variabili ausiliarie");
+			for(int j=0;j<n_tot;j++) {
+				if(position[j] >= 0 && basis[position[j]]!=j) {
+					position[j]=-1;
+					x[j]=nonBasicValue(j);
+				}
+			}
+			for(int i=0;i<m;i++) position[basis[i]]=i;
+		}
+		computeBasicValues();
+	}
+
+	private void computeBasicValues() {
+		double[] rhs=B.clone();
+		for(int j=0;j<n_tot;j++) {
+			if(position[j] < 0 && x[j]!=0.0) A.addColumn(j, -x[j], rhs);
+		}
+		factor.ftran(rhs);
+		for(int k=0;k<m;k++) {
+			x[basis[k]]=rhs[k];
+		}
+	}
+
+	/*
+	 * Simplesso primale a variabili limitate (max cost * x) a partire dalla base corrente,
+	 * che deve essere ammissibile.
+	 */
+	private SolutionType primal(double[] cost) {
+
+		double[] y=new double[m];
+		double[] alpha=new double[m];
+		int degenerate_steps=0;
+
+		while(this.iteration < num_iteration_max) {
+
+			if(factor.isRefactorNeeded(REFACTOR_FREQUENCY)) refactor();
+
+			//prezzi ombra y = B^-T c_B
+			for(int k=0;k<m;k++) y[k]=cost[basis[k]];
+			factor.btran(y);
+
+			//variabile entrante : Dantzig, Bland dopo troppi passi degeneri
+			boolean bland=degenerate_steps > MAX_DEGENERATE_STEPS;
+			int var_incoming=-1;
+			double best=0.0;
+			double dir=1.0;
+			for(int j=0;j<n_tot;j++) {
+				if(position[j] >= 0 || lower[j]==upper[j]) continue;
+				double d=cost[j] - A.dotColumn(j, y);
+				double gain;
+				if(d > epsilon && x[j] < upper[j]) gain=d;
+				else if(d < -epsilon && x[j] > lower[j]) gain=-d;
+				else continue;
+				if(bland || gain > best) {
+					best=gain;
+					var_incoming=j;
+					dir=(d > 0.0) ? 1.0 : -1.0;
+					if(bland) break;
+				}
+			}
+			if(var_incoming==-1) return SolutionType.OPTIMUM;
+
+			Arrays.fill(alpha, 0.0);
+			A.addColumn(var_incoming, 1.0, alpha);
+			factor.ftran(alpha);
+
+			//test del rapporto, compreso il cambio di limite della variabile entrante
+			double theta=upper[var_incoming] - lower[var_incoming];
+			int row_var_outgoing=-1;
+			boolean to_upper=false;
+			for(int k=0;k<m;k++) {
+				double a=dir * alpha[k];
+				if(Math.abs(a) <= PIVOT_TOLERANCE) continue;
+				int jb=basis[k];
+				double t;
+				boolean up;
+				if(a > 0.0) {
+					if(lower[jb]==Double.NEGATIVE_INFINITY) continue;
+					t=(x[jb] - lower[jb]) / a;
+					up=false;
+				}
+				else {
+					if(upper[jb]==Double.POSITIVE_INFINITY) continue;
+					t=(upper[jb] - x[jb]) / -a;
+					up=true;
+				}
+				if(t < 0.0) t=0.0;
+				boolean take;
+				if(row_var_outgoing==-1) take=t < theta;
+				else if(t < theta - TIE_TOLERANCE) take=true;
+				else if(t > theta + TIE_TOLERANCE) take=false;
+				else if(bland) take=jb < basis[row_var_outgoing];
+				else take=Math.abs(alpha[k]) > Math.abs(alpha[row_var_outgoing]);
+				if(take) {
+					theta=t;
+					row_var_outgoing=k;
+					to_upper=up;
+				}
+			}
+
+			if(row_var_outgoing==-1 && theta==Double.POSITIVE_INFINITY) {
+				return SolutionType.ILLIMITATUM;
+			}
+
+			if(theta!=0.0) {
+				double step=dir * theta;
+				for(int k=0;k<m;k++) {
+					if(alpha[k]!=0.0) x[basis[k]]-=step * alpha[k];
+				}
+				x[var_incoming]+=step;
+			}
+			if(theta <= epsilon) degenerate_steps++;
+			else degenerate_steps=0;
+
+			if(row_var_outgoing==-1) {
+				//la variabile entrante passa da un limite all'altro, la base non cambia
+				x[var_incoming]=(dir > 0) ? upper[var_incoming] : lower[var_incoming];
+			}
+			else {
+				int var_outgoing=basis[row_var_outgoing];
+				x[var_outgoing]=to_upper ? upper[var_outgoing] : lower[var_outgoing];
+				position[var_outgoing]=-1;
+				basis[row_var_outgoing]=var_incoming;
+				position[var_incoming]=row_var_outgoing;
+				factor.update(row_var_outgoing, alpha);
+			}
+			this.iteration++;
+		}
+		return SolutionType.MAX_ITERATIUM;
+	}
+
+	/*
+	 * Simplesso duale a variabili limitate (max cost * x) a partire dalla base corrente, che deve
+	 * essere ammissibile per il duale. Esce dalla base la variabile con la massima violazione dei
+	 * limiti, entra quella col minimo rapporto costo ridotto / elemento della riga pivot.
+	 */
+	private SolutionType dual(double[] cost) {
+
+		double[] y=new double[m];
+		double[] rho=new double[m];
+		double[] alpha=new double[m];
+
+		while(this.iteration < num_iteration_max) {
+
+			if(factor.isRefactorNeeded(REFACTOR_FREQUENCY)) refactor();
+
+			//variabile uscente : massima violazione dei limiti
+			int row_var_outgoing=-1;
+			double max_infeasibility=FEASIBILITY_TOLERANCE;
+			boolean to_lower=false;
+			for(int k=0;k<m;k++) {
+				int jb=basis[k];
+				if(lower[jb] - x[jb] > max_infeasibility) {
+					max_infeasibility=lower[jb] - x[jb];
+					row_var_outgoing=k;
+					to_lower=true;
+				}
+				else if(x[jb] - upper[jb] > max_infeasibility) {
+					max_infeasibility=x[jb] - upper[jb];
+					row_var_outgoing=k;
+					to_lower=false;
+				}
+			}
+			if(row_var_outgoing==-1) return SolutionType.OPTIMUM;
+
+			for(int k=0;k<m;k++) y[k]=cost[basis[k]];
+			factor.btran(y);
+			Arrays.fill(rho, 0.0);
+			rho[row_var_outgoing]=1.0;
+			factor.btran(rho);
+
+			//variabile entrante : deve spostare la uscente verso il limite violato
+			double sigma=to_lower ? 1.0 : -1.0;
+			int var_incoming=-1;
+			double best_ratio=Double.POSITIVE_INFINITY;
+			double best_pivot=0.0;
+			for(int j=0;j<n_tot;j++) {
+				if(position[j] >= 0 || lower[j]==upper[j]) continue;
+				double a=A.dotColumn(j, rho);
+				if(Math.abs(a) <= PIVOT_TOLERANCE) continue;
+				double dir=(a * sigma > 0.0) ? -1.0 : 1.0;
+				if(dir > 0.0 && x[j] >= upper[j]) continue;
+				if(dir < 0.0 && x[j] <= lower[j]) continue;
+				double d=cost[j] - A.dotColumn(j, y);
+				double ratio=Math.max(0.0, -d * dir) / Math.abs(a);
+				if(ratio < best_ratio - TIE_TOLERANCE || (ratio <= best_ratio + TIE_TOLERANCE && Math.abs(a) > best_pivot)) {
+					best_ratio=ratio;
+					best_pivot=Math.abs(a);
+					var_incoming=j;
+				}
+			}
+			//nessuna colonna puo' riportare la uscente nei limiti : il primale e' inammissibile
+			if(var_incoming==-1) return SolutionType.VUOTUM;
+
+			Arrays.fill(alpha, 0.0);
+			A.addColumn(var_incoming, 1.0, alpha);
+			factor.ftran(alpha);
+
+			int var_outgoing=basis[row_var_outgoing];
+			double bound=to_lower ? lower[var_outgoing] : upper[var_outgoing];
+			double step=(x[var_outgoing] - bound) / alpha[row_var_outgoing];
+			for(int k=0;k<m;k++) {
+				if(alpha[k]!=0.0) x[basis[k]]-=step * alpha[k];
+			}
+			x[var_incoming]+=step;
+			x[var_outgoing]=bound;
+			position[var_outgoing]=-1;
+			basis[row_var_outgoing]=var_incoming;
+			position[var_incoming]=row_var_outgoing;
+			factor.update(row_var_outgoing, alpha);
+			this.iteration++;
+		}
+		return SolutionType.MAX_ITERATIUM;
+	}
+}
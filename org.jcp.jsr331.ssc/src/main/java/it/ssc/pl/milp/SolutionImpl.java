@@ -8,52 +8,13 @@ final class SolutionImpl implements Solution {
 	private PLProblem milp_original;
 	private SolutionType type_solution;
 	
-	//Costruttore da usare sulla parte MILP
-	SolutionImpl(SolutionType type_solution,PLProblem milp_originall,  int basis[],double values[], Var[] variables_deep) {
+	//Costruttore da usare sulla parte MILP : i valori sono gia' quelli delle variabili originali
+	SolutionImpl(SolutionType type_solution,PLProblem milp_originall, double values[]) {
 		this.type_solution=type_solution;
 		this.milp_original=milp_originall;
 		this.variables= milp_original.getVariables();
-		passaZeroSemicontVar(variables_deep);
-		int index_var=0;
-		int index_base=0,index_p1_base=0;
-		for(Var var:variables) {
-			
-			//se la variabile e' libera , vuol dire che e' negativa e  ha un lower bound indefiniti,  
-			if(var.isFree()) {			
-				double value_sum=0;
-				if((index_base=getIndexInBase( basis,index_var))!=-1) {
-					value_sum=values[index_base];
-				}	
-				if((index_p1_base=getIndexInBase( basis,index_var+1))!=-1) {
-					value_sum-=values[index_p1_base];
-				}
-				var.setValue(value_sum);
-				index_var++;
-			}
-			//La variabile non e' libera  ed e' in base e  quindi puo avere un lower bound, se ce l'ha occorre ritrasformare per rendere valore variabile effettivo
-			else if((index_base=getIndexInBase( basis,index_var))!=-1) {
-				
-				if(var.isSemicon() && !var.isZeroSemicontVar()) {
-					if(!Double.isNaN(var.getLowerSemicon()) && var.getLowerSemicon()!=0.0) {
-						 var.setValue(values[index_base]+var.getLowerSemicon());
-					 }
-				}
-				else if(!Double.isNaN(var.getLower()) && var.getLower()!=0.0) {
-					 var.setValue(values[index_base]+var.getLower());
-				 }
-				else var.setValue(values[index_base]);
-			}
-			//la variabile non in base , ma occorre sommarci il lower, in quanto se ha avuto valore zero, occorre sommarci il lower
-			else if(!Double.isNaN(var.getLower()) && var.getLower()!=0.0) {
-				var.setValue(var.getLower());
-			}
-			
-			else if(var.isSemicon() && !var.isZeroSemicontVar()) {
-				if(!Double.isNaN(var.getLowerSemicon()) && var.getLowerSemicon()!=0.0) {
-					 var.setValue(var.getLowerSemicon());
-				 }
-			}
-			index_var++;
+		for(int _j=0;_j<variables.length;_j++) {
+			variables[_j].setValue(values[_j]);
 		}
 	}
 	
@@ -93,14 +54,6 @@ final class SolutionImpl implements Solution {
 	
 	}	
 	
-	private void passaZeroSemicontVar(Var[] variables_deep)  {
-		int index_var=0;
-		for(Var new_var:this.variables) {
-			new_var.setZeroSemicontVar(variables_deep[index_var].isZeroSemicontVar());
-			index_var++;
-		}
-	}
-	
 	public SolutionType getTypeSolution() {
 		return type_solution;
 	}
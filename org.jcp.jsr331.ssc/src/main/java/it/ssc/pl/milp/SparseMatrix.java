@@ -0,0 +1,129 @@
+package it.ssc.pl.milp;
+
+/**
+ * Matrice dei vincoli memorizzata per colonne in formato compresso (CSC).
+ * Per ogni colonna j gli elementi non nulli si trovano nelle posizioni
+ * colStart[j] ... colStart[j+1]-1 degli array rowIndex e value.
+ *
+ * @author Scarioli
+ */
+
+final class SparseMatrix {
+
+	private final int nRow;
+	private final int nCol;
+	private final int[] colStart;
+	private final int[] rowIndex;
+	private final double[] value;
+
+	SparseMatrix(int nRow, int nCol, int[] colStart, int[] rowIndex, double[] value) {
+		this.nRow=nRow;
+		this.nCol=nCol;
+		this.colStart=colStart;
+		this.rowIndex=rowIndex;
+		this.value=value;
+	}
+
+	/**
+	 * Copia compressa di una matrice densa (m x n, con m &gt; 0).
+	 */
+	static SparseMatrix fromDense(double[][] A) {
+		int nRow=A.length;
+		int nCol=A[0].length;
+		int[] col_start=new int[nCol + 1];
+		for(int i=0;i<nRow;i++) {
+			for(int j=0;j<nCol;j++) {
+				if(A[i][j]!=0.0) col_start[j+1]++;
+			}
+		}
+		for(int j=0;j<nCol;j++) col_start[j+1]+=col_start[j];
+		int[] row_index=new int[col_start[nCol]];
+		double[] values=new double[col_start[nCol]];
+		int[] next=col_start.clone();
+		for(int i=0;i<nRow;i++) {
+			for(int j=0;j<nCol;j++) {
+				if(A[i][j]==0.0) continue;
+				row_index[next[j]]=i;
+				values[next[j]++]=A[i][j];
+			}
+		}
+		return new SparseMatrix(nRow, nCol, col_start, row_index, values);
+	}
+
+	/**
+	 * Restituisce una nuova matrice con in coda le colonne unitarie e<sub>i</sub> per ogni riga
+	 * (variabili ausiliarie del simplesso rivisto).
+	 */
+	SparseMatrix appendIdentity() {
+		int nnz=colStart[nCol];
+		int[] new_start=new int[nCol + nRow + 1];
+		int[] new_row=new int[nnz + nRow];
+		double[] new_value=new double[nnz + nRow];
+		System.arraycopy(colStart, 0, new_start, 0, nCol + 1);
+		System.arraycopy(rowIndex, 0, new_row, 0, nnz);
+		System.arraycopy(value, 0, new_value, 0, nnz);
+		for(int i=0;i<nRow;i++) {
+			new_row[nnz + i]=i;
+			new_value[nnz + i]=1.0;
+			new_start[nCol + i + 1]=nnz + i + 1;
+		}
+		return new SparseMatrix(nRow, nCol + nRow, new_start, new_row, new_value);
+	}
+
+	int getNrow() {
+		return nRow;
+	}
+
+	int getNcolumn() {
+		return nCol;
+	}
+
+	int getNnz() {
+		return colStart[nCol];
+	}
+
+	int[] getColStart() {
+		return colStart;
+	}
+
+	int[] getRowIndex() {
+		return rowIndex;
+	}
+
+	double[] getValue() {
+		return value;
+	}
+
+	/**
+	 * Prodotto scalare tra la colonna j e il vettore denso y (y<sup>T</sup>a<sub>j</sub>).
+	 */
+	double dotColumn(int j, double[] y) {
+		double sum=0.0;
+		for(int p=colStart[j];p<colStart[j+1];p++) {
+			sum+=value[p] * y[rowIndex[p]];
+		}
+		return sum;
+	}
+
+	/**
+	 * Somma al vettore denso x la colonna j moltiplicata per alpha (x = x + alpha*a<sub>j</sub>).
+	 */
+	void addColumn(int j, double alpha, double[] x) {
+		for(int p=colStart[j];p<colStart[j+1];p++) {
+			x[rowIndex[p]]+=alpha * value[p];
+		}
+	}
+
+	/**
+	 * Ricostruisce la matrice densa. Da usare solo per problemi di piccole dimensioni.
+	 */
+	double[][] toDense() {
+		double[][] dense=new double[nRow][nCol];
+		for(int j=0;j<nCol;j++) {
+			for(int p=colStart[j];p<colStart[j+1];p++) {
+				dense[rowIndex[p]][j]=value[p];
+			}
+		}
+		return dense;
+	}
+}
@@ -2,48 +2,98 @@ package it.ssc.pl.milp;
 
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.PriorityQueue;
 
 
 import it.ssc.pl.milp.ObjectiveFunction.TARGET_FO;
-import it.ssc.pl.milp.util.MILPThreadsNumber;
+
+/*
+ * Coda dei nodi aperti. I nodi vengono estratti in ordine di miglior valore della f.o. rilassata
+ * (best bound), ma il miglior figlio dell'ultima separazione viene esplorato subito (discesa in
+ * profondita') finche' non c'e' una soluzione intera oppure finche' il suo valore non si allontana
+ * dal best bound piu' di PLUNGE_GAP volte il gap tra best bound e soluzione intera corrente.
+ * In questo modo si trovano presto soluzioni intere e i figli ripartono dalla base appena calcolata.
+ */
 
  final class TreeV3 {
+	static final double PLUNGE_GAP=0.25;
 	private PriorityQueue<MilpManager> queue ;
+	private ArrayList<MilpManager> plunge;
+	private Comparator<MilpManager> comparator;
 	private TARGET_FO target;
+	private double lb=Double.NaN;
 
 	public TreeV3(TARGET_FO target) {
 		this.target=target;
-		if (target==TARGET_FO.MAX) queue = new PriorityQueue<MilpManager>((e,o) ->  e.compareTo(o));
-		else queue = new PriorityQueue<MilpManager>((e,o) ->  -e.compareTo(o));
+		if (target==TARGET_FO.MAX) comparator=(e,o) ->  e.compareTo(o);
+		else comparator=(e,o) ->  -e.compareTo(o);
+		queue = new PriorityQueue<MilpManager>(comparator);
+		plunge = new ArrayList<MilpManager>();
 	}
 	
 	public MilpManager getMilpBestUP() { 
+		MilpManager milp=pollPlunge();
+		if(milp!=null) return milp;
 		return queue.poll();
 	}
 	
-	public ArrayList<MilpManager> getMilpBestUP(MILPThreadsNumber threadNumber) { 
-		int num_lp=0;
-		ArrayList<MilpManager> list_best=new ArrayList<MilpManager> ();
-		while(!queue.isEmpty() && num_lp!=threadNumber.getNumLp()) { 
-			list_best.add(queue.poll());
-			num_lp++;
-		}
-		return list_best;
-	}
-	
 	public boolean isEmpty() { 
-		return queue.isEmpty();
+		return queue.isEmpty() && plunge.isEmpty();
 	}
 	
 	public void addNode(MilpManager milp) {
 		queue.add(milp);
 	}
 	
+	/*
+	 * Aggiunge un figlio dell'ultima separazione, candidato alla discesa in profondita'
+	 */
+	public void addChild(MilpManager milp) {
+		plunge.add(milp);
+	}
+	
+	private MilpManager pollPlunge() {
+		if(plunge.isEmpty()) return null;
+		MilpManager best=null;
+		for(MilpManager milp:plunge) {
+			if(best==null || comparator.compare(milp, best) < 0) best=milp;
+		}
+		for(MilpManager milp:plunge) {
+			if(milp!=best) queue.add(milp);
+		}
+		plunge.clear();
+		if(isPlungeAcceptable(best)) return best;
+		queue.add(best);
+		return null;
+	}
+	
+	private boolean isPlungeAcceptable(MilpManager child) {
+		MilpManager best_bound=queue.peek();
+		if(Double.isNaN(lb) || Double.isInfinite(lb) || best_bound==null) return true;
+		double gap_child,gap_lb;
+		if (target==TARGET_FO.MAX) {
+			gap_child=best_bound.getOptimumValue() - child.getOptimumValue();
+			gap_lb=best_bound.getOptimumValue() - lb;
+		}
+		else {
+			gap_child=child.getOptimumValue() - best_bound.getOptimumValue();
+			gap_lb=lb - best_bound.getOptimumValue();
+		}
+		return gap_child <= PLUNGE_GAP * gap_lb;
+	}
+	
 	
 	public void deleteNodeWhitUPnotValide(double lb) {
-		if (target==TARGET_FO.MAX) queue.removeIf(e -> e.getOptimumValue() <=lb);
-		else queue.removeIf(e -> e.getOptimumValue() >=lb);
+		this.lb=lb;
+		if (target==TARGET_FO.MAX) {
+			queue.removeIf(e -> e.getOptimumValue() <=lb);
+			plunge.removeIf(e -> e.getOptimumValue() <=lb);
+		}
+		else {
+			queue.removeIf(e -> e.getOptimumValue() >=lb);
+			plunge.removeIf(e -> e.getOptimumValue() >=lb);
+		}
 	}
 	
 	/*
@@ -56,4 +106,3 @@ import it.ssc.pl.milp.util.MILPThreadsNumber;
 	 */
 	
 }
-
@@ -23,16 +23,6 @@ final class Var implements Cloneable, Variable, Serializable {
 	private boolean is_free;
 	private double value;
 	private boolean is_lower_modified=false;
-	private boolean isZeroSemicontVar=false;
-	
-	public boolean isZeroSemicontVar() {
-		return isZeroSemicontVar;
-	}
-
-
-	public void setZeroSemicontVar(boolean isZeroSemicontVar) {
-		this.isZeroSemicontVar = isZeroSemicontVar;
-	}
 
 	//parte per variabili semi-continue
 	private double upperSemicon; 
@@ -2,6 +2,7 @@ package it.ssc.pl.milp.util;
 
 public enum MILPThreadsNumber {
 	
+	AUTO(0,0),
 	N_1 (1,1), 
 	N_2 (2,1),  
 	N_4 (4,2), 
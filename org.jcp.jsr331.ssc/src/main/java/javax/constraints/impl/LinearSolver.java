@@ -3,9 +3,12 @@ package javax.constraints.impl;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.UUID;
 
+import javax.constraints.ConstrainedVariable;
 import javax.constraints.Objective;
 import javax.constraints.OptimizationStrategy;
 import javax.constraints.Solution;
@@ -16,40 +19,281 @@ import javax.constraints.impl.search.Solver;
 import javax.constraints.linear.MpsGenerator;
 import javax.constraints.linear.StreamGobbler;
 
+import it.ssc.pl.milp.ConsType;
+import it.ssc.pl.milp.GoalType;
+import it.ssc.pl.milp.LP;
+import it.ssc.pl.milp.LinearObjectiveFunction;
+import it.ssc.pl.milp.MILP;
+import it.ssc.pl.milp.SimplexEngine;
+import it.ssc.pl.milp.SimplexException;
+import it.ssc.pl.milp.SolutionType;
+
 abstract public class LinearSolver extends Solver {
 	
 	public static String LP_SOLVER_EXE = "LP_SOLVER_EXE";
 	public static String LP_SOLVER_OPTIONS = "LP_SOLVER_OPTIONS";
 	public static String OUTPUT_FOLDER = "results/";
+	public static String SSC_SIMPLEX_ENGINE = "SSC_SIMPLEX_ENGINE";
+	
+	/**
+	 * SSC limits the number of simplex iterations (LP) and of solved simplexes (MILP branch and bound)
+	 * but not the time, so getTimeLimitGlobal() is converted into these limits with the following rates.
+	 * The defaults fit small and medium models; lower them for models with slow iterations.
+	 */
+	public static int SSC_ITERATIONS_PER_SECOND = 100000;
+	public static int SSC_SIMPLEXES_PER_SECOND = 1000;
 	
 	private String correlationID = UUID.randomUUID().toString();
+	private SimplexEngine simplexEngine;
 	
 	public LinearSolver() {  
 		super();
 	}
 	
+	/**
+	 * Builds the SSC model directly from the problem's constraints and solves it
+	 * in the same JVM without writing and re-parsing an intermediate MPS file
+	 */
 	public Solution findOptimalSolution(Objective objectiveDirection, Var objectiveVar) {
-		File file = generateMpsFile(objectiveDirection,objectiveVar);
-		int timeoutMilliSeconds = getTimeLimitGlobal();
-		if (timeoutMilliSeconds > 0)
-			return solve(file,timeoutMilliSeconds);
-		else
-			return solve(file);
+		getProblem().add(objectiveVar);
+		return solve(objectiveDirection, (AbstractConstrainedVariable)objectiveVar);
 	}
 	
 	public Solution findOptimalSolution(Objective objectiveDirection, VarReal objectiveVar) {
-		File file = generateMpsFile(objectiveDirection,objectiveVar);
-		int timeoutMilliSeconds = getTimeLimitGlobal();
-		if (timeoutMilliSeconds > 0)
-			return solve(file,timeoutMilliSeconds);
-		else
-			return solve(file);
+		getProblem().add(objectiveVar);
+		return solve(objectiveDirection, (AbstractConstrainedVariable)objectiveVar);
 	}
 	
 	public Solution findOptimalSolution(Objective objective, Var objectiveVar, OptimizationStrategy optStrategy) {
 		return findOptimalSolution(objective, objectiveVar);
 	} 
 	
+	/**
+	 * Selects the SSC simplex implementation: the dense tableau (default) or the
+	 * sparse revised simplex for large models with few nonzeros per row.
+	 * @param simplexEngine the engine to use
+	 */
+	public void setSimplexEngine(SimplexEngine simplexEngine) {
+		this.simplexEngine = simplexEngine;
+	}
+	
+	/**
+	 * 
+	 * @return the SSC simplex implementation set by setSimplexEngine(), otherwise the one
+	 * named by the system property SSC_SIMPLEX_ENGINE, otherwise SimplexEngine.TABLEAU
+	 */
+	public SimplexEngine getSimplexEngine() {
+		if (simplexEngine != null)
+			return simplexEngine;
+		String engine = System.getProperty(SSC_SIMPLEX_ENGINE);
+		if (engine == null)
+			return SimplexEngine.TABLEAU;
+		try {
+			return SimplexEngine.valueOf(engine.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			log("Unknown " + SSC_SIMPLEX_ENGINE + "=" + engine + ", using " + SimplexEngine.TABLEAU);
+			return SimplexEngine.TABLEAU;
+		}
+	}
+	
+	/**
+	 * Creates the SSC constraints for the current problem. Every integer and real variable
+	 * of the problem becomes an SSC column with the same bounds, in the order of problem.getVars()
+	 * followed by problem.getVarReals(), and every linear constraint becomes a row over the
+	 * constraint's coefficients, whether it was posted as a Constraint, a LinearIntConstraint or
+	 * a LinearRealConstraint. Integer variables are marked by a ConsType.INT row.
+	 *
+	 * @param columns receives the column index of every problem variable
+	 * @return a new list of SSC constraints
+	 */
+	public ArrayList<it.ssc.pl.milp.Constraint> createSscConstraints(IdentityHashMap<ConstrainedVariable,Integer> columns) 
+			throws Exception {
+		javax.constraints.impl.Problem problem =
+				(javax.constraints.impl.Problem)getProblem();
+		Var[] vars = problem.getVars();
+		VarReal[] varReals = problem.getVarReals();
+		int nVars = (vars == null) ? 0 : vars.length;
+		int nVarReals = (varReals == null) ? 0 : varReals.length;
+		int n = nVars + nVarReals;
+		
+		double[] lower = new double[n];
+		double[] upper = new double[n];
+		double[] integer = new double[n];
+		for (int i = 0; i < nVars; i++) {
+			columns.put(vars[i], i);
+			lower[i] = toSscBound(vars[i].getMin());
+			upper[i] = toSscBound(vars[i].getMax());
+			integer[i] = 1;
+		}
+		for (int i = 0; i < nVarReals; i++) {
+			columns.put(varReals[i], nVars + i);
+			lower[nVars + i] = toSscBound(varReals[i].getMin());
+			upper[nVars + i] = toSscBound(varReals[i].getMax());
+		}
+		
+		ArrayList<it.ssc.pl.milp.Constraint> sscConstraints = new ArrayList<it.ssc.pl.milp.Constraint>();
+		javax.constraints.Constraint[] constraints = problem.getConstraints();
+		for (int i = 0; i < constraints.length; i++) {
+			javax.constraints.impl.Constraint c = (javax.constraints.impl.Constraint) constraints[i];
+			sscConstraints.add(createSscConstraint(columns, n, c.getName(), 
+					c.getCoefficients(), c.getVars(), c.getOper(), c.getValue()));
+		}
+		for (LinearIntConstraint c : problem.getIntegerConstraints()) {
+			int[] intCoefficients = c.getCoefficients();
+			double[] coefficients = new double[intCoefficients.length];
+			for (int k = 0; k < coefficients.length; k++)
+				coefficients[k] = intCoefficients[k];
+			sscConstraints.add(createSscConstraint(columns, n, "integer constraint " + c.getOper() + " " + c.getValue(), 
+					coefficients, c.getVars(), c.getOper(), c.getValue()));
+		}
+		for (LinearRealConstraint c : problem.getRealConstraints()) {
+			sscConstraints.add(createSscConstraint(columns, n, "real constraint " + c.getOper() + " " + c.getValue(), 
+					c.getCoefficients(), c.getVars(), c.getOper(), c.getValue()));
+		}
+		sscConstraints.add(new it.ssc.pl.milp.Constraint(lower, ConsType.LOWER, LP.NaN));
+		sscConstraints.add(new it.ssc.pl.milp.Constraint(upper, ConsType.UPPER, LP.NaN));
+		if (nVars > 0)
+			sscConstraints.add(new it.ssc.pl.milp.Constraint(integer, ConsType.INT, LP.NaN));
+		return sscConstraints;
+	}
+	
+	/**
+	 * Creates one SSC row: coefficients*vars 'oper' value over all n columns.
+	 * Strict inequalities are posted with the same integer precision as in MpsGenerator.
+	 */
+	static it.ssc.pl.milp.Constraint createSscConstraint(IdentityHashMap<ConstrainedVariable,Integer> columns, int n, 
+			String name, double[] coefficients, ConstrainedVariable[] vars, String oper, double value) throws Exception {
+		double[] row = new double[n];
+		for (int k = 0; k < vars.length; k++) {
+			Integer column = columns.get(vars[k]);
+			if (column == null)
+				throw new RuntimeException("ERROR: variable " + vars[k].getName() 
+						+ " of the " + name + " is not added to the problem");
+			row[column] += coefficients[k];
+		}
+		if ("=".equals(oper))
+			return new it.ssc.pl.milp.Constraint(row, ConsType.EQ, value);
+		if ("<=".equals(oper))
+			return new it.ssc.pl.milp.Constraint(row, ConsType.LE, value);
+		if ("<".equals(oper))
+			return new it.ssc.pl.milp.Constraint(row, ConsType.LE, value - 1);
+		if (">=".equals(oper))
+			return new it.ssc.pl.milp.Constraint(row, ConsType.GE, value);
+		if (">".equals(oper))
+			return new it.ssc.pl.milp.Constraint(row, ConsType.GE, value + 1);
+		throw new RuntimeException("ERROR: illegal operator " + oper + " in the " + name);
+	}
+	
+	/**
+	 * The default domains of JSR-331 variables mean "no bound", which SSC expresses with NaN.
+	 * Any other bound, however large, is kept.
+	 */
+	static double toSscBound(double bound) {
+		if (javax.constraints.linear.LinearSolver.isDefaultBound(bound))
+			return LP.NaN;
+		return bound;
+	}
+	
+	/**
+	 * Converts a time limit into an SSC iteration or simplex limit
+	 * @param mills the time limit in milliseconds
+	 * @param perSecond the number of iterations or simplexes per second
+	 * @param sscLimit the current SSC limit, which is never raised
+	 * @return the new SSC limit
+	 */
+	static int toSscLimit(int mills, int perSecond, int sscLimit) {
+		long limit = Math.max(1, (long) mills * perSecond / 1000);
+		return (int) Math.min(sscLimit, limit);
+	}
+	
+	/**
+	 * Solves the problem using in-memory SSC objects: a MILP when the problem has
+	 * integer variables, otherwise an LP with the engine returned by getSimplexEngine().
+	 * A positive getTimeLimitGlobal() becomes an SSC simplex limit for the MILP
+	 * (SSC_SIMPLEXES_PER_SECOND) or an iteration limit for the LP (SSC_ITERATIONS_PER_SECOND).
+	 * When the MILP reaches that limit, the best integer solution found so far is returned;
+	 * when the LP reaches it after its first phase, the current feasible solution is returned.
+	 *
+	 * @param objectiveDirection Objective.MINIMIZE or Objective.MAXIMIZE
+	 * @param objectiveVar the objective variable
+	 * @return solution or null
+	 */
+	public Solution solve(Objective objectiveDirection, AbstractConstrainedVariable objectiveVar) {
+		javax.constraints.impl.Problem problem =
+				(javax.constraints.impl.Problem)getProblem();
+		it.ssc.pl.milp.Solution sscSolution;
+		try {
+			IdentityHashMap<ConstrainedVariable,Integer> columns = new IdentityHashMap<ConstrainedVariable,Integer>();
+			ArrayList<it.ssc.pl.milp.Constraint> constraints = createSscConstraints(columns);
+			Integer objectiveColumn = columns.get(objectiveVar);
+			if (objectiveColumn == null)
+				throw new RuntimeException("ERROR: objective variable " + objectiveVar.getName() + " is not added to the problem");
+			double[] c = new double[columns.size()];
+			c[objectiveColumn] = 1;
+			GoalType goal = objectiveDirection.equals(Objective.MAXIMIZE) ? GoalType.MAX : GoalType.MIN;
+			LinearObjectiveFunction f = new LinearObjectiveFunction(c, goal);
+			
+			SolutionType solutionType;
+			int timeLimit = getTimeLimitGlobal();
+			Var[] vars = problem.getVars();
+			if (vars != null && vars.length > 0) {
+				MILP milp = new MILP(f, constraints);
+				if (timeLimit > 0)
+					milp.setNumMaxSimplexs(toSscLimit(timeLimit, SSC_SIMPLEXES_PER_SECOND, milp.getNumMaxSimplexs()));
+				solutionType = milp.resolve();
+				sscSolution = milp.getSolution();
+			}
+			else {
+				LP lp = new LP(f, constraints);
+				lp.setSimplexEngine(getSimplexEngine());
+				if (timeLimit > 0)
+					lp.setNumMaxIteration(toSscLimit(timeLimit, SSC_ITERATIONS_PER_SECOND, lp.getNumMaxIteration()));
+				solutionType = lp.resolve();
+				sscSolution = null;
+				if (solutionType == SolutionType.OPTIMUM || solutionType == SolutionType.FEASIBLE
+						|| solutionType == SolutionType.MAX_ITERATIUM) {
+					try {
+						sscSolution = lp.getSolution();
+					} catch (SimplexException e) {
+						// the limit was reached before the first phase found a feasible solution
+					}
+				}
+			}
+			if (timeLimit > 0 && (solutionType == SolutionType.MAX_NUM_SIMPLEX || solutionType == SolutionType.MAX_ITERATIUM)) {
+				setTimeLimitExceeded(true);
+				log("SSC: Global time limit " + timeLimit + " mills has been exceeded.");
+			}
+			boolean isBestFound = (solutionType == SolutionType.MAX_NUM_SIMPLEX || solutionType == SolutionType.MAX_ITERATIUM
+					|| solutionType == SolutionType.FEASIBLE) && sscSolution != null;
+			if ((solutionType != SolutionType.OPTIMUM && !isBestFound) || sscSolution == null) {
+				log("Linear Solver Found No Solutions: " + solutionType);
+				return null;
+			}
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			log("SSC cannot solve the problem " + problem.getName());
+			throw new RuntimeException(e);
+		}
+		
+		// SSC variables are in the same order as problem vars and varReals
+		it.ssc.pl.milp.Variable[] sscVars = sscSolution.getVariables();
+		int index = 0;
+		Var[] vars = problem.getVars();
+		if (vars != null)
+		for (int i = 0; i < vars.length; i++) {
+			javax.constraints.impl.Var var = (javax.constraints.impl.Var) vars[i];
+			var.setValue((int) Math.round(sscVars[index++].getValue()));
+		}
+		VarReal[] varReals = problem.getVarReals();
+		if (varReals != null)
+		for (int i = 0; i < varReals.length; i++) {
+			javax.constraints.impl.VarReal varReal = (javax.constraints.impl.VarReal) varReals[i];
+			varReal.setValue(sscVars[index++].getValue());
+		}
+		return new javax.constraints.impl.search.Solution(this, 1);
+	}
+	
 	/**
 	 * 
 	 * @return Objective.MINIMIZE or Objective.MAXIMIZE based on a particular solver
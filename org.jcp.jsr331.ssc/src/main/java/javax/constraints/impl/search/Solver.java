@@ -30,6 +30,8 @@ public class Solver extends AbstractSolver {
 	public Solver(Problem problem) {
 		super(problem);
 		javax.constraints.impl.Problem p = (javax.constraints.impl.Problem)problem;
+		if (p == null)
+			return; // LinearSolverFactory sets the problem after creating the solver
 		ArrayList<Var> intVars = p.getVarArray();
 		ArrayList<VarReal> realVars = p.getVarRealArray();
 		
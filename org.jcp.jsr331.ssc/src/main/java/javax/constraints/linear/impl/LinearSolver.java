@@ -0,0 +1,33 @@
+package javax.constraints.linear.impl;
+
+import java.util.HashMap;
+
+import javax.constraints.Objective;
+
+public class LinearSolver extends javax.constraints.impl.LinearSolver {
+
+	static public final String JSR331_LINEAR_SOLVER_VERSION = "SSC v.3.0.1";
+
+	public LinearSolver() {
+	}
+
+	public String getVersion() {
+		return JSR331_LINEAR_SOLVER_VERSION;
+	}
+
+	/**
+	 * SSC minimizes by default
+	 */
+	public Objective getDefaultOptimizationObjective() {
+		return Objective.MINIMIZE;
+	}
+
+	public HashMap<String, String> readResults() {
+		return null;
+	}
+
+	public String getCommanLine() {
+		return null; // no command lines used
+	}
+
+}
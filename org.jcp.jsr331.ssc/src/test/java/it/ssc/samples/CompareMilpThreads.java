@@ -0,0 +1,59 @@
+package it.ssc.samples;
+
+import it.ssc.log.SscLogger;
+import it.ssc.pl.milp.ConsType;
+import it.ssc.pl.milp.Constraint;
+import it.ssc.pl.milp.GoalType;
+import it.ssc.pl.milp.LinearObjectiveFunction;
+import it.ssc.pl.milp.MILP;
+import it.ssc.pl.milp.SolutionType;
+import it.ssc.pl.milp.util.MILPThreadsNumber;
+import static it.ssc.pl.milp.LP.NaN;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Confronta il branch and bound sequenziale (MILPThreadsNumber.N_1) con quello parallelo
+ * (MILPThreadsNumber.N_4) su uno zaino multidimensionale intero generato con un seme fisso :
+ * l'ordine di esplorazione dei nodi puo' cambiare, il valore ottimo no.
+ */
+public class CompareMilpThreads {
+
+    static final double EPS = 1e-6;
+
+    public static void main(String[] args) throws Exception {
+
+        int n = 30, m = 5;
+        Random random = new Random(331);
+        double profit[] = new double[n];
+        double weight[][] = new double[m][n];
+        double upper[] = new double[n];
+        double integer[] = new double[n];
+        for (int j = 0; j < n; j++) {
+            profit[j] = 10 + random.nextInt(40);
+            upper[j] = 3;
+            integer[j] = 1;
+            for (int i = 0; i < m; i++) weight[i][j] = 5 + random.nextInt(30);
+        }
+
+        double optimum[] = new double[2];
+        MILPThreadsNumber threads[] = { MILPThreadsNumber.N_1, MILPThreadsNumber.N_4 };
+        for (int t = 0; t < threads.length; t++) {
+            ArrayList<Constraint> constraints = new ArrayList<Constraint>();
+            for (int i = 0; i < m; i++) constraints.add(new Constraint(weight[i], ConsType.LE, 400));
+            constraints.add(new Constraint(upper, ConsType.UPPER, NaN));
+            constraints.add(new Constraint(integer, ConsType.INT, NaN));
+
+            MILP milp = new MILP(new LinearObjectiveFunction(profit, GoalType.MAX), constraints);
+            milp.setThreadNumber(threads[t]);
+            SolutionType type = milp.resolve();
+            if (type != SolutionType.OPTIMUM)
+                throw new RuntimeException(threads[t] + ": returned " + type + " instead of " + SolutionType.OPTIMUM);
+            optimum[t] = milp.getSolution().getOptimumValue();
+            SscLogger.log(threads[t] + " o.f. value:" + optimum[t]);
+        }
+        if (Math.abs(optimum[0] - optimum[1]) > EPS)
+            throw new RuntimeException("sequential optimum " + optimum[0] + " differs from parallel optimum " + optimum[1]);
+        SscLogger.log("Sequential and parallel branch and bound agree");
+    }
+}
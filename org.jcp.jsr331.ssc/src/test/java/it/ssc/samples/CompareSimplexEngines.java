@@ -0,0 +1,71 @@
+package it.ssc.samples;
+
+import it.ssc.log.SscLogger;
+import it.ssc.pl.milp.ConsType;
+import it.ssc.pl.milp.Constraint;
+import it.ssc.pl.milp.GoalType;
+import it.ssc.pl.milp.LP;
+import it.ssc.pl.milp.LinearObjectiveFunction;
+import it.ssc.pl.milp.SimplexEngine;
+import it.ssc.pl.milp.SolutionType;
+import java.util.ArrayList;
+
+/**
+ * Confronta il simplesso su tabella densa (TABLEAU) con il simplesso rivisto sparso
+ * (SPARSE_REVISED) su problemi fissi con esito noto: ottimo, problema vuoto,
+ * problema illimitato e problema degenere (esempio di Beale, che cicla con la
+ * regola di Dantzig senza anti-ciclaggio).
+ */
+public class CompareSimplexEngines {
+
+    static final double EPS = 1e-6;
+
+    public static void main(String[] args) throws Exception {
+
+        // max x1 + 3x2 : x1 + x2 >= -1, x1 + 1.4x2 <= 6, -5x1 + 3x2 = 5 ; ottimo 11.6
+        check("optimum", SolutionType.OPTIMUM, 11.6, new double[] { 1, 3 }, GoalType.MAX,
+              new double[][] { { 1, 1 }, { 1, 1.4 }, { -5, 3 } },
+              new ConsType[] { ConsType.GE, ConsType.LE, ConsType.EQ },
+              new double[] { -1, 6, 5 });
+
+        // x1 + x2 <= 1, x1 + x2 >= 3 : nessuna soluzione
+        check("infeasible", SolutionType.VUOTUM, 0, new double[] { 1, 1 }, GoalType.MIN,
+              new double[][] { { 1, 1 }, { 1, 1 } },
+              new ConsType[] { ConsType.LE, ConsType.GE },
+              new double[] { 1, 3 });
+
+        // max x1 + x2 : x1 - x2 <= 1 ; illimitato lungo x2
+        check("unbounded", SolutionType.ILLIMITATUM, 0, new double[] { 1, 1 }, GoalType.MAX,
+              new double[][] { { 1, -1 } },
+              new ConsType[] { ConsType.LE },
+              new double[] { 1 });
+
+        // Beale : min -0.75x4 + 20x5 - 0.5x6 + 6x7 ; ottimo -1.25 in x4=1, x6=1
+        check("degenerate", SolutionType.OPTIMUM, -1.25, new double[] { -0.75, 20, -0.5, 6 }, GoalType.MIN,
+              new double[][] { { 0.25, -8, -1, 9 }, { 0.5, -12, -0.5, 3 }, { 0, 0, 1, 0 } },
+              new ConsType[] { ConsType.LE, ConsType.LE, ConsType.LE },
+              new double[] { 0, 0, 1 });
+
+        SscLogger.log("TABLEAU and SPARSE_REVISED agree on all problems");
+    }
+
+    static void check(String name, SolutionType expectedType, double expectedValue, double[] c, GoalType goal,
+                      double[][] A, ConsType[] types, double[] b) throws Exception {
+        for (SimplexEngine engine : SimplexEngine.values()) {
+            ArrayList<Constraint> constraints = new ArrayList<Constraint>();
+            for (int i = 0; i < A.length; i++) constraints.add(new Constraint(A[i], types[i], b[i]));
+
+            LP lp = new LP(new LinearObjectiveFunction(c, goal), constraints);
+            lp.setSimplexEngine(engine);
+            SolutionType type = lp.resolve();
+            if (type != expectedType)
+                throw new RuntimeException(name + ": " + engine + " returned " + type + " instead of " + expectedType);
+            if (type == SolutionType.OPTIMUM) {
+                double value = lp.getSolution().getOptimumValue();
+                if (Math.abs(value - expectedValue) > EPS)
+                    throw new RuntimeException(name + ": " + engine + " found " + value + " instead of " + expectedValue);
+            }
+            SscLogger.log(name + " " + engine + ": " + type);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package it.ssc.samples;
+
+import it.ssc.log.SscLogger;
+import it.ssc.pl.milp.ConsType;
+import it.ssc.pl.milp.Constraint;
+import it.ssc.pl.milp.GoalType;
+import it.ssc.pl.milp.LP;
+import it.ssc.pl.milp.LinearObjectiveFunction;
+import it.ssc.pl.milp.SimplexEngine;
+import it.ssc.pl.milp.Solution;
+import it.ssc.pl.milp.SolutionType;
+import it.ssc.pl.milp.Variable;
+import static it.ssc.pl.milp.LP.NaN;
+import java.util.ArrayList;
+
+/**
+ * Trasporto da 3 depositi a 4 clienti risolto con il simplesso rivisto sparso.
+ * I limiti superiori delle rotte (UPPER) sono gestiti come limiti delle variabili
+ * e non come vincoli aggiuntivi.
+ */
+public class ExampleSparse {
+    public static void main(String[] args) throws Exception {
+
+        double cost[] = { 4, 6, 9, 5,
+                          7, 3, 4, 8,
+                          6, 5, 7, 3 };
+        double supply[] = { 50, 60, 40 };
+        double demand[] = { 30, 45, 35, 40 };
+        int n = cost.length;
+
+        LinearObjectiveFunction f = new LinearObjectiveFunction(cost, GoalType.MIN);
+        ArrayList<Constraint> constraints = new ArrayList<Constraint>();
+
+        for (int i = 0; i < supply.length; i++) {
+            double row[] = new double[n];
+            for (int j = 0; j < demand.length; j++) row[i * demand.length + j] = 1.0;
+            constraints.add(new Constraint(row, ConsType.LE, supply[i]));
+        }
+        for (int j = 0; j < demand.length; j++) {
+            double row[] = new double[n];
+            for (int i = 0; i < supply.length; i++) row[i * demand.length + j] = 1.0;
+            constraints.add(new Constraint(row, ConsType.EQ, demand[j]));
+        }
+        double upper[] = new double[n];
+        for (int j = 0; j < n; j++) upper[j] = 25.0;
+        upper[7] = NaN; // rotta senza limite
+        constraints.add(new Constraint(upper, ConsType.UPPER, NaN));
+
+        LP lp = new LP(f, constraints);
+        lp.setSimplexEngine(SimplexEngine.SPARSE_REVISED);
+        SolutionType solution_type = lp.resolve();
+
+        if (solution_type == SolutionType.OPTIMUM) {
+            Solution solution = lp.getSolution();
+            for (Variable var : solution.getVariables()) {
+                SscLogger.log("Variable name :" + var.getName() + " value:" + var.getValue());
+            }
+            SscLogger.log("o.f. value:" + solution.getOptimumValue());
+        } else
+            SscLogger.log("no optimal solution:" + solution_type);
+    }
+}
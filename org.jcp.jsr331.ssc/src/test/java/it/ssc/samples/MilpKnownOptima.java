@@ -0,0 +1,73 @@
+package it.ssc.samples;
+
+import it.ssc.log.SscLogger;
+import it.ssc.pl.milp.ConsType;
+import it.ssc.pl.milp.Constraint;
+import it.ssc.pl.milp.GoalType;
+import it.ssc.pl.milp.LinearObjectiveFunction;
+import it.ssc.pl.milp.MILP;
+import it.ssc.pl.milp.SolutionType;
+import static it.ssc.pl.milp.LP.NaN;
+import java.util.ArrayList;
+
+/**
+ * Problemi MILP fissi con ottimo noto, calcolato a mano, per verificare il branch and bound
+ * (nodi delta e riottimizzazione col simplesso duale). Ogni problema ha un rilassamento
+ * continuo con ottimo diverso da quello intero, per cui il branch and bound deve diramare.
+ */
+public class MilpKnownOptima {
+
+    static final double EPS = 1e-6;
+
+    public static void main(String[] args) throws Exception {
+
+        // Example29 : min 3x1 + x2 + 4x3 + 7x4 + 8x5, x2 e x3 intere.
+        // Il rilassamento da' x2=12.5 ; con x2=12 serve x1=1/6 : ottimo 12.5
+        ArrayList<Constraint> constraints = new ArrayList<Constraint>();
+        constraints.add(new Constraint(new double[] { 5, 2, 0, 3, 0 }, ConsType.GE, 9));
+        constraints.add(new Constraint(new double[] { 3, 1, 1, 0, 5 }, ConsType.GE, 12.5));
+        constraints.add(new Constraint(new double[] { 6, 3, 4, 5, 0 }, ConsType.LE, 124));
+        constraints.add(new Constraint(new double[] { 1, 3, 0, 3, 6 }, ConsType.LE, 854));
+        constraints.add(new Constraint(new double[] { 0, 1, 1, 0, 0 }, ConsType.INT, NaN));
+        check("integer", 12.5, new LinearObjectiveFunction(new double[] { 3, 1, 4, 7, 8 }, GoalType.MIN), constraints);
+
+        // zaino binario : max 8x1 + 11x2 + 6x3 + 4x4, 5x1 + 7x2 + 4x3 + 3x4 <= 14.
+        // Il rilassamento vale 22, l'ottimo intero 21 (x2=x3=x4=1)
+        constraints = new ArrayList<Constraint>();
+        constraints.add(new Constraint(new double[] { 5, 7, 4, 3 }, ConsType.LE, 14));
+        constraints.add(new Constraint(new double[] { 1, 1, 1, 1 }, ConsType.BIN, NaN));
+        check("binary", 21, new LinearObjectiveFunction(new double[] { 8, 11, 6, 4 }, GoalType.MAX), constraints);
+
+        // semicontinua : min x + 2y, x + y >= 2, x = 0 oppure 3 <= x <= 10.
+        // Il rilassamento da' x=2 (valore 2), non ammesso : x=3, y=0 vale 3 e batte x=0, y=2 che vale 4
+        constraints = new ArrayList<Constraint>();
+        constraints.add(new Constraint(new double[] { 1, 1 }, ConsType.GE, 2));
+        constraints.add(new Constraint(new double[] { 3, 0 }, ConsType.LOWER, NaN));
+        constraints.add(new Constraint(new double[] { 10, NaN }, ConsType.UPPER, NaN));
+        constraints.add(new Constraint(new double[] { 1, 0 }, ConsType.SEMICONT, NaN));
+        check("semicontinuous", 3, new LinearObjectiveFunction(new double[] { 1, 2 }, GoalType.MIN), constraints);
+
+        // semicontinua intera : max x + y, x + 2y <= 7, y <= 2, x = 0 oppure 2 <= x <= 4.5 intera.
+        // Il rilassamento da' x=4.5, y=1.25 (5.75) ; l'ottimo intero e' x=4, y=1.5 : 5.5
+        constraints = new ArrayList<Constraint>();
+        constraints.add(new Constraint(new double[] { 1, 2 }, ConsType.LE, 7));
+        constraints.add(new Constraint(new double[] { 2, 0 }, ConsType.LOWER, NaN));
+        constraints.add(new Constraint(new double[] { 4.5, 2 }, ConsType.UPPER, NaN));
+        constraints.add(new Constraint(new double[] { 1, 0 }, ConsType.INT, NaN));
+        constraints.add(new Constraint(new double[] { 1, 0 }, ConsType.SEMICONT, NaN));
+        check("semicontinuous integer", 5.5, new LinearObjectiveFunction(new double[] { 1, 1 }, GoalType.MAX), constraints);
+
+        SscLogger.log("All MILP optima match");
+    }
+
+    static void check(String name, double expectedValue, LinearObjectiveFunction f, ArrayList<Constraint> constraints) throws Exception {
+        MILP milp = new MILP(f, constraints);
+        SolutionType type = milp.resolve();
+        if (type != SolutionType.OPTIMUM)
+            throw new RuntimeException(name + ": returned " + type + " instead of " + SolutionType.OPTIMUM);
+        double value = milp.getSolution().getOptimumValue();
+        if (Math.abs(value - expectedValue) > EPS)
+            throw new RuntimeException(name + ": found " + value + " instead of " + expectedValue);
+        SscLogger.log(name + ": " + value);
+    }
+}
@@ -19,6 +19,7 @@ import org.sat4j.minisat.SolverFactory;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
 import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.TimeoutException;
 
 public class Sat4jSolver {
@@ -127,10 +128,19 @@ public class Sat4jSolver {
     }
     
     public boolean satSolve() throws SugarException {
+        return satSolve(new VecInt());
+    }
+    
+    /**
+     * Solves the SAT problem under the assumptions (SAT literals that should be true).
+     * The assumptions are not added to the SAT problem, so the learned clauses
+     * stay valid for the next calls with other assumptions.
+     */
+    public boolean satSolve(IVecInt assumptions) throws SugarException {
         try {
             if (sat4jProblem.isUnsatisfiable)
                 return false;
-            boolean result = sat4j.isSatisfiable();
+            boolean result = sat4j.isSatisfiable(assumptions);
             return result;
         } catch (TimeoutException e) {
             throw new SugarException(e.getMessage(), e);
@@ -144,5 +154,40 @@ public class Sat4jSolver {
         }
         return result;
     }
+    
+    /**
+     * Finds a solution with lb <= v <= ub. The bounds are the assumptions on
+     * the order encoding literals of v, so the same SAT solver with all its
+     * learned clauses is used by every call.
+     */
+    public boolean find(IntegerVariable v, int lb, int ub) throws SugarException {
+        VecInt assumptions = new VecInt();
+        int[] codes = { encoder.negateCode(encoder.getCodeLE(v, lb - 1)), encoder.getCodeLE(v, ub) };
+        for (int code : codes) {
+            if (code == jp.kobe_u.sugar.encoder.Problem.FALSE_CODE)
+                return false;
+            if (code != jp.kobe_u.sugar.encoder.Problem.TRUE_CODE)
+                assumptions.push(code);
+        }
+        boolean result = satSolve(assumptions);
+        if (result) {
+            decode();
+        }
+        return result;
+    }
+    
+    /**
+     * Adds the SAT clause that excludes the assignment vars[i] = values[i] for all i.
+     * The clause is removed by cancel() as any other clause added after commit().
+     */
+    public void addBlockingClause(IntegerVariable[] vars, int[] values) throws SugarException {
+        int[] clause = new int[2 * vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            // v != a <--> v <= a-1 or not v <= a
+            clause[2*i] = encoder.getCodeLE(vars[i], values[i] - 1);
+            clause[2*i+1] = encoder.negateCode(encoder.getCodeLE(vars[i], values[i]));
+        }
+        sat4jProblem.addClause(clause);
+    }
 
 }
@@ -1,8 +1,6 @@
 package javax.constraints.impl.search;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.constraints.Objective;
 import javax.constraints.OptimizationStrategy;
@@ -13,9 +11,7 @@ import javax.constraints.Var;
 import javax.constraints.VarSet;
 
 import jp.kobe_u.sugar.SugarException;
-import jp.kobe_u.sugar.converter.Converter;
 import jp.kobe_u.sugar.csp.IntegerVariable;
-import jp.kobe_u.sugar.expression.Expression;
 
 /**
  * An implementation of the interface "Solver" by extending the common class AbstractSolver
@@ -33,13 +29,6 @@ public class Solver extends AbstractSolver {
         return (javax.constraints.impl.Problem)getProblem();
     }
 
-    private void addExpression(Expression c) throws SugarException {
-        javax.constraints.impl.Problem p = _getProblem();
-        Converter.INCREMENTAL_PROPAGATION = false;
-        p.sugarConverter.convert(c);
-        Converter.INCREMENTAL_PROPAGATION = true;
-    }
-
     private Solution _getSolution(ProblemState restoreOrNot) {
         javax.constraints.impl.Problem p = _getProblem();
         for (javax.constraints.impl.Var v : p.getVariables()) {
@@ -109,17 +98,23 @@ public class Solver extends AbstractSolver {
         }
     }
     
+    /**
+     * Finds the next solution with the same SAT solver. The previous solution is
+     * excluded by a blocking clause added directly to the SAT solver, so
+     * the clauses learned by the previous calls are kept.
+     */
     public Solution findNextSolution() {
         try {
-            javax.constraints.impl.Problem p = _getProblem();
-            List<Expression> xs = new ArrayList<Expression>();
-            xs.add(Expression.OR);
-            for (Var v : getProblem().getVars()) {
-                int a = _getValue(v);
-                xs.add(p.toExpr(v).ne(a));
-            }
-            addExpression(Expression.create(xs));
+            // encode the constraints posted after the previous solution
             sat4jSolver.encodeDelta();
+            Var[] vars = getProblem().getVars();
+            IntegerVariable[] xs = new IntegerVariable[vars.length];
+            int[] values = new int[vars.length];
+            for (int i = 0; i < vars.length; i++) {
+                xs[i] = ((javax.constraints.impl.Var)vars[i])._getImpl();
+                values[i] = _getValue(vars[i]);
+            }
+            sat4jSolver.addBlockingClause(xs, values);
             boolean result = sat4jSolver.find();
             Solution solution = null;
             if (result) {
@@ -154,6 +149,9 @@ public class Solver extends AbstractSolver {
      * <br> The problem state after the execution of this method is always restored. All variables
      * that were added to the problems (plus the objectiveVar) will have their assigned values 
      * saved inside the optimal solution. 
+     * <br> OptimizationStrategy.NATIVE encodes the problem once and bisects the objective
+     * bounds with the same SAT solver: every probe passes its bounds as assumptions,
+     * so the learned clauses are kept for the whole optimization.
      * 
      * @param objective Objective.MINIMIZE or Objective.MAXIMIZE
      * @param objectiveVar the variable that is being minimized/maximized
@@ -179,11 +177,12 @@ public class Solver extends AbstractSolver {
             sat4jSolver.commit();
             if (result) {
                 solution = _getSolution(ProblemState.DO_NOT_RESTORE);
+                IntegerVariable x = ((javax.constraints.impl.Var)objectiveVar)._getImpl();
                 if (objective == Objective.MINIMIZE) {
                     ub = _getValue(objectiveVar); 
                     while (lb < ub) {
                         int mid = (lb + ub) / 2;
-                        if (findOptBound(objectiveVar, lb, mid)) {
+                        if (sat4jSolver.find(x, lb, mid)) {
                             solution = _getSolution(ProblemState.DO_NOT_RESTORE);
                             ub = _getValue(objectiveVar);
                         } else {
@@ -194,7 +193,7 @@ public class Solver extends AbstractSolver {
                     lb = _getValue(objectiveVar); 
                     while (lb < ub) {
                         int mid = (lb + ub + 1) / 2;
-                        if (findOptBound(objectiveVar, mid, ub)) {
+                        if (sat4jSolver.find(x, mid, ub)) {
                             solution = _getSolution(ProblemState.DO_NOT_RESTORE);
                             lb = _getValue(objectiveVar);
                         } else {
@@ -212,20 +211,9 @@ public class Solver extends AbstractSolver {
             return solution;
         } catch (SugarException e) {
             throw new RuntimeException(e.getMessage(), e);
-        } catch (IOException e) {
-            throw new RuntimeException(e.getMessage(), e);
         }
     }
     
-    private boolean findOptBound(Var objectiveVar, int lb, int ub) throws SugarException, IOException {
-        javax.constraints.impl.Problem p = _getProblem();
-        sat4jSolver.cancel();
-        Expression v = p.toExpr(objectiveVar);
-        addExpression(v.ge(lb).and(v.le(ub)));
-        sat4jSolver.encodeDelta();
-        return sat4jSolver.find();
-    }
-    
     /**
      * Creates a solution iterator that allows a user to search and navigate
      * through multiple solutions.
@@ -282,5 +270,7 @@ public class Solver extends AbstractSolver {
 //        log("Occupied memory: " + occupied_memory);
         long executionTime = System.currentTimeMillis() - getSolverStartTime();
         log("Execution time: " + executionTime + " msec");
+        if (getParallelSearch() != null)
+            getParallelSearch().logStats();
     }
 }
@@ -7,7 +7,14 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.StreamTokenizer;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import jp.kobe_u.sugar.Logger;
 import jp.kobe_u.sugar.SugarConstants;
@@ -25,6 +32,14 @@ import jp.kobe_u.sugar.csp.IntegerVariable;
  * @author Naoyuki Tamura (tamura@kobe-u.ac.jp)
  */
 public abstract class AbstractEncoder {
+    /**
+     * The number of threads encoding CSP clauses. The clauses are encoded
+     * in parallel only if there are at least PARALLEL_CLAUSES of them.
+     */
+    public static int THREADS = Runtime.getRuntime().availableProcessors();
+    public static int PARALLEL_CLAUSES = 10000;
+    public static int CHUNK_SIZE = 1000;
+
     public CSP csp;
     public Problem problem;
     
@@ -33,6 +48,92 @@ public abstract class AbstractEncoder {
         this.problem = problem;
     }
 
+    /**
+     * Returns a new encoder of the same encoding writing SAT clauses to
+     * the problem, or null if the clauses cannot be encoded in parallel.
+     */
+    protected AbstractEncoder newEncoder(Problem problem) {
+        return null;
+    }
+
+    /*
+     * A problem collecting the SAT clauses of one chunk of CSP clauses.
+     */
+    static class ClauseBuffer extends Problem {
+        List<int[]> clauses = new ArrayList<int[]>();
+
+        @Override
+        public void addClause(int[] clause) {
+            // the encoder reuses its clause arrays
+            clauses.add(clause.clone());
+        }
+
+        @Override
+        public void addNormalizedClause(int[] clause) {
+            addClause(clause);
+        }
+
+        @Override
+        public void done() {
+        }
+
+        void flush(Problem problem) throws SugarException {
+            for (int[] clause : clauses)
+                problem.addClause(clause);
+            clauses = null;
+        }
+    }
+
+    /**
+     * Encodes the CSP clauses in parallel chunks. The chunks are passed
+     * to the problem in the order of the clauses as soon as they are encoded,
+     * and at most 2*THREADS chunks are kept in memory.
+     * Comments are not written and groups are not supported.
+     * @return false if the clauses should be encoded sequentially
+     */
+    public boolean encodeParallel(final List<Clause> clauses) throws SugarException {
+        int n = clauses.size();
+        if (THREADS <= 1 || n < PARALLEL_CLAUSES || problem.groups > 0
+                || SugarMain.debug > 0 || newEncoder(problem) == null)
+            return false;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<ClauseBuffer>> chunks = new ArrayList<Future<ClauseBuffer>>();
+            int submitted = 0;
+            for (int i = 0; i*CHUNK_SIZE < n; i++) {
+                while (submitted*CHUNK_SIZE < n && submitted < i + 2*THREADS) {
+                    final int start = submitted*CHUNK_SIZE;
+                    final int end = Math.min(n, start + CHUNK_SIZE);
+                    chunks.add(executor.submit(new Callable<ClauseBuffer>() {
+                        public ClauseBuffer call() throws SugarException {
+                            ClauseBuffer buffer = new ClauseBuffer();
+                            AbstractEncoder encoder = newEncoder(buffer);
+                            for (Clause c : clauses.subList(start, end)) {
+                                if (! c.isValid())
+                                    encoder.encodeClause(c);
+                            }
+                            return buffer;
+                        }
+                    }));
+                    submitted++;
+                }
+                chunks.get(i).get().flush(problem);
+                chunks.set(i, null);
+            }
+            Logger.fine(n + " CSP clauses are encoded by " + THREADS + " threads"
+                    + " (" + problem.summary() + ")");
+        } catch (InterruptedException e) {
+            throw new SugarException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SugarException)
+                throw (SugarException)e.getCause();
+            throw new SugarException(e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return true;
+    }
+
     public int negateCode(int code) {
         if (code == Problem.FALSE_CODE) {
             code = Problem.TRUE_CODE;
@@ -78,21 +179,23 @@ public abstract class AbstractEncoder {
         count = 0;
         n = csp.getClauses().size();
         percent = 10;
-        for (Clause c : csp.getClauses()) {
-            if (c.isValid())
-                continue;
-            int clausesCount0 = problem.clausesCount;
-            encodeClause(c);
-            count++;
-            if (SugarMain.debug >= 1) {
-                int k = problem.clausesCount - clausesCount0;
-                Logger.fine(k + " SAT clauses for " + c);
-            }
-            if ((100*count)/n >= percent) {
-                Logger.fine(count + " (" + percent + "%) "
-                        + "CSP clauses are encoded"
-                        + " (" + problem.summary() + ")");
-                percent += 10;
+        if (! encodeParallel(csp.getClauses())) {
+            for (Clause c : csp.getClauses()) {
+                if (c.isValid())
+                    continue;
+                int clausesCount0 = problem.clausesCount;
+                encodeClause(c);
+                count++;
+                if (SugarMain.debug >= 1) {
+                    int k = problem.clausesCount - clausesCount0;
+                    Logger.fine(k + " SAT clauses for " + c);
+                }
+                if ((100*count)/n >= percent) {
+                    Logger.fine(count + " (" + percent + "%) "
+                            + "CSP clauses are encoded"
+                            + " (" + problem.summary() + ")");
+                    percent += 10;
+                }
             }
         }
         if (true) {
@@ -143,10 +246,12 @@ public abstract class AbstractEncoder {
         for (IntegerVariable v : csp.getIntegerVariablesDelta()) { 
             encodeIntegerVariable(v);
         }
-        for (Clause c : csp.getClausesDelta()) {
-            if (c.isValid())
-                continue;
-            encodeClause(c);
+        if (! encodeParallel(csp.getClausesDelta())) {
+            for (Clause c : csp.getClausesDelta()) {
+                if (c.isValid())
+                    continue;
+                encodeClause(c);
+            }
         }
         problem.done();
     }
@@ -29,6 +29,11 @@ public class OrderEncoder extends AbstractEncoder {
         super(csp, problem);
     }
 
+    @Override
+    protected AbstractEncoder newEncoder(Problem problem) {
+        return new OrderEncoder(csp, problem);
+    }
+
     private int[] expand(int[] clause0, int n) {
         int[] clause = new int[clause0.length + n];
         for (int i = 0; i < clause0.length; i++) {
@@ -38,7 +43,7 @@ public class OrderEncoder extends AbstractEncoder {
     }
 
     // v <= value
-    private int getCodeLE(IntegerVariable v, int value) {
+    public int getCodeLE(IntegerVariable v, int value) {
         if (value < v.getDomain().getLowerBound()) {
             return Problem.FALSE_CODE;
         } else if (value >= v.getDomain().getUpperBound()) {
@@ -27,6 +27,8 @@ import javax.constraints.VarSelectorType;
 import javax.constraints.Problem;
 import javax.constraints.Solver;
 
+import jp.kobe_u.sugar.encoder.AbstractEncoder;
+
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 import junit.textui.TestRunner;
@@ -88,4 +90,33 @@ public class TestQueens extends TestCase {
 		}
 		assertEquals(solutions.length,92);
 	}
+	
+	public void testParallelEncoding() {
+		int threads = AbstractEncoder.THREADS;
+		int parallelClauses = AbstractEncoder.PARALLEL_CLAUSES;
+		int chunkSize = AbstractEncoder.CHUNK_SIZE;
+		AbstractEncoder.THREADS = 3;
+		AbstractEncoder.PARALLEL_CLAUSES = 1;
+		AbstractEncoder.CHUNK_SIZE = 5;
+		try {
+			Problem problem = ProblemFactory.newProblem("Queens");
+			int size = 8;
+			Var[] x = problem.variableArray("x", 0, size-1, size);
+			Var[] x1 = new Var[size];
+			Var[] x2 = new Var[size];
+			for (int i = 0; i < size; i++) {
+				x1[i] = x[i].plus(i);
+				x2[i] = x[i].minus(i);
+			}
+			problem.postAllDifferent(x);
+			problem.postAllDifferent(x1);
+			problem.postAllDifferent(x2);
+			Solution[] solutions = problem.getSolver().findAllSolutions();
+			assertEquals(92, solutions.length);
+		} finally {
+			AbstractEncoder.THREADS = threads;
+			AbstractEncoder.PARALLEL_CLAUSES = parallelClauses;
+			AbstractEncoder.CHUNK_SIZE = chunkSize;
+		}
+	}
 }
@@ -9,9 +9,12 @@
 package org.jcp.jsr331.tests;
 
 
+import javax.constraints.Objective;
+import javax.constraints.OptimizationStrategy;
 import javax.constraints.ProblemFactory;
 import javax.constraints.SearchStrategy;
 import javax.constraints.Solution;
+import javax.constraints.SolutionIterator;
 import javax.constraints.Solver;
 import javax.constraints.Var;
 import javax.constraints.ValueSelectorType;
@@ -90,4 +93,33 @@ public class TestSum extends TestCase {
 		assertNotNull(solution);
 		assertEquals(solution.getValue("sum"),25);
 	}
+	
+	public void testOptimalNative() {
+		defineProblem();
+		p.log("TestSum: findOptimalSolution with OptimizationStrategy.NATIVE");
+		Solver solver = p.getSolver();
+		solver.setOptimizationStrategy(OptimizationStrategy.NATIVE);
+		Solution solution = solver.findOptimalSolution(Objective.MINIMIZE, sum);
+		assertNotNull(solution);
+		assertEquals(25, solution.getValue("sum"));
+		solution = solver.findOptimalSolution(Objective.MAXIMIZE, sum);
+		assertNotNull(solution);
+		assertEquals(70, solution.getValue("sum"));
+	}
+	
+	public void testIterator() {
+		p = ProblemFactory.newProblem("TestIterator");
+		Var[] vars = p.variableArray("vars", 0, 3, 3);
+		p.postAllDifferent(vars);
+		p.post(vars, "=", 5);
+		// the permutations of {0,2,3}
+		SolutionIterator iter = p.getSolver().solutionIterator();
+		int n = 0;
+		while (iter.hasNext()) {
+			Solution solution = iter.next();
+			assertEquals(5, solution.getValue("vars-0") + solution.getValue("vars-1") + solution.getValue("vars-2"));
+			n++;
+		}
+		assertEquals(6, n);
+	}
 }
\ No newline at end of file
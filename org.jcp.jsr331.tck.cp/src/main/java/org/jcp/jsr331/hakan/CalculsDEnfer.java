@@ -182,13 +182,13 @@ public class CalculsDEnfer {
         System.out.println();
         */
 
-        SolutionIterator iter = solver.solutionIterator();
+        // a better A_max is posted after every solution, so every solution
+        // is searched for from the root
         int bestValue = Integer.MAX_VALUE;
         Solution solution = null;
         int max_solutions = 20;
         int num_solutions = 0;
-        while(iter.hasNext()) {
-            solution = iter.next();
+        while((solution = solver.findSolution(ProblemState.RESTORE)) != null) {
             solution.log();
             try {
                 int newValue = solution.getValue("A_max");
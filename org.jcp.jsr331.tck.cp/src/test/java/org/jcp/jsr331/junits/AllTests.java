@@ -41,6 +41,14 @@ public class AllTests {
 		suite.addTestSuite(TestQueens.class);
 		suite.addTestSuite(TestGraphColoring.class);
 		suite.addTestSuite(TestBins.class);
+		suite.addTestSuite(TestGetVar.class);
+		suite.addTestSuite(TestPortfolio.class);
+		suite.addTestSuite(TestTable.class);
+		suite.addTestSuite(TestAllDifferent.class);
+		suite.addTestSuite(TestRestarts.class);
+		suite.addTestSuite(TestLNS.class);
+		suite.addTestSuite(TestParallelSearch.class);
+		suite.addTestSuite(TestCumulative.class);
 		return suite;
 	}
 }
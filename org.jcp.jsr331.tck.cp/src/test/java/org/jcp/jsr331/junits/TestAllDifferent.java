@@ -0,0 +1,60 @@
+//===============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// TestXYZ Compatibility Kit
+// 
+//================================================
+package org.jcp.jsr331.junits;
+
+import javax.constraints.ConsistencyLevel;
+import javax.constraints.Problem;
+import javax.constraints.ProblemFactory;
+import javax.constraints.Solution;
+import javax.constraints.Var;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+public class TestAllDifferent extends TestCase {
+
+	public TestAllDifferent(String name) {
+		super(name);
+	}
+
+	public static void main(String[] args) {
+		TestRunner.run(new TestSuite(TestAllDifferent.class));
+	}
+
+	public void testConsistencyLevels() {
+		for (ConsistencyLevel level : ConsistencyLevel.values()) {
+			Problem problem = ProblemFactory.newProblem("TestAllDifferent " + level);
+			Var[] vars = problem.variableArray("x", 0, 4, 5);
+			problem.post(vars[0], "<=", 1);
+			problem.post(vars[1], "<=", 1);
+			problem.post(vars[2], "<=", 2);
+			problem.allDiff(vars).post(level);
+			Solution solution = problem.getSolver().findSolution();
+			assertNotNull(solution);
+			assertEquals(2, solution.getValue("x-2"));
+			boolean[] used = new boolean[5];
+			for (Var var : vars) {
+				int value = solution.getValue(var.getName());
+				assertFalse(used[value]);
+				used[value] = true;
+			}
+			if (level == ConsistencyLevel.BOUND || level == ConsistencyLevel.DOMAIN) {
+				// the Hall interval [0..1] is found without search
+				Problem p = ProblemFactory.newProblem("TestAllDifferent " + level);
+				Var[] x = p.variableArray("x", 0, 4, 3);
+				p.post(x[0], "<=", 1);
+				p.post(x[1], "<=", 1);
+				p.allDiff(x).post(level);
+				assertEquals(2, x[2].getMin());
+			}
+			problem.log("Success "+problem.getName());
+		}
+	}
+}
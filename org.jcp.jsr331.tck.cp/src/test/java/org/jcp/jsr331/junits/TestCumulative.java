@@ -0,0 +1,101 @@
+//===============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// TestXYZ Compatibility Kit
+// 
+//================================================
+package org.jcp.jsr331.junits;
+
+import javax.constraints.Solution;
+import javax.constraints.Solver;
+import javax.constraints.Var;
+import javax.constraints.scheduler.Activity;
+import javax.constraints.scheduler.Resource;
+import javax.constraints.scheduler.ResourceDisjunctive;
+import javax.constraints.scheduler.Schedule;
+import javax.constraints.scheduler.ScheduleFactory;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+public class TestCumulative extends TestCase {
+
+	public TestCumulative(String name) {
+		super(name);
+	}
+
+	public static void main(String[] args) {
+		TestRunner.run(new TestSuite(TestCumulative.class));
+	}
+
+	public void testCapacityProfile() throws Exception {
+		Schedule s = ScheduleFactory.newSchedule("TestCumulativeOven",0,11);
+		Activity[] activities = {
+			s.activity("A",1), s.activity("B",4), s.activity("C",4),
+			s.activity("D",2), s.activity("E",4)
+		};
+		int[] required = { 2, 1, 1, 1, 2 };
+		int[] capacityMax = { 2, 1, 0, 1, 1, 3, 3, 3, 3, 3, 1 };
+		Resource oven = s.resource("oven",3);
+		for (int t = 0; t < capacityMax.length; t++) {
+			if (capacityMax[t] < 3)
+				oven.setCapacityMax(t, capacityMax[t]);
+		}
+		for (int i = 0; i < activities.length; i++)
+			activities[i].requires(oven, required[i]);
+
+		Solver solver = s.getSolver();
+		solver.setSearchStrategy(s.strategyScheduleActivities());
+		Solution solution = solver.findSolution();
+		assertNotNull(solution);
+		for (int t = 0; t < capacityMax.length; t++) {
+			int load = 0;
+			for (int i = 0; i < activities.length; i++) {
+				int start = activities[i].getStart().getValue();
+				if (start <= t && t < start + activities[i].getDuration())
+					load += required[i];
+			}
+			assertTrue("load " + load + " at time " + t, load <= capacityMax[t]);
+		}
+	}
+
+	public void testOverload() {
+		Schedule s = ScheduleFactory.newSchedule("TestCumulativeOverload",0,8);
+		Resource r = s.resource("r",2);
+		Solution solution = null;
+		try {
+			// 3 activities of 3 time units with capacity 2 need 9 time units
+			for (int i = 0; i < 3; i++)
+				s.activity("a" + i,3).requires(r, 2);
+			Solver solver = s.getSolver();
+			solver.setSearchStrategy(s.strategyScheduleActivities());
+			solution = solver.findSolution();
+		} catch (RuntimeException e) {
+			s.log("Expected failure: " + e.getMessage());
+		}
+		assertNull(solution);
+	}
+
+	public void testCapacityUsage() {
+		Schedule s = ScheduleFactory.newSchedule("TestCumulativeUsage",0,10);
+		ResourceDisjunctive joe = s.resourceDisjunctive("Joe");
+		ResourceDisjunctive jim = s.resourceDisjunctive("Jim");
+		Activity a = s.activity("a",3);
+		Activity b = s.activity("b",2);
+		a.requires(joe, jim);
+		b.requires(joe);
+		Var joeUsage = joe.getCapacityUsage();
+		Var jimUsage = jim.getCapacityUsage();
+
+		Solver solver = s.getSolver();
+		solver.setSearchStrategy(s.strategyScheduleActivities());
+		solver.addSearchStrategy(s.strategyAssignResources());
+		Solution solution = solver.findSolution();
+		assertNotNull(solution);
+		assertEquals(5, joeUsage.getValue() + jimUsage.getValue());
+		assertTrue(joeUsage.getValue() >= 2);
+	}
+}
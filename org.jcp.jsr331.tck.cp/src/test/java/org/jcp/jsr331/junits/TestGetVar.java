@@ -0,0 +1,67 @@
+//===============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// TestXYZ Compatibility Kit
+// 
+//================================================
+package org.jcp.jsr331.junits;
+
+import javax.constraints.Problem;
+import javax.constraints.ProblemFactory;
+import javax.constraints.Var;
+import javax.constraints.VarBool;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+
+public class TestGetVar extends TestCase {
+
+	public static void main(String[] args) {
+		TestRunner.run(new TestSuite(TestGetVar.class));
+	}
+	
+	public void testLookup() {
+		Problem p = ProblemFactory.newProblem("TestGetVar");
+		Var[] vars = p.variableArray("x", 0, 10, 1000);
+		for (int i = 0; i < vars.length; i++) {
+			assertSame(vars[i], p.getVar("x-" + i));
+		}
+		assertNull(p.getVar("y"));
+		assertNull(p.getVar(null));
+		assertEquals(1000, p.getVars().length);
+	}
+	
+	public void testReplaceAndRename() {
+		Problem p = ProblemFactory.newProblem("TestGetVar");
+		Var x = p.variable("x", 0, 10);
+		Var y = p.variable("y", 0, 10);
+		
+		Var x2 = p.variable("x", 0, 5);
+		assertSame(x2, p.getVar("x"));
+		assertEquals(2, p.getVars().length);
+		
+		y.setName("z");
+		assertNull(p.getVar("y"));
+		assertSame(y, p.getVar("z"));
+		
+		Var unnamed = p.variable(0, 10);
+		assertNull(p.getVar("noname"));
+		assertEquals(2, p.getVars().length);
+		assertNotSame(unnamed, p.getVar(""));
+		assertNotSame(x, p.getVar("x"));
+	}
+	
+	public void testReplaceVarBool() {
+		Problem p = ProblemFactory.newProblem("TestGetVar");
+		p.variableBool("b");
+		VarBool b2 = p.variableBool("b");
+		p.variableBool("c");
+		VarBool[] varBools = p.getVarBools();
+		assertEquals(2, varBools.length);
+		assertSame(b2, varBools[0]);
+	}
+}
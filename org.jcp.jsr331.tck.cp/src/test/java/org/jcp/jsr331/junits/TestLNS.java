@@ -0,0 +1,95 @@
+//===============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// TestXYZ Compatibility Kit
+// 
+//================================================
+package org.jcp.jsr331.junits;
+
+import javax.constraints.Objective;
+import javax.constraints.OptimizationStrategy;
+import javax.constraints.Problem;
+import javax.constraints.ProblemFactory;
+import javax.constraints.Solution;
+import javax.constraints.Solver;
+import javax.constraints.Var;
+import javax.constraints.impl.search.AbstractSolver;
+import javax.constraints.impl.search.NeighborhoodSelector;
+import javax.constraints.impl.search.NeighborhoodSelectorBlock;
+import javax.constraints.impl.search.NeighborhoodSelectorRandom;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+public class TestLNS extends TestCase {
+
+	public static void main(String[] args) {
+		TestRunner.run(new TestSuite(TestLNS.class));
+	}
+	
+	static int[] costs = { 7, 3, 9, 4, 6, 8, 2, 5 };
+	
+	static Solution assignment(Objective objective, NeighborhoodSelector selector) {
+		Problem problem = ProblemFactory.newProblem("Assignment");
+		Var[] x = problem.variableArray("x", 0, 9, costs.length);
+		problem.postAllDifferent(x);
+		Var cost = problem.scalProd("cost", costs, x);
+		if (problem.getVar("cost") == null)
+			problem.add(cost);
+		Solver solver = problem.getSolver();
+		solver.setOptimizationStrategy(OptimizationStrategy.LNS);
+		AbstractSolver abstractSolver = (AbstractSolver)solver;
+		selector.setSeed(331);
+		abstractSolver.setNeighborhoodSelector(selector);
+		abstractSolver.setNeighborhoodFailuresLimit(20);
+		Solution solution = solver.findOptimalSolution(objective, cost);
+		assertNotNull(solution);
+		int sum = 0;
+		for (int i = 0; i < x.length; i++) {
+			sum += costs[i] * solution.getValue(x[i].getName());
+		}
+		assertEquals(sum, solution.getValue("cost"));
+		return solution;
+	}
+	
+	public void testMinimize() {
+		// the smallest values go to the largest costs
+		Solution solution = assignment(Objective.MINIMIZE, new NeighborhoodSelectorRandom());
+		assertEquals(112, solution.getValue("cost"));
+		solution = assignment(Objective.MINIMIZE, new NeighborhoodSelectorBlock());
+		assertEquals(112, solution.getValue("cost"));
+	}
+	
+	public void testMaximize() {
+		Solution solution = assignment(Objective.MAXIMIZE, new NeighborhoodSelectorRandom());
+		assertEquals(284, solution.getValue("cost"));
+	}
+	
+	public void testStrategyName() {
+		Problem problem = ProblemFactory.newProblem("LNS");
+		Solver solver = problem.getSolver();
+		solver.setOptimizationStrategy("lns");
+		assertEquals(OptimizationStrategy.LNS, solver.getOptimizationStrategy());
+	}
+	
+	public void testNeighborhoods() {
+		Problem problem = ProblemFactory.newProblem("Neighborhoods");
+		Var[] x = problem.variableArray("x", 0, 9, 10);
+		NeighborhoodSelector[] selectors = { new NeighborhoodSelectorRandom(), new NeighborhoodSelectorBlock() };
+		for (NeighborhoodSelector selector : selectors) {
+			for (int size = 1; size <= x.length; size++) {
+				int[] relaxed = selector.select(x, null, size);
+				assertEquals(size, relaxed.length);
+				boolean[] used = new boolean[x.length];
+				for (int i = 0; i < size; i++) {
+					assertFalse(used[relaxed[i]]);
+					used[relaxed[i]] = true;
+				}
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,123 @@
+//===============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// TestXYZ Compatibility Kit
+// 
+//================================================
+package org.jcp.jsr331.junits;
+
+import javax.constraints.Objective;
+import javax.constraints.Problem;
+import javax.constraints.ProblemFactory;
+import javax.constraints.Solution;
+import javax.constraints.Solver;
+import javax.constraints.Var;
+import javax.constraints.impl.search.AbstractSolver;
+import javax.constraints.impl.search.ParallelSearch;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+public class TestParallelSearch extends TestCase {
+
+	public static void main(String[] args) {
+		TestRunner.run(new TestSuite(TestParallelSearch.class));
+	}
+	
+	static int[] costs = { 7, 3, 9, 4, 6, 8, 2, 5 };
+	
+	static Solver queens(int size) {
+		Problem problem = ProblemFactory.newProblem("Queens");
+		Var[] x = problem.variableArray("x", 0, size-1, size);
+		Var[] x1 = new Var[size];
+		Var[] x2 = new Var[size];
+		for (int i = 0; i < size; i++) {
+			x1[i] = x[i].plus(i);
+			x2[i] = x[i].minus(i);
+		}
+		problem.postAllDifferent(x);
+		problem.postAllDifferent(x1);
+		problem.postAllDifferent(x2);
+		return problem.getSolver();
+	}
+	
+	static Solver assignment() {
+		Problem problem = ProblemFactory.newProblem("Assignment");
+		Var[] x = problem.variableArray("x", 0, 9, costs.length);
+		problem.postAllDifferent(x);
+		Var cost = problem.scalProd("cost", costs, x);
+		if (problem.getVar("cost") == null)
+			problem.add(cost);
+		return problem.getSolver();
+	}
+	
+	static Solver pigeons(int n) {
+		Problem problem = ProblemFactory.newProblem("Pigeons");
+		Var[] x = problem.variableArray("x", 0, n-2, n);
+		for (int i = 0; i < x.length; i++)
+			for (int j = i+1; j < x.length; j++)
+				problem.post(x[i], "!=", x[j]);
+		return problem.getSolver();
+	}
+	
+	public void testFindSolution() {
+		AbstractSolver solver = (AbstractSolver)queens(20);
+		Solution solution = solver.findSolutionParallel(() -> queens(20), 4);
+		assertNotNull(solution);
+		for (int i = 0; i < 20; i++) {
+			for (int j = i+1; j < 20; j++) {
+				int xi = solution.getValue("x-"+i);
+				int xj = solution.getValue("x-"+j);
+				assertTrue(xi != xj);
+				assertTrue(xi + i != xj + j);
+				assertTrue(xi - i != xj - j);
+			}
+		}
+		ParallelSearch search = solver.getParallelSearch();
+		assertEquals(4, search.getThreads());
+		assertTrue(search.getNumberOfSubproblems() >= 4 * ParallelSearch.SUBPROBLEMS_PER_THREAD);
+		assertTrue(search.getPrefixLength() > 0);
+		solver.logStats();
+	}
+	
+	public void testFindOptimalSolution() {
+		AbstractSolver solver = (AbstractSolver)assignment();
+		Var cost = solver.getProblem().getVar("cost");
+		// the smallest values go to the largest costs
+		Solution solution = solver.findOptimalSolutionParallel(Objective.MINIMIZE, cost, () -> assignment(), 4);
+		assertNotNull(solution);
+		assertEquals(112, solution.getValue("cost"));
+		int sum = 0;
+		for (int i = 0; i < costs.length; i++) {
+			sum += costs[i] * solution.getValue("x-"+i);
+		}
+		assertEquals(sum, solution.getValue("cost"));
+		assertTrue(solver.getParallelSearch().isCompleted());
+		
+		solution = solver.findOptimalSolutionParallel(Objective.MAXIMIZE, cost, () -> assignment(), 3);
+		assertNotNull(solution);
+		assertEquals(284, solution.getValue("cost"));
+		assertTrue(solver.getParallelSearch().isCompleted());
+		solver.logStats();
+	}
+	
+	public void testNoSolutions() {
+		AbstractSolver solver = (AbstractSolver)pigeons(7);
+		assertNull(solver.findSolutionParallel(() -> pigeons(7), 2));
+		ParallelSearch search = solver.getParallelSearch();
+		assertTrue(search.isCompleted());
+		assertEquals(0, search.getNumberOfSolutions());
+	}
+	
+	public void testTimeLimit() {
+		AbstractSolver solver = (AbstractSolver)pigeons(13);
+		solver.setTimeLimitGlobal(500);
+		long start = System.currentTimeMillis();
+		assertNull(solver.findSolutionParallel(() -> pigeons(13), 2));
+		assertTrue(System.currentTimeMillis() - start < 5000);
+		assertFalse(solver.getParallelSearch().isCompleted());
+	}
+}
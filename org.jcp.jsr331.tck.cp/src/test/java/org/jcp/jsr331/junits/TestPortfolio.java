@@ -0,0 +1,135 @@
+//===============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// TestXYZ Compatibility Kit
+// 
+//================================================
+package org.jcp.jsr331.junits;
+
+import javax.constraints.Objective;
+import javax.constraints.Problem;
+import javax.constraints.ProblemFactory;
+import javax.constraints.SearchStrategy;
+import javax.constraints.Solution;
+import javax.constraints.Solver;
+import javax.constraints.ValueSelectorType;
+import javax.constraints.Var;
+import javax.constraints.VarSelectorType;
+import javax.constraints.impl.search.Portfolio;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+public class TestPortfolio extends TestCase {
+
+	public static void main(String[] args) {
+		TestRunner.run(new TestSuite(TestPortfolio.class));
+	}
+	
+	static Solver queens(int size, VarSelectorType varSelector, ValueSelectorType valueSelector) {
+		Problem problem = ProblemFactory.newProblem("Queens");
+		Var[] x = problem.variableArray("x", 0, size-1, size);
+		Var[] x1 = new Var[size];
+		Var[] x2 = new Var[size];
+		for (int i = 0; i < size; i++) {
+			x1[i] = x[i].plus(i);
+			x2[i] = x[i].minus(i);
+		}
+		problem.postAllDifferent(x);
+		problem.postAllDifferent(x1);
+		problem.postAllDifferent(x2);
+		Solver solver = problem.getSolver();
+		SearchStrategy strategy = solver.getSearchStrategy();
+		strategy.setVarSelectorType(varSelector);
+		strategy.setValueSelectorType(valueSelector);
+		return solver;
+	}
+	
+	static Solver assignment(ValueSelectorType valueSelector) {
+		Problem problem = ProblemFactory.newProblem("Assignment");
+		int[] costs = { 7, 3, 9, 4, 6 };
+		Var[] x = problem.variableArray("x", 0, 9, costs.length);
+		problem.postAllDifferent(x);
+		Var cost = problem.scalProd("cost", costs, x);
+		if (problem.getVar("cost") == null)
+			problem.add(cost);
+		Solver solver = problem.getSolver();
+		solver.getSearchStrategy().setValueSelectorType(valueSelector);
+		return solver;
+	}
+	
+	public void testFindSolution() {
+		Portfolio portfolio = new Portfolio("Queens");
+		portfolio.add("INPUT_ORDER", () -> queens(20, VarSelectorType.INPUT_ORDER, ValueSelectorType.MIN));
+		portfolio.add("MIN_DOMAIN", () -> queens(20, VarSelectorType.MIN_DOMAIN, ValueSelectorType.MIN));
+		portfolio.add("MIN_DOMAIN_MAX", () -> queens(20, VarSelectorType.MIN_DOMAIN, ValueSelectorType.MAX));
+		Solution solution = portfolio.findSolution();
+		assertNotNull(solution);
+		assertNotNull(portfolio.getWinner());
+		for (int i = 0; i < 20; i++) {
+			for (int j = i+1; j < 20; j++) {
+				int xi = solution.getValue("x-"+i);
+				int xj = solution.getValue("x-"+j);
+				assertTrue(xi != xj);
+				assertTrue(xi + i != xj + j);
+				assertTrue(xi - i != xj - j);
+			}
+		}
+	}
+	
+	public void testFindOptimalSolution() {
+		Portfolio portfolio = new Portfolio("Assignment");
+		portfolio.add("MIN", () -> assignment(ValueSelectorType.MIN));
+		portfolio.add("MAX", () -> assignment(ValueSelectorType.MAX));
+		portfolio.add("MIDDLE", () -> assignment(ValueSelectorType.MIDDLE));
+		Solution solution = portfolio.findOptimalSolution(Objective.MINIMIZE, "cost");
+		assertNotNull(solution);
+		// the largest cost gets the smallest value
+		assertEquals(9*0 + 7*1 + 6*2 + 4*3 + 3*4, solution.getValue("cost"));
+		
+		solution = portfolio.findOptimalSolution(Objective.MAXIMIZE, "cost");
+		assertNotNull(solution);
+		assertEquals(9*9 + 7*8 + 6*7 + 4*6 + 3*5, solution.getValue("cost"));
+	}
+	
+	public void testTimeLimit() {
+		Portfolio portfolio = new Portfolio("Infeasible");
+		portfolio.add("PIGEONS", () -> {
+			Problem problem = ProblemFactory.newProblem("Pigeons");
+			Var[] x = problem.variableArray("x", 0, 11, 13);
+			for (int i = 0; i < x.length; i++)
+				for (int j = i+1; j < x.length; j++)
+					problem.post(x[i], "!=", x[j]);
+			return problem.getSolver();
+		});
+		portfolio.setTimeLimit(500);
+		long start = System.currentTimeMillis();
+		assertNull(portfolio.findSolution());
+		assertTrue(System.currentTimeMillis() - start < 5000);
+	}
+	
+	public void testCompletedSearch() {
+		// the worker that proves the infeasibility stops the worker that is still busy
+		Portfolio portfolio = new Portfolio("Infeasible");
+		portfolio.add("PROOF", () -> {
+			Problem problem = ProblemFactory.newProblem("Pigeons");
+			Var[] x = problem.variableArray("x", 0, 2, 4);
+			problem.postAllDifferent(x);
+			return problem.getSolver();
+		});
+		portfolio.add("BUSY", () -> {
+			try {
+				Thread.sleep(60000);
+			} catch (InterruptedException e) {
+				throw new RuntimeException("interrupted");
+			}
+			return null;
+		});
+		long start = System.currentTimeMillis();
+		assertNull(portfolio.findSolution());
+		assertTrue(System.currentTimeMillis() - start < 5000);
+	}
+}
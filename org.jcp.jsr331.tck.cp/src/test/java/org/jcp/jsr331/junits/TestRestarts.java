@@ -0,0 +1,148 @@
+//===============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// TestXYZ Compatibility Kit
+// 
+//================================================
+package org.jcp.jsr331.junits;
+
+import javax.constraints.Problem;
+import javax.constraints.ProblemFactory;
+import javax.constraints.ProblemState;
+import javax.constraints.SearchStrategy;
+import javax.constraints.Solution;
+import javax.constraints.Solver;
+import javax.constraints.Var;
+import javax.constraints.VarSelectorType;
+import javax.constraints.impl.search.RestartPolicyGeometric;
+import javax.constraints.impl.search.RestartPolicyLuby;
+import javax.constraints.impl.search.goal.GoalRestarts;
+import javax.constraints.impl.search.selectors.VarSelectorMaxActivity;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+public class TestRestarts extends TestCase {
+
+	public static void main(String[] args) {
+		TestRunner.run(new TestSuite(TestRestarts.class));
+	}
+	
+	static Var[] queens(Problem problem, int size) {
+		Var[] x = problem.variableArray("x", 0, size-1, size);
+		Var[] x1 = new Var[size];
+		Var[] x2 = new Var[size];
+		for (int i = 0; i < size; i++) {
+			x1[i] = x[i].plus(i);
+			x2[i] = x[i].minus(i);
+		}
+		problem.postAllDifferent(x);
+		problem.postAllDifferent(x1);
+		problem.postAllDifferent(x2);
+		return x;
+	}
+	
+	static void checkQueens(Solution solution, Var[] x) {
+		assertNotNull(solution);
+		int size = x.length;
+		for (int i = 0; i < size; i++) {
+			int qi = solution.getValue(x[i].getName());
+			for (int j = i+1; j < size; j++) {
+				int qj = solution.getValue(x[j].getName());
+				assertTrue(qi != qj);
+				assertTrue(qi + i != qj + j);
+				assertTrue(qi - i != qj - j);
+			}
+		}
+	}
+	
+	public void testLuby() {
+		int[] luby = { 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1 };
+		RestartPolicyLuby policy = new RestartPolicyLuby(10);
+		for (int i = 0; i < luby.length; i++) {
+			assertEquals(luby[i], RestartPolicyLuby.luby(i+1));
+			assertEquals(10*luby[i], policy.getCutoff(i));
+		}
+		RestartPolicyGeometric geometric = new RestartPolicyGeometric(10, 1.5);
+		assertEquals(10, geometric.getCutoff(0));
+		assertEquals(15, geometric.getCutoff(1));
+		assertEquals(22, geometric.getCutoff(2));
+	}
+	
+	public void testLearningSelectors() {
+		VarSelectorType[] types = {
+			VarSelectorType.MIN_DOMAIN_OVER_WEIGHTED_DEGREE,
+			VarSelectorType.MAX_WEIGHTED_DEGREE,
+			VarSelectorType.MAX_IMPACT
+		};
+		for (int k = 0; k <= types.length; k++) {
+			Problem problem = ProblemFactory.newProblem("Queens");
+			Var[] x = queens(problem, 16);
+			Solver solver = problem.getSolver();
+			SearchStrategy strategy = solver.getSearchStrategy();
+			if (k < types.length) {
+				strategy.setVarSelectorType(types[k]);
+				assertEquals(types[k], strategy.getVarSelector().getType());
+			}
+			else
+				strategy.setVarSelector(new VarSelectorMaxActivity(strategy));
+			checkQueens(solver.findSolution(ProblemState.RESTORE), x);
+		}
+	}
+	
+	public void testRestarts() {
+		Problem problem = ProblemFactory.newProblem("Queens");
+		Var[] x = queens(problem, 30);
+		Solver solver = problem.getSolver();
+		GoalRestarts strategy = new GoalRestarts(solver, x, new RestartPolicyLuby(5));
+		strategy.setVarSelectorType(VarSelectorType.MIN_DOMAIN_OVER_WEIGHTED_DEGREE);
+		solver.setSearchStrategy(strategy);
+		checkQueens(solver.findSolution(ProblemState.RESTORE), x);
+		problem.log("Restarts: " + strategy.getNumberOfRestarts() + " Nogoods: " + strategy.getNumberOfNogoods());
+	}
+	
+	/**
+	 * The pigeonhole problem has no solutions: the restarts should not lose them
+	 * and the nogoods should make the search terminate
+	 */
+	public void testCompleteness() {
+		Problem problem = ProblemFactory.newProblem("Pigeons");
+		int n = 6;
+		Var[] x = problem.variableArray("x", 0, n-2, n);
+		for (int i = 0; i < n; i++) {
+			for (int j = i+1; j < n; j++) {
+				problem.post(x[i], "!=", x[j]);
+			}
+		}
+		Solver solver = problem.getSolver();
+		GoalRestarts strategy = new GoalRestarts(solver, x, new RestartPolicyGeometric(2, 1.5));
+		solver.setSearchStrategy(strategy);
+		assertNull(solver.findSolution(ProblemState.RESTORE));
+		assertTrue(strategy.getNumberOfRestarts() > 0);
+		assertTrue(strategy.getNumberOfNogoods() > 0);
+		
+		// the same problem has solutions with one more value
+		problem = ProblemFactory.newProblem("Pigeons");
+		x = problem.variableArray("x", 0, n-1, n);
+		for (int i = 0; i < n; i++) {
+			for (int j = i+1; j < n; j++) {
+				problem.post(x[i], "!=", x[j]);
+			}
+		}
+		solver = problem.getSolver();
+		strategy = new GoalRestarts(solver, x, new RestartPolicyGeometric(2, 1.5));
+		strategy.setVarSelectorType(VarSelectorType.MAX_IMPACT);
+		solver.setSearchStrategy(strategy);
+		Solution solution = solver.findSolution(ProblemState.RESTORE);
+		assertNotNull(solution);
+		for (int i = 0; i < n; i++) {
+			for (int j = i+1; j < n; j++) {
+				assertTrue(solution.getValue(x[i].getName()) != solution.getValue(x[j].getName()));
+			}
+		}
+	}
+	
+}
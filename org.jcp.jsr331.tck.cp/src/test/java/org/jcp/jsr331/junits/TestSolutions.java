@@ -8,12 +8,18 @@
 //================================================
 package org.jcp.jsr331.junits;
 
+import java.util.Iterator;
+import java.util.stream.Stream;
+
 import javax.constraints.Objective;
 import javax.constraints.Problem;
 import javax.constraints.ProblemFactory;
+import javax.constraints.ProblemState;
 import javax.constraints.SolutionIterator;
 import javax.constraints.Solver;
 import javax.constraints.Var;
+import javax.constraints.impl.search.AbstractSolver;
+import javax.constraints.impl.search.SolutionHandler;
 import javax.constraints.Solution;
 
 import junit.framework.*;
@@ -91,6 +97,57 @@ public class TestSolutions extends TestCase {
 //		testOneSolution();
 	}
 	
+	public void testSolutionHandler() {
+
+		Problem problem = defineCsp();				
+		problem.log("=== Solution Handler:");
+		AbstractSolver solver = (AbstractSolver)problem.getSolver();
+		final int[] maxCost = new int[] { Integer.MIN_VALUE };
+		int n = solver.findAllSolutions(new SolutionHandler() {
+			public boolean handle(Solution solution) {
+				maxCost[0] = Math.max(maxCost[0], solution.getValue("Cost"));
+				return true;
+			}
+		});
+		assertEquals(5, n);
+		assertEquals(23, maxCost[0]);
+		
+		n = solver.findAllSolutions(new SolutionHandler() {
+			public boolean handle(Solution solution) {
+				return solution.getSolutionNumber() < 2;
+			}
+		});
+		assertEquals(2, n);
+	}
+	
+	public void testIteratorKeepsProblem() {
+
+		Problem problem = defineCsp();				
+		AbstractSolver solver = (AbstractSolver)problem.getSolver();
+		assertEquals(5, solver.solutionStream().count());
+		// the returned solutions are not excluded from the problem itself
+		assertEquals(5, solver.solutionStream().count());
+	}
+	
+	public void testSolutionStream() {
+
+		Problem problem = defineCsp();				
+		problem.log("=== Solution Stream:");
+		AbstractSolver solver = (AbstractSolver)problem.getSolver();
+		assertEquals(2, solver.solutionStream().limit(2).count());
+		// the abandoned stream is closed by the next search or posted constraint
+		assertNotNull(solver.findSolution(ProblemState.RESTORE));
+		problem.post(problem.getVar("Cost"),">",4);
+		try (Stream<Solution> stream = solver.solutionStream()) {
+			Iterator<Solution> iter = stream.iterator();
+			Solution first = iter.next();
+			assertTrue(first.getValue("Cost") > 4);
+			// one solution object is reused for all solutions
+			assertSame(first, iter.next());
+		}
+		assertEquals(4, solver.solutionStream().count());
+	}
+	
 	public void testOptimalSolution() {
 
 		Problem problem = defineCsp();				
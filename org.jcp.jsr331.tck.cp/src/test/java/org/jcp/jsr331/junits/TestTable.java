@@ -0,0 +1,114 @@
+//===============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// TestXYZ Compatibility Kit
+// 
+//================================================
+package org.jcp.jsr331.junits;
+
+import javax.constraints.Problem;
+import javax.constraints.ProblemFactory;
+import javax.constraints.Solution;
+import javax.constraints.SolutionIterator;
+import javax.constraints.Var;
+import javax.constraints.impl.constraint.ConstraintTable;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+public class TestTable extends TestCase {
+
+	static final int[][] TABLE = { 
+		{ 0, 0, 1 }, 
+		{ 1, 1, 2 }, 
+		{ 1, 2, 3 }, 
+		{ 3, 3, 3 }, 
+		{ 2, 5, 0 }, // out of the domain of y
+		{ 4, 0, 4 } 
+	};
+
+	public TestTable(String name) {
+		super(name);
+	}
+
+	public static void main(String[] args) {
+		TestRunner.run(new TestSuite(TestTable.class));
+	}
+
+	public void testPostTable() {
+		checkSolutions(false);
+	}
+
+	public void testDecomposition() {
+		checkSolutions(true);
+	}
+
+	public void testTwoDecompositions() {
+		// both tables hold: the solutions are the rows (3,3,3) and (4,0,4)
+		int[][] table2 = { { 3, 3, 3 }, { 4, 0, 4 }, { 0, 1, 0 } };
+		Problem problem = ProblemFactory.newProblem("TestTable");
+		Var[] vars = define(problem, true);
+		new ConstraintTable(vars, table2, ConstraintTable.PERMITTED).post();
+		SolutionIterator iter = problem.getSolver().solutionIterator();
+		int n = 0;
+		while (iter.hasNext()) {
+			Solution solution = iter.next();
+			n++;
+			int x0 = solution.getValue("x-0");
+			assertTrue(x0 == 3 || x0 == 4);
+			assertEquals(x0 == 3 ? 3 : 0, solution.getValue("x-1"));
+			assertEquals(x0, solution.getValue("x-2"));
+		}
+		assertEquals(2, n);
+	}
+
+	Var[] define(Problem problem, boolean decomposition) {
+		Var[] vars = problem.variableArray("x", 0, 4, 3);
+		if (decomposition)
+			new ConstraintTable(vars, TABLE, ConstraintTable.PERMITTED).post();
+		else
+			problem.postTable(vars, TABLE);
+		return vars;
+	}
+
+	void checkSolutions(boolean decomposition) {
+		// any solution is a row of the table
+		Problem problem = ProblemFactory.newProblem("TestTable");
+		Var[] vars = define(problem, decomposition);
+		Solution solution = problem.getSolver().findSolution();
+		assertNotNull(solution);
+		boolean found = false;
+		for (int[] row : TABLE) {
+			boolean equal = true;
+			for (int i = 0; i < row.length; i++)
+				equal &= solution.getValue(vars[i].getName()) == row[i];
+			found |= equal;
+		}
+		assertTrue(found);
+
+		// the only remaining row is (1,1,2)
+		problem = ProblemFactory.newProblem("TestTable");
+		vars = define(problem, decomposition);
+		problem.post(vars[1], "!=", 0);
+		problem.post(vars[2], "!=", 3);
+		solution = problem.getSolver().findSolution();
+		assertNotNull(solution);
+		assertEquals(1, solution.getValue("x-0"));
+		assertEquals(1, solution.getValue("x-1"));
+		assertEquals(2, solution.getValue("x-2"));
+
+		// the row (2,5,0) is out of the domain of x-1
+		problem = ProblemFactory.newProblem("TestTable");
+		vars = define(problem, decomposition);
+		try {
+			problem.post(vars[0], "=", 2);
+			solution = problem.getSolver().findSolution();
+			assertNull(solution);
+		} catch (RuntimeException e) {
+			// the posting failed
+		}
+	}
+}
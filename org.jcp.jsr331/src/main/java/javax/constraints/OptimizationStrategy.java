@@ -20,10 +20,16 @@ package javax.constraints;
  * process it switches the search target: one time in looks at in the upper
  * half of the selected interval, another time - to the lower half. 
  * <br>NATIVE strategy implements a search strategy that is the best for a concrete implementation.
+ * <br>LNS strategy implements a Large Neighborhood Search: starting from the first solution, 
+ * it repeatedly relaxes a subset of the decision variables, keeps other variables
+ * at their values in the best solution, and re-solves the problem with a limited search
+ * requiring a better objective. It finds good solutions of large problems quickly
+ * but proves the optimality only when the relaxed subset grows to all variables.
  */
 
 public enum OptimizationStrategy {
 	BASIC, 
 	DICHOTOMIZE,
-	NATIVE
+	NATIVE,
+	LNS
 }
\ No newline at end of file
@@ -1283,6 +1283,19 @@ public interface Problem {
 	
 	public Constraint postGlobalCardinality(ArrayList<Var> vars, int[] values, int[] cardMin, int[] cardMax);
 	
+	/**
+	 * Creates and posts a new table constraint that states:
+	 * <p>
+	 * The tuple of the variables (vars[0],vars[1],...) should be equal to 
+	 * one of the rows of the array "tuples" (permitted tuples)  
+	 * </p>
+	 * @param vars array of constrained integer variables
+	 * @param tuples array of permitted tuples: every tuple contains one value for every variable
+	 * @throws RuntimeException if a tuple does not contain vars.length values
+	 * @return a newly created constraint
+	 */
+	public Constraint postTable(Var[] vars, int[][] tuples);
+	
 //	/**
 //	 * Creates and posts a new global cardinality constraint.
 //	 * This method counts the numbers of occurrences of integer values that 
@@ -361,6 +361,10 @@ public abstract class ProblemDelegator implements Problem {
 		return problem.postGlobalCardinality(vars, values, cardMin, cardMax);
 	}
 
+	public Constraint postTable(Var[] vars, int[][] tuples) {
+		return problem.postTable(vars, tuples);
+	}
+
 	public Constraint postIfThen(Constraint constraint1, Constraint constraint2) {
 		return problem.postIfThen(constraint1, constraint2);
 	}
@@ -29,6 +29,7 @@ import javax.constraints.impl.constraint.ConstraintFalse;
 import javax.constraints.impl.constraint.ConstraintGlobalCardinality;
 import javax.constraints.impl.constraint.ConstraintMax;
 import javax.constraints.impl.constraint.ConstraintMin;
+import javax.constraints.impl.constraint.ConstraintTable;
 import javax.constraints.impl.constraint.ConstraintTrue;
 import javax.constraints.impl.search.goal.Goal;
 
@@ -85,8 +86,14 @@ abstract public class AbstractProblem implements Problem {
 	ArrayList<Var> vars;
 	ArrayList<VarReal> varReals;
 	ArrayList<VarBool> varBools;
+	// name-indexed registries kept in sync with vars, varReals and varBools
+	HashMap<String,Var> varsByName;
+	HashMap<String,VarReal> varRealsByName;
+	HashMap<String,VarBool> varBoolsByName;
 	HashMap<String,Var[]> varArrays;
 	ArrayList<Constraint> constraints;
+	// incremented when a Var, VarReal or Constraint is added or removed
+	int numberOfChanges;
 	Solver	solver;
 	DomainType domainType;
 	// saved state
@@ -107,6 +114,9 @@ abstract public class AbstractProblem implements Problem {
 		vars = new ArrayList<Var>();
 		varReals = new ArrayList<VarReal>();
 		varBools = new ArrayList<VarBool>();
+		varsByName = new HashMap<String,Var>();
+		varRealsByName = new HashMap<String,VarReal>();
+		varBoolsByName = new HashMap<String,VarBool>();
 		constraints = new ArrayList<Constraint>();
 		varArrays = new HashMap<String,Var[]>();
 		varMatrixs = new HashMap<String, VarMatrix>();
@@ -167,31 +177,86 @@ abstract public class AbstractProblem implements Problem {
 	
 	/**
 	 * Adds a VarBool variable "var" to the problem, and returns the newly added
-	 * Var.
+	 * Var. As for Var and VarReal variables, a VarBool previously added under 
+	 * the same name is replaced by the new one.
 	 * 
 	 * @param varBool
 	 *            the boolean variable to add to the problem.
 	 * @return the VarBool variable added to the problem.
 	 */
 	public VarBool add(VarBool varBool) {
+		String name = varBool.getName();
+		VarBool oldVar = getVarBool(name);
+		if (oldVar != null)
+			removeLast(varBools, oldVar);
 		varBools.add(varBool);
+		if (name != null)
+			varBoolsByName.put(name, varBool);
 		return varBool;
 	}
 	
 	/**
-	 * Removes a Var variable by "name".
+	 * Removes a variable by "name".
 	 *
 	 * @param varName the name of the variable to be removed from the problem.
 	 */
 	public void remove(String varName) {
-		Var var = getVar(varName);
+		if (varName == null)
+			return;
+		Var var = varsByName.remove(varName);
 		if (var != null) {
-			boolean result = vars.remove(var);
-			if (!result)
-				result = varReals.remove(var);
-			if (!result)
-				result = varBools.remove(var);
-			// TO DO the same for varSets
+			removeLast(vars, var);
+			numberOfChanges++;
+			return;
+		}
+		VarReal varReal = varRealsByName.remove(varName);
+		if (varReal != null) {
+			removeLast(varReals, varReal);
+			numberOfChanges++;
+			return;
+		}
+		VarBool varBool = varBoolsByName.remove(varName);
+		if (varBool != null)
+			removeLast(varBools, varBool);
+		// TO DO the same for varSets
+	}
+	
+	/**
+	 * Removes "element" from "list" searching from the end: a variable being
+	 * replaced or removed is usually the most recently added one, so this
+	 * avoids shifting the whole list on every replacement.
+	 */
+	static <T> void removeLast(ArrayList<T> list, T element) {
+		int index = list.lastIndexOf(element);
+		if (index >= 0)
+			list.remove(index);
+	}
+	
+	/**
+	 * Keeps the name-indexed registries in sync when a variable already added 
+	 * to this problem is renamed. Called by {@link CommonBase#setName(String)}.
+	 * 
+	 * @param object the renamed object
+	 * @param oldName the name under which the object was registered
+	 */
+	void renamed(CommonBase object, String oldName) {
+		String newName = object.getName();
+		if (oldName != null && oldName.equals(newName))
+			return;
+		if (oldName != null && varsByName.get(oldName) == object) {
+			varsByName.remove(oldName);
+			if (newName != null)
+				varsByName.put(newName, (Var)object);
+		}
+		else if (oldName != null && varRealsByName.get(oldName) == object) {
+			varRealsByName.remove(oldName);
+			if (newName != null)
+				varRealsByName.put(newName, (VarReal)object);
+		}
+		else if (oldName != null && varBoolsByName.get(oldName) == object) {
+			varBoolsByName.remove(oldName);
+			if (newName != null)
+				varBoolsByName.put(newName, (VarBool)object);
 		}
 	}
 
@@ -209,10 +274,14 @@ abstract public class AbstractProblem implements Problem {
 		Var oldVar = getVar(name);
 		if (oldVar != null) {
 			//log("Replacing variable " + oldVar + " with " + var + " using the name " + name);
-			vars.remove(oldVar);
+			removeLast(vars, oldVar);
 		}
 		vars.add(var);
+		if (oldVar != var)
+			numberOfChanges++;
 		var.setName(name);
+		if (name != null)
+			varsByName.put(name, var);
 		return var;
 	}
 
@@ -241,9 +310,13 @@ abstract public class AbstractProblem implements Problem {
 	public VarReal add(String name, VarReal var) {
 		VarReal oldVar = getVarReal(name);
 		if (oldVar != null)
-			varReals.remove(oldVar);
+			removeLast(varReals, oldVar);
 		varReals.add(var);
+		if (oldVar != var)
+			numberOfChanges++;
 		var.setName(name);
+		if (name != null)
+			varRealsByName.put(name, var);
 		return var;
 	}
 
@@ -682,14 +755,7 @@ abstract public class AbstractProblem implements Problem {
 	public Var getVar(String name) {
 		if (name == null)
 			return null;
-		Iterator<Var> iterator= vars.iterator();
-		while (iterator.hasNext()) {
-			Var var = iterator.next();
-			if (name.equals(var.getName()))
-				return var;
-		}
-		//error("Cannot find Var "+name);
-		return null;
+		return varsByName.get(name);
 	}
 
 	/**
@@ -704,14 +770,22 @@ abstract public class AbstractProblem implements Problem {
 	public VarReal getVarReal(String name) {
 		if (name == null)
 			return null;
-		Iterator<VarReal> iterator= varReals.iterator();
-		while (iterator.hasNext()) {
-			VarReal var = iterator.next();
-			if (name.equals(var.getName()))
-				return var;
-		}
-		//error("Cannot find Var "+name);
-		return null;
+		return varRealsByName.get(name);
+	}
+	
+	/**
+	 * Returns the VarBool variable with the name "name", or null if no such
+	 * variable exists in the problem.
+	 * 
+	 * @param name
+	 *            the name of the desired variable.
+	 * @return the VarBool variable with the name "name", or null if no such
+	 *         variable exists in the problem.
+	 */
+	public VarBool getVarBool(String name) {
+		if (name == null)
+			return null;
+		return varBoolsByName.get(name);
 	}
 
 	/**
@@ -792,8 +866,33 @@ abstract public class AbstractProblem implements Problem {
 	public Constraint add(String name, Constraint constraint) {
 		constraint.setName(name);
 		constraints.add(constraint);
+		numberOfChanges++;
 		return constraint;
 	}
+	
+	/**
+	 * Removes a Constraint "constraint" from the problem. It does not undo 
+	 * the posting of the constraint.
+	 * 
+	 * @param constraint
+	 *            the constraint to remove from the problem.
+	 */
+	public void remove(Constraint constraint) {
+		removeLast(constraints, constraint);
+		numberOfChanges++;
+	}
+	
+	/**
+	 * Returns the number of times a Var, VarReal or Constraint has been added
+	 * to or removed from the problem. Re-adding a variable under its own name
+	 * is not a change. A solver that keeps a model built for this problem
+	 * can record this number to find out later whether the model is still valid.
+	 * 
+	 * @return the number of changes of the problem variables and constraints
+	 */
+	public int getNumberOfChanges() {
+		return numberOfChanges;
+	}
 
 	/**
 	 * Returns an array of Objects containing the Constraints previously added
@@ -1659,6 +1758,20 @@ abstract public class AbstractProblem implements Problem {
 		return postGlobalCardinality(array, values, cardMin, cardMax);
 	}
 	
+	/**
+	 * The tuple of the variables "vars" should be equal to one of the rows of "tuples".
+	 * This default implementation uses the decomposition of the table into element
+	 * constraints over a tuple index variable. A solver should overload it with
+	 * its own table constraint if it has one.
+	 * @param vars array of constrained integer variables
+	 * @param tuples array of permitted tuples
+	 */
+	public Constraint postTable(Var[] vars, int[][] tuples) {
+		Constraint c = new ConstraintTable(vars, tuples, ConstraintTable.PERMITTED);
+		c.post();
+		return c;
+	}
+	
 
 	
 	/**
@@ -222,7 +222,29 @@ abstract public class AbstractVar extends AbstractConstrainedVariable implements
 	public void addPropagator(Propagator propagator, PropagationEvent event) {
 		throw new RuntimeException("There is no implementation for the Var method addPropagator");
 	}
-	
+
+	/**
+	 * Sets a new minimum for the domain of this variable. This method is intended
+	 * to be used inside custom Propagators and should be implemented by a concrete
+	 * CP solver implementation.
+	 * @param min integer
+	 * @throws Exception if the domain becomes empty
+	 */
+	public void setMin(int min) throws Exception {
+		throw new RuntimeException("There is no implementation for the Var method setMin");
+	}
+
+	/**
+	 * Sets a new maximum for the domain of this variable. This method is intended
+	 * to be used inside custom Propagators and should be implemented by a concrete
+	 * CP solver implementation.
+	 * @param max integer
+	 * @throws Exception if the domain becomes empty
+	 */
+	public void setMax(int max) throws Exception {
+		throw new RuntimeException("There is no implementation for the Var method setMax");
+	}
+
 	public int compareTo(Var var) {
 		//return 1;
 		throw new RuntimeException("The Java method compareTo should not be used for constrained variables");
@@ -53,7 +53,10 @@ public class CommonBase {
 	 * @param name the name for this object.
 	 */
 	public void setName(String name) {
+		String oldName = this.name;
 		this.name = name;
+		if (problem instanceof AbstractProblem)
+			((AbstractProblem)problem).renamed(this, oldName);
 	}
 	
 	/**
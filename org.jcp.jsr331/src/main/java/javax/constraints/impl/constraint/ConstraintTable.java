@@ -9,6 +9,9 @@ import javax.constraints.impl.AbstractConstraint;
 public class ConstraintTable extends AbstractConstraint {
 	
 	Constraint constraint;
+	Var[] vars;
+	int[][] table;
+	int mode;
 	
 	//table constraint
 	/**
@@ -34,6 +37,11 @@ public class ConstraintTable extends AbstractConstraint {
 	 *  
 	 * If it is a (not permitted) table, then the values the variables
 	 * in "vars" take must not form any of the rows present in the table.
+	 * 
+	 * The permitted table is decomposed into element constraints: a new
+	 * variable "tuple" selects the row, and for every column j the constraint 
+	 * column_j[tuple] = vars[j] is posted. Every table constraint creates its
+	 * own "tuple" variable that is not added to the problem.
 	 *
 	 * @param vars the array of variables this table constraint constrains.
 	 * @param table a 2-dimensional array of ints, where each row of the table represents a
@@ -60,27 +68,21 @@ public class ConstraintTable extends AbstractConstraint {
 	public ConstraintTable(Var[] vars, int[][] table, int mode) {
 		super(vars[0].getProblem());
 		
-		Constraint c = null;
-		int n = vars.length-1;
-		VarBool[] equalities = new VarBool[n];
-		Problem p = getProblem();
-		for (int i = 0; i < n; i++) {
-			equalities[i] = p.linear(vars[i],"=",vars[i+1]).asBool();
+		this.vars = vars;
+		this.table = table;
+		this.mode = mode;
+		for (int i = 0; i < table.length; i++) {
+			if (table[i].length != vars.length)
+				throw new RuntimeException("ConstraintTable: the row " + i + " should contain " + vars.length + " values");
 		}
-		constraint = p.post(equalities, "<", n);
-		if(mode == PERMITTED){
-			Constraint tmpC = p.linear(vars[0], "=", table[0][0]);
-			for (int i = 1; i < table[0].length; i++) {
-				tmpC = tmpC.and(p.linear(vars[i],"=",table[0][i]));
-			}
-			constraint = tmpC;
-			for (int i = 1; i < table.length; i++) {
-				tmpC = p.linear(vars[0],"=",table[i][0]);
-				for (int j = 1; j < table[i].length; j++) {
-					tmpC = tmpC.and(p.linear(vars[j],"=",table[i][j]));
-				}
-				constraint = constraint.or(tmpC);
+		Problem p = getProblem();
+		if (mode != PERMITTED) {
+			int n = vars.length-1;
+			VarBool[] equalities = new VarBool[n];
+			for (int i = 0; i < n; i++) {
+				equalities[i] = p.linear(vars[i],"=",vars[i+1]).asBool();
 			}
+			constraint = p.post(equalities, "<", n);
 		}
 //		else{
 //			if(status == EXCLUDE){
@@ -101,7 +103,23 @@ public class ConstraintTable extends AbstractConstraint {
 	}
 	
 	public void post() {
-		constraint.post();
+		if (mode != PERMITTED) {
+			constraint.post();
+			return;
+		}
+		Problem p = getProblem();
+		if (table.length == 0) {
+			p.getFalseConstraint().post();
+			return;
+		}
+		Var tuple = p.createVariable("_tuple_", 0, table.length-1); // not added to the problem
+		for (int j = 0; j < vars.length; j++) {
+			int[] column = new int[table.length];
+			for (int i = 0; i < table.length; i++) {
+				column[i] = table[i][j];
+			}
+			p.postElement(column, tuple, "=", vars[j]);
+		}
 	}
 
 	/**
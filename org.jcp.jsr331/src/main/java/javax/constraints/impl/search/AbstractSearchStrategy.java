@@ -26,9 +26,12 @@ import javax.constraints.impl.AbstractProblem;
 import javax.constraints.impl.search.selectors.ValueSelectorMax;
 import javax.constraints.impl.search.selectors.ValueSelectorMin;
 import javax.constraints.impl.search.selectors.ValueSelectorMinMaxAlternate;
+import javax.constraints.impl.search.selectors.VarSelectorMaxImpact;
+import javax.constraints.impl.search.selectors.VarSelectorMaxWeightedDegree;
 import javax.constraints.impl.search.selectors.VarSelectorInputOrder;
 import javax.constraints.impl.search.selectors.VarSelectorMinDomain;
 import javax.constraints.impl.search.selectors.VarSelectorMinDomainMinValue;
+import javax.constraints.impl.search.selectors.VarSelectorMinDomainOverWeightedDegree;
 import javax.constraints.impl.search.selectors.VarSelectorRandom;
 
 abstract public class AbstractSearchStrategy extends CommonBase implements SearchStrategy {
@@ -137,6 +140,15 @@ abstract public class AbstractSearchStrategy extends CommonBase implements Searc
 		case RANDOM:
 			setVarSelector(new VarSelectorRandom(this));
 			break;
+		case MIN_DOMAIN_OVER_WEIGHTED_DEGREE:
+			setVarSelector(new VarSelectorMinDomainOverWeightedDegree(this));
+			break;
+		case MAX_WEIGHTED_DEGREE:
+			setVarSelector(new VarSelectorMaxWeightedDegree(this));
+			break;
+		case MAX_IMPACT:
+			setVarSelector(new VarSelectorMaxImpact(this));
+			break;
 		default:
 			setVarSelector(new VarSelectorInputOrder(this));
 			break;
@@ -10,7 +10,13 @@ package javax.constraints.impl.search;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.Vector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.constraints.Objective;
 import javax.constraints.OptimizationStrategy;
@@ -44,6 +50,7 @@ abstract public class AbstractSolver implements Solver {
 	protected Vector<SearchStrategy> searchStrategies;
 	
 	Vector<Solution> solutions;
+	SolutionSchema solutionSchema;
 	int 	maxNumberOfSolutions;
 	int 	timeLimit;
 	long 	timeLimitStart;
@@ -56,6 +63,12 @@ abstract public class AbstractSolver implements Solver {
 	boolean traceSolutions;
 	OptimizationStrategy optimizationStrategy;
 	ArrayList<String> explanations;
+	volatile boolean interrupted;
+	Portfolio portfolio;
+	NeighborhoodSelector neighborhoodSelector;
+	int		neighborhoodFailuresLimit;
+	int		neighborhoodTimeLimit;
+	ParallelSearch parallelSearch;
 	
 //	/**
 //	 * This method executes the searchStrategy passed as the first parameter. 
@@ -95,6 +108,9 @@ abstract public class AbstractSolver implements Solver {
 		setTimeLimitStart();
 		setTimeLimitExceeded(false);
 		tolerance = 0;
+		neighborhoodSelector = new NeighborhoodSelectorRandom();
+		neighborhoodFailuresLimit = 100;
+		neighborhoodTimeLimit = UNLIMITED;
 		clearSolutions();
 		traceExecution(false);
 		traceSolutions(false);
@@ -123,6 +139,20 @@ abstract public class AbstractSolver implements Solver {
 		return searchStrategies;
 	}
 	
+	/**
+	 * Returns the schema that maps the variables of all search strategies to
+	 * the column indexes used by {@link BasicSolution}. The schema is shared by
+	 * all solutions and is rebuilt only when the strategy variables change.
+	 * 
+	 * @return the current solution schema
+	 */
+	public SolutionSchema getSolutionSchema() {
+		Vector<SearchStrategy> strategies = getSearchStrategies();
+		if (solutionSchema == null || !solutionSchema.isValidFor(strategies))
+			solutionSchema = new SolutionSchema(strategies);
+		return solutionSchema;
+	}
+	
 	/**
 	 * Returns the number of the last solution found, or 0 if no solutions have
 	 * been found yet (or the search for a solution was not yet launched).
@@ -189,6 +219,8 @@ abstract public class AbstractSolver implements Solver {
 	 * @return true if yes, false if no.
 	 */
 	public boolean checkTimeLimit() {
+		if (interrupted)
+			return true;
 		if (getTimeLimit() <= UNLIMITED)
 			return false;
 		long currTime = System.currentTimeMillis();
@@ -241,6 +273,38 @@ abstract public class AbstractSolver implements Solver {
 		timeLimitExceeded = exceeded;
 	}
 
+	/**
+	 * Asks this solver to stop the current search as soon as possible.
+	 * This method may be called from another thread, e.g. by a {@link Portfolio}
+	 * when another worker has already solved the problem.
+	 * An implementation should override this method to stop its native search.
+	 */
+	public void interrupt() {
+		interrupted = true;
+	}
+
+	/**
+	 * Returns true if the search of this solver was interrupted by interrupt()
+	 */
+	public boolean isInterrupted() {
+		return interrupted;
+	}
+
+	/**
+	 * Returns the portfolio this solver is working for, or null
+	 */
+	public Portfolio getPortfolio() {
+		return portfolio;
+	}
+
+	/**
+	 * Sets the portfolio this solver is working for. The solver will share
+	 * the objective values of its solutions with other workers of the portfolio.
+	 */
+	public void setPortfolio(Portfolio portfolio) {
+		this.portfolio = portfolio;
+	}
+
 	/**
 	 * Returns the time, in milliseconds, at which the time limit began
 	 * counting.
@@ -664,12 +728,62 @@ abstract public class AbstractSolver implements Solver {
         switch(optimizationStrategyName.toUpperCase()) {
             case "BASIC": setOptimizationStrategy(OptimizationStrategy.BASIC); break;
             case "DICHOTOMIZE": setOptimizationStrategy(OptimizationStrategy.DICHOTOMIZE); break;
+            case "LNS": setOptimizationStrategy(OptimizationStrategy.LNS); break;
             default: 
                 log("Unknown OptimizationStrategy '" + optimizationStrategyName +"'. Use OptimizationStrategy.BASIC");
                 setOptimizationStrategy(OptimizationStrategy.BASIC); break;
         }
     }
     
+    /**
+     * Returns the selector of the variables relaxed by one iteration of OptimizationStrategy.LNS
+     * @return NeighborhoodSelector
+     */
+    public NeighborhoodSelector getNeighborhoodSelector() {
+        return neighborhoodSelector;
+    }
+
+    /**
+     * Sets the selector of the variables relaxed by one iteration of OptimizationStrategy.LNS.
+     * The default selector is NeighborhoodSelectorRandom.
+     */
+    public void setNeighborhoodSelector(NeighborhoodSelector neighborhoodSelector) {
+        this.neighborhoodSelector = neighborhoodSelector;
+    }
+
+    /**
+     * Returns the number of failures allowed for one iteration of OptimizationStrategy.LNS
+     * @return the failures limit (0 means no limit)
+     */
+    public int getNeighborhoodFailuresLimit() {
+        return neighborhoodFailuresLimit;
+    }
+
+    /**
+     * Sets the number of failures allowed for one iteration of OptimizationStrategy.LNS 
+     * (100 by default, 0 means no limit)
+     */
+    public void setNeighborhoodFailuresLimit(int limit) {
+        neighborhoodFailuresLimit = limit;
+    }
+
+    /**
+     * Returns the time limit in milliseconds for one iteration of OptimizationStrategy.LNS
+     * @return the time limit (0 means no limit)
+     */
+    public int getNeighborhoodTimeLimit() {
+        return neighborhoodTimeLimit;
+    }
+
+    /**
+     * Sets the time limit in milliseconds for one iteration of OptimizationStrategy.LNS
+     * (0 by default that means no limit). The time limit of the entire LNS is
+     * defined by setTimeLimitGlobal().
+     */
+    public void setNeighborhoodTimeLimit(int mills) {
+        neighborhoodTimeLimit = mills;
+    }
+
     /**
      * Logs the OptimizationStrategy used by the method "findOptimalSolution"
      */
@@ -749,6 +863,8 @@ abstract public class AbstractSolver implements Solver {
 	 *         null if there are no solutions.
 	 */
 	public Solution findOptimalSolution(Objective objective, Var objectiveVar) {
+		if (optimizationStrategy.equals(OptimizationStrategy.LNS))
+			return findOptimalSolutionLNS(objective, objectiveVar);
 		return findOptimalSolutionBasic(objective, objectiveVar);
 	}
 	
@@ -810,7 +926,8 @@ abstract public class AbstractSolver implements Solver {
 		int bestValue = Integer.MAX_VALUE;
 		Solution solution = null;
 		int n = 0;
-		SolutionIterator iter = solutionIterator();
+		// every next solution is searched for from the root after posting a better objective
+		SolutionIterator iter = new BasicSolutionIterator(this);
 		while(iter.hasNext()) {
 			solution = iter.next();
 			int newValue = solution.getValue(obj.getName()); // RS
@@ -832,11 +949,15 @@ abstract public class AbstractSolver implements Solver {
 					break;		
 				}
 			}
+			if (isInterrupted())
+				break;
 			try {
 				if (isTraceExecution())
 					solution.log();
 				if (bestValue > newValue)
 					bestValue = newValue;
+				if (portfolio != null) // a better objective could be found by another worker
+					newValue = portfolio.improveObjective(this, solution, newValue);
 				getProblem().post(obj,"<",newValue); // may fail
 			} catch (Exception e) {
 				//log("Optimal solution is found. Best objective: "+bestValue);
@@ -875,6 +996,74 @@ abstract public class AbstractSolver implements Solver {
 		return findOptimalSolutionBasic(objective, objectiveVar);
 	}
 	
+	/**
+	 * This method attempts to find the solution that minimizes/maximizes the objective
+	 * variable using the Large Neighborhood Search (OptimizationStrategy.LNS).
+	 * The search is controlled by the NeighborhoodSelector, NeighborhoodFailuresLimit
+	 * and NeighborhoodTimeLimit for one iteration, and by TimeLimitGlobal and 
+	 * MaxNumberOfSolutions for the entire search.
+	 * @param objective Objective.MINIMIZE or Objective.MAXIMIZE
+	 * @param objectiveVar the variable that is being minimized/maximized
+	 * @return the best found solution or null if there are no solutions
+	 */
+	public Solution findOptimalSolutionLNS(Objective objective, Var objectiveVar) {
+		log("The method 'findOptimalSolutionLNS' should be implemented by a solver implementation.");
+		log("The default method 'findOptimalSolutionBasic' has been used.");
+		return findOptimalSolutionBasic(objective, objectiveVar);
+	}
+	
+	/**
+	 * This method attempts to find a solution by the parallel search on "threads" threads 
+	 * (0 means the number of available processors) - see ParallelSearch. 
+	 * Every thread solves its subproblems with its own replica of this problem 
+	 * created by "replicas". The search is limited by TimeLimitGlobal or by TimeLimit.
+	 * The found solution belongs to the problem of a replica.
+	 * @param replicas the factory of the problem replicas
+	 * @param threads the number of threads
+	 * @return a solution or null if there are no solutions
+	 */
+	public Solution findSolutionParallel(Portfolio.Worker replicas, int threads) {
+		parallelSearch = newParallelSearch(replicas, threads);
+		return parallelSearch.findSolution();
+	}
+	
+	/**
+	 * This method attempts to find the solution that minimizes/maximizes the objective
+	 * variable by the parallel search on "threads" threads (0 means the number 
+	 * of available processors) - see ParallelSearch. Every thread solves its subproblems
+	 * with its own replica of this problem created by "replicas", and all threads share 
+	 * the best objective value. The objective variable of a replica is found by the name 
+	 * of "objectiveVar". The search is limited by TimeLimitGlobal or by TimeLimit.
+	 * The found solution belongs to the problem of a replica.
+	 * @param objective Objective.MINIMIZE or Objective.MAXIMIZE
+	 * @param objectiveVar the variable that is being minimized/maximized
+	 * @param replicas the factory of the problem replicas
+	 * @param threads the number of threads
+	 * @return the best found solution or null if there are no solutions
+	 */
+	public Solution findOptimalSolutionParallel(Objective objective, Var objectiveVar, 
+			Portfolio.Worker replicas, int threads) {
+		parallelSearch = newParallelSearch(replicas, threads);
+		Solution solution = parallelSearch.findOptimalSolution(objective, objectiveVar.getName());
+		if (solution != null)
+			log("The best found solution objective: " + solution.getValue(objectiveVar.getName()));
+		return solution;
+	}
+	
+	ParallelSearch newParallelSearch(Portfolio.Worker replicas, int threads) {
+		ParallelSearch search = new ParallelSearch(this, replicas, threads);
+		int timeLimit = getTimeLimitGlobal() > 0 ? getTimeLimitGlobal() : getTimeLimit();
+		search.setTimeLimit(timeLimit);
+		return search;
+	}
+	
+	/**
+	 * Returns the latest parallel search executed by this solver, or null
+	 */
+	public ParallelSearch getParallelSearch() {
+		return parallelSearch;
+	}
+	
 	public int getOptimizationTolerance() {
 		return tolerance;
 	}
@@ -969,7 +1158,77 @@ abstract public class AbstractSolver implements Solver {
 		return array;		
 	}
 	
-
+	/**
+	 * This method attempts to find all solutions for the Problem and passes them 
+	 * one by one to the "handler" instead of accumulating them in memory. 
+	 * The search stops when the handler returns false, when MaxNumberOfSolutions 
+	 * is reached, or when the global time limit is exceeded.
+	 * <p>
+	 * The common implementation is based on the SolutionIterator. Solvers that 
+	 * can enumerate solutions within one search (like SolverWithGoals) override it.
+	 * @param handler the receiver of the found solutions
+	 * @return the number of solutions passed to the handler
+	 */
+	public int findAllSolutions(SolutionHandler handler) {
+		SolutionIterator iter = solutionIterator();
+		long startTime = System.currentTimeMillis();
+		int n = 0;
+		while(iter.hasNext()) {
+			Solution solution = iter.next();
+			n++;
+			if (!handler.handle(solution))
+				break;
+			if (getTimeLimitGlobal() > 0) {
+				if (System.currentTimeMillis() - startTime > getTimeLimitGlobal()) {
+					log("Global time limit " + getTimeLimitGlobal() + " mills has been exceeded.");
+					break;				
+				}
+			}
+			if (getMaxNumberOfSolutions() > 0) {
+				if (n == getMaxNumberOfSolutions()) {
+					log("Found MaxNumberOfSolutions=" + getMaxNumberOfSolutions());
+					break;				
+				}
+			}
+		}
+		return n;
+	}
+	
+	/**
+	 * Returns a lazy sequential stream of the problem solutions based on the SolutionIterator.
+	 * A next solution is searched for only when the stream consumer requests it, so
+	 * short-circuiting operations like limit() or anyMatch() stop the search early. 
+	 * For example:
+	 * <pre>
+	 * long n = solver.solutionStream().filter(s -&gt; s.getValue("x") &gt; 5).count();
+	 * </pre>
+	 * @return a stream of solutions
+	 */
+	public Stream<Solution> solutionStream() {
+		final SolutionIterator iter = solutionIterator();
+		Iterator<Solution> iterator = new Iterator<Solution>() {
+			Solution next = null;
+			boolean ready = false;
+			
+			public boolean hasNext() {
+				if (!ready) {
+					next = iter.hasNext() ? iter.next() : null;
+					ready = true;
+				}
+				return next != null;
+			}
+			
+			public Solution next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				ready = false;
+				return next;
+			}
+		};
+		Spliterator<Solution> spliterator = Spliterators.spliteratorUnknownSize(iterator, 
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false);
+	}
 	
 	/**
 	 * This method tries to resolve the problem by applying the Solution
@@ -1063,6 +1322,8 @@ abstract public class AbstractSolver implements Solver {
 		log("*** Execution Profile ***");
 		long executionTime = System.currentTimeMillis() - solverStartTime;
 		log("Execution time: " + executionTime + " msec");
+		if (parallelSearch != null)
+			parallelSearch.logStats();
 
 //		long occupied_memory = Runtime.getRuntime().totalMemory()
 //				- Runtime.getRuntime().freeMemory();
@@ -8,33 +8,35 @@
 //============================================= 
 package javax.constraints.impl.search;
 
-import java.util.ArrayList;
-
-/**
- * This class defines a solution to a Problem.
- * It includes all constrained variables that were added to the problem and are
- * instantiated using a Solver
- */
-
-import java.util.Iterator;
+import java.util.BitSet;
 import java.util.Set;
-import java.util.Vector;
 
 import javax.constraints.Problem;
-import javax.constraints.SearchStrategy;
 import javax.constraints.Solution;
 import javax.constraints.Solver;
 import javax.constraints.Var;
 import javax.constraints.VarReal;
 import javax.constraints.VarString;
 import javax.constraints.impl.AbstractProblem;
-import javax.constraints.VarString;
 
+/**
+ * This class defines a solution to a Problem.
+ * It includes all constrained variables that were added to the problem and are
+ * instantiated using a Solver.
+ * 
+ * The integer results are stored in columns: the variables and their names
+ * are kept in a {@link SolutionSchema} shared by all solutions of the same solver,
+ * and a solution itself keeps only an int[] of values and a bitset of bound variables.
+ * The upper bounds are stored only for solutions with unbound variables.
+ */
 public class BasicSolution implements Solution {
 	Solver 			solver;
 	int 			solutionNumber;
+	SolutionSchema	schema;
 	Var[]		 	vars; 
-	ResultInt[] 	intResults;
+	int[]			values;	// a value of a bound variable or a min of an unbound one
+	int[]			maxs;	// null if all variables are bound
+	BitSet			bound;
 	ResultReal[] 	realResults;
 	ResultSet[] 	setResults;
 	
@@ -42,27 +44,56 @@ public class BasicSolution implements Solution {
 		this.solver = solver;
 		this.solutionNumber = solutionNumber;
 		
-		Vector<SearchStrategy> searchStrategies = 
-			((AbstractSolver)solver).getSearchStrategies();
-		Vector<Var> allvars = new Vector<Var>();
-		for (SearchStrategy strategy : searchStrategies) {
-			Var[] strategyVars = strategy.getVars();
-			for (Var var : strategyVars) {
-				if (!allvars.contains(var))
-					allvars.add(var);
-			}
-		}
-		vars = new Var[allvars.size()];
-		intResults = new ResultInt[vars.length];
-		for (int i = 0; i < vars.length; i++) {
-			Var var = allvars.get(i);
-			vars[i] = var;
-			intResults[i] = createResult(var);
-		}
+		schema = ((AbstractSolver)solver).getSolutionSchema();
+		vars = schema.getVars();
+		values = new int[vars.length];
+		bound = new BitSet(vars.length);
+		load();
 		
 		// TODO: add loops for realResults and setResults
 	}
 	
+	/**
+	 * Creates a copy of the "solution" that does not change when the solution is updated
+	 */
+	public BasicSolution(BasicSolution solution) {
+		solver = solution.solver;
+		solutionNumber = solution.solutionNumber;
+		schema = solution.schema;
+		vars = solution.vars;
+		values = solution.values.clone();
+		maxs = solution.maxs == null ? null : solution.maxs.clone();
+		bound = (BitSet) solution.bound.clone();
+		realResults = solution.realResults;
+		setResults = solution.setResults;
+	}
+	
+	/**
+	 * Re-reads the current state of the solution variables into this solution.
+	 * It allows a solver to reuse one solution object when solutions are 
+	 * passed to a {@link SolutionHandler}.
+	 */
+	public void update() {
+		bound.clear();
+		load();
+	}
+	
+	void load() {
+		for (int i = 0; i < vars.length; i++) {
+			Var var = vars[i];
+			if (var.isBound()) {
+				values[i] = var.getValue();
+				bound.set(i);
+			}
+			else {
+				if (maxs == null)
+					maxs = new int[vars.length];
+				values[i] = var.getMin();
+				maxs[i] = var.getMax();
+			}
+		}
+	}
+	
 	public Solver getSolver() {
 		return solver;
 	}
@@ -126,12 +157,37 @@ public class BasicSolution implements Solution {
 	 * @return the number of decision integer variables in the solution
 	 */
 	public int getNumberOfVars() {
-		if (intResults != null)
-			return intResults.length;
+		if (values != null)
+			return values.length;
 		else
 			return 0;
 	}
 	
+	/**
+	 * @return the schema that maps the solution variables to their indexes
+	 */
+	public SolutionSchema getSchema() {
+		return schema;
+	}
+	
+	/**
+	 * Returns the index of the variable "var" in this solution
+	 * @param var a decision variable
+	 * @return the index of the variable or -1 if it is not a part of this solution
+	 */
+	public int getIndex(Var var) {
+		return schema.indexOf(var);
+	}
+	
+	/**
+	 * Returns the index of the variable with the name "name" in this solution
+	 * @param name the variable name
+	 * @return the index of the variable or -1 if it is not a part of this solution
+	 */
+	public int getIndex(String name) {
+		return schema.indexOf(name);
+	}
+	
 	/**
 	 * Returns the number of decision integer variables in the solution
 	 * @return the number of decision integer variables in the solution
@@ -155,10 +211,32 @@ public class BasicSolution implements Solution {
 	}
 	
 	public int getValue(String name){
-		int i = getIndexOfInt(name);
-		if(intResults[i].bound)
-			return intResults[i].value;
-		throw new RuntimeException("variable " + name + " is not bound");
+		return getValue(getIndexOfInt(name));
+	}
+	
+	/**
+	 * Returns the value of the solution variable "var"
+	 * @param var a decision variable
+	 * @return the value of the variable
+	 * @throws RuntimeException if the variable is not a part of this solution or is not bound
+	 */
+	public int getValue(Var var) {
+		int i = schema.indexOf(var);
+		if (i < 0)
+			throw new RuntimeException("ERROR: variable " + var.getName() + " not found in Solution");
+		return getValue(i);
+	}
+	
+	/**
+	 * Returns the value of the i-th solution variable
+	 * @param i the index of the variable
+	 * @return the value of the variable
+	 * @throws RuntimeException if the variable is not bound
+	 */
+	public int getValue(int i){
+		if(bound.get(i))
+			return values[i];
+		throw new RuntimeException("variable " + vars[i].getName() + " is not bound");
 	}
 	
 	/**
@@ -171,13 +249,6 @@ public class BasicSolution implements Solution {
 		return getValue(name);
 	}
 	
-//	public int getValue(int i){
-//		if(intResults[i].bound)
-//			return intResults[i].value;
-//		throw new RuntimeException("variable " + intResults[i].varName + " is not bound");
-//	}
-	
-	
 	public double getValueReal(String name){
 		int i = getIndexOfReal(name);
 		if(realResults[i].bound)
@@ -214,39 +285,36 @@ public class BasicSolution implements Solution {
 //	}
 
 	public int getMin(int i){
-		return intResults[i].min;
+		return values[i];
 	}
 	
 	public int getMin(String name){
-		int i = getIndexOfInt(name);
-		return intResults[i].min;
+		return getMin(getIndexOfInt(name));
 	}
 
 	public int getMax(int i){
-		return intResults[i].max;
+		if (bound.get(i))
+			return values[i];
+		return maxs[i];
 	}
 	
 	public int getMax(String name){
-		int i = getIndexOfInt(name);
-		return intResults[i].max;
+		return getMax(getIndexOfInt(name));
 	}
 
-//	public boolean isBound(int i){
-//		return intResults[i].bound;
-//	}
+	public boolean isBound(int i){
+		return bound.get(i);
+	}
 	
 	public boolean isBound(String name){
-		int i = getIndexOfInt(name);
-		return intResults[i].bound;
+		return isBound(getIndexOfInt(name));
 	}
 
 	private int getIndexOfInt(String name){
-		if (intResults != null)
-		for (int i = 0; i < intResults.length; i++) {
-			if(name.equals(intResults[i].varName))
-				return i;
-		}
-		throw new RuntimeException("ERROR: variable " + name + " not found in Solution");
+		int i = schema.indexOf(name);
+		if (i < 0)
+			throw new RuntimeException("ERROR: variable " + name + " not found in Solution");
+		return i;
 	}
 	
 	public double getMinReal(int i){
@@ -276,18 +344,20 @@ public class BasicSolution implements Solution {
 	}
 
 	public boolean isBound() {
-		for(int i=0; i < intResults.length; i++) {
-			if (!intResults[i].bound)
-				return false;
-		}
+		if (bound.cardinality() < values.length)
+			return false;
 //		// TODO for real and set
 		return true;
 	}
 		
 	public void save() {
-		if (intResults != null)
-		for (int i = 0; i < intResults.length; i++) {
-			intResults[i].save();
+		Problem p = getProblem();
+		for (int i = 0; i < values.length; i++) {
+			Var var = p.getVar(vars[i].getName());
+			if (var != null) {
+				p.post(var,">=",getMin(i));
+				p.post(var,"<=",getMax(i));
+			}
 		}
 		if (realResults != null)
 		for (int i = 0; i < realResults.length; i++) {
@@ -298,11 +368,10 @@ public class BasicSolution implements Solution {
 	static int varPerLine = 9;
 	public String toString() {
 		StringBuffer buf = new StringBuffer();
-		if (intResults != null)
-		for(int i=0; i < intResults.length; i++) {
+		for(int i=0; i < values.length; i++) {
 			if (i>0 && i%(varPerLine) == 0)
 				buf.append("\n\t");
-			buf.append(" " + intResults[i].toString());
+			buf.append(" " + toString(i));
 		}
 		return "Solution #"+solutionNumber+":\n\t"+ buf.toString();
 	}
@@ -324,8 +393,8 @@ public class BasicSolution implements Solution {
 	 * Logs integer variables of the solution in the information log
 	 */
 	public void logVars() {
-		for (int i = 0; i < intResults.length; i++) {
-			getProblem().log(intResults[i].toString());
+		for (int i = 0; i < values.length; i++) {
+			getProblem().log(toString(i));
 		}
 	}
 
@@ -347,49 +416,13 @@ public class BasicSolution implements Solution {
 		}
 	}
 	
-	ResultInt createResult(Var var) {
-		ResultInt result = new ResultInt();
-		result.varName = var.getName();
-		if (var.isBound()) {
-			result.value = var.getValue();
-			result.min = result.value;
-			result.max = result.value;
-			result.bound = true;
-		}
-		else {
-			result.min = var.getMin();
-			result.max = var.getMax();
-			result.bound = false;
-		}
-		return result;
-	}
-	
-	class ResultInt {
-		String varName;
-		int value;
-		int min;
-		int max;
-		boolean bound;
-		
-		public String toString(){
-			if (bound) {
-					return varName + "[" + value + "]";
-			}
-			else
-				return varName + "[" + min + ".." + max + "]";
-		}
-		
-		public void save() {
-			Problem p = getProblem();
-			Var var = p.getVar(varName);
-			if (var != null) {
-				p.post(var,">=",min);
-				p.post(var,"<=",max);
-			}
-		}
+	String toString(int i) {
+		if (bound.get(i))
+			return vars[i].getName() + "[" + values[i] + "]";
+		else
+			return vars[i].getName() + "[" + values[i] + ".." + maxs[i] + "]";
 	}
 	
-	
 	class ResultReal {
 		String varName;
 		double value;
@@ -23,9 +23,7 @@ package javax.constraints.impl.search;
  * </pre>
  */
 
-import java.util.Vector;
 
-import javax.constraints.SearchStrategy;
 import javax.constraints.Solution;
 import javax.constraints.SolutionIterator;
 import javax.constraints.Solver;
@@ -51,7 +49,7 @@ public class BasicSolutionIterator implements SolutionIterator {
 
 	@Override
 	public boolean hasNext() {
-		if (noSolutions)
+		if (noSolutions || solver.isInterrupted())
 			return false;
 		solver.setTimeLimitStart(); // reset TimeLimit for one solution search
 		solution = null;
@@ -90,21 +88,11 @@ public class BasicSolutionIterator implements SolutionIterator {
 			throw new RuntimeException("Cannot use SolutionIterator.next() before checking the hasNext() returned true");
 		solution.setSolutionNumber(++solutionNumber);
 		
-		Vector<SearchStrategy> searchStrategies = 
-			((AbstractSolver)solver).getSearchStrategies();
-		Vector<Var> strategyVars = new Vector<Var>();
-		for (SearchStrategy strategy : searchStrategies) {
-			Var[] vars = strategy.getVars();
-			for (Var var : vars) {
-				if (!strategyVars.contains(var))
-					strategyVars.add(var);
-			}
-		}
-		
-		Var[] vars = ((BasicSolution)solution).getVars();
+		BasicSolution basicSolution = (BasicSolution)solution;
+		Var[] vars = basicSolution.getVars();
 		int[] values = new int[vars.length];
 		for (int i = 0; i < values.length; i++) {
-			values[i] = solution.getValue(vars[i].getName());
+			values[i] = basicSolution.getValue(i);
 		}
 		try {
 			new ConstraintNotAllEqual(vars, values).post();
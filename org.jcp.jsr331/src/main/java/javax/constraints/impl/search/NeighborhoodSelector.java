@@ -0,0 +1,46 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search;
+
+import java.util.Random;
+
+import javax.constraints.Solution;
+import javax.constraints.Var;
+
+/**
+ * A neighborhood selector chooses the variables that are relaxed by one
+ * iteration of the Large Neighborhood Search (OptimizationStrategy.LNS).
+ * All other variables keep their values from the best found solution.
+ */
+abstract public class NeighborhoodSelector {
+	
+	protected Random random;
+	
+	public NeighborhoodSelector() {
+		random = new Random();
+	}
+	
+	/**
+	 * Sets the seed of the random generator used by this selector
+	 * @param seed a long
+	 */
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+
+	/**
+	 * Returns the indexes of the variables from "vars" to be relaxed
+	 * @param vars the decision variables
+	 * @param solution the best solution found so far
+	 * @param size the number of variables to be relaxed
+	 * @return an array of "size" different indexes
+	 */
+	abstract public int[] select(Var[] vars, Solution solution, int size);
+
+}
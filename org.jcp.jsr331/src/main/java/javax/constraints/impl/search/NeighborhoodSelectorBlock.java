@@ -0,0 +1,31 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search;
+
+import javax.constraints.Solution;
+import javax.constraints.Var;
+
+/**
+ * This selector relaxes a block of consecutive decision variables that starts
+ * at a random position (the block wraps around the end of the array). 
+ * It suits the models where the neighbor variables are related, e.g. the
+ * activities of a schedule ordered by their start times or by their resources.
+ */
+public class NeighborhoodSelectorBlock extends NeighborhoodSelector {
+
+	public int[] select(Var[] vars, Solution solution, int size) {
+		int start = random.nextInt(vars.length);
+		int[] selected = new int[size];
+		for (int i = 0; i < size; i++) {
+			selected[i] = (start + i) % vars.length;
+		}
+		return selected;
+	}
+
+}
@@ -0,0 +1,36 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search;
+
+import javax.constraints.Solution;
+import javax.constraints.Var;
+
+/**
+ * This selector relaxes a random subset of the decision variables
+ */
+public class NeighborhoodSelectorRandom extends NeighborhoodSelector {
+
+	public int[] select(Var[] vars, Solution solution, int size) {
+		int[] indexes = new int[vars.length];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = i;
+		}
+		// a partial Fisher-Yates shuffle
+		int[] selected = new int[size];
+		for (int i = 0; i < size; i++) {
+			int j = i + random.nextInt(indexes.length - i);
+			int index = indexes[j];
+			indexes[j] = indexes[i];
+			indexes[i] = index;
+			selected[i] = index;
+		}
+		return selected;
+	}
+
+}
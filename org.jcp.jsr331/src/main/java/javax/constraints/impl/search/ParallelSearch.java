@@ -0,0 +1,511 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+//
+// J S R  3 3 1
+//
+// Common Implementation
+//
+//=============================================
+package javax.constraints.impl.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.constraints.Objective;
+import javax.constraints.Problem;
+import javax.constraints.ProblemState;
+import javax.constraints.SearchStrategy;
+import javax.constraints.Solution;
+import javax.constraints.Solver;
+import javax.constraints.Var;
+import javax.constraints.impl.search.goal.Goal;
+import javax.constraints.impl.search.goal.GoalAssignValues;
+import javax.constraints.impl.search.goal.GoalSaveSolution;
+import javax.constraints.impl.search.goal.SolverWithGoals;
+
+/**
+ * A parallel search splits the search tree into many independent subproblems
+ * (Embarrassingly Parallel Search) and solves them on a fork-join pool:
+ * <ul>
+ * <li> the decomposition enumerates all consistent assignments of the first decision
+ * variables of the search strategies. The number of these "prefix" variables grows
+ * until there are at least SUBPROBLEMS_PER_THREAD subproblems per thread;
+ * <li> every subproblem fixes the prefix variables to one of these assignments.
+ * The subproblems are split in halves by fork-join tasks, so idle threads steal
+ * the remaining halves from the busy ones;
+ * <li> every thread solves its subproblems with its own replica of the problem
+ * created by a Portfolio.Worker. A replica that extends SolverWithGoals is reused
+ * for all subproblems of its thread, other replicas are created for every subproblem;
+ * <li> during optimization all threads share the best objective value: every
+ * subproblem requires an objective better than the best one found by any thread.
+ * </ul>
+ * The replicas must define the same problem with the same names of the variables.
+ * The found solutions belong to the problems of the replicas.
+ * The search stops after the first solution (findSolution), when all subproblems are
+ * solved (findOptimalSolution proves the optimality), or when the time limit is exceeded.
+ * <br>
+ * Example:
+ * <pre>
+ * Solution solution = solver.findOptimalSolutionParallel(Objective.MINIMIZE, cost,
+ *     () -&gt; defineProblem().getSolver(), 8);
+ * solver.logStats();
+ * </pre>
+ */
+public class ParallelSearch {
+
+	public static int SUBPROBLEMS_PER_THREAD = 30;
+
+	AbstractSolver solver;
+	Portfolio.Worker replicas;
+	int threads;
+	int timeLimit;
+
+	Objective objective;
+	String objectiveVarName;
+	String[] names;
+	ArrayList<int[]> subproblems;
+	boolean reuse;
+	Map<Thread, AbstractSolver> solvers;
+
+	boolean done;
+	boolean timeLimitExceeded;
+	Solution bestSolution;
+	AtomicInteger bestValue;
+
+	long startTime;
+	long decompositionTime;
+	long searchTime;
+	long steals;
+	AtomicInteger solvedSubproblems;
+	AtomicInteger numberOfSolutions;
+	Map<String, AtomicInteger> subproblemsPerThread;
+
+	/**
+	 * Creates a parallel search that reports to the "solver" and solves the subproblems
+	 * on "threads" threads (0 means the number of available processors)
+	 * with the problem replicas created by "replicas"
+	 */
+	public ParallelSearch(AbstractSolver solver, Portfolio.Worker replicas, int threads) {
+		this.solver = solver;
+		this.replicas = replicas;
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		timeLimit = AbstractSolver.UNLIMITED;
+		solvers = new ConcurrentHashMap<Thread, AbstractSolver>();
+		bestValue = new AtomicInteger(Integer.MAX_VALUE);
+		solvedSubproblems = new AtomicInteger(0);
+		numberOfSolutions = new AtomicInteger(0);
+		subproblemsPerThread = new ConcurrentHashMap<String, AtomicInteger>();
+	}
+
+	/**
+	 * Sets the time limit (in milliseconds) for the entire parallel search
+	 * including the decomposition
+	 */
+	public void setTimeLimit(int mills) {
+		timeLimit = mills;
+	}
+
+	public int getTimeLimit() {
+		return timeLimit;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Solves the subproblems in parallel and returns the first found solution
+	 * @return a solution or null if there are no solutions
+	 */
+	public Solution findSolution() {
+		return run(null, null);
+	}
+
+	/**
+	 * Solves the subproblems in parallel and returns the best found solution
+	 * for the variable with the name "objectiveVarName"
+	 * @return the best solution or null if there are no solutions
+	 */
+	public Solution findOptimalSolution(Objective objective, String objectiveVarName) {
+		return run(objective, objectiveVarName);
+	}
+
+	Solution run(Objective objective, String objectiveVarName) {
+		this.objective = objective;
+		this.objectiveVarName = objectiveVarName;
+		startTime = System.currentTimeMillis();
+		done = false;
+		timeLimitExceeded = false;
+		bestSolution = null;
+		bestValue.set(Integer.MAX_VALUE);
+		solvedSubproblems.set(0);
+		numberOfSolutions.set(0);
+		subproblemsPerThread.clear();
+		solvers.clear();
+
+		subproblems = decompose();
+		decompositionTime = System.currentTimeMillis() - startTime;
+		if (subproblems.isEmpty())
+			return null;
+
+		ForkJoinPool pool = new ForkJoinPool(threads, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+			public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("ParallelSearch-" + thread.getPoolIndex());
+				return thread;
+			}
+		}, null, false);
+		long start = System.currentTimeMillis();
+		try {
+			ForkJoinTask<Void> root = pool.submit(new Subproblems(0, subproblems.size()));
+			if (timeLimit > 0) {
+				long left = timeLimit - (start - startTime);
+				if (left <= 0)
+					throw new TimeoutException();
+				root.get(left, TimeUnit.MILLISECONDS);
+			}
+			else
+				root.get();
+		} catch (TimeoutException e) {
+			timeLimitExceeded = true;
+			log("ParallelSearch: time limit " + timeLimit + " mills has been exceeded");
+		} catch (Exception e) {
+			log("ParallelSearch: unexpected exception " + e);
+		} finally {
+			interrupt();
+			steals = pool.getStealCount();
+			pool.shutdownNow();
+			searchTime = System.currentTimeMillis() - start;
+		}
+		synchronized (this) {
+			return bestSolution;
+		}
+	}
+
+	/**
+	 * Enumerates the assignments of the prefix variables using a replica
+	 * created in the caller's thread
+	 */
+	ArrayList<int[]> decompose() {
+		AbstractSolver master = createReplica();
+		ArrayList<Var> vars = new ArrayList<Var>();
+		for (SearchStrategy strategy : master.getSearchStrategies()) {
+			Var[] strategyVars = strategy.getVars();
+			if (strategyVars == null)
+				continue;
+			for (Var var : strategyVars) {
+				if (var.isBound() || vars.contains(var) || var.getName().equals(objectiveVarName))
+					continue;
+				vars.add(var);
+			}
+		}
+		reuse = master instanceof SolverWithGoals;
+		int target = threads * SUBPROBLEMS_PER_THREAD;
+		ArrayList<int[]> result = new ArrayList<int[]>();
+		result.add(new int[0]);
+		names = new String[0];
+		for (int depth = 1; depth <= vars.size() && result.size() < target; depth++) {
+			if (depth > 1 && !reuse)
+				master = createReplica(); // the solution iterator may post constraints
+			Var[] prefix = new Var[depth];
+			String[] prefixNames = new String[depth];
+			for (int i = 0; i < depth; i++) {
+				prefixNames[i] = vars.get(i).getName();
+				prefix[i] = master.getProblem().getVar(prefixNames[i]);
+			}
+			ArrayList<int[]> assignments = enumerate(master, prefix, target * SUBPROBLEMS_PER_THREAD);
+			if (assignments == null)
+				break; // too many subproblems: keep the previous depth
+			result = assignments;
+			names = prefixNames;
+			if (result.isEmpty())
+				break; // the problem has no solutions
+		}
+		return result;
+	}
+
+	/**
+	 * @return all assignments of the "prefix" variables or null if the search finds more 
+	 * than "max" solutions. A solver may ignore the prefix strategy and enumerate 
+	 * the complete solutions, so the same assignments are skipped.
+	 */
+	ArrayList<int[]> enumerate(AbstractSolver master, Var[] prefix, final int max) {
+		final ArrayList<int[]> assignments = new ArrayList<int[]>();
+		final HashSet<String> keys = new HashSet<String>();
+		final int[] count = new int[1];
+		final String[] prefixNames = new String[prefix.length];
+		for (int i = 0; i < prefix.length; i++) {
+			prefixNames[i] = prefix[i].getName();
+		}
+		final boolean[] overflow = new boolean[1];
+		master.setSearchStrategy(prefix);
+		master.findAllSolutions(new SolutionHandler() {
+			public boolean handle(Solution solution) {
+				if (++count[0] > max) {
+					overflow[0] = true;
+					return false;
+				}
+				int[] values = new int[prefixNames.length];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = solution.getValue(prefixNames[i]);
+				}
+				if (keys.add(Arrays.toString(values)))
+					assignments.add(values);
+				return true;
+			}
+		});
+		return overflow[0] ? null : assignments;
+	}
+
+	/**
+	 * The fork-join task that solves the subproblems [from; to)
+	 */
+	class Subproblems extends RecursiveAction {
+		int from;
+		int to;
+
+		Subproblems(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) / 2;
+				invokeAll(new Subproblems(from, middle), new Subproblems(middle, to));
+				return;
+			}
+			if (isDone())
+				return;
+			if (solve(subproblems.get(from))) {
+				solvedSubproblems.incrementAndGet();
+				String thread = Thread.currentThread().getName();
+				subproblemsPerThread.computeIfAbsent(thread, t -> new AtomicInteger(0)).incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Solves the subproblem with the prefix "values" by the replica of the current thread
+	 * @return true if the subproblem is solved completely
+	 */
+	boolean solve(int[] values) {
+		Thread thread = Thread.currentThread();
+		AbstractSolver replica = reuse ? solvers.get(thread) : null;
+		try {
+			if (replica == null) {
+				replica = createReplica();
+				solvers.put(thread, replica);
+				if (isDone()) {
+					replica.interrupt();
+					return false;
+				}
+			}
+			if (reuse)
+				return solve((SolverWithGoals) replica, values);
+			return solve(replica, values);
+		} catch (Exception e) {
+			log("ParallelSearch: a subproblem failed: " + e);
+			return false;
+		}
+	}
+
+	/**
+	 * Solves the subproblem by the goals executed with ProblemState.RESTORE, so the same replica
+	 * solves the next subproblem. Every found solution requires a better objective
+	 * for the next execution.
+	 */
+	boolean solve(SolverWithGoals replica, int[] values) {
+		Problem p = replica.getProblem();
+		Goal prefix = null;
+		for (int i = 0; i < names.length; i++) {
+			Goal assign = replica.goalVarEqValue(p.getVar(names[i]), values[i]);
+			prefix = (prefix == null) ? assign : prefix.and(assign);
+		}
+		Goal search = replica.combineSearchStrategies();
+		Var objectiveVar = null;
+		if (objective != null) {
+			objectiveVar = p.getVar(objectiveVarName);
+			if (objectiveVar == null)
+				throw new RuntimeException("Cannot find the objective variable " + objectiveVarName);
+			search = search.and(new GoalAssignValues(replica, new Var[] { objectiveVar }));
+		}
+		search = search.and(new GoalSaveSolution(replica));
+		while (!isDone()) {
+			Goal goal = search;
+			int best = bestValue.get();
+			if (objective != null && best != Integer.MAX_VALUE) {
+				if (objective.equals(Objective.MAXIMIZE))
+					goal = replica.goalVarGeValue(objectiveVar, -best + 1).and(goal);
+				else
+					goal = replica.goalVarLeValue(objectiveVar, best - 1).and(goal);
+			}
+			if (prefix != null)
+				goal = prefix.and(goal);
+			if (timeLimit > 0) {
+				int left = (int) (timeLimit - (System.currentTimeMillis() - startTime));
+				if (left <= 0)
+					return false;
+				replica.setTimeLimit(left);
+				replica.setTimeLimitStart();
+			}
+			if (!replica.execute(goal, ProblemState.RESTORE))
+				return !replica.isInterrupted() && !replica.isTimeLimitExceeded();
+			if (replica.isInterrupted())
+				return false;
+			if (found(replica.getSolution()))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Solves the subproblem by a new replica with the posted prefix constraints
+	 */
+	boolean solve(AbstractSolver replica, int[] values) {
+		Problem p = replica.getProblem();
+		for (int i = 0; i < names.length; i++) {
+			p.post(p.getVar(names[i]), "=", values[i]);
+		}
+		if (timeLimit > 0) {
+			int left = (int) (timeLimit - (System.currentTimeMillis() - startTime));
+			if (left <= 0)
+				return false;
+			replica.setTimeLimit(left);
+		}
+		Solution solution;
+		if (objective == null)
+			solution = replica.findSolution();
+		else {
+			Var objectiveVar = p.getVar(objectiveVarName);
+			if (objectiveVar == null)
+				throw new RuntimeException("Cannot find the objective variable " + objectiveVarName);
+			int best = bestValue.get();
+			if (best != Integer.MAX_VALUE) {
+				if (objective.equals(Objective.MAXIMIZE))
+					p.post(objectiveVar, ">", -best);
+				else
+					p.post(objectiveVar, "<", best);
+			}
+			solution = replica.findOptimalSolution(objective, objectiveVar);
+		}
+		if (replica.isInterrupted() || replica.isTimeLimitExceeded())
+			return false;
+		if (solution != null)
+			found(solution);
+		return true;
+	}
+
+	/**
+	 * Offers the found solution to the search
+	 * @return true if the search stops after the first solution
+	 */
+	boolean found(Solution solution) {
+		numberOfSolutions.incrementAndGet();
+		if (objective == null) {
+			synchronized (this) {
+				if (!done && bestSolution == null)
+					bestSolution = solution;
+			}
+			interrupt();
+			return true;
+		}
+		int value = solution.getValue(objectiveVarName);
+		if (objective.equals(Objective.MAXIMIZE))
+			value = -value;
+		synchronized (this) {
+			if (!done && value < bestValue.get()) {
+				bestValue.set(value);
+				bestSolution = solution;
+				if (solver.isTraceSolutions())
+					log("ParallelSearch: found objective " + solution.getValue(objectiveVarName)
+							+ " in " + Thread.currentThread().getName());
+			}
+		}
+		return false;
+	}
+
+	synchronized boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * Interrupts all replicas of this search
+	 */
+	public void interrupt() {
+		synchronized (this) {
+			done = true;
+		}
+		for (AbstractSolver replica : solvers.values()) {
+			replica.interrupt();
+		}
+	}
+
+	AbstractSolver createReplica() {
+		Solver replica = replicas.create();
+		if (!(replica instanceof AbstractSolver))
+			throw new RuntimeException("ParallelSearch: a replica should extend AbstractSolver");
+		return (AbstractSolver) replica;
+	}
+
+	/**
+	 * @return true if the last search solved all subproblems within the time limit
+	 */
+	public boolean isCompleted() {
+		return !timeLimitExceeded && subproblems != null
+				&& solvedSubproblems.get() == subproblems.size();
+	}
+
+	public int getNumberOfSubproblems() {
+		return subproblems == null ? 0 : subproblems.size();
+	}
+
+	public int getNumberOfSolvedSubproblems() {
+		return solvedSubproblems.get();
+	}
+
+	public int getNumberOfSolutions() {
+		return numberOfSolutions.get();
+	}
+
+	/**
+	 * @return the number of the prefix variables fixed by every subproblem
+	 */
+	public int getPrefixLength() {
+		return names == null ? 0 : names.length;
+	}
+
+	public long getNumberOfSteals() {
+		return steals;
+	}
+
+	public void logStats() {
+		log("*** Parallel Search ***");
+		log("Threads: " + threads);
+		log("Prefix variables: " + getPrefixLength());
+		log("Subproblems: " + getNumberOfSubproblems() + " (solved " + getNumberOfSolvedSubproblems() + ")");
+		log("Solutions: " + getNumberOfSolutions());
+		log("Steals: " + steals);
+		for (String thread : new java.util.TreeSet<String>(subproblemsPerThread.keySet())) {
+			log(thread + ": " + subproblemsPerThread.get(thread) + " subproblems");
+		}
+		log("Decomposition time: " + decompositionTime + " msec");
+		log("Search time: " + searchTime + " msec");
+		if (objective != null && isCompleted())
+			log("The best found solution is optimal");
+	}
+
+	void log(String text) {
+		solver.log(text);
+	}
+}
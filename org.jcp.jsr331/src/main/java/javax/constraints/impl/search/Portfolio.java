@@ -0,0 +1,324 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+//
+// J S R  3 3 1
+//
+// Common Implementation
+//
+//=============================================
+package javax.constraints.impl.search;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.constraints.Objective;
+import javax.constraints.Solution;
+import javax.constraints.Solver;
+import javax.constraints.Var;
+
+/**
+ * A portfolio runs the same problem with several solver configurations
+ * (search strategies, optimization strategies, etc.) in parallel threads.
+ * Every worker defines its own instance of the problem in its own thread
+ * and returns a configured solver. The first worker that finds a solution,
+ * or proves the optimality of the best found objective, wins the race and
+ * all other workers are interrupted. A worker that completes its search
+ * without a solution proves that there is no solution (or no solution better
+ * than the best one shared between workers) and stops the race too.
+ * <br>
+ * During optimization all workers share the best objective value found so far:
+ * a worker that uses OptimizationStrategy.BASIC posts the bound "objective &lt; best"
+ * after every solution, where "best" may come from any worker of the portfolio.
+ * <br>
+ * ProblemFactory always creates the javax.constraints.impl.Problem found in
+ * the classpath, so all workers of one portfolio use the same implementation.
+ * Different implementations may be combined only when every worker loads its
+ * implementation with a separate class loader.
+ * <br>
+ * Example:
+ * <pre>
+ * Portfolio portfolio = new Portfolio("Queens");
+ * portfolio.add("MIN_DOMAIN", () -&gt; {
+ *     Problem p = defineQueens();
+ *     p.getSolver().getSearchStrategy().setVarSelectorType(VarSelectorType.MIN_DOMAIN);
+ *     return p.getSolver();
+ * });
+ * portfolio.add("RANDOM", () -&gt; { ... });
+ * Solution solution = portfolio.findSolution();
+ * </pre>
+ */
+public class Portfolio {
+
+	/**
+	 * A worker defines a new instance of the problem and returns its configured solver.
+	 * The method create() is called in the worker's thread.
+	 */
+	public interface Worker {
+		Solver create();
+	}
+
+	String name;
+	ArrayList<String> names;
+	ArrayList<Worker> workers;
+	int timeLimit;
+
+	Solver[] solvers;
+	boolean done;
+	Solution bestSolution;
+	int bestValue;
+	String winner;
+
+	public Portfolio(String name) {
+		this.name = name;
+		names = new ArrayList<String>();
+		workers = new ArrayList<Worker>();
+		timeLimit = AbstractSolver.UNLIMITED;
+	}
+
+	/**
+	 * Adds a worker with the name "name" to this portfolio
+	 */
+	public void add(String name, Worker worker) {
+		names.add(name);
+		workers.add(worker);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the number of workers in this portfolio
+	 */
+	public int size() {
+		return workers.size();
+	}
+
+	/**
+	 * Sets the time limit (in milliseconds) for the entire portfolio search.
+	 * When the time limit is exceeded all workers are interrupted and
+	 * the best solution found so far (if any) is returned.
+	 */
+	public void setTimeLimit(int mills) {
+		timeLimit = mills;
+	}
+
+	public int getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * @return the name of the worker that produced the returned solution or null
+	 */
+	public synchronized String getWinner() {
+		return winner;
+	}
+
+	/**
+	 * Runs all workers in parallel and returns the first found solution.
+	 * The solution belongs to the problem defined by the winning worker.
+	 * @return a solution or null if no worker found a solution
+	 */
+	public Solution findSolution() {
+		return run(null, null);
+	}
+
+	/**
+	 * Runs all workers in parallel and returns the best found solution.
+	 * Each worker optimizes the variable with the name "objectiveVarName" of its own problem.
+	 * The search stops as soon as one worker completes its optimization
+	 * (which proves that there is no solution better than the best one shared
+	 * between workers) or when the portfolio time limit is exceeded.
+	 * @return the best solution or null if no worker found a solution
+	 */
+	public Solution findOptimalSolution(Objective objective, String objectiveVarName) {
+		return run(objective, objectiveVarName);
+	}
+
+	Solution run(final Objective objective, final String objectiveVarName) {
+		int n = workers.size();
+		if (n == 0)
+			throw new RuntimeException("Portfolio " + name + " has no workers");
+		final Solver[] running = new Solver[n];
+		synchronized (this) {
+			solvers = running;
+			done = false;
+			bestSolution = null;
+			bestValue = Integer.MAX_VALUE;
+			winner = null;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(n, new ThreadFactory() {
+			int count = 0;
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, name + "-" + names.get(count++));
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		CompletionService<Integer> completion = new ExecutorCompletionService<Integer>(executor);
+		for (int i = 0; i < n; i++) {
+			final int index = i;
+			completion.submit(() -> {
+				work(running, index, objective, objectiveVarName);
+				return index;
+			});
+		}
+		long start = System.currentTimeMillis();
+		try {
+			for (int finished = 0; finished < n; finished++) {
+				Future<Integer> future;
+				if (timeLimit > 0) {
+					long left = timeLimit - (System.currentTimeMillis() - start);
+					future = left > 0 ? completion.poll(left, TimeUnit.MILLISECONDS) : null;
+					if (future == null) {
+						log("Portfolio " + name + ": time limit " + timeLimit + " mills has been exceeded");
+						break;
+					}
+				}
+				else
+					future = completion.take();
+				future.get();
+				synchronized (this) {
+					if (done)
+						break;
+				}
+			}
+		} catch (Exception e) {
+			log("Portfolio " + name + ": unexpected exception " + e);
+		} finally {
+			interrupt();
+			executor.shutdownNow();
+		}
+		synchronized (this) {
+			if (winner != null)
+				log("Portfolio " + name + ": the winner is " + winner);
+			return bestSolution;
+		}
+	}
+
+	/**
+	 * Runs the worker "index". The array "running" identifies the run: a worker
+	 * of a previous run that is still creating its problem must not join the current run.
+	 */
+	void work(Solver[] running, int index, Objective objective, String objectiveVarName) {
+		Solver solver = null;
+		Solution solution = null;
+		try {
+			solver = workers.get(index).create();
+			if (solver instanceof AbstractSolver)
+				((AbstractSolver) solver).setPortfolio(this);
+			synchronized (this) {
+				running[index] = solver;
+				if (done || solvers != running) {
+					interrupt(solver);
+					return;
+				}
+			}
+			if (objective == null) {
+				solution = solver.findSolution();
+			}
+			else {
+				Var objectiveVar = solver.getProblem().getVar(objectiveVarName);
+				if (objectiveVar == null)
+					throw new RuntimeException("Cannot find the objective variable " + objectiveVarName);
+				solution = solver.findOptimalSolution(objective, objectiveVar);
+			}
+		} catch (Exception e) {
+			String text = "Portfolio " + name + ": worker " + names.get(index) + " failed: " + e;
+			if (solver != null)
+				solver.getProblem().log(text);
+			else
+				log(text);
+			return;
+		}
+		if (solver instanceof AbstractSolver && ((AbstractSolver) solver).isInterrupted())
+			return;
+		// a search stopped by the solver's own time limit proves nothing
+		boolean completed = !(solver instanceof AbstractSolver && ((AbstractSolver) solver).isTimeLimitExceeded());
+		synchronized (this) {
+			if (done || solvers != running)
+				return;
+			if (solution != null) {
+				if (objective == null)
+					offer(index, solution, 0);
+				else {
+					int value = solution.getValue(objectiveVarName);
+					offer(index, solution, objective.equals(Objective.MAXIMIZE) ? -value : value);
+				}
+			}
+			// the worker completed its search: the best solution is found,
+			// or there is no solution (better than the shared one)
+			if (completed || (solution != null && objective == null))
+				done = true;
+		}
+	}
+
+	/**
+	 * This method is called by a worker's solver when it finds a solution with
+	 * the objective "value" (minimization is assumed, so a maximized objective is negated).
+	 * @return the best objective value found by all workers of this portfolio
+	 */
+	public synchronized int improveObjective(Solver solver, Solution solution, int value) {
+		if (!done) {
+			for (int i = 0; i < solvers.length; i++) {
+				if (solvers[i] == solver) {
+					offer(i, solution, value);
+					break;
+				}
+			}
+		}
+		return bestValue;
+	}
+
+	void offer(int index, Solution solution, int value) {
+		if (bestSolution == null || value < bestValue) {
+			bestSolution = solution;
+			bestValue = value;
+			winner = names.get(index);
+		}
+	}
+
+	/**
+	 * Interrupts all running workers of this portfolio
+	 */
+	public synchronized void interrupt() {
+		done = true;
+		if (solvers == null)
+			return;
+		for (Solver solver : solvers) {
+			if (solver != null)
+				interrupt(solver);
+		}
+	}
+
+	void interrupt(Solver solver) {
+		if (solver instanceof AbstractSolver)
+			((AbstractSolver) solver).interrupt();
+	}
+
+	/**
+	 * Logs "text" with the solver of the first worker that has created one.
+	 * Before any worker has created its solver there is no problem to log with.
+	 */
+	void log(String text) {
+		Solver logger = null;
+		synchronized (this) {
+			if (solvers != null) {
+				for (Solver solver : solvers) {
+					if (solver != null) {
+						logger = solver;
+						break;
+					}
+				}
+			}
+		}
+		if (logger != null)
+			logger.getProblem().log(text);
+	}
+}
@@ -0,0 +1,26 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search;
+
+/**
+ * A restart policy defines how many failures a restarted search may encounter
+ * before the next restart. It is used by the strategy
+ * {@link javax.constraints.impl.search.goal.GoalRestarts}.
+ */
+abstract public class RestartPolicy {
+
+	/**
+	 * Returns the number of failures allowed during the run that follows
+	 * the restart number "restart" (0 for the very first run)
+	 * @param restart the number of restarts already done
+	 * @return the failure cutoff, a positive number
+	 */
+	abstract public int getCutoff(int restart);
+
+}
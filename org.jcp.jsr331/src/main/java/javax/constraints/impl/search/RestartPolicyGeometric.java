@@ -0,0 +1,36 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search;
+
+/**
+ * This policy uses the geometrically growing cutoffs base*factor^i
+ */
+public class RestartPolicyGeometric extends RestartPolicy {
+	
+	int base;
+	double factor;
+
+	/**
+	 * Constructor
+	 * @param base the cutoff of the first run
+	 * @param factor the growth of the cutoff after every restart, at least 1
+	 */
+	public RestartPolicyGeometric(int base, double factor) {
+		if (base <= 0 || factor < 1)
+			throw new IllegalArgumentException("RestartPolicyGeometric: base should be positive and factor at least 1");
+		this.base = base;
+		this.factor = factor;
+	}
+
+	public int getCutoff(int restart) {
+		double cutoff = base * Math.pow(factor, restart);
+		return (int)Math.min(cutoff, Integer.MAX_VALUE);
+	}
+
+}
@@ -0,0 +1,54 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search;
+
+/**
+ * This policy uses the cutoffs scale*luby(i) where luby(i) is the universal
+ * sequence of Luby, Sinclair and Zuckerman: 1,1,2,1,1,2,4,1,1,2,1,1,2,4,8,...
+ * The sequence is within a logarithmic factor of the optimal restart strategy
+ * for any unknown run-time distribution, so it is a good default for
+ * heavy-tailed problems.
+ */
+public class RestartPolicyLuby extends RestartPolicy {
+	
+	int scale;
+
+	/**
+	 * Constructor
+	 * @param scale the number of failures that corresponds to the unit of the sequence
+	 */
+	public RestartPolicyLuby(int scale) {
+		if (scale <= 0)
+			throw new IllegalArgumentException("RestartPolicyLuby: scale should be positive");
+		this.scale = scale;
+	}
+
+	public int getCutoff(int restart) {
+		long cutoff = (long)scale * luby(restart+1);
+		return (int)Math.min(cutoff, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the i-th element (starting with 1) of the Luby sequence
+	 * @param i the position in the sequence
+	 * @return luby(i)
+	 */
+	public static long luby(int i) {
+		// luby(i) = 2^(k-1) if i = 2^k - 1, otherwise luby(i - 2^(k-1) + 1) for 2^(k-1) <= i < 2^k - 1
+		while (true) {
+			int k = 1;
+			while ((1L << k) - 1 < i)
+				k++;
+			if ((1L << k) - 1 == i)
+				return 1L << (k-1);
+			i -= (1 << (k-1)) - 1;
+		}
+	}
+
+}
@@ -0,0 +1,30 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search;
+
+import javax.constraints.Solution;
+
+/**
+ * A callback that receives solutions one by one from 
+ * {@link AbstractSolver#findAllSolutions(SolutionHandler)}. The solver does not 
+ * keep the found solutions, and the search continues only after the handler returns, 
+ * so a handler controls both the memory use and the pace of the enumeration.
+ * <p>
+ * The same Solution object may be reused by a solver for the next solution:
+ * a handler should copy the values it wants to keep.
+ */
+public interface SolutionHandler {
+
+	/**
+	 * Handles a newly found solution
+	 * @param solution the found solution (valid only during this call)
+	 * @return true to continue the search or false to stop it
+	 */
+	public boolean handle(Solution solution);
+}
@@ -0,0 +1,128 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+//
+// J S R  3 3 1
+//
+// Common Implementation
+//
+//=============================================
+package javax.constraints.impl.search;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Vector;
+
+import javax.constraints.SearchStrategy;
+import javax.constraints.Var;
+
+/**
+ * An immutable index of the decision variables saved in a {@link BasicSolution}.
+ * It maps every variable (and its name) to a column index, so all solutions
+ * produced by the same solver with the same search strategies share one schema
+ * and store only their values.
+ *
+ * A schema is created by {@link AbstractSolver#getSolutionSchema()} and is
+ * rebuilt only when the variables of the solver's search strategies change.
+ */
+public final class SolutionSchema {
+
+	private final Var[] vars;
+	private final IdentityHashMap<Var,Integer> indexByVar;
+	private final HashMap<String,Integer> indexByName;
+
+	// the arrays of strategy variables this schema was built from
+	private final Var[][] sources;
+
+	SolutionSchema(Vector<SearchStrategy> searchStrategies) {
+		sources = new Var[searchStrategies.size()][];
+		indexByVar = new IdentityHashMap<Var,Integer>();
+		indexByName = new HashMap<String,Integer>();
+		int size = 0;
+		for (int s = 0; s < sources.length; s++) {
+			Var[] strategyVars = searchStrategies.get(s).getVars();
+			sources[s] = strategyVars;
+			if (strategyVars != null)
+				size += strategyVars.length;
+		}
+		Var[] all = new Var[size];
+		int n = 0;
+		for (Var[] strategyVars : sources) {
+			if (strategyVars == null)
+				continue;
+			for (Var var : strategyVars) {
+				if (indexByVar.containsKey(var))
+					continue;
+				indexByVar.put(var, n);
+				String name = var.getName();
+				if (name != null && !indexByName.containsKey(name))
+					indexByName.put(name, n);
+				all[n++] = var;
+			}
+		}
+		if (n < size) {
+			vars = new Var[n];
+			System.arraycopy(all, 0, vars, 0, n);
+		}
+		else
+			vars = all;
+	}
+
+	/**
+	 * Returns true if this schema still describes the variables of "searchStrategies"
+	 */
+	boolean isValidFor(Vector<SearchStrategy> searchStrategies) {
+		if (searchStrategies.size() != sources.length)
+			return false;
+		for (int s = 0; s < sources.length; s++) {
+			if (searchStrategies.get(s).getVars() != sources[s])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of variables (columns) in this schema
+	 */
+	public int size() {
+		return vars.length;
+	}
+
+	/**
+	 * @return the variables of this schema in column order. The returned array should not be modified.
+	 */
+	public Var[] getVars() {
+		return vars;
+	}
+
+	/**
+	 * @return the variable at the column "index"
+	 */
+	public Var getVar(int index) {
+		return vars[index];
+	}
+
+	/**
+	 * @return the column index of the variable "var" or -1 if it is not a part of this schema
+	 */
+	public int indexOf(Var var) {
+		Integer index = indexByVar.get(var);
+		return index == null ? -1 : index.intValue();
+	}
+
+	/**
+	 * @return the column index of the first variable with the name "name" or -1 if there is no such variable
+	 */
+	public int indexOf(String name) {
+		if (name == null)
+			return -1;
+		Integer index = indexByName.get(name);
+		if (index != null && name.equals(vars[index].getName()))
+			return index.intValue();
+		// a variable could be renamed after this schema was built
+		for (int i = 0; i < vars.length; i++) {
+			if (name.equals(vars[i].getName()))
+				return i;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,39 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search.goal;
+
+import javax.constraints.Var;
+
+/**
+ * A decision "var = value" made by GoalAssignValues. The decisions are linked
+ * to their parents, so the last decision gives the current search path: a
+ * positive decision is on the path by its branch "var = value", a negative
+ * one - by its branch "var != value".
+ */
+class Decision {
+	final int index;
+	final Var var;
+	final int value;
+	final Decision parent;
+	final int[] sizes;   // the domain sizes before the decision or null
+	boolean positive;
+	boolean propagated;
+
+	Decision(int index, Var var, int value, Decision parent, int[] sizes) {
+		this.index = index;
+		this.var = var;
+		this.value = value;
+		this.parent = parent;
+		this.sizes = sizes;
+	}
+
+	public String toString() {
+		return var.getName() + (positive ? "=" : "!=") + value;
+	}
+}
@@ -0,0 +1,84 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search.goal;
+
+import javax.constraints.ValueSelector;
+import javax.constraints.Var;
+
+/**
+ * This goal assigns a value to a variable as GoalAssignValue does, and reports
+ * the outcome of every decision to the owner GoalAssignValues. The owner feeds 
+ * an adaptive variable selector and counts the failures for the restarts
+ * and for the failures limit.
+ */
+public class GoalAssignValueLearning extends GoalAssignValue {
+	GoalAssignValues owner;
+	int index;
+
+	public GoalAssignValueLearning(GoalAssignValues owner, Var var, int index, ValueSelector valueSelector) {
+		super(var, valueSelector);
+		this.owner = owner;
+		this.index = index;
+	}
+
+	public Goal execute() throws Exception {
+		trace();
+		if (owner.isStopped()) {
+			getSolver().backtrack();
+			return null;
+		}
+		if (var.isBound())
+			return null;
+
+		int value = getValueSelector().select(var);
+		Decision decision = owner.newDecision(index, var, value);
+		Goal goalAssignValue = getSolver().goalVarEqValue(var, value);
+		Goal goalRemoveValue = getSolver().goalVarNeqValue(var, value);
+		Goal goalPropagated = new GoalDecisionPropagated(decision);
+		Goal goalFailed = new GoalDecisionFailed(decision);
+		return goalAssignValue.and(goalPropagated).or(goalFailed.and(goalRemoveValue).and(this));
+	}
+	
+	/**
+	 * Executed when the decision "var = value" is propagated
+	 */
+	class GoalDecisionPropagated extends Goal {
+		Decision decision;
+		
+		GoalDecisionPropagated(Decision decision) {
+			super(GoalAssignValueLearning.this.getSolver(), "Propagated " + decision.var);
+			this.decision = decision;
+		}
+		
+		public Goal execute() throws Exception {
+			owner.decisionPropagated(decision);
+			return null;
+		}
+	}
+	
+	/**
+	 * Executed before the branch "var != value", i.e. when the decision "var = value" 
+	 * or the search below it failed
+	 */
+	class GoalDecisionFailed extends Goal {
+		Decision decision;
+		
+		GoalDecisionFailed(Decision decision) {
+			super(GoalAssignValueLearning.this.getSolver(), "Failed " + decision.var);
+			this.decision = decision;
+		}
+		
+		public Goal execute() throws Exception {
+			if (!owner.decisionFailed(decision))
+				getSolver().backtrack();
+			return null;
+		}
+	}
+
+}
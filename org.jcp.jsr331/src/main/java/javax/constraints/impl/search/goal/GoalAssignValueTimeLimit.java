@@ -37,10 +37,8 @@ public class GoalAssignValueTimeLimit extends Goal {
 
 	    int value = valueSelector.select(var);
 
-	    Constraint assign = p.linear(var, "=", value);
-		Goal goalAssignValue = new GoalConstraint(assign);
-		Constraint remove = p.linear(var, "!=", value);
-		Goal goalRemoveValue = new GoalConstraint(remove);
+	    Goal goalAssignValue = new GoalConstraint(solver.decision(var, "=", value));
+		Goal goalRemoveValue = new GoalConstraint(solver.decision(var, "!=", value));
 	    return goalAssignValue.or(goalRemoveValue.and(this));
 	}
 
@@ -14,6 +14,7 @@ import javax.constraints.Solver;
 import javax.constraints.ValueSelector;
 import javax.constraints.Var;
 import javax.constraints.VarSelector;
+import javax.constraints.impl.search.selectors.AbstractLearningVarSelector;
 import javax.constraints.impl.search.selectors.ValueSelectorMin;
 import javax.constraints.impl.search.selectors.VarSelectorInputOrder;
 
@@ -22,6 +23,12 @@ public class GoalAssignValues extends Goal {
 //	VarSelector 		varSelector;
 //	ValueSelector 		valueSelector;
 	protected Goal[] 	goals;
+	boolean				learningGoals;
+	GoalRestarts		restarts;
+	Decision			current;
+	int					failuresLimit;
+	int					failures;
+	boolean				failuresLimitReached;
 	
 	/**
 	 * Creates a Goal that instantiates (assign values to) all variables inside the
@@ -69,11 +76,24 @@ public class GoalAssignValues extends Goal {
 			return;
 		goals = new Goal[vars.length];
 		ValueSelector valueSelector = getValueSelector();
+		learningGoals = isLearning();
 		for(int i=0; i<vars.length; i++) {
-			goals[i] = new GoalAssignValue(vars[i],valueSelector);
+			if (learningGoals)
+				goals[i] = new GoalAssignValueLearning(this,vars[i],i,valueSelector);
+			else
+				goals[i] = new GoalAssignValue(vars[i],valueSelector);
 		}
 	}
 	
+	/**
+	 * Returns true if the decisions of this goal are reported to an adaptive
+	 * variable selector or to the restarts
+	 */
+	boolean isLearning() {
+		return restarts != null || failuresLimit > 0 
+				|| getVarSelector() instanceof AbstractLearningVarSelector;
+	}
+	
 	public void setVars(Var[] vars) {
 		this.vars = vars;
 		setGoals(vars);
@@ -86,6 +106,92 @@ public class GoalAssignValues extends Goal {
 			setGoals(vars);
 	}
 	
+	@Override
+	public void setVarSelector(VarSelector varSelector) {
+		this.varSelector = varSelector;
+		if (vars != null && learningGoals != isLearning())
+			setGoals(vars);
+	}
+	
+	void setRestarts(GoalRestarts restarts) {
+		this.restarts = restarts;
+		if (vars != null)
+			setGoals(vars);
+	}
+	
+	/**
+	 * Limits the number of failures of this goal counted since the last 
+	 * resetFailures(). When the limit is reached, the search fails as if 
+	 * there were no more solutions. 0 means no limit (default).
+	 * @param limit the maximal number of failures
+	 */
+	public void setFailuresLimit(int limit) {
+		failuresLimit = limit;
+		if (vars != null && learningGoals != isLearning())
+			setGoals(vars);
+	}
+	
+	public int getFailuresLimit() {
+		return failuresLimit;
+	}
+	
+	/**
+	 * Starts a new count of failures for the failures limit
+	 */
+	public void resetFailures() {
+		failures = 0;
+		failuresLimitReached = false;
+	}
+	
+	/**
+	 * Returns true if the last search was stopped by the failures limit
+	 * @return true if the failures limit has been reached
+	 */
+	public boolean isFailuresLimitReached() {
+		return failuresLimitReached;
+	}
+	
+	/**
+	 * Returns true if the search should fail without trying the next decisions
+	 */
+	boolean isStopped() {
+		return failuresLimitReached || (restarts != null && restarts.isRestarting());
+	}
+	
+	Decision newDecision(int index, Var var, int value) {
+		int[] sizes = null;
+		if (getVarSelector() instanceof AbstractLearningVarSelector)
+			sizes = ((AbstractLearningVarSelector)getVarSelector()).getDomainSizes();
+		return new Decision(index, var, value, current, sizes);
+	}
+	
+	void decisionPropagated(Decision decision) {
+		decision.positive = true;
+		decision.propagated = true;
+		current = decision;
+		if (decision.sizes != null)
+			((AbstractLearningVarSelector)getVarSelector()).decisionPropagated(decision.index, decision.sizes);
+	}
+	
+	/**
+	 * Returns false if the search should fail instead of trying "var != value"
+	 */
+	boolean decisionFailed(Decision decision) {
+		if (isStopped())
+			return false;
+		decision.positive = false;
+		current = decision;
+		if (!decision.propagated && getVarSelector() instanceof AbstractLearningVarSelector)
+			((AbstractLearningVarSelector)getVarSelector()).decisionFailed(decision.index);
+		if (failuresLimit > 0 && ++failures > failuresLimit) {
+			failuresLimitReached = true;
+			return false;
+		}
+		if (restarts != null && restarts.failure(decision))
+			return false;
+		return true;
+	}
+	
 	@Override
 	public void setVars(ArrayList<Var> varList) {
 		Var[] vars = new Var[varList.size()];
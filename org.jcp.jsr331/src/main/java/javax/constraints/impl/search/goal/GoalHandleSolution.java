@@ -0,0 +1,69 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search.goal;
+
+import javax.constraints.Solver;
+import javax.constraints.impl.search.BasicSolution;
+import javax.constraints.impl.search.SolutionHandler;
+
+/**
+ * This goal passes a newly found solution to a SolutionHandler and then 
+ * backtracks to search for the next solution. It succeeds (and so finishes the search)
+ * when the handler returns false, when MaxNumberOfSolutions is reached, or when
+ * the global time limit is exceeded. 
+ * One BasicSolution object is reused for all solutions.
+ */
+public class GoalHandleSolution extends Goal {
+
+	SolutionHandler handler;
+	BasicSolution solution;
+	int numberOfSolutions;
+	long startTime;
+
+	public GoalHandleSolution(Solver solver, SolutionHandler handler) {
+		super(solver, "handleSolution");
+		this.handler = handler;
+		solution = null;
+		numberOfSolutions = 0;
+		startTime = System.currentTimeMillis();
+	}
+	
+	/**
+	 * @return the number of solutions passed to the handler
+	 */
+	public int getNumberOfSolutions() {
+		return numberOfSolutions;
+	}
+
+	public Goal execute() throws Exception {
+		trace();
+		SolverWithGoals solver = getSolver();
+		numberOfSolutions++;
+		if (solution == null)
+			solution = new BasicSolution(solver, numberOfSolutions);
+		else {
+			solution.update();
+			solution.setSolutionNumber(numberOfSolutions);
+		}
+		if (!handler.handle(solution))
+			return null; // finish search
+		int max = solver.getMaxNumberOfSolutions();
+		if (max > 0 && numberOfSolutions >= max) {
+			solver.log("Found MaxNumberOfSolutions=" + max);
+			return null; 
+		}
+		int timeLimit = solver.getTimeLimitGlobal();
+		if (timeLimit > 0 && System.currentTimeMillis() - startTime > timeLimit) {
+			solver.log("Global time limit " + timeLimit + " mills has been exceeded.");
+			return null; 
+		}
+		solver.backtrack(); // continue search
+		return null;
+	}
+}
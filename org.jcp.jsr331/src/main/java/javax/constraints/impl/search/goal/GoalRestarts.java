@@ -0,0 +1,245 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search.goal;
+
+import java.util.ArrayList;
+
+import javax.constraints.Constraint;
+import javax.constraints.Problem;
+import javax.constraints.Solver;
+import javax.constraints.ValueSelector;
+import javax.constraints.ValueSelectorType;
+import javax.constraints.Var;
+import javax.constraints.VarSelector;
+import javax.constraints.VarSelectorType;
+import javax.constraints.impl.search.RestartPolicy;
+
+/**
+ * This goal executes the search of a GoalAssignValues with restarts. Every run of 
+ * the search is limited by the number of failures defined by a restart policy. 
+ * When the limit is reached, the search fails up to this goal that starts it again 
+ * with the next limit. Because the limits grow, the search remains complete.
+ * <br>
+ * At every restart the goal records the nogoods of the abandoned search path
+ * (as JaCoP's NoGoodsCollector does): for every branch "x != a" on the path, 
+ * the decisions "y = b" above it together with "x = a" cannot be extended to
+ * a solution, so the constraint "y != b or ... or x != a" is posted 
+ * for the following runs.
+ * <br>
+ * The selectors of the search are delegated to the GoalAssignValues, so the 
+ * restarts are usually combined with an adaptive variable selector that keeps
+ * learning across the runs:
+ * <pre>
+ * GoalRestarts strategy = new GoalRestarts(solver, vars, new RestartPolicyLuby(100));
+ * strategy.setVarSelectorType(VarSelectorType.MIN_DOMAIN_OVER_WEIGHTED_DEGREE);
+ * solver.setSearchStrategy(strategy);
+ * </pre>
+ * The restarts are meant for the search of one solution and for the optimization.
+ */
+public class GoalRestarts extends Goal {
+	
+	GoalAssignValues search;
+	RestartPolicy policy;
+	boolean recordNogoods;
+	boolean restarting;
+	int numberOfRestarts;
+	int numberOfNogoods;
+	int failures;
+	int cutoff;
+	ArrayList<Decision[]> nogoods;
+
+	public GoalRestarts(GoalAssignValues search, RestartPolicy policy) {
+		super(search.getSolver(), "Restarts");
+		this.search = search;
+		this.policy = policy;
+		recordNogoods = true;
+		nogoods = new ArrayList<Decision[]>();
+		search.setRestarts(this);
+	}
+	
+	/**
+	 * This is equivalent to GoalRestarts(new GoalAssignValues(solver,vars),policy);
+	 */
+	public GoalRestarts(Solver solver, Var[] vars, RestartPolicy policy) {
+		this(new GoalAssignValues(solver,vars),policy);
+	}
+	
+	/**
+	 * This is equivalent to GoalRestarts(new GoalAssignValues(solver),policy);
+	 */
+	public GoalRestarts(Solver solver, RestartPolicy policy) {
+		this(new GoalAssignValues(solver),policy);
+	}
+
+	public Goal execute() throws Exception {
+		trace();
+		if (restarting) {
+			restarting = false;
+			numberOfRestarts++;
+			postNogoods();
+		}
+		else {
+			numberOfRestarts = 0;
+			numberOfNogoods = 0;
+			nogoods.clear();
+		}
+		failures = 0;
+		cutoff = policy.getCutoff(numberOfRestarts);
+		search.current = null;
+		return search.or(new GoalRestart());
+	}
+	
+	/**
+	 * Counts a failure of the search. Returns true if the search should restart.
+	 */
+	boolean failure(Decision decision) {
+		if (++failures < cutoff)
+			return false;
+		restarting = true;
+		if (recordNogoods)
+			collectNogoods(decision);
+		return true;
+	}
+	
+	/**
+	 * Collects the nogoods of the search path that ends with the decision
+	 */
+	void collectNogoods(Decision decision) {
+		ArrayList<Decision> path = new ArrayList<Decision>();
+		for (Decision d = decision; d != null; d = d.parent) {
+			path.add(0, d);
+		}
+		ArrayList<Decision> positives = new ArrayList<Decision>();
+		for (Decision d : path) {
+			if (d.positive) {
+				positives.add(d);
+				continue;
+			}
+			Decision[] nogood = positives.toArray(new Decision[positives.size()+1]);
+			nogood[positives.size()] = d;
+			nogoods.add(nogood);
+		}
+	}
+	
+	void postNogoods() {
+		Problem p = getProblem();
+		for (Decision[] nogood : nogoods) {
+			Constraint c = null;
+			for (Decision d : nogood) {
+				Constraint neq = p.linear(d.var, "!=", d.value);
+				c = (c == null) ? neq : c.or(neq);
+			}
+			c.post();
+		}
+		numberOfNogoods += nogoods.size();
+		nogoods.clear();
+	}
+	
+	boolean isRestarting() {
+		return restarting;
+	}
+	
+	/**
+	 * Returns the search executed by this goal
+	 * @return GoalAssignValues
+	 */
+	public GoalAssignValues getSearch() {
+		return search;
+	}
+	
+	public RestartPolicy getRestartPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Defines if the nogoods should be recorded at the restarts (true by default)
+	 * @param flag a boolean
+	 */
+	public void setRecordNogoods(boolean flag) {
+		recordNogoods = flag;
+	}
+	
+	public boolean isRecordNogoods() {
+		return recordNogoods;
+	}
+	
+	/**
+	 * Returns the number of restarts done by the last search
+	 * @return the number of restarts
+	 */
+	public int getNumberOfRestarts() {
+		return numberOfRestarts;
+	}
+	
+	/**
+	 * Returns the number of nogoods posted by the last search
+	 * @return the number of nogoods
+	 */
+	public int getNumberOfNogoods() {
+		return numberOfNogoods;
+	}
+	
+	@Override
+	public Var[] getVars() {
+		return search.getVars();
+	}
+
+	@Override
+	public void setVars(Var[] vars) {
+		search.setVars(vars);
+	}
+	
+	@Override
+	public VarSelector getVarSelector() {
+		return search.getVarSelector();
+	}
+	
+	@Override
+	public void setVarSelector(VarSelector varSelector) {
+		search.setVarSelector(varSelector);
+	}
+	
+	@Override
+	public void setVarSelectorType(VarSelectorType varSelectorType) {
+		search.setVarSelectorType(varSelectorType);
+	}
+	
+	@Override
+	public ValueSelector getValueSelector() {
+		return search.getValueSelector();
+	}
+	
+	@Override
+	public void setValueSelector(ValueSelector valueSelector) {
+		search.setValueSelector(valueSelector);
+	}
+	
+	@Override
+	public void setValueSelectorType(ValueSelectorType valueSelectorType) {
+		search.setValueSelectorType(valueSelectorType);
+	}
+	
+	/**
+	 * Executed when the search failed: starts the search again if the failure
+	 * was caused by a restart, otherwise fails
+	 */
+	class GoalRestart extends Goal {
+		
+		GoalRestart() {
+			super(GoalRestarts.this.getSolver(), "Restart");
+		}
+		
+		public Goal execute() throws Exception {
+			if (!restarting)
+				getSolver().backtrack();
+			return GoalRestarts.this;
+		}
+	}
+
+}
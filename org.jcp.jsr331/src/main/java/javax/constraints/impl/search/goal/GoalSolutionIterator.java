@@ -0,0 +1,47 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search.goal;
+
+import javax.constraints.Solution;
+import javax.constraints.SolutionIterator;
+import javax.constraints.impl.search.BasicSolution;
+
+/**
+ * A SolutionIterator for solvers with goals. All solutions are found by one search
+ * that is suspended after every solution (see SolutionProducer), so the iteration
+ * does not post constraints, does not remember the returned solutions and does not
+ * restart the search. Every call of next() returns a copy of the current solution
+ * because callers may keep the solutions they receive.
+ * The problem state is restored when hasNext() returns false or when close() is called.
+ */
+public class GoalSolutionIterator implements SolutionIterator {
+
+	SolutionProducer producer;
+
+	GoalSolutionIterator(SolutionProducer producer) {
+		this.producer = producer;
+	}
+
+	public boolean hasNext() {
+		return producer.hasNext();
+	}
+
+	public Solution next() {
+		if (!producer.hasNext())
+			throw new RuntimeException("Cannot use SolutionIterator.next() before checking the hasNext() returned true");
+		return new BasicSolution((BasicSolution)producer.next());
+	}
+
+	/**
+	 * Stops the search of this iterator before its end and restores the problem state
+	 */
+	public void close() {
+		producer.close();
+	}
+}
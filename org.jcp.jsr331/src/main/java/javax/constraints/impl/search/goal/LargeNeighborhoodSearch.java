@@ -0,0 +1,233 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search.goal;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashSet;
+
+import javax.constraints.Objective;
+import javax.constraints.ProblemState;
+import javax.constraints.SearchStrategy;
+import javax.constraints.Solution;
+import javax.constraints.Var;
+import javax.constraints.impl.AbstractProblem;
+import javax.constraints.impl.search.BasicSolution;
+import javax.constraints.impl.search.NeighborhoodSelector;
+
+/**
+ * This class is used by the Solver's method "findOptimalSolutionLNS". Its method
+ * "execute" minimizes or maximizes the variable "objectiveVar" by the Large Neighborhood Search:
+ * <ul>
+ * <li> the first solution is found by the current search strategy;
+ * <li> every iteration relaxes the variables chosen by the solver's NeighborhoodSelector,
+ * fixes all other decision variables to their values in the best solution, 
+ * requires a better objective and re-solves this neighborhood with the
+ * failures limit and the time limit per iteration;
+ * <li> an improving solution becomes the best one. After STAGNATION iterations without 
+ * improvements the neighborhood grows by half. When the neighborhood covers 
+ * all variables, the failures limit doubles after every iteration that reached it,
+ * and an iteration completed within the limits proves that the best solution is optimal.
+ * </ul>
+ * The search stops when the optimality is proven, when the global time limit is
+ * exceeded, when MaxNumberOfSolutions is reached, or when the solver is interrupted.
+ * The failures limit applies to the strategies GoalAssignValues and GoalRestarts.
+ * The problem state is restored after every iteration.
+ */
+
+public class LargeNeighborhoodSearch {
+	
+	public static int STAGNATION = 10;
+
+	SolverWithGoals solver;
+	AbstractProblem p;
+	Objective objective;
+	Var objectiveVar;
+	Goal searchGoal;
+	Var[] vars;
+	ArrayList<GoalAssignValues> searches;
+	NeighborhoodSelector selector;
+	int failuresLimit;
+	int timeLimit;
+	int timeLimitGlobal;
+	int tolerance;
+	Solution solution;
+	int bestValue;
+	boolean limitReached;
+	int numberOfSolutions;
+	int numberOfIterations;
+
+	public LargeNeighborhoodSearch(SolverWithGoals solver, Objective objective, Var objectiveVar) {
+		this.solver = solver;
+		p = (AbstractProblem)solver.getProblem();
+		this.objective = objective;
+		this.objectiveVar = objectiveVar;
+		if (objectiveVar.getName().isEmpty())
+			objectiveVar.setName("Objective"); 
+		if (p.getVar(objectiveVar.getName()) == null) {
+			p.add(objectiveVar);
+		}
+		searchGoal = solver.combineSearchStrategies();
+		searchGoal = searchGoal.and(new GoalSaveSolution(solver));
+		
+		LinkedHashSet<Var> decisionVars = new LinkedHashSet<Var>();
+		searches = new ArrayList<GoalAssignValues>();
+		for (SearchStrategy strategy : solver.getSearchStrategies()) {
+			if (strategy instanceof GoalRestarts)
+				searches.add(((GoalRestarts)strategy).getSearch());
+			else if (strategy instanceof GoalAssignValues)
+				searches.add((GoalAssignValues)strategy);
+			Var[] strategyVars = strategy.getVars();
+			if (strategyVars == null)
+				continue;
+			for (Var var : strategyVars) {
+				if (var != objectiveVar)
+					decisionVars.add(var);
+			}
+		}
+		vars = decisionVars.toArray(new Var[decisionVars.size()]);
+		
+		selector = solver.getNeighborhoodSelector();
+		failuresLimit = solver.getNeighborhoodFailuresLimit();
+		timeLimit = solver.getNeighborhoodTimeLimit();
+		timeLimitGlobal = solver.getTimeLimitGlobal();
+		tolerance = solver.getOptimizationTolerance();
+		solution = null;
+		bestValue = 0;
+	}
+
+	/**
+	 * Executes the Large Neighborhood Search
+	 * @return the best found solution or null
+	 */
+	public Solution execute() {
+		long startTime = System.currentTimeMillis();
+		int oldTimeLimit = solver.getTimeLimit();
+		int[] oldFailuresLimits = new int[searches.size()];
+		for (int i = 0; i < oldFailuresLimits.length; i++) {
+			oldFailuresLimits[i] = searches.get(i).getFailuresLimit();
+		}
+		try {
+			if (!solve(null, 0, oldTimeLimit))
+				return null;
+			int n = vars.length;
+			int size = Math.min(n, Math.max(2, n / 10));
+			int limit = failuresLimit;
+			int mills = timeLimit;
+			int stagnation = 0;
+			while (true) {
+				int iterationMills = mills;
+				if (timeLimitGlobal > 0) {
+					long remaining = timeLimitGlobal - (System.currentTimeMillis() - startTime);
+					if (remaining <= 0) {
+						p.log("LNS: Global time limit " + timeLimitGlobal + " mills has been exceeded.");
+						break;
+					}
+					if (iterationMills <= 0 || iterationMills > remaining)
+						iterationMills = (int)remaining;
+				}
+				int max = solver.getMaxNumberOfSolutions();
+				if (max > 0 && numberOfSolutions >= max) {
+					p.log("LNS: The search is interrupted: MaxNumberOfSolutions " + max + " has been reached");
+					break;
+				}
+				if (solver.isInterrupted())
+					break;
+				numberOfIterations++;
+				int[] relaxed = selector.select(vars, solution, size);
+				if (solve(relaxed, limit, iterationMills)) {
+					stagnation = 0;
+					continue;
+				}
+				if (size == n) {
+					if (!limitReached) {
+						p.log("LNS: Optimal solution is proven after " + numberOfIterations + " iterations");
+						break;
+					}
+					if (limit > 0)
+						limit = (int)Math.min(2L * limit, Integer.MAX_VALUE);
+					if (mills > 0)
+						mills = (int)Math.min(2L * mills, Integer.MAX_VALUE);
+				}
+				else if (++stagnation >= STAGNATION || !limitReached) {
+					size = Math.min(n, size + Math.max(1, size / 2));
+					stagnation = 0;
+				}
+			}
+		} finally {
+			solver.setTimeLimit(oldTimeLimit);
+			for (int i = 0; i < oldFailuresLimits.length; i++) {
+				searches.get(i).setFailuresLimit(oldFailuresLimits[i]);
+			}
+		}
+		p.log("LNS: Best objective " + bestValue + " after " + numberOfIterations + " iterations");
+		return solution;
+	}
+	
+	/**
+	 * Searches for a solution better than the best one where only the "relaxed" 
+	 * variables may change. If "relaxed" is null, searches for the first solution.
+	 * @return true if a better solution is found
+	 */
+	boolean solve(int[] relaxed, int limit, int mills) {
+		Goal goal = searchGoal;
+		if (relaxed != null) {
+			boolean[] free = new boolean[vars.length];
+			for (int i = 0; i < relaxed.length; i++) {
+				free[relaxed[i]] = true;
+			}
+			BasicSolution best = (BasicSolution)solution;
+			for (int i = vars.length - 1; i >= 0; i--) {
+				int index = best.getIndex(vars[i]);
+				if (free[i] || index < 0 || !best.isBound(index))
+					continue;
+				goal = solver.goalVarEqValue(vars[i], best.getValue(index)).and(goal);
+			}
+			if (objective.equals(Objective.MAXIMIZE))
+				goal = solver.goalVarGeValue(objectiveVar, bestValue + tolerance + 1).and(goal);
+			else
+				goal = solver.goalVarLeValue(objectiveVar, bestValue - tolerance - 1).and(goal);
+		}
+		for (GoalAssignValues search : searches) {
+			search.setFailuresLimit(limit);
+			search.resetFailures();
+		}
+		solver.setTimeLimit(mills);
+		solver.setTimeLimitStart();
+		long start = System.currentTimeMillis();
+		boolean found;
+		try {
+			found = solver.execute(goal, ProblemState.RESTORE);
+		} catch (Exception e) {
+			p.log("LNS: Unexpected exception during the search of neighborhood #" + numberOfIterations);
+			p.log(e.toString());
+			found = false;
+		}
+		limitReached = (mills > 0 && System.currentTimeMillis() - start >= mills);
+		for (GoalAssignValues search : searches) {
+			if (search.isFailuresLimitReached())
+				limitReached = true;
+		}
+		if (!found)
+			return false;
+		numberOfSolutions++;
+		solution = solver.getSolution();
+		solution.setSolutionNumber(numberOfSolutions);
+		bestValue = solution.getValue(objectiveVar.getName());
+		if (solver.isTraceSolutions())
+			p.log("LNS: Found solution #" + numberOfSolutions + " objective=" + bestValue
+					+ ". " + Calendar.getInstance().getTime());
+		return true;
+	}
+	
+	public int getNumberOfIterations() {
+		return numberOfIterations;
+	}
+	
+}
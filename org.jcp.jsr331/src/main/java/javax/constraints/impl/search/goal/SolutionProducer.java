@@ -0,0 +1,141 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//============================================= 
+package javax.constraints.impl.search.goal;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.constraints.Solution;
+import javax.constraints.impl.search.SolutionHandler;
+
+/**
+ * This class turns the handler-based enumeration SolverWithGoals.findAllSolutions(handler)
+ * into an Iterator. The search runs in its own thread and is suspended inside the handler
+ * after every found solution until the consumer asks for the next one, so all solutions
+ * are found by one search that is never restarted, and nothing is kept for the returned
+ * solutions: the search reuses one BasicSolution object for all of them.
+ * <p>
+ * Only one of the two threads works at a time. While the search is suspended it is
+ * still in progress: the problem state is restored when the search reaches its end or
+ * when close() is called. SolverWithGoals closes the suspended search before it starts
+ * another one.
+ */
+class SolutionProducer implements SolutionHandler, Iterator<Solution> {
+
+	SolverWithGoals solver;
+	Thread thread;
+	Solution solution;	// the latest found solution, valid until the next one is requested
+	boolean ready;		// "solution" has not been returned by next() yet
+	boolean requested;	// the consumer waits for the next solution
+	boolean finished;	// the search is over
+	boolean closed;		// the consumer does not want more solutions
+	RuntimeException error;
+
+	SolutionProducer(SolverWithGoals solver) {
+		this.solver = solver;
+	}
+
+	/**
+	 * Resumes the search until it finds the next solution or finishes
+	 */
+	public synchronized boolean hasNext() {
+		if (ready)
+			return true;
+		if (finished || closed)
+			return false;
+		if (thread == null) {
+			thread = new Thread(new Runnable() {
+				public void run() {
+					search();
+				}
+			}, "SolutionProducer");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		requested = true;
+		notifyAll();
+		try {
+			while (requested && !finished)
+				wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new RuntimeException("The solution search has been interrupted");
+		}
+		if (error != null)
+			throw error;
+		ready = !requested;
+		return ready;
+	}
+
+	/**
+	 * @return the next solution: the same object is updated for every solution
+	 */
+	public synchronized Solution next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		ready = false;
+		return solution;
+	}
+
+	/**
+	 * Called by the search thread for every found solution:
+	 * waits until the consumer requests the next solution or closes this producer
+	 */
+	public synchronized boolean handle(Solution solution) {
+		this.solution = solution;
+		requested = false;
+		notifyAll();
+		try {
+			while (!requested && !closed)
+				wait();
+		} catch (InterruptedException e) {
+			closed = true;
+		}
+		return !closed;
+	}
+
+	void search() {
+		try {
+			solver.findAllSolutions(this);
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				error = e;
+			}
+		} finally {
+			synchronized (this) {
+				finished = true;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Stops the search and waits until it has restored the problem state
+	 */
+	public synchronized void close() {
+		closed = true;
+		ready = false;
+		notifyAll();
+		boolean interrupted = false;
+		while (thread != null && !finished) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	synchronized boolean isSearchThread() {
+		return Thread.currentThread() == thread;
+	}
+}
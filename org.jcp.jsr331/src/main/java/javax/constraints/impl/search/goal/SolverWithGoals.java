@@ -1,6 +1,10 @@
 package javax.constraints.impl.search.goal;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.Vector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.constraints.Constraint;
 import javax.constraints.Objective;
@@ -9,15 +13,20 @@ import javax.constraints.ProblemState;
 import javax.constraints.SearchStrategy;
 import javax.constraints.SearchStrategy.SearchStrategyType;
 import javax.constraints.Solution;
+import javax.constraints.SolutionIterator;
 import javax.constraints.Var;
 import javax.constraints.VarSet;
 import javax.constraints.extra.PropagationEvent;
+import javax.constraints.impl.AbstractProblem;
 import javax.constraints.impl.BasicVarSet;
 import javax.constraints.impl.search.AbstractSolver;
+import javax.constraints.impl.search.SolutionHandler;
 import javax.constraints.impl.search.goal.Dichotomize;
 
 abstract public class SolverWithGoals extends AbstractSolver {
 	
+	SolutionProducer producer; // the search of the latest solution iterator or stream
+	
 	public SolverWithGoals(Problem problem) {
 		super(problem);
 //		if (this.getProblem().getVars() != null ) {
@@ -93,22 +102,33 @@ abstract public class SolverWithGoals extends AbstractSolver {
 	
 	abstract public boolean execute(Goal goal, ProblemState restoreOrNot);
 	
+	/**
+	 * Creates the constraint "var oper value" of a search decision without keeping it 
+	 * in the problem: a search creates such constraints for every choice point, 
+	 * so the problem would grow with the number of explored nodes.
+	 */
+	Constraint decision(Var var, String oper, int value) {
+		Constraint c = getProblem().linear(var, oper, value);
+		((AbstractProblem)getProblem()).remove(c);
+		return c;
+	}
+	
 	public Goal goalVarEqValue(Var var,int value) {
-		Constraint assign = getProblem().linear(var, "=", value);
+		Constraint assign = decision(var, "=", value);
 		Goal goalAssignValue = new GoalConstraint(assign);
 		goalAssignValue.setName("Assign " + value + " to " + var);
 		return goalAssignValue;
 	}
 	
 	public Goal goalVarNeqValue(Var var,int value) {
-		Constraint remove = getProblem().linear(var, "!=", value);
+		Constraint remove = decision(var, "!=", value);
 		Goal goalRemoveValue = new GoalConstraint(remove);
 		goalRemoveValue.setName("Remove " + value + " from " + var);
 		return goalRemoveValue;
 	}
 	
 	public Goal goalVarLeValue(Var var,int value) {
-		Constraint c = getProblem().linear(var, "<=", value);
+		Constraint c = decision(var, "<=", value);
 		c.setName("" + var + " <= "+ value);
 		Goal goalLeValue = new GoalConstraint(c);
 		
@@ -116,7 +136,7 @@ abstract public class SolverWithGoals extends AbstractSolver {
 	}
 	
 	public Goal goalVarGeValue(Var var,int value) {
-		Constraint c = getProblem().linear(var, ">=", value);
+		Constraint c = decision(var, ">=", value);
 		c.setName("" + var + " >= "+ value);
 		Goal goalGeValue = new GoalConstraint(c);
 		return goalGeValue;
@@ -175,6 +195,7 @@ abstract public class SolverWithGoals extends AbstractSolver {
 	 * @return a Solution if the search is successful or null 
 	 */
 	public Solution findSolution(ProblemState restoreOrNot) {
+		closeSuspendedSearch();
 		clearSolutions();
 		Solution solution = null;
 		
@@ -218,6 +239,7 @@ abstract public class SolverWithGoals extends AbstractSolver {
 	 * @return Solution[]
 	 */
 	public Solution[] findAllSolutions() {
+		closeSuspendedSearch();
 		clearSolutions();
 		Goal searchGoal = combineSearchStrategies();
 		Goal addGoal = new GoalAddSolution(this,-1);
@@ -234,6 +256,80 @@ abstract public class SolverWithGoals extends AbstractSolver {
 		return getSolutions();
 	}
 	
+	/**
+	 * This method finds all solutions within one search and passes them to the "handler"
+	 * without accumulating them in memory. It does not post an additional constraint 
+	 * for every found solution. The same Solution object is reused for all solutions.
+	 * The solution iterator and the solution stream of this solver are built on it.
+	 * The search stops when the handler returns false, when MaxNumberOfSolutions 
+	 * is reached, or when the global time limit is exceeded.
+	 * The problem state is restored after the search.
+	 * @param handler the receiver of the found solutions
+	 * @return the number of solutions passed to the handler
+	 */
+	public int findAllSolutions(SolutionHandler handler) {
+		closeSuspendedSearch();
+		clearSolutions();
+		Goal searchGoal = combineSearchStrategies();
+		GoalHandleSolution handleGoal = new GoalHandleSolution(this, handler);
+		execute(searchGoal.and(handleGoal),ProblemState.RESTORE); 
+		return handleGoal.getNumberOfSolutions();
+	}
+	
+	/**
+	 * Returns a SolutionIterator driven by one search that is suspended after every
+	 * found solution (see SolutionProducer), so nothing is posted or remembered for 
+	 * the returned solutions. The search is closed when the iteration reaches its end, 
+	 * when the iterator is closed, when another search of this solver starts, 
+	 * or when a constraint is posted: the iteration then ends. 
+	 * To post a constraint after every solution, e.g. a better objective, 
+	 * call findSolution(ProblemState.RESTORE) in a loop or use findOptimalSolution.
+	 */
+	public SolutionIterator solutionIterator() {
+		return new GoalSolutionIterator(newSolutionProducer());
+	}
+	
+	/**
+	 * Returns a lazy stream of solutions driven by one search that is suspended after
+	 * every found solution (see SolutionProducer). The stream reuses one Solution object:
+	 * a solution is valid only until the next one is requested, so copy the values 
+	 * you want to keep. The search is closed when the stream reaches its end, 
+	 * when the stream is closed, or when another search of this solver starts. 
+	 * A stream that may be abandoned before its end, e.g. by limit() or anyMatch(),
+	 * should be used in a try-with-resources statement.
+	 * @return a stream of solutions
+	 */
+	public Stream<Solution> solutionStream() {
+		final SolutionProducer producer = newSolutionProducer();
+		Spliterator<Solution> spliterator = Spliterators.spliteratorUnknownSize(producer, 
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(new Runnable() {
+			public void run() {
+				producer.close();
+			}
+		});
+	}
+	
+	SolutionProducer newSolutionProducer() {
+		closeSuspendedSearch();
+		producer = new SolutionProducer(this);
+		return producer;
+	}
+	
+	/**
+	 * Closes the suspended search of the latest solution iterator or stream, 
+	 * so that the problem state is restored before another search starts
+	 * or before the problem is changed. It does nothing when called by 
+	 * the suspended search itself.
+	 */
+	public void closeSuspendedSearch() {
+		SolutionProducer current = producer;
+		if (current == null || current.isSearchThread())
+			return;
+		producer = null;
+		current.close();
+	}
+	
 	public Goal makeGoal(SearchStrategy strategy) {
 		Goal goal;
 		if (strategy.getType().equals(SearchStrategyType.CUSTOM))
@@ -253,6 +349,21 @@ abstract public class SolverWithGoals extends AbstractSolver {
 		return combinedGoal;
 	}
 	
+	/**
+	 * This method finds the best solution by the Large Neighborhood Search 
+	 * (OptimizationStrategy.LNS) - see LargeNeighborhoodSearch.
+	 */
+	public Solution findOptimalSolutionLNS(Objective objective, Var objectiveVar) {
+		closeSuspendedSearch();
+		addObjective(objectiveVar);
+		LargeNeighborhoodSearch lns = new LargeNeighborhoodSearch(this, objective, objectiveVar);
+		Solution solution = lns.execute();
+		if (solution != null)
+			log("The best found solution objective: "
+					+solution.getValue(objectiveVar.getName()));
+		return solution;
+	}
+	
 	/**
 	 * The actual minimization algorithm executes a dichotomized search. During
 	 * the search it modifies an interval [objectiveMin; objectiveMax]. First it
@@ -263,7 +374,7 @@ abstract public class SolverWithGoals extends AbstractSolver {
 	 * Successful search stops when (objectiveMax - objectiveMin) is less or equal to tolerance.
 	 */
 	public Solution findOptimalSolutionDichotomize(Objective objective, Var objectiveVar) {
-		
+		closeSuspendedSearch();
 		long startTime = System.currentTimeMillis();
 		if (objectiveVar.getName().isEmpty())
 			objectiveVar.setName("Objective"); 
@@ -430,6 +541,7 @@ abstract public class SolverWithGoals extends AbstractSolver {
 	 *         otherwise.
 	 */
 	public boolean applySolution(Solution solution)	{
+		closeSuspendedSearch();
 		return execute(new GoalApplySolution(solution));
 	}
 	
@@ -0,0 +1,156 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//=============================================
+package javax.constraints.impl.search.selectors;
+
+import javax.constraints.SearchStrategy;
+import javax.constraints.Var;
+
+/**
+ * This is a base class for the adaptive variable selectors that learn from
+ * the previous decisions of the search. The strategy that uses such a selector
+ * (see GoalAssignValues) reports every decision "var = value" to the selector:
+ * <ul>
+ * <li> decisionPropagated() when the decision was propagated without a failure;
+ * <li> decisionFailed() when the propagation of the decision failed.
+ * </ul>
+ * The selector keeps for every variable:
+ * <ul>
+ * <li> a weight: 1 plus the number of failed decisions on this variable
+ * (the implementation independent approximation of the weighted degree);
+ * <li> an activity: the number of times its domain was reduced by the decisions,
+ * decayed by ACTIVITY_DECAY after every decision;
+ * <li> an impact: the average reduction of the search space (the product of
+ * the domain sizes) by the decisions on this variable, 1 for a failure.
+ * </ul>
+ * The selector selects the unbound variable with the largest score(), with the
+ * ties broken by the smallest domain. The statistics survive restarts.
+ */
+abstract public class AbstractLearningVarSelector extends AbstractVarSelector {
+	
+	public static double ACTIVITY_DECAY = 0.999;
+	
+	double[] weights;
+	double[] activities;
+	double[] impacts;
+	int[] impactCounts;
+
+	public AbstractLearningVarSelector(SearchStrategy strategy) {
+		super(strategy);
+	}
+	
+	/**
+	 * Returns the score of the unbound variable with the index "index" 
+	 * and the domain size "size". The larger is better.
+	 */
+	abstract protected double score(int index, int size);
+
+	/**
+	 * Returns the index of the unbound variable with the largest score.
+	 * If no variables to select, it returns -1;
+	 */
+	public int select() {
+		Var[] vars = getVars();
+		init(vars.length);
+		int bestIndex = -1;
+		double bestScore = 0;
+		int bestSize = 0;
+		for(int i=0; i < vars.length; i++) {
+			Var var = vars[i];
+			if (var.isBound())
+				continue;
+			int size = var.getDomainSize();
+			double score = score(i, size);
+			if (bestIndex == -1 || score > bestScore || (score == bestScore && size < bestSize)) {
+				bestIndex = i;
+				bestScore = score;
+				bestSize = size;
+			}
+		}
+		return bestIndex;
+	}
+	
+	void init(int n) {
+		if (weights != null && weights.length == n)
+			return;
+		weights = new double[n];
+		java.util.Arrays.fill(weights, 1);
+		activities = new double[n];
+		impacts = new double[n];
+		impactCounts = new int[n];
+	}
+	
+	/**
+	 * Returns the current domain sizes of the variables. The strategy 
+	 * takes them before a decision and passes them to decisionPropagated().
+	 * @return an array of domain sizes
+	 */
+	public int[] getDomainSizes() {
+		Var[] vars = getVars();
+		int[] sizes = new int[vars.length];
+		for (int i = 0; i < vars.length; i++) {
+			sizes[i] = vars[i].getDomainSize();
+		}
+		return sizes;
+	}
+	
+	/**
+	 * Updates the activities and the impact after the decision on the variable
+	 * with the index "index" was propagated.
+	 * @param index the index of the decision variable
+	 * @param sizes the domain sizes before the decision
+	 */
+	public void decisionPropagated(int index, int[] sizes) {
+		Var[] vars = getVars();
+		init(vars.length);
+		double logBefore = 0;
+		double logAfter = 0;
+		for (int i = 0; i < vars.length; i++) {
+			int size = vars[i].getDomainSize();
+			activities[i] *= ACTIVITY_DECAY;
+			if (size < sizes[i])
+				activities[i] += 1;
+			logBefore += Math.log(sizes[i]);
+			logAfter += Math.log(size);
+		}
+		updateImpact(index, 1 - Math.exp(logAfter - logBefore));
+	}
+	
+	/**
+	 * Updates the weight, the activity and the impact after the decision on the 
+	 * variable with the index "index" failed.
+	 * @param index the index of the decision variable
+	 */
+	public void decisionFailed(int index) {
+		init(getVars().length);
+		weights[index] += 1;
+		for (int i = 0; i < activities.length; i++) {
+			activities[i] *= ACTIVITY_DECAY;
+		}
+		activities[index] += 1;
+		updateImpact(index, 1);
+	}
+	
+	void updateImpact(int index, double impact) {
+		int count = ++impactCounts[index];
+		impacts[index] += (impact - impacts[index]) / count;
+	}
+
+	public double getWeight(int index) {
+		return weights == null ? 1 : weights[index];
+	}
+
+	public double getActivity(int index) {
+		return activities == null ? 0 : activities[index];
+	}
+
+	public double getImpact(int index) {
+		return impacts == null ? 0 : impacts[index];
+	}
+
+}
@@ -0,0 +1,37 @@
+//=============================================
+// J A V A  C O M M U N I T Y  P R O C E S S
+// 
+// J S R  3 3 1
+// 
+// Common Implementation
+// 
+//=============================================
+package javax.constraints.impl.search.selectors;
+
+/**
+ * This class creates an adaptive selector that selects an unbound constrained
+ * variable from a given array of variables by this criteria:
+ * "largest number of recorded failures, min domain tie break"
+ */
+
+import javax.constraints.SearchStrategy;
+import javax.constraints.VarSelectorType;
+
+public class VarSelectorMaxWeightedDegree extends AbstractLearningVarSelector {
+	
+	public VarSelectorType getType() {
+		return VarSelectorType.MAX_WEIGHTED_DEGREE;
+	}
+
+	/**
+	 * Constructor from SearchStrategy strategy
+	 */
+	public VarSelectorMaxWeightedDegree(SearchStrategy strategy) {
+		super(strategy);
+	}
+
+	protected double score(int index, int size) {
+		return getWeight(index);
+	}
+
+}